@@ -0,0 +1,7 @@
+package com.xingmiao.blog.app.ai;
+
+/**
+ * 命名 SSE 事件
+ */
+public record AiEvent(String name, Object data) {
+}
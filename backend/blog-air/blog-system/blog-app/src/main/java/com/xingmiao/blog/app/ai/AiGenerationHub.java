@@ -0,0 +1,215 @@
+package com.xingmiao.blog.app.ai;
+
+import com.xingmiao.blog.app.config.AiCacheProperties;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * AI 生成入口：相同请求（模型 + 完整提示词）命中缓存时直接回放结果；
+ * 已有相同生成在进行时加入并共享输出；否则发起新的生成。
+ */
+@Component
+public class AiGenerationHub {
+
+    private final StreamingChatModel streamingChatModel;
+    private final AiStreamExecutor executor;
+    private final AiResultCache cache;
+    private final AiCacheProperties properties;
+    private final String modelName;
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, SharedGeneration> inflight = new ConcurrentHashMap<>();
+
+    public AiGenerationHub(StreamingChatModel streamingChatModel,
+                           AiStreamExecutor executor,
+                           AiResultCache cache,
+                           AiCacheProperties properties,
+                           @Value("${langchain4j.open-ai.streaming-chat-model.model-name:}") String modelName,
+                           MeterRegistry registry) {
+        this.streamingChatModel = streamingChatModel;
+        this.executor = executor;
+        this.cache = cache;
+        this.properties = properties;
+        this.modelName = modelName;
+        this.registry = registry;
+        Gauge.builder("ai.cache.entries", cache, AiResultCache::size).register(registry);
+        Gauge.builder("ai.cache.chars", cache, AiResultCache::totalChars).register(registry);
+        Gauge.builder("ai.generations.shared", inflight, ConcurrentHashMap::size).register(registry);
+    }
+
+    /**
+     * 单次模型调用生成
+     *
+     * @param operation  操作名（summarize、polish）
+     * @param clientId   客户端标识
+     * @param prompt     完整提示词（已包含模板与参数）
+     * @param regenerate 为 true 时跳过缓存与进行中的生成，结果覆盖缓存
+     */
+    public SseEmitter stream(String operation, String clientId, String prompt, boolean regenerate) {
+        return stream(operation, clientId, prompt, regenerate, List.of());
+    }
+
+    /**
+     * 单次模型调用生成，输出前先发送 prelude 中的事件（如检索到的来源）
+     */
+    public SseEmitter stream(String operation, String clientId, String prompt, boolean regenerate, List<AiEvent> prelude) {
+        return stream(operation, clientId, prompt, regenerate, prelude, sink -> streamingChatModel.chat(prompt, sink));
+    }
+
+    public SseEmitter stream(String operation, String clientId, String cacheKeySource, boolean regenerate,
+                             Consumer<GenerationSink> producer) {
+        return stream(operation, clientId, cacheKeySource, regenerate, List.of(), producer);
+    }
+
+    /**
+     * 自定义生成过程（如多次模型调用），producer 需最终以 sink 作为输出回调完成生成
+     *
+     * @param cacheKeySource 决定结果的全部输入（通常为完整提示词），用于缓存与合并相同请求
+     * @param prelude        每个订阅者在生成内容之前收到的事件，需由 cacheKeySource 决定
+     * @param producer       在执行器线程上调用，其中发起的模型请求随 sink 取消而中止
+     */
+    public SseEmitter stream(String operation, String clientId, String cacheKeySource, boolean regenerate,
+                             List<AiEvent> prelude, Consumer<GenerationSink> producer) {
+        if (properties.isEnabled() && !regenerate) {
+            String cached = cache.get(cacheKey(cacheKeySource));
+            if (cached != null) {
+                count(operation, "hit");
+                return replay(prelude, cached);
+            }
+        }
+        return executor.submit(operation, clientId,
+                stream -> generate(operation, stream, cacheKeySource, regenerate, prelude, producer));
+    }
+
+    /**
+     * 提示词需要耗时准备（如知识库检索）时使用：准备在执行器线程上进行，与生成一样受排队、
+     * 单客户端并发和流超时限制；准备完成后再按提示词读取缓存、加入或发起生成
+     *
+     * @param preparation 在执行器线程上调用，返回完整提示词与先于生成内容发送的事件
+     */
+    public SseEmitter stream(String operation, String clientId, boolean regenerate,
+                             Supplier<PreparedPrompt> preparation) {
+        return executor.submit(operation, clientId, stream -> {
+            PreparedPrompt prepared = preparation.get();
+            String prompt = prepared.prompt();
+            generate(operation, stream, prompt, regenerate, prepared.prelude(),
+                    sink -> streamingChatModel.chat(prompt, sink));
+        });
+    }
+
+    private void generate(String operation, AiStream stream, String cacheKeySource, boolean regenerate,
+                          List<AiEvent> prelude, Consumer<GenerationSink> producer) {
+        sendPrelude(stream, prelude);
+        TokenCoalescer coalescer = executor.coalescer(stream);
+        if (!properties.isEnabled()) {
+            SharedGeneration generation = new SharedGeneration(text -> {}, finished -> {});
+            generation.attach(stream, coalescer);
+            produce(generation, producer);
+            return;
+        }
+        String key = cacheKey(cacheKeySource);
+        SharedGeneration created = new SharedGeneration(
+                text -> cache.put(key, text),
+                finished -> inflight.remove(key, finished));
+        if (regenerate) {
+            count(operation, "bypass");
+            inflight.put(key, created);
+        } else {
+            // 排队期间相同请求可能已生成完毕
+            if (replayCached(operation, key, stream, coalescer)) {
+                return;
+            }
+            SharedGeneration current = inflight.compute(key,
+                    (k, existing) -> existing != null && existing.isActive() ? existing : created);
+            if (current != created) {
+                if (current.attach(stream, coalescer)) {
+                    count(operation, "joined");
+                    return;
+                }
+                // 加入前该生成恰好结束，结果已在缓存中
+                if (replayCached(operation, key, stream, coalescer)) {
+                    return;
+                }
+                inflight.put(key, created);
+            }
+            count(operation, "miss");
+        }
+        created.attach(stream, coalescer);
+        produce(created, producer);
+    }
+
+    private void produce(SharedGeneration generation, Consumer<GenerationSink> producer) {
+        UpstreamCancellation.run(generation, () -> {
+            try {
+                producer.accept(generation);
+            } catch (RuntimeException e) {
+                // 结束整个生成，避免已加入的订阅者一直等待
+                generation.onError(e);
+            }
+        });
+    }
+
+    private boolean replayCached(String operation, String key, AiStream stream, TokenCoalescer coalescer) {
+        String cached = cache.get(key);
+        if (cached == null) {
+            return false;
+        }
+        count(operation, "hit");
+        coalescer.append(cached);
+        coalescer.flush();
+        stream.complete();
+        return true;
+    }
+
+    private void sendPrelude(AiStream stream, List<AiEvent> prelude) {
+        for (AiEvent event : prelude) {
+            stream.sendEvent(event.name(), event.data());
+        }
+    }
+
+    private SseEmitter replay(List<AiEvent> prelude, String text) {
+        SseEmitter emitter = new SseEmitter();
+        int chunk = Math.max(1, properties.getReplayChunkChars());
+        try {
+            for (AiEvent event : prelude) {
+                emitter.send(SseEmitter.event().name(event.name()).data(event.data()));
+            }
+            for (int i = 0; i < text.length(); i += chunk) {
+                emitter.send(SseEmitter.event().data(text.substring(i, Math.min(text.length(), i + chunk))));
+            }
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    private void count(String operation, String result) {
+        registry.counter("ai.cache.requests", "operation", operation, "result", result).increment();
+    }
+
+    private String cacheKey(String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
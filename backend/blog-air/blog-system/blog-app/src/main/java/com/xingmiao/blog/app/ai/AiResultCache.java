@@ -0,0 +1,66 @@
+package com.xingmiao.blog.app.ai;
+
+import com.xingmiao.blog.app.config.AiCacheProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * AI 生成结果的 LRU 缓存，按条数与总字符数双重限制
+ */
+@Component
+public class AiResultCache {
+
+    private final AiCacheProperties properties;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalChars;
+
+    public AiResultCache(AiCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    public synchronized String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.storedAt > properties.getTtl().toMillis()) {
+            remove(key);
+            return null;
+        }
+        return entry.text;
+    }
+
+    public synchronized void put(String key, String text) {
+        if (text == null || text.isEmpty() || text.length() > properties.getMaxTotalChars()) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry(text, System.currentTimeMillis()));
+        totalChars += text.length();
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while ((entries.size() > properties.getMaxEntries() || totalChars > properties.getMaxTotalChars()) && it.hasNext()) {
+            totalChars -= it.next().getValue().text.length();
+            it.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long totalChars() {
+        return totalChars;
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalChars -= removed.text.length();
+        }
+    }
+
+    private record Entry(String text, long storedAt) {}
+}
@@ -0,0 +1,178 @@
+package com.xingmiao.blog.app.ai;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单次 AI 流式请求的上下文。
+ *
+ * <p>模型回调可能在任意线程上触发，这里统一负责向 SSE 连接写数据并保证只结束一次；
+ * 客户端断开、超时或主动取消时触发 {@link #onCancel} 注册的回调（如中止上游请求）。</p>
+ */
+@Slf4j
+public class AiStream implements CancellationScope {
+
+    private final String operation;
+    private final SseEmitter emitter;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private final List<Runnable> cancelHooks = new ArrayList<>();
+    private final AtomicInteger upstreamTokens = new AtomicInteger();
+    private volatile Integer outputTokens;
+    private volatile boolean cancelled;
+    private volatile boolean failed;
+
+    AiStream(String operation, SseEmitter emitter) {
+        this.operation = operation;
+        this.emitter = emitter;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * 发送一段生成内容，连接已结束或写入失败时返回 false
+     */
+    public boolean send(String data) {
+        if (finished.get()) {
+            return false;
+        }
+        try {
+            emitter.send(SseEmitter.event().data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开
+            cancel();
+            return false;
+        }
+    }
+
+    /**
+     * 发送命名事件（如 error、progress）
+     */
+    public boolean sendEvent(String name, Object data) {
+        if (finished.get()) {
+            return false;
+        }
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            cancel();
+            return false;
+        }
+    }
+
+    /**
+     * 正常结束
+     */
+    public void complete() {
+        if (finished.compareAndSet(false, true)) {
+            emitter.complete();
+            done.complete(null);
+        }
+    }
+
+    /**
+     * 以错误结束：先发送 error 事件再关闭连接
+     */
+    public void fail(String message) {
+        failed = true;
+        if (sendEvent("error", message == null ? "生成失败" : message)) {
+            complete();
+        }
+    }
+
+    /**
+     * 取消：不再写数据，并执行已注册的取消回调
+     */
+    public void cancel() {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        List<Runnable> hooks;
+        synchronized (cancelHooks) {
+            cancelled = true;
+            hooks = List.copyOf(cancelHooks);
+            cancelHooks.clear();
+        }
+        hooks.forEach(AiStream::runHook);
+        try {
+            emitter.complete();
+        } catch (RuntimeException ignored) {
+            // 连接已不可用
+        }
+        done.complete(null);
+    }
+
+    @Override
+    public void onCancel(Runnable hook) {
+        synchronized (cancelHooks) {
+            if (!cancelled) {
+                cancelHooks.add(hook);
+                return;
+            }
+        }
+        runHook(hook);
+    }
+
+    private static void runHook(Runnable hook) {
+        try {
+            hook.run();
+        } catch (RuntimeException e) {
+            log.warn("AI 流取消回调执行失败", e);
+        }
+    }
+
+    /**
+     * 记录收到一段上游输出（流式接口每个分片约为一个 token）
+     */
+    public void recordUpstreamToken() {
+        upstreamTokens.incrementAndGet();
+    }
+
+    /**
+     * 记录模型返回的实际输出 token 数
+     */
+    public void recordOutputTokens(Integer count) {
+        if (count != null && count > 0) {
+            outputTokens = count;
+        }
+    }
+
+    /**
+     * 本次生成的输出 token 数：优先使用模型返回的用量，否则按收到的分片数估算
+     */
+    public int getOutputTokens() {
+        Integer reported = outputTokens;
+        return reported != null ? reported : upstreamTokens.get();
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public boolean isFinished() {
+        return finished.get();
+    }
+
+    /**
+     * 是否因断开、超时等原因提前结束（完成前被取消）
+     */
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    CompletableFuture<Void> done() {
+        return done;
+    }
+}
@@ -0,0 +1,267 @@
+package com.xingmiao.blog.app.ai;
+
+import com.xingmiao.blog.app.config.AiExecutionProperties;
+import com.xingmiao.blog.common.exception.ServiceBusyException;
+import com.xingmiao.blog.common.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * AI 流式请求专用执行器。
+ *
+ * <p>每个流占用一个线程直到生成结束（模型回调在 HTTP 客户端线程上触发，这里的线程负责等待并兜底超时），
+ * 因此线程数即同时进行的流数。队列有界：排队已满返回 503，单个客户端并发超限返回 429，
+ * 避免突发请求占满公共线程池或长时间挂起的上游连接无法回收。</p>
+ */
+@Slf4j
+@Component
+public class AiStreamExecutor implements DisposableBean {
+
+    private final AiExecutionProperties properties;
+    private final ThreadPoolExecutor pool;
+    private final ScheduledExecutorService coalesceScheduler;
+    private final ConcurrentHashMap<String, Integer> clientStreams = new ConcurrentHashMap<>();
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final Timer queueWait;
+    private final Timer streamDuration;
+    private final Counter rejectedByClient;
+    private final Counter rejectedByQueue;
+    private final Counter timedOut;
+    private final MeterRegistry registry;
+    /**
+     * 各操作正常完成时的平均输出 token 数与耗时，用于估算取消节省的量
+     */
+    private final ConcurrentHashMap<String, Baseline> baselines = new ConcurrentHashMap<>();
+
+    public AiStreamExecutor(AiExecutionProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(
+                properties.getMaxConcurrentStreams(), properties.getMaxConcurrentStreams(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                r -> {
+                    Thread t = new Thread(r, "ai-stream-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+        this.coalesceScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ai-coalesce");
+            t.setDaemon(true);
+            return t;
+        });
+
+        Gauge.builder("ai.streams.inflight", inflight, AtomicInteger::get)
+                .description("正在生成的 AI 流数量")
+                .register(registry);
+        Gauge.builder("ai.streams.queued", pool, p -> p.getQueue().size())
+                .description("排队等待执行的 AI 请求数")
+                .register(registry);
+        this.queueWait = Timer.builder("ai.queue.wait")
+                .description("AI 请求排队等待时长")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.streamDuration = Timer.builder("ai.stream.duration")
+                .description("AI 流从开始执行到结束的时长")
+                .register(registry);
+        this.rejectedByClient = Counter.builder("ai.requests.rejected").tag("reason", "client_limit").register(registry);
+        this.rejectedByQueue = Counter.builder("ai.requests.rejected").tag("reason", "queue_full").register(registry);
+        this.timedOut = Counter.builder("ai.streams.timeout").register(registry);
+    }
+
+    /**
+     * 提交一个流式任务。task 在专用线程上调用，负责发起生成并在结束时调用
+     * {@link AiStream#complete()} 或 {@link AiStream#fail(String)}；之后线程会一直等到流结束或超时。
+     *
+     * @param operation 操作名（summarize、polish 等），用于指标
+     * @param clientId  客户端标识（IP），用于单客户端并发限制
+     * @throws TooManyRequestsException 该客户端并发超限
+     * @throws ServiceBusyException     排队已满
+     */
+    public SseEmitter submit(String operation, String clientId, Consumer<AiStream> task) {
+        acquire(clientId);
+
+        long timeoutMillis = properties.getStreamTimeout().toMillis();
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        AiStream stream = new AiStream(operation, emitter);
+        emitter.onTimeout(() -> timeout(stream));
+        emitter.onCompletion(stream::cancel);
+        emitter.onError(e -> stream.cancel());
+
+        long enqueuedAt = System.nanoTime();
+        Runnable job = () -> run(clientId, stream, task, enqueuedAt, timeoutMillis);
+        try {
+            pool.execute(job);
+        } catch (RejectedExecutionException e) {
+            release(clientId);
+            rejectedByQueue.increment();
+            throw new ServiceBusyException("AI 服务繁忙，请稍后重试", properties.getRetryAfterSeconds());
+        }
+        // 排队期间客户端断开：直接移出队列，不再占用名额
+        stream.onCancel(() -> {
+            if (pool.remove(job)) {
+                release(clientId);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * 创建写入 stream 的输出合并器
+     */
+    public TokenCoalescer coalescer(AiStream stream) {
+        return new TokenCoalescer(stream::send, coalesceScheduler,
+                properties.getCoalesceMaxChars(), properties.getCoalesceWindow().toMillis());
+    }
+
+    private void run(String clientId, AiStream stream, Consumer<AiStream> task, long enqueuedAt, long timeoutMillis) {
+        long startedAt = System.nanoTime();
+        queueWait.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+        try {
+            if (stream.isFinished()) {
+                return;
+            }
+            inflight.incrementAndGet();
+            try {
+                // task 内发起的模型请求与 stream 绑定，客户端断开或超时后中止上游生成
+                UpstreamCancellation.run(stream, () -> task.accept(stream));
+                long remaining = timeoutMillis - TimeUnit.NANOSECONDS.toMillis(startedAt - enqueuedAt);
+                stream.done().get(Math.max(remaining, 1), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                timeout(stream);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stream.cancel();
+            } catch (ExecutionException | RuntimeException e) {
+                log.error("AI 流式任务执行失败", e);
+                stream.fail("生成失败，请稍后重试");
+            } finally {
+                inflight.decrementAndGet();
+                long elapsed = System.nanoTime() - startedAt;
+                streamDuration.record(elapsed, TimeUnit.NANOSECONDS);
+                recordOutcome(stream, elapsed);
+            }
+        } finally {
+            release(clientId);
+        }
+    }
+
+    private void recordOutcome(AiStream stream, long elapsedNanos) {
+        String operation = stream.getOperation();
+        if (!stream.isCancelled()) {
+            if (!stream.isFailed() && stream.getOutputTokens() > 0) {
+                baselines.computeIfAbsent(operation, k -> new Baseline())
+                        .update(stream.getOutputTokens(), elapsedNanos);
+            }
+            return;
+        }
+        registry.counter("ai.stream.cancelled", "operation", operation).increment();
+        Baseline baseline = baselines.get(operation);
+        if (baseline == null) {
+            return;
+        }
+        // 以同类请求正常完成时的平均值估算：取消后上游不再生成的 token 数与不再占用的时间
+        double savedTokens = baseline.tokens() - stream.getOutputTokens();
+        long savedNanos = (long) baseline.nanos() - elapsedNanos;
+        if (savedTokens > 0) {
+            DistributionSummary.builder("ai.stream.cancel.saved.tokens")
+                    .description("取消上游生成估算节省的输出 token 数")
+                    .baseUnit("tokens")
+                    .tag("operation", operation)
+                    .register(registry)
+                    .record(savedTokens);
+        }
+        if (savedNanos > 0) {
+            Timer.builder("ai.stream.cancel.saved.time")
+                    .description("取消上游生成估算节省的时长")
+                    .tag("operation", operation)
+                    .register(registry)
+                    .record(savedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void timeout(AiStream stream) {
+        if (!stream.isFinished()) {
+            timedOut.increment();
+            stream.sendEvent("error", "生成超时，请稍后重试");
+            stream.cancel();
+        }
+    }
+
+    private void acquire(String clientId) {
+        int limit = properties.getMaxStreamsPerClient();
+        boolean[] acquired = {false};
+        clientStreams.compute(clientId, (k, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= limit) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        if (!acquired[0]) {
+            rejectedByClient.increment();
+            throw new TooManyRequestsException("请求过于频繁，请等待当前生成结束", properties.getRetryAfterSeconds());
+        }
+    }
+
+    private void release(String clientId) {
+        clientStreams.computeIfPresent(clientId, (k, count) -> count <= 1 ? null : count - 1);
+    }
+
+    /**
+     * 指数加权平均，近期请求权重更高
+     */
+    private static final class Baseline {
+        private static final double ALPHA = 0.2;
+        private double tokens = -1;
+        private double nanos;
+
+        synchronized void update(int outputTokens, long elapsedNanos) {
+            if (tokens < 0) {
+                tokens = outputTokens;
+                nanos = elapsedNanos;
+            } else {
+                tokens += ALPHA * (outputTokens - tokens);
+                nanos += ALPHA * (elapsedNanos - nanos);
+            }
+        }
+
+        synchronized double tokens() {
+            return tokens;
+        }
+
+        synchronized double nanos() {
+            return nanos;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+        coalesceScheduler.shutdownNow();
+    }
+}
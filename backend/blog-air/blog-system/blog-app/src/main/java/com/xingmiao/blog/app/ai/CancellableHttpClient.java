@@ -0,0 +1,125 @@
+package com.xingmiao.blog.app.ai;
+
+import dev.langchain4j.http.client.HttpClient;
+import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.http.client.HttpRequest;
+import dev.langchain4j.http.client.SuccessfulHttpResponse;
+import dev.langchain4j.http.client.sse.ServerSentEvent;
+import dev.langchain4j.http.client.sse.ServerSentEventListener;
+import dev.langchain4j.http.client.sse.ServerSentEventParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+/**
+ * 支持取消的模型 HTTP 客户端。
+ *
+ * <p>LangChain4j 的流式接口没有取消方法，这里包装底层 HttpClient：流式请求发起时若当前线程绑定了
+ * {@link CancellationScope}（见 {@link UpstreamCancellation}），在其取消时关闭响应体，解析线程随即结束，
+ * 上游连接断开、停止生成；取消后到达的事件直接丢弃。</p>
+ */
+public class CancellableHttpClient implements HttpClient {
+
+    private final HttpClient delegate;
+
+    public CancellableHttpClient(HttpClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public SuccessfulHttpResponse execute(HttpRequest request) {
+        return delegate.execute(request);
+    }
+
+    @Override
+    public void execute(HttpRequest request, ServerSentEventParser parser, ServerSentEventListener listener) {
+        CancellationScope scope = UpstreamCancellation.current();
+        if (scope == null) {
+            delegate.execute(request, parser, listener);
+            return;
+        }
+        ServerSentEventParser cancellableParser = (body, parserListener) -> {
+            // 响应到达前已取消时，注册回调会立即关闭响应体
+            scope.onCancel(() -> closeQuietly(body));
+            parser.parse(body, parserListener);
+        };
+        delegate.execute(request, cancellableParser, new ServerSentEventListener() {
+            @Override
+            public void onOpen(SuccessfulHttpResponse response) {
+                if (!scope.isCancelled()) {
+                    listener.onOpen(response);
+                }
+            }
+
+            @Override
+            public void onEvent(ServerSentEvent event) {
+                if (!scope.isCancelled()) {
+                    listener.onEvent(event);
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                // 取消导致的读取异常不再上报
+                if (!scope.isCancelled()) {
+                    listener.onError(error);
+                }
+            }
+
+            @Override
+            public void onClose() {
+                if (!scope.isCancelled()) {
+                    listener.onClose();
+                }
+            }
+        });
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException ignored) {
+            // 连接已断开
+        }
+    }
+
+    /**
+     * 包装任意 HttpClientBuilder，构建出的客户端支持取消
+     */
+    public static class Builder implements HttpClientBuilder {
+
+        private final HttpClientBuilder delegate;
+
+        public Builder(HttpClientBuilder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Duration connectTimeout() {
+            return delegate.connectTimeout();
+        }
+
+        @Override
+        public Builder connectTimeout(Duration timeout) {
+            delegate.connectTimeout(timeout);
+            return this;
+        }
+
+        @Override
+        public Duration readTimeout() {
+            return delegate.readTimeout();
+        }
+
+        @Override
+        public Builder readTimeout(Duration timeout) {
+            delegate.readTimeout(timeout);
+            return this;
+        }
+
+        @Override
+        public HttpClient build() {
+            return new CancellableHttpClient(delegate.build());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.xingmiao.blog.app.ai;
+
+/**
+ * 可取消的作用域：模型请求绑定到作用域后，作用域取消时中止上游生成
+ */
+public interface CancellationScope {
+
+    boolean isCancelled();
+
+    /**
+     * 注册取消回调；若已被取消则立即执行
+     */
+    void onCancel(Runnable hook);
+}
@@ -0,0 +1,14 @@
+package com.xingmiao.blog.app.ai;
+
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+
+/**
+ * 一次生成的输出端：作为最终输出的模型回调，同时可推送进度事件；被取消时中止绑定的上游请求
+ */
+public interface GenerationSink extends StreamingChatResponseHandler, CancellationScope {
+
+    /**
+     * 向所有订阅者推送进度（SSE progress 事件），后加入的订阅者会先收到最近一次进度
+     */
+    void progress(Object data);
+}
@@ -0,0 +1,112 @@
+package com.xingmiao.blog.app.ai;
+
+import com.github.jelmerk.knn.util.Murmur3;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 本地哈希向量模型：不依赖外部服务，相同文本始终得到相同向量。
+ *
+ * <p>英文等按单词、中日韩文字按单字与相邻两字切分，词频取对数后散列到固定维度（带符号以抵消冲突），
+ * 最后归一化。只能反映字面重合程度，用于离线部署与测试；需要语义检索时改用 openai 向量接口。</p>
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+    private final int dimensions;
+
+    public HashingEmbeddingModel(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+        List<Embedding> embeddings = new ArrayList<>(segments.size());
+        for (TextSegment segment : segments) {
+            embeddings.add(Embedding.from(vectorize(segment.text())));
+        }
+        return Response.from(embeddings);
+    }
+
+    @Override
+    public int dimension() {
+        return dimensions;
+    }
+
+    private float[] vectorize(String text) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String term : terms(text)) {
+            counts.merge(term, 1, Integer::sum);
+        }
+        float[] vector = new float[dimensions];
+        counts.forEach((term, count) -> {
+            // MurmurHash3 与 JVM 无关，保证向量在不同环境下一致
+            int hash = Murmur3.hash32(term.getBytes(StandardCharsets.UTF_8));
+            int index = Math.floorMod(hash, dimensions);
+            float sign = (hash >>> 31) == 0 ? 1f : -1f;
+            vector[index] += sign * (float) (1 + Math.log(count));
+        });
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm > 0) {
+            float inv = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= inv;
+            }
+        }
+        return vector;
+    }
+
+    private static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        int previousCjk = -1;
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); ) {
+            int cp = lower.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isCjk(cp)) {
+                flush(word, terms);
+                String ch = new String(Character.toChars(cp));
+                terms.add(ch);
+                if (previousCjk >= 0) {
+                    terms.add(new String(Character.toChars(previousCjk)) + ch);
+                }
+                previousCjk = cp;
+            } else if (Character.isLetterOrDigit(cp)) {
+                word.appendCodePoint(cp);
+                previousCjk = -1;
+            } else {
+                flush(word, terms);
+                previousCjk = -1;
+            }
+        }
+        flush(word, terms);
+        return terms;
+    }
+
+    private static void flush(StringBuilder word, List<String> terms) {
+        if (word.length() > 1) {
+            terms.add(word.toString());
+        }
+        word.setLength(0);
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,165 @@
+package com.xingmiao.blog.app.ai;
+
+import com.xingmiao.blog.app.config.AiLongDocumentProperties;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 长文分段总结：按标题与段落切分后并行提炼各段要点（限制并发），再流式输出汇总结果。
+ *
+ * <p>每段完成时推送 progress 事件；任一段失败则整体失败；客户端全部断开时，
+ * 进行中的分段请求随 {@link GenerationSink} 取消而中止，尚未开始的分段不再发起。</p>
+ */
+@Slf4j
+@Component
+public class LongDocumentSummarizer {
+
+    /**
+     * SSE progress 事件内容：phase 为 map（分段总结）或 reduce（汇总）
+     */
+    public record Progress(String phase, int done, int total) {}
+
+    private final StreamingChatModel streamingChatModel;
+    private final AiLongDocumentProperties properties;
+
+    public LongDocumentSummarizer(StreamingChatModel streamingChatModel, AiLongDocumentProperties properties) {
+        this.streamingChatModel = streamingChatModel;
+        this.properties = properties;
+    }
+
+    public boolean isLong(String content) {
+        return properties.isEnabled()
+                && content != null
+                && MarkdownChunker.estimateTokens(content) > properties.getThresholdTokens();
+    }
+
+    /**
+     * 开始分段总结，汇总结果写入 sink；方法立即返回，后续在模型回调线程上推进
+     */
+    public void summarize(String content, Integer lengthHint, GenerationSink sink) {
+        List<String> chunks = MarkdownChunker.split(content, properties.getChunkTokens());
+        new MapReduce(chunks, lengthHint, sink).start();
+    }
+
+    private class MapReduce {
+
+        private final List<String> chunks;
+        private final Integer lengthHint;
+        private final GenerationSink sink;
+        private final String[] summaries;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        MapReduce(List<String> chunks, Integer lengthHint, GenerationSink sink) {
+            this.chunks = chunks;
+            this.lengthHint = lengthHint;
+            this.sink = sink;
+            this.summaries = new String[chunks.size()];
+        }
+
+        void start() {
+            log.debug("长文分段总结: {} 段", chunks.size());
+            sink.progress(new Progress("map", 0, chunks.size()));
+            int parallelism = Math.max(1, Math.min(properties.getMapConcurrency(), chunks.size()));
+            for (int i = 0; i < parallelism; i++) {
+                launchNext();
+            }
+        }
+
+        private void launchNext() {
+            int index = next.getAndIncrement();
+            if (index >= chunks.size() || failed.get() || sink.isCancelled()) {
+                return;
+            }
+            // 分段请求在模型回调线程上接力发起，需要重新绑定取消作用域
+            UpstreamCancellation.run(sink, () -> {
+                try {
+                    streamingChatModel.chat(buildChunkPrompt(index), new Collector(index));
+                } catch (RuntimeException e) {
+                    fail(index, e);
+                }
+            });
+        }
+
+        private void onChunkDone(int index, String summary) {
+            summaries[index] = summary;
+            int done = completed.incrementAndGet();
+            sink.progress(new Progress("map", done, chunks.size()));
+            if (done == chunks.size()) {
+                reduce();
+            } else {
+                launchNext();
+            }
+        }
+
+        private void reduce() {
+            if (failed.get() || sink.isCancelled()) {
+                return;
+            }
+            sink.progress(new Progress("reduce", 0, 1));
+            UpstreamCancellation.run(sink, () -> streamingChatModel.chat(buildReducePrompt(), sink));
+        }
+
+        private void fail(int index, Throwable error) {
+            if (failed.compareAndSet(false, true)) {
+                log.warn("长文第 {} 段总结失败", index + 1, error);
+                sink.onError(new IllegalStateException("第 " + (index + 1) + " 段总结失败：" + error.getMessage(), error));
+            }
+        }
+
+        private String buildChunkPrompt(int index) {
+            return "你是专业的中文编辑。以下是一篇长文的第 " + (index + 1) + "/" + chunks.size()
+                    + " 部分，请提炼这一部分的核心事实与要点，控制在约" + properties.getChunkSummaryChars()
+                    + "字内。仅输出要点，不要解释。\n\n内容：\n" + chunks.get(index);
+        }
+
+        private String buildReducePrompt() {
+            String len = (lengthHint == null || lengthHint <= 0) ? "" : ("，尽量控制在约" + lengthHint + "字内");
+            StringBuilder sb = new StringBuilder("你是专业的中文编辑。以下是一篇长文按顺序分段提炼的要点，")
+                    .append("请据此生成整篇文章简明扼要的中文摘要，保留核心事实与要点").append(len)
+                    .append("。仅输出摘要，不要解释。\n");
+            for (int i = 0; i < summaries.length; i++) {
+                sb.append("\n第 ").append(i + 1).append(" 部分要点：\n").append(summaries[i]).append('\n');
+            }
+            return sb.toString();
+        }
+
+        /**
+         * 收集单段输出
+         */
+        private class Collector implements StreamingChatResponseHandler {
+
+            private final int index;
+            private final StringBuilder text = new StringBuilder();
+
+            Collector(int index) {
+                this.index = index;
+            }
+
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                if (partialResponse != null) {
+                    text.append(partialResponse);
+                }
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                onChunkDone(index, text.toString().strip());
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                fail(index, error);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.xingmiao.blog.app.ai;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 由调用方手动取消的作用域，用于没有客户端连接的后台模型调用（如批量打标签）：
+ * 等待超时或任务停止时调用 {@link #cancel()} 中止上游生成。
+ */
+@Slf4j
+public class ManualCancellationScope implements CancellationScope {
+
+    private final List<Runnable> cancelHooks = new ArrayList<>();
+    private volatile boolean cancelled;
+
+    /**
+     * 取消并执行已注册的回调；重复调用无效果
+     */
+    public void cancel() {
+        List<Runnable> hooks;
+        synchronized (cancelHooks) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            hooks = List.copyOf(cancelHooks);
+            cancelHooks.clear();
+        }
+        hooks.forEach(ManualCancellationScope::runHook);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void onCancel(Runnable hook) {
+        synchronized (cancelHooks) {
+            if (!cancelled) {
+                cancelHooks.add(hook);
+                return;
+            }
+        }
+        runHook(hook);
+    }
+
+    private static void runHook(Runnable hook) {
+        try {
+            hook.run();
+        } catch (RuntimeException e) {
+            log.warn("取消回调执行失败", e);
+        }
+    }
+}
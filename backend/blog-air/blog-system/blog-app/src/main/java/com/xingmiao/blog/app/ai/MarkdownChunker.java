@@ -0,0 +1,170 @@
+package com.xingmiao.blog.app.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按 Markdown 标题与段落边界把长文切成不超过 token 预算的片段。
+ *
+ * <p>代码块整体视为一段；优先在标题处断开，单段超出预算时再按句子切分，仍超出时按长度硬切。
+ * token 数按中日韩字符 1 个、其他字符约 4 个估算，只用于控制片段大小，不要求精确。</p>
+ */
+public final class MarkdownChunker {
+
+    private MarkdownChunker() {
+    }
+
+    public static int estimateTokens(CharSequence text) {
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = Character.codePointAt(text, i);
+            i += Character.charCount(cp);
+            if (isCjk(cp)) {
+                cjk++;
+            } else {
+                other++;
+            }
+        }
+        return cjk + (other + 3) / 4;
+    }
+
+    public static List<String> split(String content, int maxTokens) {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int currentTokens = 0;
+        for (Block block : blocks(content)) {
+            boolean blockStart = true;
+            for (String piece : fit(block.text, maxTokens)) {
+                int tokens = estimateTokens(piece);
+                // 新标题且当前片段已过半时提前断开，让片段尽量对应完整章节
+                boolean preferBreak = blockStart && block.heading && currentTokens > maxTokens / 2;
+                blockStart = false;
+                if (currentTokens > 0 && (currentTokens + tokens > maxTokens || preferBreak)) {
+                    chunks.add(current.toString().strip());
+                    current.setLength(0);
+                    currentTokens = 0;
+                }
+                if (!current.isEmpty()) {
+                    current.append("\n\n");
+                }
+                current.append(piece);
+                currentTokens += tokens;
+            }
+        }
+        if (!current.toString().isBlank()) {
+            chunks.add(current.toString().strip());
+        }
+        return chunks;
+    }
+
+    private record Block(String text, boolean heading) {}
+
+    private static List<Block> blocks(String content) {
+        List<Block> blocks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean heading = false;
+        int lines = 0;
+        String fence = null;
+        for (String line : content.split("\r?\n", -1)) {
+            String trimmed = line.strip();
+            if (fence != null) {
+                current.append(line).append('\n');
+                if (trimmed.startsWith(fence)) {
+                    fence = null;
+                }
+                continue;
+            }
+            boolean isHeading = trimmed.matches("#{1,6}\\s.*");
+            if (trimmed.isEmpty()) {
+                // 标题与其后第一段放在同一块，避免标题落在片段末尾
+                if (!(heading && lines == 1)) {
+                    addBlock(blocks, current, heading);
+                    heading = false;
+                    lines = 0;
+                }
+                continue;
+            }
+            if (isHeading) {
+                addBlock(blocks, current, heading);
+                heading = true;
+                lines = 0;
+            }
+            if (trimmed.startsWith("```") || trimmed.startsWith("~~~")) {
+                fence = trimmed.substring(0, 3);
+            }
+            current.append(line).append('\n');
+            lines++;
+        }
+        addBlock(blocks, current, heading);
+        return blocks;
+    }
+
+    private static void addBlock(List<Block> blocks, StringBuilder current, boolean heading) {
+        if (!current.toString().isBlank()) {
+            blocks.add(new Block(current.toString().strip(), heading));
+        }
+        current.setLength(0);
+    }
+
+    /**
+     * 把超出预算的段落按句子切分，单句仍超出时按长度硬切
+     */
+    private static List<String> fit(String text, int maxTokens) {
+        if (estimateTokens(text) <= maxTokens) {
+            return List.of(text);
+        }
+        List<String> pieces = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String sentence : text.split("(?<=[。！？；.!?;\\n])")) {
+            if (!current.isEmpty() && estimateTokens(current) + estimateTokens(sentence) > maxTokens) {
+                pieces.add(current.toString());
+                current.setLength(0);
+            }
+            if (estimateTokens(sentence) > maxTokens) {
+                pieces.addAll(hardSplit(sentence, maxTokens));
+            } else {
+                current.append(sentence);
+            }
+        }
+        if (!current.isEmpty()) {
+            pieces.add(current.toString());
+        }
+        return pieces;
+    }
+
+    private static List<String> hardSplit(String text, int maxTokens) {
+        List<String> pieces = new ArrayList<>();
+        int start = 0;
+        int tokens = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            int next = i + Character.charCount(cp);
+            if (isCjk(cp)) {
+                tokens++;
+            } else if (++other % 4 == 1) {
+                tokens++;
+            }
+            if (tokens > maxTokens) {
+                pieces.add(text.substring(start, i));
+                start = i;
+                tokens = 1;
+                other = isCjk(cp) ? 0 : 1;
+            }
+            i = next;
+        }
+        if (start < text.length()) {
+            pieces.add(text.substring(start));
+        }
+        return pieces;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
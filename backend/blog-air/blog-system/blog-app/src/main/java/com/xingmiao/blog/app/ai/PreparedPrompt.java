@@ -0,0 +1,9 @@
+package com.xingmiao.blog.app.ai;
+
+import java.util.List;
+
+/**
+ * 准备好的提示词，以及在生成内容之前发送的事件（如检索到的来源）
+ */
+public record PreparedPrompt(String prompt, List<AiEvent> prelude) {
+}
@@ -0,0 +1,226 @@
+package com.xingmiao.blog.app.ai;
+
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 一次上游生成，可被多个相同请求共享。
+ *
+ * <p>后加入的订阅者先收到已生成的内容，再继续接收实时输出；最后一个订阅者离开时取消上游生成。
+ * 分发在锁外进行（上游回调本身是串行的），避免与订阅者的合并器、断开回调互相等待。
+ * 已生成内容的回放同样在锁外进行，回放期间到达的实时输出暂存在该订阅者上，回放完成后按序补发，
+ * 因此慢客户端不会阻塞上游回调和其他订阅者。</p>
+ */
+class SharedGeneration implements GenerationSink {
+
+    private final StringBuilder text = new StringBuilder();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final List<Runnable> cancelHooks = new ArrayList<>();
+    private final Consumer<String> onSuccess;
+    private final Consumer<SharedGeneration> onFinish;
+    private boolean finished;
+    private boolean cancelled;
+    private Integer outputTokens;
+    private Object lastProgress;
+
+    /**
+     * @param onSuccess 生成成功后回调完整结果（写入缓存）
+     * @param onFinish  生成结束（成功、失败或取消）后回调（移出进行中列表）
+     */
+    SharedGeneration(Consumer<String> onSuccess, Consumer<SharedGeneration> onFinish) {
+        this.onSuccess = onSuccess;
+        this.onFinish = onFinish;
+    }
+
+    /**
+     * 加入生成，已结束时返回 false（调用方应改为发起新的生成或读取缓存）
+     */
+    boolean attach(AiStream stream, TokenCoalescer coalescer) {
+        Subscriber subscriber = new Subscriber(stream, coalescer);
+        Object progress;
+        String generated;
+        synchronized (this) {
+            if (finished) {
+                return false;
+            }
+            progress = lastProgress;
+            generated = text.toString();
+            subscribers.add(subscriber);
+        }
+        stream.onCancel(() -> detach(subscriber));
+        subscriber.catchUp(progress, generated);
+        return true;
+    }
+
+    private void detach(Subscriber subscriber) {
+        List<Runnable> hooks;
+        synchronized (this) {
+            if (!subscribers.remove(subscriber) || !subscribers.isEmpty() || finished) {
+                return;
+            }
+            finished = true;
+            cancelled = true;
+            hooks = List.copyOf(cancelHooks);
+            cancelHooks.clear();
+        }
+        hooks.forEach(Runnable::run);
+        onFinish.accept(this);
+    }
+
+    @Override
+    public void progress(Object data) {
+        List<Subscriber> targets;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            lastProgress = data;
+            targets = List.copyOf(subscribers);
+        }
+        for (Subscriber subscriber : targets) {
+            subscriber.deliver(() -> subscriber.stream.sendEvent("progress", data));
+        }
+    }
+
+    @Override
+    public void onPartialResponse(String partialResponse) {
+        List<Subscriber> targets;
+        synchronized (this) {
+            if (finished || partialResponse == null) {
+                return;
+            }
+            text.append(partialResponse);
+            targets = List.copyOf(subscribers);
+        }
+        for (Subscriber subscriber : targets) {
+            subscriber.stream.recordUpstreamToken();
+            subscriber.deliver(() -> subscriber.coalescer.append(partialResponse));
+        }
+    }
+
+    @Override
+    public void onCompleteResponse(ChatResponse completeResponse) {
+        if (completeResponse != null && completeResponse.tokenUsage() != null) {
+            outputTokens = completeResponse.tokenUsage().outputTokenCount();
+        }
+        List<Subscriber> targets = finish();
+        if (targets == null) {
+            return;
+        }
+        onSuccess.accept(text.toString());
+        for (Subscriber subscriber : targets) {
+            subscriber.stream.recordOutputTokens(outputTokens);
+            subscriber.deliver(() -> {
+                subscriber.coalescer.flush();
+                subscriber.stream.complete();
+            });
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        List<Subscriber> targets = finish();
+        if (targets == null) {
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            subscriber.deliver(() -> {
+                subscriber.coalescer.flush();
+                subscriber.stream.fail(error.getMessage());
+            });
+        }
+    }
+
+    private List<Subscriber> finish() {
+        List<Subscriber> targets;
+        synchronized (this) {
+            if (finished) {
+                return null;
+            }
+            finished = true;
+            targets = List.copyOf(subscribers);
+            subscribers.clear();
+            cancelHooks.clear();
+        }
+        onFinish.accept(this);
+        return targets;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void onCancel(Runnable hook) {
+        synchronized (this) {
+            if (!cancelled) {
+                if (!finished) {
+                    cancelHooks.add(hook);
+                }
+                return;
+            }
+        }
+        hook.run();
+    }
+
+    synchronized boolean isActive() {
+        return !finished;
+    }
+
+    synchronized int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private static final class Subscriber {
+
+        private final AiStream stream;
+        private final TokenCoalescer coalescer;
+        /**
+         * 回放期间到达的实时事件，回放完成后置为 null
+         */
+        private List<Runnable> backlog = new ArrayList<>();
+
+        private Subscriber(AiStream stream, TokenCoalescer coalescer) {
+            this.stream = stream;
+            this.coalescer = coalescer;
+        }
+
+        /**
+         * 已追上时直接分发，否则暂存到回放结束
+         */
+        private void deliver(Runnable event) {
+            synchronized (this) {
+                if (backlog != null) {
+                    backlog.add(event);
+                    return;
+                }
+            }
+            event.run();
+        }
+
+        private void catchUp(Object progress, String generated) {
+            if (progress != null) {
+                stream.sendEvent("progress", progress);
+            }
+            if (!generated.isEmpty()) {
+                coalescer.append(generated);
+            }
+            while (true) {
+                List<Runnable> pending;
+                synchronized (this) {
+                    if (backlog.isEmpty()) {
+                        backlog = null;
+                        return;
+                    }
+                    pending = backlog;
+                    backlog = new ArrayList<>();
+                }
+                pending.forEach(Runnable::run);
+            }
+        }
+    }
+}
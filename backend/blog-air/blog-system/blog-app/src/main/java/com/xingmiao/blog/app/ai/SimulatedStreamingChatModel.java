@@ -0,0 +1,135 @@
+package com.xingmiao.blog.app.ai;
+
+import com.xingmiao.blog.app.config.AiSimulationProperties;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 模拟的流式模型：按配置的首字延迟、输出速度、错误率与停顿概率输出固定文本，不调用外部服务。
+ *
+ * <p>与真实客户端一样，调用线程只负责发起请求，分片在独立的调度线程上回调；
+ * 发起时绑定的 {@link CancellationScope} 被取消后停止输出，可用于验证取消与超时路径。</p>
+ */
+public class SimulatedStreamingChatModel implements StreamingChatModel, AutoCloseable {
+
+    private static final String FILLER = "这是模拟模型生成的内容，用于压测流式接口的首字延迟、吞吐与错误处理。"
+            + "输出速度、延迟和错误率都可以通过配置调整，不会产生任何调用费用。";
+
+    private final AiSimulationProperties properties;
+    private final ScheduledExecutorService scheduler;
+
+    public SimulatedStreamingChatModel(AiSimulationProperties properties) {
+        this.properties = properties;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, properties.getThreads()), r -> {
+            Thread t = new Thread(r, "simulated-llm-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void doChat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int total = Math.max(1, properties.getResponseTokens() + jitter(random, properties.getResponseTokensJitter()));
+        int failAt = random.nextDouble() < properties.getErrorRate() ? random.nextInt(total + 1) : -1;
+        int stallAt = random.nextDouble() < properties.getStallRate() ? 1 + random.nextInt(total) : -1;
+        long firstDelay = Math.max(0, properties.getFirstTokenLatency().toMillis()
+                + jitter(random, properties.getFirstTokenJitter().toMillis()));
+        Emission emission = new Emission(handler, UpstreamCancellation.current(), total, failAt, stallAt,
+                MarkdownChunker.estimateTokens(promptText(chatRequest)));
+        scheduler.schedule(emission, firstDelay, TimeUnit.MILLISECONDS);
+    }
+
+    private final class Emission implements Runnable {
+        private final StreamingChatResponseHandler handler;
+        private final CancellationScope scope;
+        private final int total;
+        private final int failAt;
+        private final int stallAt;
+        private final int inputTokens;
+        private final StringBuilder text = new StringBuilder();
+        private int emitted;
+
+        Emission(StreamingChatResponseHandler handler, CancellationScope scope,
+                 int total, int failAt, int stallAt, int inputTokens) {
+            this.handler = handler;
+            this.scope = scope;
+            this.total = total;
+            this.failAt = failAt;
+            this.stallAt = stallAt;
+            this.inputTokens = inputTokens;
+        }
+
+        @Override
+        public void run() {
+            // 与真实上游一样，取消后不再回调
+            if (scope != null && scope.isCancelled()) {
+                return;
+            }
+            if (emitted == failAt) {
+                handler.onError(new IllegalStateException("模拟上游错误"));
+                return;
+            }
+            if (emitted == total) {
+                handler.onCompleteResponse(ChatResponse.builder()
+                        .aiMessage(AiMessage.from(text.toString()))
+                        .tokenUsage(new TokenUsage(inputTokens, total))
+                        .build());
+                return;
+            }
+            String token = token(emitted);
+            text.append(token);
+            handler.onPartialResponse(token);
+            emitted++;
+            long delayNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(properties.getTokensPerSecond(), 0.001));
+            if (emitted == stallAt) {
+                delayNanos += properties.getStallDuration().toNanos();
+            }
+            scheduler.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 每个分片取两个字符，循环使用填充文本
+     */
+    private static String token(int index) {
+        int start = (index * 2) % FILLER.length();
+        return FILLER.substring(start, Math.min(start + 2, FILLER.length()));
+    }
+
+    private static long jitter(ThreadLocalRandom random, long range) {
+        return range <= 0 ? 0 : random.nextLong(-range, range + 1);
+    }
+
+    private static int jitter(ThreadLocalRandom random, int range) {
+        return range <= 0 ? 0 : random.nextInt(-range, range + 1);
+    }
+
+    private static String promptText(ChatRequest chatRequest) {
+        StringBuilder prompt = new StringBuilder();
+        for (ChatMessage message : chatRequest.messages()) {
+            if (message instanceof UserMessage userMessage && userMessage.hasSingleText()) {
+                prompt.append(userMessage.singleText());
+            }
+        }
+        return prompt.toString();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,75 @@
+package com.xingmiao.blog.app.ai;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * 合并模型输出的细碎分片，减少 SSE 写入与前端重渲染次数。
+ *
+ * <p>距上次发送已超过时间窗口时立即发送（首个分片与慢速输出不增加延迟）；
+ * 窗口内到达的分片先缓冲，在窗口结束或累计达到 maxChars 时一次发送。</p>
+ */
+public class TokenCoalescer {
+
+    private final Predicate<String> downstream;
+    private final ScheduledExecutorService scheduler;
+    private final int maxChars;
+    private final long windowNanos;
+
+    private final StringBuilder buffer = new StringBuilder();
+    private long lastFlushAt;
+    private ScheduledFuture<?> pendingFlush;
+    private boolean closed;
+
+    /**
+     * @param downstream 实际发送，返回 false 表示下游已关闭，之后的分片直接丢弃
+     * @param scheduler  用于窗口结束时的定时发送
+     * @param maxChars   缓冲达到该长度立即发送
+     * @param windowMillis 合并窗口，0 表示不合并
+     */
+    public TokenCoalescer(Predicate<String> downstream, ScheduledExecutorService scheduler, int maxChars, long windowMillis) {
+        this.downstream = downstream;
+        this.scheduler = scheduler;
+        this.maxChars = Math.max(1, maxChars);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+        this.lastFlushAt = System.nanoTime() - windowNanos;
+    }
+
+    public synchronized void append(String token) {
+        if (closed || token == null || token.isEmpty()) {
+            return;
+        }
+        buffer.append(token);
+        long now = System.nanoTime();
+        long sinceLastFlush = now - lastFlushAt;
+        if (buffer.length() >= maxChars || sinceLastFlush >= windowNanos) {
+            flushBuffer(now);
+        } else if (pendingFlush == null) {
+            pendingFlush = scheduler.schedule(this::flush, windowNanos - sinceLastFlush, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 立即发送缓冲内容（生成结束或出错前调用）
+     */
+    public synchronized void flush() {
+        if (!closed && buffer.length() > 0) {
+            flushBuffer(System.nanoTime());
+        }
+    }
+
+    private void flushBuffer(long now) {
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+        String chunk = buffer.toString();
+        buffer.setLength(0);
+        lastFlushAt = now;
+        if (!downstream.test(chunk)) {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.xingmiao.blog.app.ai;
+
+/**
+ * 把当前线程上发起的模型请求与 {@link CancellationScope}（单个 {@link AiStream} 或多人共享的生成）关联起来。
+ *
+ * <p>模型客户端在调用线程上发起 HTTP 请求，{@link CancellableHttpClient} 在此时读取当前绑定的作用域，
+ * 作用域被取消时关闭上游响应体，不再继续接收和计费。</p>
+ */
+public final class UpstreamCancellation {
+
+    private static final ThreadLocal<CancellationScope> CURRENT = new ThreadLocal<>();
+
+    private UpstreamCancellation() {
+    }
+
+    /**
+     * 在绑定 scope 的情况下执行 action（action 内发起的模型请求会随 scope 取消而中止）
+     */
+    public static void run(CancellationScope scope, Runnable action) {
+        CancellationScope previous = CURRENT.get();
+        CURRENT.set(scope);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 当前线程绑定的作用域，没有时返回 null（供模型客户端在发起请求时读取）
+     */
+    public static CancellationScope current() {
+        return CURRENT.get();
+    }
+}
@@ -0,0 +1,35 @@
+package com.xingmiao.blog.app.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 跨节点广播本地缓存失效。消息会发给包括自己在内的所有订阅者，接收方按 origin 忽略自己发出的消息。
+ */
+public interface CacheInvalidationBus {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+
+    /**
+     * 失效通知
+     *
+     * @param origin    发出通知的节点
+     * @param cacheName 缓存名
+     * @param key       失效的 key；为 null 表示清空整个缓存
+     */
+    record CacheInvalidation(String origin, String cacheName, String key) {
+
+        public String encode() {
+            return origin + '\n' + cacheName + (key == null ? "\nC" : "\nE\n" + key);
+        }
+
+        public static CacheInvalidation decode(String message) {
+            String[] parts = message.split("\n", 4);
+            if (parts.length < 3) {
+                throw new IllegalArgumentException("无效的缓存失效消息");
+            }
+            return new CacheInvalidation(parts[0], parts[1], "E".equals(parts[2]) && parts.length == 4 ? parts[3] : null);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.xingmiao.blog.app.cache;
+
+/**
+ * 缓存名，需在 blog.cache.specs 中声明
+ */
+public final class CacheNames {
+
+    /**
+     * 已发布文章详情，按 slug
+     */
+    public static final String POSTS = "posts";
+
+    /**
+     * 用户端文章分页列表
+     */
+    public static final String POST_LISTS = "post-lists";
+
+    /**
+     * 全部标签与分类
+     */
+    public static final String TAXONOMY = "taxonomy";
+
+    private CacheNames() {
+    }
+}
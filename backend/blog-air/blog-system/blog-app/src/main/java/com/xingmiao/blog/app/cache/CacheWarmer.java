@@ -0,0 +1,154 @@
+package com.xingmiao.blog.app.cache;
+
+import com.xingmiao.blog.app.config.AuthorConfig;
+import com.xingmiao.blog.app.config.CacheWarmupProperties;
+import com.xingmiao.blog.app.repository.PostRepository;
+import com.xingmiao.blog.app.service.CategoryService;
+import com.xingmiao.blog.app.service.ContributionSvgService;
+import com.xingmiao.blog.app.service.GithubService;
+import com.xingmiao.blog.app.service.PostService;
+import com.xingmiao.blog.app.service.TagService;
+import com.xingmiao.blog.common.domain.enums.PostStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动后并行预热缓存：分类、标签、已发布文章列表前几页、浏览量最高的文章详情与 GitHub 贡献数据。
+ *
+ * <p>作为健康检查项加入 readiness 分组，预热完成或超过 {@code blog.cache.warmup.timeout} 之前
+ * 返回 OUT_OF_SERVICE，避免重启后的第一波请求同时穿透到数据库。</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmer implements HealthIndicator {
+
+    private final CacheWarmupProperties properties;
+    private final CategoryService categoryService;
+    private final TagService tagService;
+    private final PostService postService;
+    private final PostRepository postRepository;
+    private final GithubService githubService;
+    private final ContributionSvgService contributionSvgService;
+    private final AuthorConfig authorConfig;
+
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile long startedAt;
+    private volatile Health result;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        warmUp();
+    }
+
+    /**
+     * 提交全部预热任务，返回的 future 在全部完成或超时后完成，此时已标记为就绪
+     */
+    public CompletableFuture<Void> warmUp() {
+        startedAt = System.currentTimeMillis();
+        if (!properties.isEnabled()) {
+            result = Health.up().withDetail("enabled", false).build();
+            return CompletableFuture.completedFuture(null);
+        }
+        Map<String, Runnable> tasks = tasks();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getParallelism()), r -> {
+            Thread thread = new Thread(r, "cache-warmup-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture<?>[] futures = tasks.entrySet().stream()
+                .map(task -> CompletableFuture.runAsync(() -> run(task.getKey(), task.getValue()), executor))
+                .toArray(CompletableFuture[]::new);
+        // 已提交的任务执行完后线程自动退出
+        executor.shutdown();
+        return CompletableFuture.allOf(futures)
+                .orTimeout(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .handle((ignored, error) -> {
+                    finish(tasks.size(), error != null);
+                    return null;
+                });
+    }
+
+    @Override
+    public Health health() {
+        Health current = result;
+        if (current != null) {
+            return current;
+        }
+        return Health.outOfService()
+                .withDetail("phase", "warming")
+                .withDetail("elapsedMs", startedAt == 0 ? 0 : System.currentTimeMillis() - startedAt)
+                .build();
+    }
+
+    private Map<String, Runnable> tasks() {
+        Map<String, Runnable> tasks = new LinkedHashMap<>();
+        tasks.put("categories", categoryService::getAllCategories);
+        tasks.put("tags", tagService::getAllTags);
+        for (int page = 0; page < properties.getPages(); page++) {
+            PageRequest pageable = PageRequest.of(page, properties.getPageSize());
+            tasks.put("posts-page-" + page, () -> postService.listPublishedPosts(pageable));
+        }
+        if (properties.getTopPosts() > 0) {
+            tasks.put("top-posts", () -> {
+                List<String> slugs = postRepository.findTopViewedSlugs(PostStatus.PUBLISHED,
+                        PageRequest.of(0, properties.getTopPosts()));
+                slugs.forEach(postService::getBySlug);
+            });
+        }
+        String username = authorConfig.getGithubUsername();
+        if (username != null && !username.isBlank()) {
+            tasks.put("github", () -> {
+                githubService.getContributions(username, null, null);
+                contributionSvgService.render(username);
+            });
+        }
+        return tasks;
+    }
+
+    private void run(String name, Runnable task) {
+        long start = System.currentTimeMillis();
+        try {
+            task.run();
+            succeeded.incrementAndGet();
+            log.debug("缓存预热完成: {} {}ms", name, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("缓存预热失败: {} {}", name, e.getMessage());
+        }
+    }
+
+    private void finish(int total, boolean timedOut) {
+        long duration = System.currentTimeMillis() - startedAt;
+        result = Health.up()
+                .withDetail("durationMs", duration)
+                .withDetail("tasks", total)
+                .withDetail("succeeded", succeeded.get())
+                .withDetail("failed", failed.get())
+                .withDetail("timedOut", timedOut)
+                .build();
+        if (timedOut) {
+            log.warn("缓存预热超过 {}，先行就绪，剩余任务继续在后台执行（已完成 {}/{}）",
+                    properties.getTimeout(), succeeded.get() + failed.get(), total);
+        } else {
+            log.info("缓存预热完成：{} 项，失败 {} 项，耗时 {}ms", total, failed.get(), duration);
+        }
+    }
+}
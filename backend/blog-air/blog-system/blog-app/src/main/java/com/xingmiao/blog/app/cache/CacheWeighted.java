@@ -0,0 +1,12 @@
+package com.xingmiao.blog.app.cache;
+
+/**
+ * 可估算占用内存的缓存值，用于按 maximum-weight 限制容量的缓存
+ */
+public interface CacheWeighted {
+
+    /**
+     * 估算的占用字节数
+     */
+    long estimatedBytes();
+}
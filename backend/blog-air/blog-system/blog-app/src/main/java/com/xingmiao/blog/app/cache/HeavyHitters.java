@@ -0,0 +1,117 @@
+package com.xingmiao.blog.app.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 滑动窗口内的高频 key 统计（Space-Saving 算法）。
+ *
+ * <p>窗口按时间分为若干桶，每个桶最多跟踪 {@code capacity} 个 key。桶满时新 key 顶替计数最小的 key，
+ * 并继承其计数作为误差上限：真正的高频 key 不会漏掉，计数可能偏高但不超过 {@code error}。
+ * 内存占用与访问的 key 数量无关，只取决于桶数 × capacity。</p>
+ */
+public class HeavyHitters {
+
+    private final long bucketMillis;
+    private final int capacity;
+    private final Bucket[] buckets;
+    private final LongSupplier clock;
+
+    public HeavyHitters(Duration window, int bucketCount, int capacity) {
+        this(window, bucketCount, capacity, System::currentTimeMillis);
+    }
+
+    HeavyHitters(Duration window, int bucketCount, int capacity, LongSupplier clock) {
+        if (bucketCount < 1 || capacity < 1) {
+            throw new IllegalArgumentException("bucketCount 与 capacity 必须为正数");
+        }
+        this.bucketMillis = Math.max(1, window.toMillis() / bucketCount);
+        this.capacity = capacity;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.clock = clock;
+    }
+
+    public synchronized void record(String key) {
+        long epoch = clock.getAsLong() / bucketMillis;
+        Bucket bucket = buckets[(int) (epoch % buckets.length)];
+        if (bucket.epoch != epoch) {
+            bucket.epoch = epoch;
+            bucket.counters.clear();
+        }
+        bucket.add(key, capacity);
+    }
+
+    /**
+     * 窗口内计数最高的 key
+     *
+     * @param limit    最多返回的个数
+     * @param minCount 保证计数（count - error）低于该值的 key 不返回
+     */
+    public synchronized List<HotKey> top(int limit, long minCount) {
+        long oldest = clock.getAsLong() / bucketMillis - buckets.length + 1;
+        Map<String, long[]> merged = new HashMap<>();
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch < oldest) {
+                continue;
+            }
+            bucket.counters.forEach((key, counter) -> {
+                long[] total = merged.computeIfAbsent(key, k -> new long[2]);
+                total[0] += counter[0];
+                total[1] += counter[1];
+            });
+        }
+        List<HotKey> result = new ArrayList<>();
+        merged.forEach((key, total) -> {
+            if (total[0] - total[1] >= minCount) {
+                result.add(new HotKey(key, total[0], total[1]));
+            }
+        });
+        result.sort(Comparator.comparingLong(HotKey::count).reversed().thenComparing(HotKey::key));
+        return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * @param count 估计的访问次数
+     * @param error 估计值可能偏高的上限
+     */
+    public record HotKey(String key, long count, long error) {
+    }
+
+    private static final class Bucket {
+
+        private long epoch = -1;
+        /**
+         * key -> {计数, 误差}
+         */
+        private final Map<String, long[]> counters = new HashMap<>();
+
+        void add(String key, int capacity) {
+            long[] counter = counters.get(key);
+            if (counter != null) {
+                counter[0]++;
+                return;
+            }
+            if (counters.size() < capacity) {
+                counters.put(key, new long[]{1, 0});
+                return;
+            }
+            Map.Entry<String, long[]> min = null;
+            for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+                if (min == null || entry.getValue()[0] < min.getValue()[0]) {
+                    min = entry;
+                }
+            }
+            long floor = min.getValue()[0];
+            counters.remove(min.getKey());
+            counters.put(key, new long[]{floor + 1, floor});
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.xingmiao.blog.app.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xingmiao.blog.app.config.HotPostProperties;
+import com.xingmiao.blog.app.event.PostChangedEvent;
+import com.xingmiao.blog.common.domain.enums.Visibility;
+import com.xingmiao.blog.common.dto.HotPostDto;
+import com.xingmiao.blog.common.dto.PostDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热点文章的固定缓存。
+ *
+ * <p>按 slug 统计文章详情的访问，定期取窗口内访问最多的 top-K 作为热点集合。热点文章的 JSON 响应
+ * 序列化后固定在这里，不参与普通缓存的容量淘汰，直接写回客户端，省去缓存还原、图片地址改写与序列化。
+ * 文章变更、退出热点集合或超过 ttl 后移除。加密文章的响应依赖 Cookie，不固定。</p>
+ */
+@Slf4j
+@Component
+public class HotPostCache {
+
+    private final HotPostProperties properties;
+    private final ObjectMapper objectMapper;
+    private final HeavyHitters hitters;
+    private final ConcurrentMap<String, Pinned> pinned = new ConcurrentHashMap<>();
+    private volatile Map<String, HeavyHitters.HotKey> hot = Map.of();
+
+    public HotPostCache(HotPostProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.hitters = new HeavyHitters(properties.getWindow(), properties.getBuckets(), properties.getCapacity());
+    }
+
+    public void record(String slug) {
+        if (properties.isEnabled()) {
+            hitters.record(slug);
+        }
+    }
+
+    /**
+     * @return 已固定且未过期的响应，否则返回 null
+     */
+    public Pinned get(String slug) {
+        Pinned entry = pinned.get(slug);
+        if (entry == null) {
+            return null;
+        }
+        if (Instant.now().isAfter(entry.pinnedAt().plus(properties.getTtl()))) {
+            pinned.remove(slug, entry);
+            return null;
+        }
+        entry.hits().increment();
+        return entry;
+    }
+
+    /**
+     * 文章在热点集合中时固定其响应（需已完成图片地址改写等处理）
+     */
+    public void offer(String slug, PostDto post) {
+        if (!hot.containsKey(slug) || post.getVisibility() == Visibility.PASSWORD) {
+            return;
+        }
+        try {
+            pinned.put(slug, new Pinned(post.getId(), objectMapper.writeValueAsBytes(post), Instant.now(), new LongAdder()));
+        } catch (JsonProcessingException e) {
+            log.warn("热点文章序列化失败: {} {}", slug, e.getMessage());
+        }
+    }
+
+    /**
+     * 重新计算热点集合，移除不再是热点的固定响应
+     */
+    @Scheduled(fixedDelayString = "${blog.hot-posts.refresh-interval:PT5S}")
+    public void refresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Map<String, HeavyHitters.HotKey> next = new LinkedHashMap<>();
+        for (HeavyHitters.HotKey key : hitters.top(properties.getTopK(), properties.getMinRequests())) {
+            next.put(key.key(), key);
+        }
+        if (!next.keySet().equals(hot.keySet())) {
+            log.info("热点文章: {}", next.keySet());
+        }
+        hot = next;
+        pinned.keySet().removeIf(slug -> !next.containsKey(slug));
+    }
+
+    /**
+     * slug 可能已修改，按文章 ID 移除
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        pinned.values().removeIf(entry -> entry.postId().equals(event.postId()));
+    }
+
+    public List<HotPostDto> snapshot() {
+        return hot.values().stream()
+                .map(key -> {
+                    Pinned entry = pinned.get(key.key());
+                    return HotPostDto.builder()
+                            .slug(key.key())
+                            .requests(key.count())
+                            .error(key.error())
+                            .pinned(entry != null)
+                            .pinnedBytes(entry != null ? (long) entry.json().length : null)
+                            .pinnedAt(entry != null ? entry.pinnedAt() : null)
+                            .pinnedHits(entry != null ? entry.hits().sum() : 0)
+                            .build();
+                })
+                .toList();
+    }
+
+    /**
+     * 固定的响应
+     *
+     * @param json 与正常返回一致的 JSON 字节
+     */
+    public record Pinned(Long postId, byte[] json, Instant pinnedAt, LongAdder hits) {
+    }
+}
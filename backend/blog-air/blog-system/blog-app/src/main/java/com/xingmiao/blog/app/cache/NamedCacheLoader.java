@@ -0,0 +1,14 @@
+package com.xingmiao.blog.app.cache;
+
+/**
+ * 指定缓存的加载器。
+ *
+ * <p>配置了 refresh-after-write 的缓存必须注册同名加载器：写入超过该时长后，下一次读取仍返回旧值，
+ * 同时在后台调用 {@link #load(Object)} 重新加载；缓存未命中时也通过它加载。</p>
+ */
+public interface NamedCacheLoader {
+
+    String cacheName();
+
+    Object load(Object key) throws Exception;
+}
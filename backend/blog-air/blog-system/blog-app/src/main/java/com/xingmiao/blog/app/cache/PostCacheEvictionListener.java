@@ -0,0 +1,31 @@
+package com.xingmiao.blog.app.cache;
+
+import com.xingmiao.blog.app.event.PostChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 文章变化后清空文章相关缓存。
+ *
+ * <p>列表的 key 无法从单篇文章推出（分页、分类、标签都可能受影响），分类与标签的文章数也会变化，
+ * 因此整体清空；这几类缓存过期时间本就很短，重建代价可以接受。</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class PostCacheEvictionListener {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * 事务提交后再清空，避免并发读取把提交前的旧数据重新写回缓存
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        cacheManager.getCache(CacheNames.POSTS).clear();
+        cacheManager.getCache(CacheNames.POST_LISTS).clear();
+        cacheManager.getCache(CacheNames.TAXONOMY).clear();
+    }
+}
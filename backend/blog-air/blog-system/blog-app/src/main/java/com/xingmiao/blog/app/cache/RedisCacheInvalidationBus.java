@@ -0,0 +1,42 @@
+package com.xingmiao.blog.app.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * 通过 Redis pub/sub 广播缓存失效
+ */
+@Slf4j
+public class RedisCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final StringRedisTemplate template;
+    private final RedisMessageListenerContainer container;
+    private final ChannelTopic topic;
+
+    public RedisCacheInvalidationBus(StringRedisTemplate template, RedisMessageListenerContainer container, String channel) {
+        this.template = template;
+        this.container = container;
+        this.topic = new ChannelTopic(channel);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        template.convertAndSend(topic.getTopic(), invalidation.encode());
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        container.addMessageListener((message, pattern) -> {
+            try {
+                listener.accept(CacheInvalidation.decode(new String(message.getBody(), StandardCharsets.UTF_8)));
+            } catch (RuntimeException e) {
+                log.warn("处理缓存失效消息失败: {}", e.getMessage());
+            }
+        }, topic);
+    }
+}
@@ -0,0 +1,59 @@
+package com.xingmiao.blog.app.cache;
+
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于 Redis 的二级缓存存储
+ */
+public class RedisRemoteCacheStore implements RemoteCacheStore {
+
+    private static final int CLEAR_BATCH = 500;
+
+    private final RedisTemplate<String, byte[]> template;
+
+    public RedisRemoteCacheStore(RedisTemplate<String, byte[]> template) {
+        this.template = template;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        return template.opsForValue().get(key);
+    }
+
+    @Override
+    public void put(String key, byte[] value, Duration ttl) {
+        template.opsForValue().set(key, value, ttl);
+    }
+
+    @Override
+    public void evict(String key) {
+        template.unlink(key);
+    }
+
+    /**
+     * 用 SCAN 分批删除，不阻塞 Redis
+     */
+    @Override
+    public void clear(String keyPrefix) {
+        ScanOptions options = ScanOptions.scanOptions().match(keyPrefix + "*").count(CLEAR_BATCH).build();
+        List<String> batch = new ArrayList<>(CLEAR_BATCH);
+        try (Cursor<String> cursor = template.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == CLEAR_BATCH) {
+                    template.unlink(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            template.unlink(batch);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.xingmiao.blog.app.cache;
+
+import java.time.Duration;
+
+/**
+ * 二级缓存的共享存储，各节点读写同一份数据。实现在不可用时直接抛出运行时异常，由调用方降级。
+ */
+public interface RemoteCacheStore {
+
+    byte[] get(String key);
+
+    void put(String key, byte[] value, Duration ttl);
+
+    void evict(String key);
+
+    /**
+     * 删除指定前缀的所有 key
+     */
+    void clear(String keyPrefix);
+}
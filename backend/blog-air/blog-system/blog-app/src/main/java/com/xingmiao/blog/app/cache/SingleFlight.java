@@ -0,0 +1,73 @@
+package com.xingmiao.blog.app.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 合并同一 key 的并发加载：同一时刻每个 key 只执行一次加载，其余调用等待并共享结果。
+ *
+ * <p>加载在调用线程中执行，不持有任何锁；失败不会被记住，异常传给当次的全部等待者，下一次调用重新加载。</p>
+ *
+ * @param <K> key 类型
+ * @param <V> 结果类型，多个调用方共享同一实例，应为不可变值
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public V execute(K key, Callable<? extends V> loader) throws Exception {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        loads.increment();
+        try {
+            V value = loader.call();
+            created.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            // 先完成再移除：此后到达的调用由调用方自己的缓存命中，或重新发起加载
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * 实际执行的加载次数
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * 等待其他线程加载结果、未自行加载的调用次数
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
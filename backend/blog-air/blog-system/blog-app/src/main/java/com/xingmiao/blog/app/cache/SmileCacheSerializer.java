@@ -0,0 +1,93 @@
+package com.xingmiao.blog.app.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 缓存值的二进制序列化（Jackson Smile），带类型信息以便原样还原。
+ *
+ * <p>只允许还原本项目、java.lang / java.util / java.time 下的类型。{@link Page} 转为 {@link CachedPage} 保存。</p>
+ */
+public class SmileCacheSerializer {
+
+    private final ObjectMapper mapper;
+
+    public SmileCacheSerializer() {
+        BasicPolymorphicTypeValidator validator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("com.xingmiao.blog.")
+                .allowIfSubType("java.lang.")
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.time.")
+                .build();
+        this.mapper = new ObjectMapper(new SmileFactory())
+                .registerModule(new JavaTimeModule())
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .activateDefaultTyping(validator, ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+    }
+
+    public byte[] serialize(Object value) {
+        if (value instanceof Page<?> page) {
+            value = CachedPage.of(page);
+        } else if (value instanceof List<?> list) {
+            value = new ArrayList<>(list);
+        }
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Object deserialize(byte[] bytes) {
+        try {
+            Object value = mapper.readValue(bytes, Object.class);
+            return value instanceof CachedPage page ? page.toPage() : value;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 分页结果的可序列化形式
+     *
+     * @param sort 排序，形如 "createdAt,DESC"
+     */
+    record CachedPage(ArrayList<Object> content, boolean paged, int number, int size, long total,
+                      ArrayList<String> sort) {
+
+        static CachedPage of(Page<?> page) {
+            ArrayList<String> sort = new ArrayList<>();
+            page.getSort().forEach(order -> sort.add(order.getProperty() + "," + order.getDirection()));
+            return new CachedPage(new ArrayList<>(page.getContent()), page.getPageable().isPaged(),
+                    page.getNumber(), page.getSize(), page.getTotalElements(), sort);
+        }
+
+        Page<Object> toPage() {
+            if (!paged) {
+                return new PageImpl<>(content);
+            }
+            List<Sort.Order> orders = sort.stream()
+                    .map(text -> {
+                        int comma = text.lastIndexOf(',');
+                        return new Sort.Order(Sort.Direction.valueOf(text.substring(comma + 1)), text.substring(0, comma));
+                    })
+                    .toList();
+            return new PageImpl<>(content, PageRequest.of(number, size, Sort.by(orders)), total);
+        }
+    }
+}
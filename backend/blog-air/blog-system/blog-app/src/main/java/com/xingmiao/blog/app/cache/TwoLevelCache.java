@@ -0,0 +1,315 @@
+package com.xingmiao.blog.app.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 两级缓存：本地 Caffeine（一级）+ 共享存储（二级，通常为 Redis）。
+ *
+ * <p>两级都保存序列化后的字节，每次读取得到独立的副本，调用方修改返回值不会影响缓存。
+ * 写入与删除会广播失效通知，其他节点丢弃各自的一级缓存。</p>
+ *
+ * <p>二级存储出错时在 {@code retryInterval} 内只使用本地缓存；恢复后先清空本地缓存，
+ * 丢弃故障期间可能错过失效通知的数据。</p>
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final byte[] NULL_BYTES = new byte[0];
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+    private final RemoteCacheStore remote;
+    private final CacheInvalidationBus bus;
+    private final SmileCacheSerializer serializer;
+    private final String nodeId;
+    private final String keyPrefix;
+    private final Duration remoteTtl;
+    private final Duration retryInterval;
+
+    private volatile boolean degraded;
+    private volatile long remoteRetryAt;
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder remoteErrors = new LongAdder();
+    private final SingleFlight<String, byte[]> loads = new SingleFlight<>();
+
+    /**
+     * @param remote 为 null 时只使用本地缓存
+     * @param bus    为 null 时不广播失效
+     */
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> local,
+                         RemoteCacheStore remote, CacheInvalidationBus bus, SmileCacheSerializer serializer,
+                         String nodeId, String keyPrefix, Duration remoteTtl, Duration retryInterval) {
+        super(true);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.bus = bus;
+        this.serializer = serializer;
+        this.nodeId = nodeId;
+        this.keyPrefix = keyPrefix + name + ":";
+        this.remoteTtl = remoteTtl;
+        this.retryInterval = retryInterval;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 一级缓存，值为序列化后的字节
+     */
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String k = String.valueOf(key);
+        byte[] bytes = (byte[]) local.getIfPresent(k);
+        if (bytes == null) {
+            bytes = remoteGet(k);
+            if (bytes == null) {
+                return null;
+            }
+            local.put(k, bytes);
+        }
+        return tryDecode(k, bytes);
+    }
+
+    /**
+     * 未命中时同一 key 只加载一次，并发请求共享加载得到的字节，各自还原出独立副本。
+     * 加载结果为 null 时不写入缓存（与 {@code unless = "#result == null"} 一致），避免不存在的 key 挤占容量
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String k = String.valueOf(key);
+        byte[] bytes = (byte[]) local.getIfPresent(k);
+        if (bytes == null) {
+            try {
+                bytes = loads.execute(k, () -> load(k, valueLoader));
+            } catch (ValueRetrievalException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+        Object storeValue = tryDecode(k, bytes);
+        if (storeValue == null) {
+            // 无法还原的数据已删除，本次直接加载，下次再写入缓存
+            try {
+                return valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+        return (T) fromStoreValue(storeValue);
+    }
+
+    private byte[] load(String key, Callable<?> valueLoader) {
+        byte[] shared = remoteGet(key);
+        if (shared != null) {
+            local.put(key, shared);
+            return shared;
+        }
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value == null) {
+            return NULL_BYTES;
+        }
+        byte[] encoded = encode(value);
+        local.put(key, encoded);
+        remotePut(key, encoded);
+        return encoded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String k = String.valueOf(key);
+        byte[] encoded = encode(toStoreValue(value));
+        local.put(k, encoded);
+        remotePut(k, encoded);
+        publish(k);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String k = String.valueOf(key);
+        local.invalidate(k);
+        if (remoteAvailable()) {
+            try {
+                remote.evict(keyPrefix + k);
+                remoteSucceeded();
+            } catch (RuntimeException e) {
+                remoteFailed("evict", e);
+            }
+        }
+        publish(k);
+    }
+
+    @Override
+    public void clear() {
+        local.invalidateAll();
+        if (remoteAvailable()) {
+            try {
+                remote.clear(keyPrefix);
+                remoteSucceeded();
+            } catch (RuntimeException e) {
+                remoteFailed("clear", e);
+            }
+        }
+        publish(null);
+    }
+
+    /**
+     * 处理其他节点发来的失效通知
+     *
+     * @param key 为 null 时清空
+     */
+    public void applyInvalidation(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    public boolean isTwoLevel() {
+        return remote != null;
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getRemoteMisses() {
+        return remoteMisses.sum();
+    }
+
+    public long getRemoteErrors() {
+        return remoteErrors.sum();
+    }
+
+    /**
+     * 未命中时实际执行的加载次数（含从 Redis 取回）
+     */
+    public long getLoads() {
+        return loads.getLoads();
+    }
+
+    /**
+     * 未命中时等待其他请求加载结果的次数
+     */
+    public long getCoalescedLoads() {
+        return loads.getCoalesced();
+    }
+
+    private byte[] remoteGet(String key) {
+        if (!remoteAvailable()) {
+            return null;
+        }
+        try {
+            byte[] bytes = remote.get(keyPrefix + key);
+            remoteSucceeded();
+            if (bytes == null) {
+                remoteMisses.increment();
+            } else {
+                remoteHits.increment();
+            }
+            return bytes;
+        } catch (RuntimeException e) {
+            remoteFailed("get", e);
+            return null;
+        }
+    }
+
+    private void remotePut(String key, byte[] bytes) {
+        if (!remoteAvailable()) {
+            return;
+        }
+        try {
+            remote.put(keyPrefix + key, bytes, remoteTtl);
+            remoteSucceeded();
+        } catch (RuntimeException e) {
+            remoteFailed("put", e);
+        }
+    }
+
+    private void publish(String key) {
+        if (bus == null || !remoteAvailable()) {
+            return;
+        }
+        try {
+            bus.publish(new CacheInvalidationBus.CacheInvalidation(nodeId, name, key));
+        } catch (RuntimeException e) {
+            remoteFailed("publish", e);
+        }
+    }
+
+    private boolean remoteAvailable() {
+        return remote != null && (!degraded || System.currentTimeMillis() >= remoteRetryAt);
+    }
+
+    private void remoteSucceeded() {
+        if (degraded) {
+            degraded = false;
+            // 可能在加载函数内调用，异步清空以免在 Caffeine 的计算过程中修改缓存
+            CompletableFuture.runAsync(local::invalidateAll);
+            log.info("二级缓存已恢复，清空本地缓存: {}", name);
+        }
+    }
+
+    private void remoteFailed(String operation, RuntimeException e) {
+        remoteErrors.increment();
+        remoteRetryAt = System.currentTimeMillis() + retryInterval.toMillis();
+        if (!degraded) {
+            degraded = true;
+            log.warn("二级缓存不可用，{} 内只使用本地缓存: {} {} {}", retryInterval, name, operation, e.getMessage());
+        }
+    }
+
+    private byte[] encode(Object storeValue) {
+        return storeValue == NullValue.INSTANCE ? NULL_BYTES : serializer.serialize(storeValue);
+    }
+
+    /**
+     * 无法还原时（如类结构已变化）删除该 key 并返回 null，按未命中处理
+     */
+    private Object tryDecode(String key, byte[] bytes) {
+        if (bytes.length == 0) {
+            return NullValue.INSTANCE;
+        }
+        try {
+            return serializer.deserialize(bytes);
+        } catch (RuntimeException e) {
+            log.warn("无法还原缓存值，已删除: {} {} {}", name, key, e.getMessage());
+            local.invalidate(key);
+            if (remoteAvailable()) {
+                try {
+                    remote.evict(keyPrefix + key);
+                } catch (RuntimeException ignored) {
+                    // 下次读取时再处理
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.xingmiao.blog.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 批量自动打标签配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai.auto-tag")
+public class AiAutoTagProperties {
+
+    /**
+     * 同时进行的模型请求数
+     */
+    private int concurrency = 2;
+
+    /**
+     * 每分钟最多发起的模型请求数
+     */
+    private int requestsPerMinute = 30;
+
+    /**
+     * 每批读取的文章数，每批结束后保存一次检查点
+     */
+    private int batchSize = 20;
+
+    /**
+     * 每篇文章最多建议的标签数
+     */
+    private int maxTags = 5;
+
+    /**
+     * 提供给模型的正文字符数上限
+     */
+    private int maxContentChars = 3000;
+
+    /**
+     * 单篇文章等待模型返回的时长上限
+     */
+    private Duration requestTimeout = Duration.ofSeconds(60);
+}
@@ -0,0 +1,38 @@
+package com.xingmiao.blog.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * AI 生成结果缓存配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai.cache")
+public class AiCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 最多缓存的结果数
+     */
+    private int maxEntries = 500;
+
+    /**
+     * 所有缓存结果的总字符数上限，超出时淘汰最久未使用的结果
+     */
+    private long maxTotalChars = 2_000_000;
+
+    /**
+     * 结果有效期
+     */
+    private Duration ttl = Duration.ofDays(1);
+
+    /**
+     * 命中缓存时每个 SSE 事件发送的字符数
+     */
+    private int replayChunkChars = 256;
+}
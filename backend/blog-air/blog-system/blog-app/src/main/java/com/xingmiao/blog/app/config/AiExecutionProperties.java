@@ -0,0 +1,51 @@
+package com.xingmiao.blog.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * AI 流式接口执行配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai.execution")
+public class AiExecutionProperties {
+
+    /**
+     * 同时进行的流式生成数（专用线程数）
+     */
+    private int maxConcurrentStreams = 8;
+
+    /**
+     * 等待执行的请求数上限，队列满时返回 503
+     */
+    private int queueCapacity = 16;
+
+    /**
+     * 单个客户端（按 IP）同时进行或排队的请求数上限，超出时返回 429
+     */
+    private int maxStreamsPerClient = 2;
+
+    /**
+     * 单次请求的总时长上限（含排队），超时后中止生成并关闭连接
+     */
+    private Duration streamTimeout = Duration.ofMinutes(2);
+
+    /**
+     * 输出合并窗口：窗口内到达的分片合并为一次 SSE 发送，0 表示逐个发送
+     */
+    private Duration coalesceWindow = Duration.ofMillis(30);
+
+    /**
+     * 合并缓冲达到该字符数时立即发送
+     */
+    private int coalesceMaxChars = 64;
+
+    /**
+     * 被拒绝时建议客户端等待的秒数（Retry-After）
+     */
+    private long retryAfterSeconds = 5;
+}
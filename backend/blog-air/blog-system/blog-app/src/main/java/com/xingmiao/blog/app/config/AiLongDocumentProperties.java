@@ -0,0 +1,36 @@
+package com.xingmiao.blog.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 长文分段总结（map-reduce）配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai.long-document")
+public class AiLongDocumentProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 估算 token 数超过该值时改用分段总结
+     */
+    private int thresholdTokens = 6000;
+
+    /**
+     * 每段的 token 预算
+     */
+    private int chunkTokens = 2500;
+
+    /**
+     * 单个请求同时总结的段数
+     */
+    private int mapConcurrency = 3;
+
+    /**
+     * 每段要点的目标字数
+     */
+    private int chunkSummaryChars = 300;
+}
@@ -0,0 +1,58 @@
+package com.xingmiao.blog.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 模拟模型配置，仅在 simulated-llm profile 下使用，用于离线压测 AI 接口
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai.simulation")
+public class AiSimulationProperties {
+
+    /**
+     * 首个分片的延迟（模拟排队与预填充）
+     */
+    private Duration firstTokenLatency = Duration.ofMillis(800);
+
+    /**
+     * 首个分片延迟的随机浮动范围（±）
+     */
+    private Duration firstTokenJitter = Duration.ofMillis(400);
+
+    /**
+     * 输出速度（分片/秒）
+     */
+    private double tokensPerSecond = 40;
+
+    /**
+     * 每次输出的分片数
+     */
+    private int responseTokens = 300;
+
+    /**
+     * 输出分片数的随机浮动范围（±）
+     */
+    private int responseTokensJitter = 100;
+
+    /**
+     * 以错误结束的概率（0~1），出错位置随机，可能在首个分片之前
+     */
+    private double errorRate = 0;
+
+    /**
+     * 输出中途停顿的概率（0~1），用于验证超时与取消
+     */
+    private double stallRate = 0;
+
+    private Duration stallDuration = Duration.ofSeconds(30);
+
+    /**
+     * 调度输出的线程数
+     */
+    private int threads = 2;
+}
@@ -1,17 +1,207 @@
 package com.xingmiao.blog.app.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xingmiao.blog.app.cache.CacheInvalidationBus;
+import com.xingmiao.blog.app.cache.CacheWeighted;
+import com.xingmiao.blog.app.cache.NamedCacheLoader;
+import com.xingmiao.blog.app.cache.RemoteCacheStore;
+import com.xingmiao.blog.app.cache.SmileCacheSerializer;
+import com.xingmiao.blog.app.cache.TwoLevelCache;
+import com.xingmiao.blog.app.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.AbstractCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+/**
+ * 基于 Caffeine 的缓存配置。
+ *
+ * <p>每个缓存按 {@code blog.cache.specs} 设置容量与过期策略并记录命中统计（由 actuator 以 cache.* 指标暴露）。
+ * 未声明的缓存名直接报错，不会悄悄创建无上限的缓存。标记为 two-level 的缓存再加一层 Redis，
+ * 见 {@link TwoLevelCache}。</p>
+ *
+ * <p>未命中时的加载一律读主库：缓存由所有访问者共享，从库复制延迟会让刚失效的旧数据被重新写回并保留到过期。</p>
+ */
 @Configuration
-@EnableCaching
+// 缓存切面在事务切面之外：命中或等待其他请求加载时不开启事务、不占用数据库连接，@CacheEvict 在提交后执行
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class CacheConfig {
 
+    /**
+     * 无法估算大小的值按此计重
+     */
+    private static final int DEFAULT_WEIGHT = 256;
+
+    @Bean
+    public CacheManager cacheManager(CacheSpecProperties properties,
+                                     ObjectProvider<NamedCacheLoader> loaderProvider,
+                                     ObjectProvider<RemoteCacheStore> remoteProvider,
+                                     ObjectProvider<CacheInvalidationBus> busProvider) {
+        Map<String, NamedCacheLoader> loaders = loaderProvider.orderedStream()
+                .collect(Collectors.toMap(NamedCacheLoader::cacheName, loader -> loader));
+        for (String name : loaders.keySet()) {
+            if (!properties.getSpecs().containsKey(name)) {
+                throw new IllegalStateException("缓存加载器对应的缓存未在 blog.cache.specs 中声明: " + name);
+            }
+        }
+        RemoteCacheStore remote = remoteProvider.getIfAvailable();
+        CacheInvalidationBus bus = busProvider.getIfAvailable();
+        CacheSpecProperties.Redis redis = properties.getRedis();
+        SmileCacheSerializer serializer = new SmileCacheSerializer();
+        String nodeId = UUID.randomUUID().toString();
+
+        List<Cache> caches = new ArrayList<>();
+        properties.getSpecs().forEach((name, spec) -> {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+            if (spec.getMaximumWeight() != null) {
+                builder.maximumWeight(spec.getMaximumWeight().toBytes()).weigher((key, value) -> weigh(value));
+            } else {
+                builder.maximumSize(spec.getMaximumSize());
+            }
+            if (spec.getExpireAfterWrite() != null) {
+                builder.expireAfterWrite(spec.getExpireAfterWrite());
+            }
+            if (spec.getExpireAfterAccess() != null) {
+                builder.expireAfterAccess(spec.getExpireAfterAccess());
+            }
+            NamedCacheLoader loader = loaders.get(name);
+            if (spec.isTwoLevel()) {
+                if (loader != null || spec.getRefreshAfterWrite() != null) {
+                    throw new IllegalStateException("两级缓存不支持 refresh-after-write 与 NamedCacheLoader: " + name);
+                }
+                Duration remoteTtl = spec.getExpireAfterWrite() != null ? spec.getExpireAfterWrite() : redis.getDefaultTtl();
+                caches.add(new PrimaryLoadingTwoLevelCache(name, builder.build(), remote, bus, serializer, nodeId,
+                        redis.getKeyPrefix(), remoteTtl, redis.getRetryInterval()));
+                return;
+            }
+            if (spec.getRefreshAfterWrite() != null) {
+                if (loader == null) {
+                    throw new IllegalStateException("缓存 " + name + " 配置了 refresh-after-write，但没有注册 NamedCacheLoader");
+                }
+                builder.refreshAfterWrite(spec.getRefreshAfterWrite());
+            }
+            caches.add(new PrimaryLoadingCaffeineCache(name, loader != null
+                    ? builder.build(key -> ReadWriteRoutingDataSource.callOnPrimary(() -> loader.load(key)))
+                    : builder.build()));
+        });
+
+        ConfiguredCacheManager manager = new ConfiguredCacheManager(caches);
+        manager.initializeCaches();
+        if (bus != null) {
+            bus.subscribe(invalidation -> {
+                if (!nodeId.equals(invalidation.origin())
+                        && manager.getCacheNames().contains(invalidation.cacheName())
+                        && manager.getCache(invalidation.cacheName()) instanceof TwoLevelCache cache) {
+                    cache.applyInvalidation(invalidation.key());
+                }
+            });
+        }
+        return manager;
+    }
+
+    /**
+     * 两级缓存的指标：一级缓存的 cache.* 指标，加上 Redis 命中、未命中与出错次数，
+     * 以及未命中时实际加载与合并等待的次数（cache.loads）
+     */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("github-contributions", "github-contributions-svg");
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return (cache, tags) -> registry -> {
+            new CaffeineCacheMetrics<>(cache.getNativeCache(), cache.getName(), tags).bindTo(registry);
+            FunctionCounter.builder("cache.remote.requests", cache, TwoLevelCache::getRemoteHits)
+                    .tags(tags).tag("cache", cache.getName()).tag("result", "hit").register(registry);
+            FunctionCounter.builder("cache.remote.requests", cache, TwoLevelCache::getRemoteMisses)
+                    .tags(tags).tag("cache", cache.getName()).tag("result", "miss").register(registry);
+            FunctionCounter.builder("cache.remote.requests", cache, TwoLevelCache::getRemoteErrors)
+                    .tags(tags).tag("cache", cache.getName()).tag("result", "error").register(registry);
+            FunctionCounter.builder("cache.loads", cache, TwoLevelCache::getLoads)
+                    .tags(tags).tag("cache", cache.getName()).tag("result", "executed").register(registry);
+            FunctionCounter.builder("cache.loads", cache, TwoLevelCache::getCoalescedLoads)
+                    .tags(tags).tag("cache", cache.getName()).tag("result", "coalesced").register(registry);
+        };
+    }
+
+    static int weigh(Object value) {
+        long bytes;
+        if (value instanceof CacheWeighted weighted) {
+            bytes = weighted.estimatedBytes();
+        } else if (value instanceof byte[] array) {
+            bytes = array.length;
+        } else if (value instanceof CharSequence text) {
+            bytes = 2L * text.length();
+        } else if (value instanceof Collection<?> collection) {
+            bytes = (long) DEFAULT_WEIGHT * collection.size();
+        } else {
+            bytes = DEFAULT_WEIGHT;
+        }
+        return (int) Math.min(Math.max(bytes, 1), Integer.MAX_VALUE);
+    }
+
+    /**
+     * 只包含已声明的缓存，获取未声明的缓存时抛出异常
+     */
+    static class ConfiguredCacheManager extends AbstractCacheManager {
+
+        private final List<Cache> caches;
+
+        ConfiguredCacheManager(List<Cache> caches) {
+            this.caches = caches;
+        }
+
+        @Override
+        protected Collection<? extends Cache> loadCaches() {
+            return caches;
+        }
+
+        @Override
+        public Cache getCache(String name) {
+            Cache cache = super.getCache(name);
+            if (cache == null) {
+                throw new IllegalArgumentException("未配置的缓存: " + name + "，请在 blog.cache.specs 中声明");
+            }
+            return cache;
+        }
+    }
+
+    static class PrimaryLoadingCaffeineCache extends CaffeineCache {
+
+        PrimaryLoadingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+            super(name, cache);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return super.get(key, () -> ReadWriteRoutingDataSource.callOnPrimary(valueLoader));
+        }
+    }
+
+    static class PrimaryLoadingTwoLevelCache extends TwoLevelCache {
+
+        PrimaryLoadingTwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> local,
+                                    RemoteCacheStore remote, CacheInvalidationBus bus, SmileCacheSerializer serializer,
+                                    String nodeId, String keyPrefix, Duration remoteTtl, Duration retryInterval) {
+            super(name, local, remote, bus, serializer, nodeId, keyPrefix, remoteTtl, retryInterval);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return super.get(key, () -> ReadWriteRoutingDataSource.callOnPrimary(valueLoader));
+        }
     }
 }
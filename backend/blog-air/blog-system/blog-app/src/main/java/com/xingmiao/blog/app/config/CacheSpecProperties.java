@@ -0,0 +1,80 @@
+package com.xingmiao.blog.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 本地缓存配置，只有在 specs 中声明的缓存名可以使用
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "blog.cache")
+public class CacheSpecProperties {
+
+    /**
+     * 缓存名 → 容量与过期策略
+     */
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    /**
+     * 两级缓存使用的 Redis；未启用时两级缓存只使用本地一级
+     */
+    private Redis redis = new Redis();
+
+    @Data
+    public static class Spec {
+
+        /**
+         * 最大条目数，未设置 maximumWeight 时生效
+         */
+        private long maximumSize = 1000;
+
+        /**
+         * 按估算字节数限制容量，设置后忽略 maximumSize
+         */
+        private DataSize maximumWeight;
+
+        private Duration expireAfterWrite;
+
+        private Duration expireAfterAccess;
+
+        /**
+         * 写入后多久在后台重新加载，需要注册同名的 NamedCacheLoader
+         */
+        private Duration refreshAfterWrite;
+
+        /**
+         * 是否为两级缓存：同时写入 Redis，并通过 pub/sub 通知其他节点丢弃本地副本
+         */
+        private boolean twoLevel;
+    }
+
+    @Data
+    public static class Redis {
+
+        private boolean enabled;
+
+        private String keyPrefix = "blog:cache:";
+
+        /**
+         * 缓存失效广播频道
+         */
+        private String channel = "blog:cache:invalidation";
+
+        /**
+         * 未配置 expire-after-write 的缓存在 Redis 中的有效期
+         */
+        private Duration defaultTtl = Duration.ofHours(1);
+
+        /**
+         * Redis 出错后只使用本地缓存的时长，之后再尝试访问 Redis
+         */
+        private Duration retryInterval = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,43 @@
+package com.xingmiao.blog.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 启动预热配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "blog.cache.warmup")
+public class CacheWarmupProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 预热的时间上限，超时后即视为就绪，未完成的任务继续在后台执行
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    /**
+     * 并行执行的预热任务数
+     */
+    private int parallelism = 4;
+
+    /**
+     * 预热已发布文章列表的前几页
+     */
+    private int pages = 3;
+
+    /**
+     * 列表每页条数，需与前端请求一致才能命中缓存
+     */
+    private int pageSize = 10;
+
+    /**
+     * 预热浏览量最高的文章详情篇数
+     */
+    private int topPosts = 20;
+}
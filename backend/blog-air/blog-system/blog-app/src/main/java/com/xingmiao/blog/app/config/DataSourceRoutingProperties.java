@@ -0,0 +1,70 @@
+package com.xingmiao.blog.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置：只读事务路由到从库，其余走 {@code spring.datasource} 主库
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "blog.datasource.routing")
+public class DataSourceRoutingProperties {
+
+    private boolean enabled;
+
+    /**
+     * 从库列表，连接池参数沿用 {@code spring.datasource.hikari}
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * 从库健康检查间隔
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+    /**
+     * 单次健康检查的超时时间
+     */
+    private Duration healthCheckTimeout = Duration.ofSeconds(2);
+
+    /**
+     * 写请求后该客户端的读请求继续走主库的时长，应大于从库的复制延迟
+     */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    /**
+     * 标记写后粘滞的 Cookie 名
+     */
+    private String stickyCookie = "blog_rw";
+
+    /**
+     * 写后粘滞主库的后台写接口（Ant 风格），点赞、文章密码校验、AI 生成等访客请求不在其中
+     */
+    private List<String> stickyPaths = new ArrayList<>(List.of(
+            "/api/posts", "/api/posts/*", "/api/posts/admin/**",
+            "/api/categories", "/api/categories/*",
+            "/api/tags", "/api/tags/*",
+            "/api/trash/**", "/api/upload/**", "/api/auto-tag/**",
+            "/api/knowledge-base/**", "/api/caches/**"));
+
+    @Data
+    public static class Replica {
+
+        private String name;
+
+        private String url;
+
+        /**
+         * 为空时使用主库的用户名与密码
+         */
+        private String username;
+
+        private String password;
+    }
+}
@@ -0,0 +1,47 @@
+package com.xingmiao.blog.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * GitHub 接口配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "github")
+public class GithubProperties {
+
+    private String token;
+
+    /**
+     * GraphQL 接口地址，测试时可指向本地替身
+     */
+    private String graphqlUrl = "https://api.github.com/graphql";
+
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    private Duration requestTimeout = Duration.ofSeconds(20);
+
+    /**
+     * 贡献数据的新鲜期，超过后仍立即返回旧数据，并在后台刷新
+     */
+    private Duration softTtl = Duration.ofMinutes(30);
+
+    /**
+     * 后台刷新失败后，间隔多久再重试
+     */
+    private Duration retryAfterFailure = Duration.ofMinutes(2);
+
+    /**
+     * 从未获取过的数据，请求线程最多等待的时间；超时后在后台继续加载
+     */
+    private Duration coldWait = Duration.ofSeconds(3);
+
+    /**
+     * 作者数据最近一次成功结果的快照文件，启动时加载；为空则不落盘
+     */
+    private String snapshotPath = "github-cache/contributions.json";
+}
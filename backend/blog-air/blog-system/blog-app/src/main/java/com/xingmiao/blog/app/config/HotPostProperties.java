@@ -0,0 +1,48 @@
+package com.xingmiao.blog.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 热点文章检测与固定缓存配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "blog.hot-posts")
+public class HotPostProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 统计窗口
+     */
+    private Duration window = Duration.ofMinutes(1);
+
+    /**
+     * 窗口划分的桶数，越多滑动越平滑
+     */
+    private int buckets = 6;
+
+    /**
+     * 每个桶跟踪的 key 数上限
+     */
+    private int capacity = 128;
+
+    /**
+     * 最多同时固定的热点文章数
+     */
+    private int topK = 5;
+
+    /**
+     * 窗口内至少访问多少次才算热点
+     */
+    private long minRequests = 60;
+
+    /**
+     * 固定响应的最长保留时间；其他实例的修改、置顶等不发布变更事件的操作最多延迟这么久生效
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+}
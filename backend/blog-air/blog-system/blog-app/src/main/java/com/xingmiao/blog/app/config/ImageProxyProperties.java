@@ -0,0 +1,61 @@
+package com.xingmiao.blog.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 外链图片缓存代理配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "image-proxy")
+public class ImageProxyProperties {
+
+    /**
+     * 是否将文章中的外链图片改写为代理地址
+     */
+    private boolean enabled = true;
+
+    /**
+     * 缓存目录
+     */
+    private String cachePath = "image-cache";
+
+    /**
+     * 缓存有效期，过期后重新拉取；拉取失败时继续使用旧文件
+     */
+    private Duration ttl = Duration.ofDays(7);
+
+    /**
+     * 单张图片最大字节数
+     */
+    private DataSize maxBytes = DataSize.ofMegabytes(10);
+
+    /**
+     * 缓存目录总大小上限，超出时按拉取时间淘汰最旧的文件
+     */
+    private DataSize maxCacheSize = DataSize.ofGigabytes(1);
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /**
+     * 单次拉取的总时长上限（含响应头与响应体）
+     */
+    private Duration readTimeout = Duration.ofSeconds(15);
+
+    private int maxRedirects = 3;
+
+    /**
+     * 是否允许访问内网与本机地址，仅用于本地测试
+     */
+    private boolean allowPrivateHosts = false;
+
+    /**
+     * 代理地址签名密钥，防止被当作开放代理使用
+     */
+    private String signingKey;
+}
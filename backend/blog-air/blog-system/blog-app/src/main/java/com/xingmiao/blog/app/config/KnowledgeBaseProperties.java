@@ -0,0 +1,84 @@
+package com.xingmiao.blog.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 知识库（基于已发布文章的检索问答）配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai.knowledge-base")
+public class KnowledgeBaseProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 向量索引持久化目录
+     */
+    private String indexPath = "kb-index";
+
+    /**
+     * 每个片段的 token 预算
+     */
+    private int chunkTokens = 400;
+
+    /**
+     * 默认检索的片段数
+     */
+    private int topK = 5;
+
+    /**
+     * 相似度低于该值的片段不作为上下文
+     */
+    private float minScore = 0.2f;
+
+    /**
+     * 提供给模型的上下文总字符数上限
+     */
+    private int maxContextChars = 6000;
+
+    /**
+     * 索引变化后延迟写盘，合并短时间内的多次修改
+     */
+    private Duration saveDelay = Duration.ofSeconds(5);
+
+    private Hnsw hnsw = new Hnsw();
+
+    private Embedding embedding = new Embedding();
+
+    @Data
+    public static class Hnsw {
+        private int m = 16;
+        private int ef = 100;
+        private int efConstruction = 200;
+    }
+
+    @Data
+    public static class Embedding {
+
+        /**
+         * local：本地哈希向量（离线、确定性，效果有限）；openai：OpenAI 兼容的向量接口
+         */
+        private String provider = "local";
+
+        private String baseUrl;
+
+        private String apiKey;
+
+        private String modelName = "text-embedding-3-small";
+
+        /**
+         * 向量维度
+         */
+        private int dimensions = 384;
+
+        /**
+         * 向量接口单次请求超时（仅 openai）
+         */
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+}
@@ -1,15 +1,23 @@
 package com.xingmiao.blog.app.config;
 
+import com.xingmiao.blog.app.ai.CancellableHttpClient;
+import com.xingmiao.blog.app.ai.HashingEmbeddingModel;
+import com.xingmiao.blog.app.ai.SimulatedStreamingChatModel;
+import dev.langchain4j.http.client.HttpClientBuilderLoader;
 import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
 import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 @Configuration
 public class LangChain4jConfig {
 
     @Bean
+    @Profile("!simulated-llm")
     public StreamingChatModel streamingChatModel(
             @Value("${langchain4j.open-ai.streaming-chat-model.api-key}") String apiKey,
             @Value("${langchain4j.open-ai.streaming-chat-model.model-name}") String modelName,
@@ -17,6 +25,8 @@ public class LangChain4jConfig {
             @Value(value = "${langchain4j.open-ai.streaming-chat-model.temperature:0.3}") Double temperature
     ) {
         var builder = OpenAiStreamingChatModel.builder()
+                // 包装 HTTP 客户端，客户端断开或超时后关闭上游连接，停止生成
+                .httpClientBuilder(new CancellableHttpClient.Builder(HttpClientBuilderLoader.loadHttpClientBuilder()))
                 .apiKey(apiKey)
                 .modelName(modelName)
                 .temperature(temperature);
@@ -25,6 +35,39 @@ public class LangChain4jConfig {
         }
         return builder.build();
     }
-}
 
+    /**
+     * 模拟模型：以 simulated-llm profile 启动时替代真实模型，离线压测 AI 接口，参数见 ai.simulation
+     */
+    @Bean
+    @Profile("simulated-llm")
+    public StreamingChatModel simulatedStreamingChatModel(AiSimulationProperties properties) {
+        return new SimulatedStreamingChatModel(properties);
+    }
 
+    /**
+     * 知识库向量模型：默认使用本地哈希向量，配置 provider=openai 时调用 OpenAI 兼容的向量接口
+     */
+    @Bean
+    public EmbeddingModel embeddingModel(KnowledgeBaseProperties properties,
+                                         @Value("${langchain4j.open-ai.streaming-chat-model.api-key}") String chatApiKey,
+                                         @Value(value = "${langchain4j.open-ai.streaming-chat-model.base-url:}") String chatBaseUrl) {
+        KnowledgeBaseProperties.Embedding embedding = properties.getEmbedding();
+        if (!"openai".equalsIgnoreCase(embedding.getProvider())) {
+            return new HashingEmbeddingModel(embedding.getDimensions());
+        }
+        // 未单独配置时沿用对话模型的地址与密钥
+        String apiKey = embedding.getApiKey() != null && !embedding.getApiKey().isBlank() ? embedding.getApiKey() : chatApiKey;
+        String baseUrl = embedding.getBaseUrl() != null && !embedding.getBaseUrl().isBlank() ? embedding.getBaseUrl() : chatBaseUrl;
+        var builder = OpenAiEmbeddingModel.builder()
+                .httpClientBuilder(HttpClientBuilderLoader.loadHttpClientBuilder())
+                .apiKey(apiKey)
+                .modelName(embedding.getModelName())
+                .dimensions(embedding.getDimensions())
+                .timeout(embedding.getTimeout());
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            builder.baseUrl(baseUrl);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.xingmiao.blog.app.config;
+
+import com.xingmiao.blog.app.cache.CacheInvalidationBus;
+import com.xingmiao.blog.app.cache.RedisCacheInvalidationBus;
+import com.xingmiao.blog.app.cache.RedisRemoteCacheStore;
+import com.xingmiao.blog.app.cache.RemoteCacheStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 两级缓存的 Redis 存储与失效广播，{@code blog.cache.redis.enabled=true} 时启用
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "blog.cache.redis", name = "enabled", havingValue = "true")
+public class RedisCacheConfig {
+
+    @Bean
+    public RemoteCacheStore remoteCacheStore(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return new RedisRemoteCacheStore(template);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate,
+                                                     RedisMessageListenerContainer cacheInvalidationListenerContainer,
+                                                     CacheSpecProperties properties) {
+        return new RedisCacheInvalidationBus(stringRedisTemplate, cacheInvalidationListenerContainer,
+                properties.getRedis().getChannel());
+    }
+}
@@ -1,39 +1,33 @@
 package com.xingmiao.blog.app.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.xingmiao.blog.app.storage.FileStorage;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
 /**
  * Web配置类
  */
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
-    @Value("${upload.path:uploads}")
-    private String uploadPath;
+    private final FileStorage fileStorage;
 
     /**
      * 配置静态资源映射
+     *
+     * <p>仅本地存储时由静态资源处理器直接提供 /uploads/**；对象存储模式下由 UploadResourceController 处理。</p>
      */
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // 处理上传路径，如果是相对路径则转换为项目根目录下的绝对路径
-        Path uploadBasePath = Paths.get(uploadPath);
-        if (!uploadBasePath.isAbsolute()) {
-            String projectRoot = System.getProperty("user.dir");
-            uploadBasePath = Paths.get(projectRoot, uploadPath);
-        }
-        
-        // 配置上传文件的访问路径
-        String resourceLocation = "file:" + uploadBasePath.toAbsolutePath().toString().replace("\\", "/") + "/";
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(resourceLocation);
+        fileStorage.localRoot().ifPresent(root -> {
+            String resourceLocation = "file:" + root.toAbsolutePath().toString().replace("\\", "/") + "/";
+            registry.addResourceHandler("/uploads/**")
+                    .addResourceLocations(resourceLocation);
+        });
     }
 
     /**
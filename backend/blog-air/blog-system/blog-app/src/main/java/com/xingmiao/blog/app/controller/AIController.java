@@ -1,82 +1,113 @@
 package com.xingmiao.blog.app.controller;
 
+import com.xingmiao.blog.app.ai.AiEvent;
+import com.xingmiao.blog.app.ai.AiGenerationHub;
+import com.xingmiao.blog.app.ai.LongDocumentSummarizer;
+import com.xingmiao.blog.app.ai.PreparedPrompt;
+import com.xingmiao.blog.app.config.KnowledgeBaseProperties;
+import com.xingmiao.blog.app.service.KnowledgeBaseService;
+import com.xingmiao.blog.app.util.ClientIp;
+import com.xingmiao.blog.common.dto.KnowledgeSearchHit;
+import com.xingmiao.blog.common.exception.ServiceBusyException;
+import com.xingmiao.blog.common.exception.TooManyRequestsException;
 import dev.langchain4j.data.message.UserMessage;
-import dev.langchain4j.model.chat.StreamingChatModel;
-import dev.langchain4j.model.chat.response.ChatResponse;
-import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
-import java.util.concurrent.CompletableFuture;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/ai")
 public class AIController {
 
-    private final StreamingChatModel streamingChatModel;
+    private final AiGenerationHub aiGenerationHub;
+    private final LongDocumentSummarizer longDocumentSummarizer;
+    private final KnowledgeBaseService knowledgeBaseService;
+    private final KnowledgeBaseProperties knowledgeBaseProperties;
 
-    public AIController(StreamingChatModel streamingChatModel) {
-        this.streamingChatModel = streamingChatModel;
+    public AIController(AiGenerationHub aiGenerationHub, LongDocumentSummarizer longDocumentSummarizer,
+                        KnowledgeBaseService knowledgeBaseService, KnowledgeBaseProperties knowledgeBaseProperties) {
+        this.aiGenerationHub = aiGenerationHub;
+        this.longDocumentSummarizer = longDocumentSummarizer;
+        this.knowledgeBaseService = knowledgeBaseService;
+        this.knowledgeBaseProperties = knowledgeBaseProperties;
     }
 
-    public record SummarizeRequest(String content, Integer lengthHint) {}
-    public record PolishRequest(String content, String tone) {}
+    /**
+     * @param regenerate 为 true 时忽略已缓存的结果重新生成
+     */
+    public record SummarizeRequest(String content, Integer lengthHint, Boolean regenerate) {}
+    public record PolishRequest(String content, String tone, Boolean regenerate) {}
+    public record AskRequest(String question, Integer topK, Boolean regenerate) {}
 
     @PostMapping(value = "/summarize/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter summarize(@RequestBody SummarizeRequest req) {
-        SseEmitter emitter = new SseEmitter(0L);
-        CompletableFuture.runAsync(() -> doStream(
-                buildSummarizePrompt(req.content(), req.lengthHint()),
-                emitter
-        ));
-        return emitter;
+    public SseEmitter summarize(@RequestBody SummarizeRequest req, HttpServletRequest request) {
+        String prompt = buildSummarizePrompt(req.content(), req.lengthHint());
+        boolean regenerate = Boolean.TRUE.equals(req.regenerate());
+        if (longDocumentSummarizer.isLong(req.content())) {
+            // 长文分段总结，先推送 progress 事件，最后流式输出汇总结果
+            return aiGenerationHub.stream("summarize-long", ClientIp.of(request), prompt, regenerate,
+                    sink -> longDocumentSummarizer.summarize(req.content(), req.lengthHint(), sink));
+        }
+        return aiGenerationHub.stream("summarize", ClientIp.of(request), prompt, regenerate);
     }
 
     @PostMapping(value = "/polish/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter polish(@RequestBody PolishRequest req) {
-        SseEmitter emitter = new SseEmitter(0L);
-        CompletableFuture.runAsync(() -> doStream(
-                buildPolishPrompt(req.content(), req.tone()),
-                emitter
-        ));
-        return emitter;
+    public SseEmitter polish(@RequestBody PolishRequest req, HttpServletRequest request) {
+        String prompt = buildPolishPrompt(req.content(), req.tone());
+        return aiGenerationHub.stream("polish", ClientIp.of(request), prompt, Boolean.TRUE.equals(req.regenerate()));
     }
 
-    private void doStream(String userPrompt, SseEmitter emitter) {
-        try {
-            streamingChatModel.chat(userPrompt, new StreamingChatResponseHandler() {
-                @Override
-                public void onPartialResponse(String partialResponse) {
-                    try {
-                        if (partialResponse != null && !partialResponse.isEmpty()) {
-                            emitter.send(SseEmitter.event().data(partialResponse));
-                        }
-                    } catch (IOException e) {
-                        emitter.completeWithError(e);
-                    }
-                }
-
-                @Override
-                public void onCompleteResponse(ChatResponse completeResponse) {
-                    emitter.complete();
-                }
-
-                @Override
-                public void onError(Throwable error) {
-                    try {
-                        emitter.send(SseEmitter.event().name("error").data(error.getMessage()));
-                    } catch (IOException ignored) {}
-                    emitter.completeWithError(error);
-                }
-            });
-        } catch (Exception ex) {
-            emitter.completeWithError(ex);
+    /**
+     * 基于博客文章回答问题：先推送 sources 事件（引用的文章），再流式输出回答
+     */
+    @PostMapping(value = "/ask/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter ask(@RequestBody AskRequest req, HttpServletRequest request) {
+        if (req.question() == null || req.question().isBlank()) {
+            throw new IllegalArgumentException("问题不能为空");
         }
+        int topK = req.topK() == null || req.topK() <= 0 ? knowledgeBaseProperties.getTopK() : Math.min(req.topK(), 20);
+        String question = req.question();
+        // 检索（含计算问题向量）放在执行器线程上，不占用请求线程，并受排队与并发限制约束
+        return aiGenerationHub.stream("ask", ClientIp.of(request), Boolean.TRUE.equals(req.regenerate()), () -> {
+            List<KnowledgeSearchHit> hits = knowledgeBaseService.search(question, topK);
+            return new PreparedPrompt(buildAskPrompt(question, hits), List.of(new AiEvent("sources", sources(hits))));
+        });
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, String>> handleTooManyRequests(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Map<String, String>> handleServiceBusy(ServiceBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
     }
 
     private String buildSummarizePrompt(String content, Integer lengthHint) {
@@ -84,6 +115,40 @@ public class AIController {
         return "你是专业的中文编辑，请基于以下文章生成简明扼要的中文摘要，保留核心事实与要点" + len + "。仅输出摘要，不要解释。\n\n文章：\n" + content;
     }
 
+    private String buildAskPrompt(String question, List<KnowledgeSearchHit> hits) {
+        StringBuilder context = new StringBuilder();
+        int budget = knowledgeBaseProperties.getMaxContextChars();
+        for (int i = 0; i < hits.size(); i++) {
+            KnowledgeSearchHit hit = hits.get(i);
+            String block = "[" + (i + 1) + "] 《" + hit.getTitle() + "》\n" + hit.getText() + "\n\n";
+            if (context.length() > 0 && context.length() + block.length() > budget) {
+                break;
+            }
+            context.append(block);
+        }
+        if (context.length() == 0) {
+            context.append("（没有找到相关内容）\n\n");
+        }
+        return "你是这个博客的问答助手。请只根据下面摘录的博客文章片段回答读者的问题，回答中用 [编号] 标注依据的片段；"
+                + "片段中没有相关信息时直接说明博客中没有找到相关内容，不要编造。\n\n文章片段：\n" + context
+                + "问题：" + question.trim();
+    }
+
+    /**
+     * 按文章去重的引用来源，保持相关度顺序
+     */
+    private List<Map<String, Object>> sources(List<KnowledgeSearchHit> hits) {
+        Map<Long, Map<String, Object>> byPost = new LinkedHashMap<>();
+        for (KnowledgeSearchHit hit : hits) {
+            byPost.computeIfAbsent(hit.getPostId(), id -> Map.of(
+                    "postId", id,
+                    "title", hit.getTitle(),
+                    "slug", hit.getSlug(),
+                    "score", hit.getScore()));
+        }
+        return new ArrayList<>(byPost.values());
+    }
+
     private String buildPolishPrompt(String content, String tone) {
         String t = (tone == null || tone.isBlank()) ? "自然" : tone.trim();
         return "你是专业的中文写作润色助手。请在不改变原意和事实的前提下提升以下文本的清晰度、结构与流畅度，语气风格偏向：" + t + "。仅输出润色后的文本，不要附加任何解释。\n\n原文：\n" + content;
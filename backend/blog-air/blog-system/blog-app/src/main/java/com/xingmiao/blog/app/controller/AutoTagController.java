@@ -0,0 +1,82 @@
+package com.xingmiao.blog.app.controller;
+
+import com.xingmiao.blog.app.service.AutoTagService;
+import com.xingmiao.blog.common.domain.enums.SuggestionStatus;
+import com.xingmiao.blog.common.dto.BatchJobDto;
+import com.xingmiao.blog.common.dto.TagSuggestionApplyResult;
+import com.xingmiao.blog.common.dto.TagSuggestionDto;
+import com.xingmiao.blog.common.result.PageResult;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量自动打标签控制器
+ */
+@RestController
+@RequestMapping("/api/auto-tag")
+@RequiredArgsConstructor
+@Tag(name = "自动打标签", description = "为没有标签的文章生成标签与分类建议，审核后批量应用")
+public class AutoTagController {
+
+    private final AutoTagService autoTagService;
+
+    public record SuggestionIdsRequest(List<Long> ids) {}
+
+    @PostMapping("/job")
+    @Operation(summary = "启动任务", description = "在后台逐批处理没有标签的文章，服务重启后从检查点继续；已有建议的文章会跳过")
+    public ResponseEntity<?> start() {
+        try {
+            return ResponseEntity.accepted().body(autoTagService.start());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/job/stop")
+    @Operation(summary = "停止任务", description = "当前批次处理完后停止")
+    public ResponseEntity<?> stop() {
+        return autoTagService.stop()
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "没有自动打标签任务")));
+    }
+
+    @GetMapping("/job")
+    @Operation(summary = "任务进度", description = "最近一次任务的状态、检查点与计数")
+    public ResponseEntity<?> job() {
+        return autoTagService.latestJob()
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "没有自动打标签任务")));
+    }
+
+    @GetMapping("/suggestions")
+    @Operation(summary = "建议列表", description = "按状态分页查询，默认待审核")
+    public ResponseEntity<PageResult<TagSuggestionDto>> suggestions(
+            @Parameter(description = "状态") @RequestParam(value = "status", defaultValue = "PENDING") SuggestionStatus status,
+            @Parameter(description = "分页参数") @ParameterObject Pageable pageable) {
+        Page<TagSuggestionDto> page = autoTagService.listSuggestions(status, pageable);
+        return ResponseEntity.ok(PageResult.success(page.getContent(), page.getNumber() + 1, page.getSize(), page.getTotalElements()));
+    }
+
+    @PostMapping("/suggestions/reject")
+    @Operation(summary = "驳回建议", description = "被驳回文章之后的任务不会再次生成建议")
+    public ResponseEntity<Map<String, Integer>> reject(@RequestBody SuggestionIdsRequest request) {
+        return ResponseEntity.ok(Map.of("rejected", autoTagService.reject(request.ids())));
+    }
+
+    @PostMapping("/suggestions/apply")
+    @Operation(summary = "批量应用", description = "把待审核建议中的标签写入文章，并为没有分类的文章设置分类；ids 为空时应用全部待审核建议")
+    public ResponseEntity<TagSuggestionApplyResult> apply(@RequestBody(required = false) SuggestionIdsRequest request) {
+        return ResponseEntity.ok(autoTagService.apply(request == null ? null : request.ids()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.xingmiao.blog.app.controller;
+
+import com.xingmiao.blog.app.service.CacheAdminService;
+import com.xingmiao.blog.common.dto.CacheStatsDto;
+import com.xingmiao.blog.common.dto.HotPostDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 本地缓存管理控制器
+ */
+@RestController
+@RequestMapping("/api/caches")
+@RequiredArgsConstructor
+@Tag(name = "缓存管理", description = "本地缓存的容量、过期策略与命中统计")
+public class CacheController {
+
+    private final CacheAdminService cacheAdminService;
+
+    @GetMapping
+    @Operation(summary = "缓存统计", description = "每个缓存的条目数、容量上限、过期策略、命中率与淘汰次数")
+    public ResponseEntity<List<CacheStatsDto>> stats() {
+        return ResponseEntity.ok(cacheAdminService.stats());
+    }
+
+    @GetMapping("/hot-posts")
+    @Operation(summary = "热点文章", description = "统计窗口内访问最多的文章，以及其响应是否已固定在热点缓存中")
+    public ResponseEntity<List<HotPostDto>> hotPosts() {
+        return ResponseEntity.ok(cacheAdminService.hotPosts());
+    }
+
+    @DeleteMapping("/{name}")
+    @Operation(summary = "清空缓存", description = "统计数据不会重置")
+    public ResponseEntity<?> clear(@Parameter(description = "缓存名") @PathVariable("name") String name) {
+        if (!cacheAdminService.clear(name)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "缓存不存在: " + name));
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.xingmiao.blog.app.controller;
+
+import com.xingmiao.blog.app.service.ChunkedUploadService;
+import com.xingmiao.blog.common.dto.ChunkedUploadInitRequest;
+import com.xingmiao.blog.common.dto.ChunkedUploadStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 分片上传控制器
+ *
+ * <p>协议：先调用 init 创建会话，再按偏移量 PUT 各分片（可并行、可乱序），最后调用 complete 合并。
+ * 断线后可通过查询接口获取缺失分片继续上传。</p>
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/upload/chunked")
+@RequiredArgsConstructor
+@Tag(name = "分片上传", description = "大文件分片/断点续传接口")
+public class ChunkedUploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    @PostMapping("/init")
+    @Operation(summary = "初始化分片上传", description = "创建上传会话并预分配文件，返回分片大小与缺失分片列表")
+    public ResponseEntity<?> init(@Valid @RequestBody ChunkedUploadInitRequest request) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.init(request));
+        } catch (IllegalArgumentException e) {
+            log.warn("分片上传初始化失败: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            log.error("分片上传初始化失败", e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "文件上传失败"));
+        }
+    }
+
+    @PutMapping("/{uploadId}")
+    @Operation(summary = "上传分片", description = "请求体为分片原始字节（application/octet-stream），offset 为分片在文件中的偏移量")
+    public ResponseEntity<?> uploadChunk(
+            @Parameter(description = "上传会话ID", required = true) @PathVariable("uploadId") String uploadId,
+            @Parameter(description = "分片偏移量", required = true) @RequestParam("offset") long offset,
+            HttpServletRequest request) {
+        try {
+            ChunkedUploadStatus status = chunkedUploadService.writeChunk(
+                    uploadId, offset, request.getContentLengthLong(), request.getInputStream());
+            return ResponseEntity.ok(status);
+        } catch (IllegalArgumentException e) {
+            log.warn("分片写入失败: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            log.error("分片写入失败，uploadId:{} offset:{}", uploadId, offset, e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "分片写入失败"));
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    @Operation(summary = "查询上传进度", description = "返回已接收与缺失的分片，用于断点续传")
+    public ResponseEntity<?> status(
+            @Parameter(description = "上传会话ID", required = true) @PathVariable("uploadId") String uploadId) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.getStatus(uploadId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    @Operation(summary = "完成分片上传", description = "校验所有分片到齐后合并为正式文件，返回访问URL")
+    public ResponseEntity<?> complete(
+            @Parameter(description = "上传会话ID", required = true) @PathVariable("uploadId") String uploadId) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.complete(uploadId));
+        } catch (IllegalArgumentException e) {
+            log.warn("分片上传合并失败: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            log.error("分片上传合并失败，uploadId:{}", uploadId, e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "文件上传失败"));
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    @Operation(summary = "取消分片上传", description = "放弃上传并删除临时文件")
+    public ResponseEntity<Void> abort(
+            @Parameter(description = "上传会话ID", required = true) @PathVariable("uploadId") String uploadId) {
+        chunkedUploadService.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+}
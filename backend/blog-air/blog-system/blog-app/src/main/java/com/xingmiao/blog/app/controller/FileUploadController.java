@@ -1,18 +1,19 @@
 package com.xingmiao.blog.app.controller;
 
+import com.xingmiao.blog.app.service.MediaService;
+import com.xingmiao.blog.app.storage.FileStorage;
+import com.xingmiao.blog.app.util.ImageInspector;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -22,12 +23,13 @@ import java.util.*;
  */
 @Slf4j
 @RestController
+@RequiredArgsConstructor
 @RequestMapping("/api/upload")
 @Tag(name = "文件上传", description = "文件上传管理接口")
 public class FileUploadController {
 
-    @Value("${upload.path:uploads}")
-    private String uploadPath;
+    private final FileStorage fileStorage;
+    private final MediaService mediaService;
 
     @Value("${upload.max-file-size:5MB}")
     private String maxFileSize;
@@ -50,26 +52,21 @@ public class FileUploadController {
             String extension = getFileExtension(originalFilename);
             String fileName = generateFileName(extension);
             
-            // 按日期创建目录
+            // 按日期组织存储 key
             String dateFolder = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-            
-            // 使用绝对路径，如果配置的是相对路径，则转换为项目根目录下的绝对路径
-            Path uploadBasePath = Paths.get(uploadPath);
-            if (!uploadBasePath.isAbsolute()) {
-                // 获取项目根目录
-                String projectRoot = System.getProperty("user.dir");
-                uploadBasePath = Paths.get(projectRoot, uploadPath);
-            }
-            
-            Path uploadDir = uploadBasePath.resolve(dateFolder);
-            Files.createDirectories(uploadDir);
+            String key = dateFolder + "/" + fileName;
 
-            // 保存文件
-            Path filePath = uploadDir.resolve(fileName);
-            file.transferTo(filePath.toFile());
+            ImageInspector.Result info;
+            try (InputStream in = file.getInputStream()) {
+                info = ImageInspector.inspect(in);
+            }
+            try (InputStream in = file.getInputStream()) {
+                fileStorage.store(key, in, file.getSize(), file.getContentType());
+            }
+            recordMedia(key, originalFilename, file.getContentType(), info);
 
             // 返回访问URL
-            String fileUrl = "/uploads/" + dateFolder.replace("\\", "/") + "/" + fileName;
+            String fileUrl = fileStorage.publicUrl(key);
             
             Map<String, Object> response = new HashMap<>();
             response.put("url", fileUrl);
@@ -77,7 +74,7 @@ public class FileUploadController {
             response.put("originalName", originalFilename);
             response.put("size", file.getSize());
             
-            log.info("文件上传成功: {} -> {}", fileUrl, filePath.toAbsolutePath());
+            log.info("文件上传成功: {} -> {}", originalFilename, fileUrl);
             return ResponseEntity.ok(response);
             
         } catch (IllegalArgumentException e) {
@@ -89,6 +86,17 @@ public class FileUploadController {
         }
     }
 
+    /**
+     * 登记到媒体库；登记失败不影响上传结果
+     */
+    private void recordMedia(String key, String originalName, String contentType, ImageInspector.Result info) {
+        try {
+            mediaService.record(key, originalName, contentType, info);
+        } catch (RuntimeException e) {
+            log.warn("媒体库登记失败: {}", key, e);
+        }
+    }
+
     /**
      * 验证文件
      */
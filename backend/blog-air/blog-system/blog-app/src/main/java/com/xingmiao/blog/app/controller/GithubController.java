@@ -1,16 +1,25 @@
 package com.xingmiao.blog.app.controller;
 
 import com.xingmiao.blog.app.config.AuthorConfig;
+import com.xingmiao.blog.app.service.ContributionSvgService;
 import com.xingmiao.blog.app.service.GithubService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/github")
 @RequiredArgsConstructor
@@ -19,10 +28,11 @@ public class GithubController {
 
     private final GithubService githubService;
     private final AuthorConfig authorConfig;
+    private final ContributionSvgService contributionSvgService;
 
 
     @GetMapping("/contributions/data")
-    @Operation(summary = "获取GitHub贡献数据", description = "仅获取解析后的贡献数据")
+    @Operation(summary = "获取GitHub贡献数据", description = "仅获取解析后的贡献数据；fetchedAt 为数据获取时间，stale 表示已过新鲜期、正在后台刷新")
     public ResponseEntity<Map<String, Object>> getContributionsData(
             @Parameter(name = "username", description = "GitHub用户名", example = "octocat")
             @RequestParam(name = "username") String username,
@@ -34,11 +44,13 @@ public class GithubController {
             @RequestParam(name = "to", required = false) String to) {
         
         try {
-            var data = githubService.getContributionsData(username, from, to);
+            var contributions = githubService.getContributions(username, from, to);
             return ResponseEntity.ok(Map.of(
                     "success", true,
                     "username", username,
-                    "data", data
+                    "data", contributions.data(),
+                    "fetchedAt", contributions.fetchedAt().toString(),
+                    "stale", contributions.stale()
             ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -60,11 +72,13 @@ public class GithubController {
                 ));
             }
 
-            var data = githubService.getContributionsData(username, null, null);
+            var contributions = githubService.getContributions(username, null, null);
             return ResponseEntity.ok(Map.of(
                     "success", true,
                     "username", username,
-                    "data", data
+                    "data", contributions.data(),
+                    "fetchedAt", contributions.fetchedAt().toString(),
+                    "stale", contributions.stale()
             ));
         } catch (Exception e) {
             return ResponseEntity.ok(Map.of(
@@ -73,4 +87,38 @@ public class GithubController {
             ));
         }
     }
+
+    @GetMapping(value = "/contributions.svg", produces = "image/svg+xml")
+    @Operation(summary = "博客作者的GitHub贡献热力图", description = "服务端渲染的 SVG，支持 gzip 与 ETag 协商缓存")
+    public ResponseEntity<byte[]> getAuthorContributionsSvg(
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        String username = authorConfig.getGithubUsername();
+        if (username == null || username.trim().isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ContributionSvgService.ContributionSvg svg;
+        try {
+            svg = contributionSvgService.render(username.trim());
+        } catch (Exception e) {
+            log.warn("渲染贡献热力图失败: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+        // 压缩与未压缩是两种表示，使用不同的 ETag
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = "\"" + svg.etag() + (gzip ? "-gzip" : "") + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.valueOf("image/svg+xml"))
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(CacheControl.maxAge(10, TimeUnit.MINUTES).cachePublic());
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(svg.gzip());
+        }
+        return builder.body(svg.svg());
+    }
 }
@@ -0,0 +1,61 @@
+package com.xingmiao.blog.app.controller;
+
+import com.xingmiao.blog.app.service.ImageProxyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 外链图片缓存代理控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/image-proxy")
+@RequiredArgsConstructor
+@Tag(name = "图片代理", description = "文章外链图片的本地缓存代理")
+public class ImageProxyController {
+
+    private final ImageProxyService imageProxyService;
+
+    @GetMapping
+    @Operation(summary = "获取外链图片", description = "地址由服务端改写文章内容时生成并签名，首次访问拉取源站图片并缓存")
+    public ResponseEntity<?> proxy(
+            @Parameter(description = "原始图片地址", required = true) @RequestParam("url") String url,
+            @Parameter(description = "地址签名", required = true) @RequestParam("sig") String sig) {
+        if (!imageProxyService.verify(url, sig)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "签名无效"));
+        }
+        try {
+            Path file = imageProxyService.fetch(url);
+            MediaType mediaType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM);
+            return ResponseEntity.ok()
+                    .contentType(mediaType)
+                    .cacheControl(CacheControl.maxAge(7, TimeUnit.DAYS).cachePublic())
+                    .header("X-Content-Type-Options", "nosniff")
+                    .body(new FileSystemResource(file));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            log.warn("外链图片代理失败: {} {}", url, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(Map.of("error", "图片获取失败"));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.xingmiao.blog.app.controller;
+
+import com.xingmiao.blog.app.service.KnowledgeBaseService;
+import com.xingmiao.blog.common.dto.KnowledgeBaseStatusDto;
+import com.xingmiao.blog.common.dto.KnowledgeSearchHit;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 知识库控制器
+ */
+@RestController
+@RequestMapping("/api/knowledge-base")
+@RequiredArgsConstructor
+@Tag(name = "知识库", description = "已发布文章的向量索引状态、重建与检索")
+public class KnowledgeBaseController {
+
+    private final KnowledgeBaseService knowledgeBaseService;
+
+    @GetMapping("/status")
+    @Operation(summary = "索引状态", description = "文章数、片段数、向量模型与最近更新时间")
+    public ResponseEntity<KnowledgeBaseStatusDto> status() {
+        return ResponseEntity.ok(knowledgeBaseService.status());
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "重建索引", description = "在后台全量重建，完成前检索仍使用旧索引")
+    public ResponseEntity<?> rebuild() {
+        if (!knowledgeBaseService.rebuild()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "知识库未启用或正在重建"));
+        }
+        return ResponseEntity.accepted().body(knowledgeBaseService.status());
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "检索片段", description = "返回与问题最相关的文章片段，用于调试检索效果")
+    public ResponseEntity<List<KnowledgeSearchHit>> search(
+            @Parameter(description = "问题或关键词") @RequestParam("q") String query,
+            @Parameter(description = "返回片段数，最大 20") @RequestParam(value = "topK", defaultValue = "5") int topK) {
+        return ResponseEntity.ok(knowledgeBaseService.search(query, Math.min(Math.max(topK, 1), 20)));
+    }
+}
@@ -2,6 +2,7 @@ package com.xingmiao.blog.app.controller;
 
 import com.xingmiao.blog.common.domain.enums.LikeTargetType;
 import com.xingmiao.blog.app.service.LikeService;
+import com.xingmiao.blog.app.util.ClientIp;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -28,7 +29,7 @@ public class LikeController {
             @Parameter(description = "目标类型", required = true) @PathVariable("targetType") LikeTargetType targetType,
             @Parameter(description = "目标ID", required = true) @PathVariable("targetId") Long targetId,
             HttpServletRequest request) {
-        String ip = getClientIp(request);
+        String ip = ClientIp.of(request);
         String ua = request.getHeader("User-Agent");
         likeService.like(targetType, targetId, ip, ua);
         return ResponseEntity.ok().build();
@@ -40,7 +41,7 @@ public class LikeController {
             @Parameter(description = "目标类型", required = true) @PathVariable("targetType") LikeTargetType targetType,
             @Parameter(description = "目标ID", required = true) @PathVariable("targetId") Long targetId,
             HttpServletRequest request) {
-        String ip = getClientIp(request);
+        String ip = ClientIp.of(request);
         likeService.unlike(targetType, targetId, ip);
         return ResponseEntity.noContent().build();
     }
@@ -65,22 +66,9 @@ public class LikeController {
             @Parameter(description = "目标类型", required = true) @PathVariable("targetType") LikeTargetType targetType,
             @Parameter(description = "目标ID", required = true) @PathVariable("targetId") Long targetId,
             HttpServletRequest request) {
-        String ip = getClientIp(request);
+        String ip = ClientIp.of(request);
         return ResponseEntity.ok(likeService.isLiked(targetType, targetId, ip));
     }
-
-    private String getClientIp(HttpServletRequest request) {
-        String xff = request.getHeader("X-Forwarded-For");
-        if (xff != null && !xff.isBlank()) {
-            int idx = xff.indexOf(',');
-            return idx > 0 ? xff.substring(0, idx).trim() : xff.trim();
-        }
-        String realIp = request.getHeader("X-Real-IP");
-        if (realIp != null && !realIp.isBlank()) {
-            return realIp.trim();
-        }
-        return request.getRemoteAddr();
-    }
 }
 
 
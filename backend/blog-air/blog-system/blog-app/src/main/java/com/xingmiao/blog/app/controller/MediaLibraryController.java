@@ -0,0 +1,53 @@
+package com.xingmiao.blog.app.controller;
+
+import com.xingmiao.blog.app.service.MediaService;
+import com.xingmiao.blog.common.dto.MediaImportResult;
+import com.xingmiao.blog.common.dto.MediaLibraryPage;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 媒体库控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/upload/library")
+@RequiredArgsConstructor
+@Tag(name = "媒体库", description = "已上传图片的浏览与检索")
+public class MediaLibraryController {
+
+    private final MediaService mediaService;
+
+    @GetMapping
+    @Operation(summary = "浏览媒体库", description = "按上传时间倒序的游标分页，下一页传入上一页返回的 nextCursor")
+    public ResponseEntity<MediaLibraryPage> list(
+            @Parameter(description = "游标，首页不传") @RequestParam(value = "cursor", required = false) Long cursor,
+            @Parameter(description = "每页数量，最大 100") @RequestParam(value = "size", defaultValue = "30") int size,
+            @Parameter(description = "文件名、路径或内容哈希") @RequestParam(value = "keyword", required = false) String keyword,
+            @Parameter(description = "MIME 类型，如 image/png") @RequestParam(value = "mimeType", required = false) String mimeType,
+            @Parameter(description = "只看未被文章引用的文件") @RequestParam(value = "unused", defaultValue = "false") boolean unused) {
+        return ResponseEntity.ok(mediaService.list(cursor, size, keyword, mimeType, unused));
+    }
+
+    @PostMapping("/import")
+    @Operation(summary = "导入已有文件", description = "一次性扫描上传目录并行登记已有文件，同时重建引用计数；已登记的文件会被跳过")
+    public ResponseEntity<?> importExisting() {
+        try {
+            MediaImportResult result = mediaService.importExisting();
+            return ResponseEntity.ok(result);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            log.error("媒体库导入失败", e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "媒体库导入失败"));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.xingmiao.blog.app.controller;
+
+import com.xingmiao.blog.app.service.OgImageService;
+import com.xingmiao.blog.app.service.PostService;
+import com.xingmiao.blog.common.dto.PostDto;
+import com.xingmiao.blog.common.exception.ServiceBusyException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 社交分享卡片（Open Graph 图片）控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/og")
+@RequiredArgsConstructor
+@Tag(name = "分享卡片", description = "文章 Open Graph 分享图片")
+public class OgImageController {
+
+    private final PostService postService;
+    private final OgImageService ogImageService;
+
+    @GetMapping(value = "/posts/{slug}.png", produces = MediaType.IMAGE_PNG_VALUE)
+    @Operation(summary = "文章分享卡片", description = "1200×630 PNG，包含标题、分类、标签与站点名；按文章版本缓存")
+    public ResponseEntity<?> postCard(
+            @Parameter(description = "文章别名", required = true) @PathVariable("slug") String slug,
+            WebRequest webRequest) {
+        Optional<PostDto> post = postService.getBySlug(slug);
+        if (post.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = "\"" + ogImageService.versionOf(post.get()) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        try {
+            Path card = ogImageService.getCard(post.get());
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_PNG)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic())
+                    .body(new FileSystemResource(card));
+        } catch (ServiceBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (IOException e) {
+            log.error("生成分享卡片失败: {}", slug, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
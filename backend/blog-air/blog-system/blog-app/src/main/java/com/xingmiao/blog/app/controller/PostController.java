@@ -6,6 +6,8 @@ import com.xingmiao.blog.common.dto.PostDto;
 import com.xingmiao.blog.common.dto.PostUpdateRequest;
 // import com.xingmiao.blog.app.repository.PostAccessKeyRepository;
 // import com.xingmiao.blog.app.service.AccessTokenService;
+import com.xingmiao.blog.app.cache.HotPostCache;
+import com.xingmiao.blog.app.service.ImageProxyService;
 import com.xingmiao.blog.app.service.PostService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,6 +21,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springdoc.core.annotations.ParameterObject;
@@ -50,6 +53,8 @@ import jakarta.servlet.http.HttpServletRequest;
 public class PostController {
 
     private final PostService postService;
+    private final ImageProxyService imageProxyService;
+    private final HotPostCache hotPostCache;
     // 明文密码模式：不再依赖访问令牌和访问口令表
 
     /**
@@ -176,13 +181,23 @@ public class PostController {
         @ApiResponse(responseCode = "404", description = "文章不存在"),
         @ApiResponse(responseCode = "500", description = "服务器内部错误")
     })
-    public ResponseEntity<PostDto> getBySlug(
+    public ResponseEntity<?> getBySlug(
             @Parameter(description = "文章别名", required = true) @PathVariable("slug") String slug, 
             HttpServletRequest request) {
+        hotPostCache.record(slug);
+        HotPostCache.Pinned pinned = hotPostCache.get(slug);
+        if (pinned != null) {
+            postService.incrementViewCount(pinned.postId());
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(pinned.json());
+        }
         return postService.getBySlug(slug)
                 .map(post -> {
                     String token = getCookieValue(request, "pa_" + post.getId());
-                    return handleProtectedPost(post.getId(), post, token);
+                    ResponseEntity<PostDto> response = handleProtectedPost(post.getId(), post, token);
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        hotPostCache.offer(slug, post);
+                    }
+                    return response;
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -340,6 +355,8 @@ public class PostController {
      * @return 根据访问权限返回相应的响应
      */
     private ResponseEntity<PostDto> handleProtectedPost(Long postId, PostDto post, String cookiePassword) {
+        // 用户端展示：外链图片改为经本站缓存代理加载
+        post.setContent(imageProxyService.rewriteContent(post.getContent()));
         if (post.getVisibility() != Visibility.PASSWORD) {
             postService.incrementViewCount(postId);
             return ResponseEntity.ok(post);
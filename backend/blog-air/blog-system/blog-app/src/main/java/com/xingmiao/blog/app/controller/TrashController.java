@@ -1,5 +1,6 @@
 package com.xingmiao.blog.app.controller;
 
+import com.xingmiao.blog.common.dto.BatchJobDto;
 import com.xingmiao.blog.common.dto.PostDto;
 import com.xingmiao.blog.common.result.Result;
 import com.xingmiao.blog.common.result.PageResult;
@@ -32,6 +33,7 @@ import java.util.List;
  *   <li>硬删除文章（彻底删除）</li>
  *   <li>批量恢复文章</li>
  *   <li>批量硬删除文章</li>
+ *   <li>后台分块执行大批量恢复、硬删除并查询进度</li>
  * </ul>
  * 
  * @author 星喵博客系统
@@ -167,4 +169,58 @@ public class TrashController {
         trashService.batchHardDelete(ids);
         return ResponseEntity.ok(Result.success());
     }
+
+    /**
+     * 后台批量恢复文章
+     * 
+     * @param ids 文章ID列表
+     * @return 任务进度
+     */
+    @PostMapping("/jobs/restore")
+    @Operation(summary = "后台批量恢复文章", description = "适用于数量很大的批次：先检查分类，再在后台分块恢复，通过任务进度接口查询结果")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "任务已提交"),
+        @ApiResponse(responseCode = "500", description = "服务器内部错误")
+    })
+    public ResponseEntity<Result<BatchJobDto>> startBatchRestore(
+            @Parameter(description = "文章ID列表", required = true) @RequestBody List<Long> ids) {
+        return ResponseEntity.accepted().body(Result.success(trashService.startBatchRestore(ids)));
+    }
+
+    /**
+     * 后台批量硬删除文章
+     * 
+     * @param ids 文章ID列表
+     * @return 任务进度
+     */
+    @PostMapping("/jobs/hard-delete")
+    @Operation(summary = "后台批量硬删除文章", description = "适用于数量很大的批次：在后台分块彻底删除，每块单独提交，此操作不可恢复")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "任务已提交"),
+        @ApiResponse(responseCode = "500", description = "服务器内部错误")
+    })
+    public ResponseEntity<Result<BatchJobDto>> startBatchHardDelete(
+            @Parameter(description = "文章ID列表", required = true) @RequestBody List<Long> ids) {
+        return ResponseEntity.accepted().body(Result.success(trashService.startBatchHardDelete(ids)));
+    }
+
+    /**
+     * 查询后台任务进度
+     * 
+     * @param id 任务ID
+     * @return 任务状态与已处理、成功、跳过的数量
+     */
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "回收站任务进度", description = "查询后台批量恢复或硬删除任务的状态与进度")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "查询成功", 
+                    content = @Content(schema = @Schema(implementation = BatchJobDto.class))),
+        @ApiResponse(responseCode = "500", description = "服务器内部错误")
+    })
+    public ResponseEntity<Result<BatchJobDto>> getJob(
+            @Parameter(description = "任务ID", required = true) @PathVariable("id") Long id) {
+        return trashService.getJob(id)
+                .map(job -> ResponseEntity.ok(Result.success(job)))
+                .orElse(ResponseEntity.ok(Result.error("回收站任务不存在")));
+    }
 }
@@ -0,0 +1,63 @@
+package com.xingmiao.blog.app.controller;
+
+import com.xingmiao.blog.app.storage.FileStorage;
+import com.xingmiao.blog.app.storage.StorageProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对象存储模式下的 /uploads/** 访问入口
+ *
+ * <p>文章中已有的 /uploads/ 地址保持可用：配置了 CDN 时重定向到 CDN，否则从对象存储中转读取。</p>
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "upload.storage", name = "type", havingValue = "s3")
+public class UploadResourceController {
+
+    private final FileStorage fileStorage;
+    private final StorageProperties storageProperties;
+
+    @GetMapping("/uploads/**")
+    public ResponseEntity<?> serve(HttpServletRequest request) {
+        String key = fileStorage.keyOf(request.getRequestURI());
+        if (key == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (StringUtils.hasText(storageProperties.getPublicBaseUrl())) {
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .header(HttpHeaders.LOCATION, fileStorage.publicUrl(key))
+                    .build();
+        }
+        try {
+            if (!fileStorage.exists(key)) {
+                return ResponseEntity.notFound().build();
+            }
+            MediaType mediaType = MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM);
+            // 文件名为随机 UUID，内容不会变化，可长期缓存
+            return ResponseEntity.ok()
+                    .contentType(mediaType)
+                    .cacheControl(CacheControl.maxAge(30, TimeUnit.DAYS).cachePublic().immutable())
+                    .body(new InputStreamResource(fileStorage.open(key)));
+        } catch (IOException e) {
+            log.error("读取上传文件失败: {}", key, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.xingmiao.blog.app.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离数据源：只读事务轮询健康的从库，其余连接一律取自主库。
+ *
+ * <p>路由在取连接时根据当前事务的只读标记决定，事务开始时只读标记尚未设置，
+ * 因此必须外包 {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}，
+ * 推迟到第一条语句执行时再取连接。</p>
+ *
+ * <p>从库取连接失败时标记为不可用并改用主库，由 {@link #checkReplicas()} 定期探测恢复；
+ * 当前线程调用过 {@link #usePrimary()} 后，只读事务也走主库（写后读一致）；
+ * 填充共享缓存的加载经 {@link #callOnPrimary(Callable)} 读主库，避免刚失效的缓存被从库的旧数据重新写回。</p>
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final int healthCheckTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryReads = new LongAdder();
+
+    /**
+     * @param replicas 从库名 -> 数据源
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration healthCheckTimeout) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.healthCheckTimeoutSeconds = (int) Math.max(1, healthCheckTimeout.toSeconds());
+    }
+
+    /**
+     * 当前线程之后的只读事务也走主库，需配对调用 {@link #clearPrimaryRequired()}
+     */
+    public static void usePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static void clearPrimaryRequired() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    /**
+     * 在当前线程上执行 task，期间的只读事务走主库，结束后恢复原有的路由标记
+     */
+    public static <T> T callOnPrimary(Callable<T> task) throws Exception {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = readOnlyTransaction() ? nextHealthyReplica() : null;
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.routed.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+        if (readOnlyTransaction()) {
+            primaryReads.increment();
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * 逐个探测从库，更新可用状态
+     */
+    @Scheduled(fixedDelayString = "${blog.datasource.routing.health-check-interval:PT10S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(healthCheckTimeoutSeconds)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(new SQLException("连接校验未通过"));
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    /**
+     * 各从库的状态与路由次数，以及因无可用从库改走主库的只读连接数
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Replica replica : replicas) {
+            result.put(replica.name, Map.of(
+                    "healthy", replica.healthy,
+                    "connections", replica.routed.sum()));
+        }
+        result.put("primaryReads", primaryReads.sum());
+        return result;
+    }
+
+    public boolean hasHealthyReplica() {
+        return replicas.stream().anyMatch(replica -> replica.healthy);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static boolean readOnlyTransaction() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, size));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final LongAdder routed = new LongAdder();
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        void markUp() {
+            if (!healthy) {
+                healthy = true;
+                log.info("从库已恢复: {}", name);
+            }
+        }
+
+        void markDown(SQLException e) {
+            if (healthy) {
+                healthy = false;
+                log.warn("从库不可用，只读请求改走主库: {} {}", name, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.xingmiao.blog.app.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 写后读一致：后台写接口（匹配 {@code writePaths} 的 POST、PUT、PATCH、DELETE）写入短时 Cookie，
+ * 带该 Cookie 的后续请求在窗口内只读事务也走主库，避免刚保存的内容因从库复制延迟读不到。
+ *
+ * <p>点赞、AI 生成等访客请求不写 Cookie，以免访客的读请求也落到主库。</p>
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final String cookieName;
+    private final Duration window;
+    private final List<String> writePaths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    /**
+     * @param writePaths 写后需要粘滞主库的接口路径（Ant 风格，不含 context-path）
+     */
+    public ReadYourWritesFilter(String cookieName, Duration window, List<String> writePaths) {
+        this.cookieName = cookieName;
+        this.window = window;
+        this.writePaths = List.copyOf(writePaths);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean write = !SAFE_METHODS.contains(request.getMethod()) && isWritePath(request);
+        if (write) {
+            // 响应提交前写入，窗口从本次写请求开始计算
+            ResponseCookie cookie = ResponseCookie.from(cookieName, "1")
+                    .path("/")
+                    .maxAge(Duration.ofSeconds(Math.max(1, (window.toMillis() + 999) / 1000)))
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+        if (!write && !hasStickyCookie(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ReadWriteRoutingDataSource.usePrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.clearPrimaryRequired();
+        }
+    }
+
+    private boolean isWritePath(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        for (String pattern : writePaths) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasStickyCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (cookieName.equals(cookie.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
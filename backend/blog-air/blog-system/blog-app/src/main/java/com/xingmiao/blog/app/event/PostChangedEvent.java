@@ -0,0 +1,7 @@
+package com.xingmiao.blog.app.event;
+
+/**
+ * 文章内容、状态发生变化或被删除（含回收站恢复与彻底删除），由监听方自行读取最新状态
+ */
+public record PostChangedEvent(Long postId) {
+}
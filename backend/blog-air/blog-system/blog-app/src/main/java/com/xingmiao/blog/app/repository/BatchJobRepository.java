@@ -0,0 +1,18 @@
+package com.xingmiao.blog.app.repository;
+
+import com.xingmiao.blog.common.domain.entity.BatchJob;
+import com.xingmiao.blog.common.domain.enums.BatchJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BatchJobRepository extends JpaRepository<BatchJob, Long> {
+
+    Optional<BatchJob> findFirstByTypeOrderByIdDesc(String type);
+
+    Optional<BatchJob> findFirstByTypeAndStatusOrderByIdDesc(String type, BatchJobStatus status);
+
+    List<BatchJob> findByTypeInAndStatus(Collection<String> types, BatchJobStatus status);
+}
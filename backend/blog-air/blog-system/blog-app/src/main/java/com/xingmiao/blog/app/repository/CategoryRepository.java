@@ -9,12 +9,16 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface CategoryRepository extends JpaRepository<Category, Long> {
+public interface CategoryRepository extends JpaRepository<Category, Long>, NaturalIdRepository {
     Optional<Category> findByName(String name);
-    Optional<Category> findBySlug(String slug);
     boolean existsByName(String name);
     boolean existsBySlug(String slug);
     List<Category> findByParent_Id(Long parentId);
-}
-
 
+    /**
+     * slug 是自然 ID，走自然 ID 缓存
+     */
+    default Optional<Category> findBySlug(String slug) {
+        return findByNaturalId(Category.class, slug);
+    }
+}
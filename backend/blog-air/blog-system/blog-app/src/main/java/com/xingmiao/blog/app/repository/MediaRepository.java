@@ -0,0 +1,56 @@
+package com.xingmiao.blog.app.repository;
+
+import com.xingmiao.blog.common.domain.entity.Media;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface MediaRepository extends JpaRepository<Media, Long> {
+
+    Optional<Media> findByStorageKey(String storageKey);
+
+    boolean existsByStorageKeyAndReferenceCountGreaterThan(String storageKey, Integer referenceCount);
+
+    /**
+     * 游标分页：按 id 倒序取 cursor 之前的记录，limit 由 pageable 控制，不做 count 查询
+     */
+    @Query("SELECT m FROM Media m WHERE (:cursor IS NULL OR m.id < :cursor) " +
+           "AND (:mimeType IS NULL OR m.mimeType = :mimeType) " +
+           "AND (:unused = false OR m.referenceCount = 0) " +
+           "AND (:keyword IS NULL OR LOWER(m.originalName) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "OR m.storageKey LIKE CONCAT('%', :keyword, '%') OR m.contentHash = :keyword) " +
+           "ORDER BY m.id DESC")
+    List<Media> findLibraryPage(@Param("cursor") Long cursor,
+                                @Param("mimeType") String mimeType,
+                                @Param("unused") boolean unused,
+                                @Param("keyword") String keyword,
+                                Pageable pageable);
+
+    @Query("SELECT m.storageKey FROM Media m")
+    List<String> findAllStorageKeys();
+
+    /**
+     * 批量调整引用计数（原子性更新，不会减到负数）
+     */
+    @Modifying
+    @Query("UPDATE Media m SET m.referenceCount = CASE WHEN m.referenceCount + :delta < 0 THEN 0 " +
+           "ELSE m.referenceCount + :delta END WHERE m.storageKey IN :keys")
+    int adjustReferenceCount(@Param("keys") Collection<String> keys, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE Media m SET m.referenceCount = :count WHERE m.storageKey = :key")
+    int updateReferenceCount(@Param("key") String key, @Param("count") int count);
+
+    @Modifying
+    @Query("UPDATE Media m SET m.referenceCount = 0")
+    int resetReferenceCounts();
+
+    @Modifying
+    int deleteByStorageKey(String storageKey);
+}
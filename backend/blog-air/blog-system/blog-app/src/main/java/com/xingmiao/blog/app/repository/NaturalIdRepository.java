@@ -0,0 +1,14 @@
+package com.xingmiao.blog.app.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * 按自然 ID 查询实体。与派生查询不同，会先查 Hibernate 的自然 ID 缓存和二级缓存，命中时不执行 SQL
+ */
+public interface NaturalIdRepository {
+
+    @Transactional(readOnly = true)
+    <T> Optional<T> findByNaturalId(Class<T> entityType, Object naturalId);
+}
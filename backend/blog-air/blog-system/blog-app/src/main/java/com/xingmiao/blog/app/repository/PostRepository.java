@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -162,6 +163,51 @@ public interface PostRepository extends JpaRepository<Post, Long> {
      * 统计指定状态的文章数量
      */
     long countByStatusAndVisibilityAndDeletedAtIsNull(PostStatus status, Visibility visibility);
-}
 
+    /**
+     * 查询指定状态与可见性的未删除文章 ID（知识库全量构建时逐篇加载，避免一次读入全部正文）
+     */
+    @Query("SELECT p.id FROM Post p WHERE p.deletedAt IS NULL AND p.status = :status AND p.visibility = :visibility ORDER BY p.id")
+    List<Long> findIdsByStatusAndVisibilityAndDeletedAtIsNull(@Param("status") PostStatus status,
+                                                             @Param("visibility") Visibility visibility);
+
+    /**
+     * 按 ID 顺序分批读取 cursor 之后没有任何标签的未删除文章
+     */
+    @Query("SELECT p FROM Post p WHERE p.deletedAt IS NULL AND p.tags IS EMPTY AND p.id > :cursor ORDER BY p.id")
+    List<Post> findUntaggedAfter(@Param("cursor") Long cursor, Pageable pageable);
+
+    /**
+     * 浏览量最高的已发布文章 slug（启动预热缓存用）
+     */
+    @Query("SELECT p.slug FROM Post p WHERE p.deletedAt IS NULL AND p.status = :status ORDER BY p.viewCount DESC, p.id DESC")
+    List<String> findTopViewedSlugs(@Param("status") PostStatus status, Pageable pageable);
+
+    // ========== 回收站批量操作 ==========
 
+    /**
+     * 给定 ID 中仍在回收站的文章 ID
+     */
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids AND p.deletedAt IS NOT NULL ORDER BY p.id")
+    List<Long> findTrashedIdsIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 给定回收站文章中分类已不存在的文章标题（恢复前一次性检查）
+     */
+    @Query("SELECT p.title FROM Post p WHERE p.id IN :ids AND p.deletedAt IS NOT NULL AND p.category.id IS NOT NULL " +
+           "AND NOT EXISTS (SELECT c.id FROM Category c WHERE c.id = p.category.id)")
+    List<String> findTrashedTitlesWithMissingCategory(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 给定回收站文章的 {id, 封面, 正文}，彻底删除前据此释放图片引用
+     */
+    @Query("SELECT p.id, p.coverImageUrl, p.content FROM Post p WHERE p.id IN :ids AND p.deletedAt IS NOT NULL")
+    List<Object[]> findTrashedImageSources(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 一条 UPDATE 把给定文章移出回收站
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.deletedAt = NULL, p.updatedAt = LOCAL DATETIME WHERE p.id IN :ids AND p.deletedAt IS NOT NULL")
+    int restoreTrashed(@Param("ids") Collection<Long> ids);
+}
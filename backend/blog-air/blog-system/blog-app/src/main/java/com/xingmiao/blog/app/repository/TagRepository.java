@@ -5,13 +5,15 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
 
-public interface TagRepository extends JpaRepository<Tag, Long> {
+public interface TagRepository extends JpaRepository<Tag, Long>, NaturalIdRepository {
     Optional<Tag> findByName(String name);
-    Optional<Tag> findBySlug(String slug);
     boolean existsByName(String name);
     boolean existsBySlug(String slug);
-}
-
-
-
 
+    /**
+     * slug 是自然 ID，走自然 ID 缓存
+     */
+    default Optional<Tag> findBySlug(String slug) {
+        return findByNaturalId(Tag.class, slug);
+    }
+}
@@ -0,0 +1,30 @@
+package com.xingmiao.blog.app.repository;
+
+import com.xingmiao.blog.common.domain.entity.TagSuggestion;
+import com.xingmiao.blog.common.domain.enums.SuggestionStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface TagSuggestionRepository extends JpaRepository<TagSuggestion, Long> {
+
+    Page<TagSuggestion> findByStatus(SuggestionStatus status, Pageable pageable);
+
+    /**
+     * 查询已有建议的文章 ID，自动打标签时跳过这些文章
+     */
+    @Query("SELECT s.postId FROM TagSuggestion s WHERE s.postId IN :postIds")
+    List<Long> findPostIdsByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query("UPDATE TagSuggestion s SET s.status = :to, s.updatedAt = :now WHERE s.id IN :ids AND s.status = :from")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("from") SuggestionStatus from,
+                     @Param("to") SuggestionStatus to, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,29 @@
+package com.xingmiao.blog.app.repository;
+
+import com.xingmiao.blog.common.domain.entity.UploadSession;
+import com.xingmiao.blog.common.domain.enums.UploadSessionStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    /**
+     * 加行锁读取会话：记录分片、合并与取消在各实例之间互斥
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UploadSession s WHERE s.id = :id")
+    Optional<UploadSession> findForUpdate(@Param("id") String id);
+
+    Optional<UploadSession> findFirstByFingerprintAndSizeAndContentTypeAndStatusOrderByCreatedAtDesc(
+            String fingerprint, Long size, String contentType, UploadSessionStatus status);
+
+    @Query("SELECT s.id FROM UploadSession s WHERE s.lastActiveAt < :deadline")
+    List<String> findIdsInactiveSince(@Param("deadline") LocalDateTime deadline);
+}
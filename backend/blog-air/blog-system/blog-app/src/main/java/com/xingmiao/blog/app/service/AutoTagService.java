@@ -0,0 +1,41 @@
+package com.xingmiao.blog.app.service;
+
+import com.xingmiao.blog.common.domain.enums.SuggestionStatus;
+import com.xingmiao.blog.common.dto.BatchJobDto;
+import com.xingmiao.blog.common.dto.TagSuggestionApplyResult;
+import com.xingmiao.blog.common.dto.TagSuggestionDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 批量自动打标签：为没有标签的文章生成标签与分类建议，审核后批量应用
+ */
+public interface AutoTagService {
+
+    /**
+     * 启动任务，已有任务在执行时抛出 IllegalStateException
+     */
+    BatchJobDto start();
+
+    /**
+     * 请求停止当前任务，当前批次处理完后停止
+     */
+    Optional<BatchJobDto> stop();
+
+    Optional<BatchJobDto> latestJob();
+
+    Page<TagSuggestionDto> listSuggestions(SuggestionStatus status, Pageable pageable);
+
+    /**
+     * 驳回建议，返回驳回数量；被驳回文章的建议保留，之后的任务不会再次生成
+     */
+    int reject(List<Long> ids);
+
+    /**
+     * 批量应用待审核的建议，ids 为空时应用全部待审核建议
+     */
+    TagSuggestionApplyResult apply(List<Long> ids);
+}
@@ -0,0 +1,29 @@
+package com.xingmiao.blog.app.service;
+
+import com.xingmiao.blog.common.dto.CacheStatsDto;
+import com.xingmiao.blog.common.dto.HotPostDto;
+
+import java.util.List;
+
+/**
+ * 本地缓存管理服务
+ */
+public interface CacheAdminService {
+
+    /**
+     * 所有缓存的容量策略与命中统计
+     */
+    List<CacheStatsDto> stats();
+
+    /**
+     * 清空指定缓存
+     *
+     * @return 缓存不存在时返回 false
+     */
+    boolean clear(String name);
+
+    /**
+     * 当前窗口内的热点文章及其固定缓存状态
+     */
+    List<HotPostDto> hotPosts();
+}
@@ -0,0 +1,47 @@
+package com.xingmiao.blog.app.service;
+
+import com.xingmiao.blog.common.dto.ChunkedUploadInitRequest;
+import com.xingmiao.blog.common.dto.ChunkedUploadStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * 分片上传服务
+ *
+ * <p>大文件按固定大小分片上传，分片经存储的分段上传直接写入，不在内存中缓冲整个文件；
+ * 会话保存在数据库中，多实例部署时各请求可以落到任意实例上。</p>
+ */
+public interface ChunkedUploadService {
+
+    /**
+     * 初始化上传会话；相同指纹的未完成会话会被复用以便续传
+     */
+    ChunkedUploadStatus init(ChunkedUploadInitRequest request) throws IOException;
+
+    /**
+     * 写入一个分片
+     *
+     * @param uploadId 上传会话ID
+     * @param offset 分片在文件中的起始偏移量，必须是分片大小的整数倍
+     * @param contentLength 请求体长度，未知时传 -1
+     * @param body 分片数据流
+     */
+    ChunkedUploadStatus writeChunk(String uploadId, long offset, long contentLength, InputStream body) throws IOException;
+
+    /**
+     * 查询上传进度（断线后客户端据此补传缺失分片）
+     */
+    ChunkedUploadStatus getStatus(String uploadId);
+
+    /**
+     * 所有分片到齐后合并为正式文件，返回与普通上传一致的结果
+     */
+    Map<String, Object> complete(String uploadId) throws IOException;
+
+    /**
+     * 放弃上传并清理临时文件
+     */
+    void abort(String uploadId);
+}
@@ -0,0 +1,26 @@
+package com.xingmiao.blog.app.service;
+
+/**
+ * GitHub 贡献热力图 SVG 服务
+ *
+ * <p>在服务端把贡献数据渲染成 SVG，并缓存原始与 gzip 压缩后的字节，数据未变化时不再重复渲染。</p>
+ */
+public interface ContributionSvgService {
+
+    /**
+     * 获取用户最近一年的贡献热力图
+     *
+     * @throws RuntimeException 没有缓存数据且 GitHub 请求失败
+     */
+    ContributionSvg render(String username);
+
+    /**
+     * 渲染结果
+     *
+     * @param svg   SVG 原始字节（UTF-8）
+     * @param gzip  gzip 压缩后的字节
+     * @param etag  内容摘要，不含引号
+     */
+    record ContributionSvg(byte[] svg, byte[] gzip, String etag) {
+    }
+}
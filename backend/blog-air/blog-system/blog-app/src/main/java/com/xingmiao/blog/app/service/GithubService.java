@@ -1,8 +1,15 @@
 package com.xingmiao.blog.app.service;
 
+import com.xingmiao.blog.app.cache.CacheWeighted;
+import com.xingmiao.blog.app.config.AuthorConfig;
+import com.xingmiao.blog.app.config.GithubProperties;
 import com.xingmiao.blog.common.dto.GithubContributionResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,39 +19,296 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.time.Duration;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
+/**
+ * GitHub 贡献数据，按 (username, from, to) 缓存。
+ *
+ * <p>超过新鲜期的数据仍立即返回，同时在后台发起一次刷新；刷新失败时继续使用上一次成功的结果。
+ * 只有从未获取过的 key 才会等待，且最多等待 {@code github.cold-wait}。</p>
+ *
+ * <p>博客作者（{@code blog.author.github-username}，不限日期）的数据另外保存最近一次成功的结果：
+ * 写入本地快照文件、启动时先加载，并定时在后台刷新，因此重新部署后也不需要等待 GitHub；
+ * 被其他 key 挤出缓存时直接返回该结果。访客通过公开接口查询的其他 key 只进缓存，
+ * 不写快照也不定时刷新，避免任意 key 长期占用站点的 GitHub 配额。</p>
+ */
 @Slf4j
 @Service
 public class GithubService {
 
-    private final HttpClient httpClient;
-    private static final String GITHUB_GRAPHQL_URL = "https://api.github.com/graphql";
+    public static final String CONTRIBUTIONS_CACHE = "github-contributions";
+
+    /**
+     * GitHub 用户名：字母数字与单个连字符，最长 39 位，不以连字符开头或结尾
+     */
+    private static final Pattern USERNAME = Pattern.compile("[A-Za-z0-9](?:-?[A-Za-z0-9]){0,38}");
 
-    @Value("${github.token:}")
-    private String githubToken;
+    private final HttpClient httpClient;
+    private final GithubProperties properties;
+    private final AuthorConfig authorConfig;
+    private final Cache cache;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public GithubService() {
+    /**
+     * 每个 key 同一时刻最多一次请求，首次加载与后台刷新共用
+     */
+    private final ConcurrentMap<String, CompletableFuture<List<GithubContributionResponse.ContributionData>>> inFlight =
+            new ConcurrentHashMap<>();
+    /**
+     * 作者数据最近一次成功的结果，用于写快照与定时刷新
+     */
+    private final ConcurrentMap<String, SnapshotEntry> lastGood = new ConcurrentHashMap<>();
+    private final Object snapshotLock = new Object();
+    private final ExecutorService refresher;
+
+    public GithubService(GithubProperties properties, CacheManager cacheManager, AuthorConfig authorConfig) {
+        this.properties = properties;
+        this.authorConfig = authorConfig;
+        this.cache = cacheManager.getCache(CONTRIBUTIONS_CACHE);
         this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
+                .connectTimeout(properties.getConnectTimeout())
                 .build();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.refresher = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "github-refresh-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
     }
 
-
+    /**
+     * 在接收请求前加载快照
+     */
+    @PostConstruct
+    public void loadSnapshot() {
+        Path file = snapshotFile();
+        if (file == null || !Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            Snapshot snapshot = objectMapper.readValue(file.toFile(), Snapshot.class);
+            for (SnapshotEntry entry : snapshot.entries()) {
+                if (!isAuthorKey(entry.username(), entry.from(), entry.to())) {
+                    continue;
+                }
+                String key = key(entry.username(), entry.from(), entry.to());
+                Instant fetchedAt = Instant.ofEpochMilli(entry.fetchedAt());
+                cache.put(key, restore(entry, fetchedAt.plus(properties.getSoftTtl())));
+                lastGood.put(key, entry);
+            }
+            log.info("已加载 GitHub 贡献数据快照: {} 项", lastGood.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("读取 GitHub 贡献数据快照失败，忽略: {}", e.getMessage());
+        }
+    }
 
     public List<GithubContributionResponse.ContributionData> getContributionsData(String username, String from, String to) {
+        return getContributions(username, from, to).data();
+    }
+
+    /**
+     * 获取贡献数据及其获取时间
+     *
+     * @throws IllegalArgumentException 用户名或日期格式不正确
+     * @throws RuntimeException         从未成功获取过，且在 {@code github.cold-wait} 内没有拿到结果
+     */
+    public Contributions getContributions(String username, String from, String to) {
+        validate(username, from, to);
+        String key = key(username, from, to);
+        CachedContributions cached = cache.get(key, CachedContributions.class);
+        SnapshotEntry good = cached == null ? lastGood.get(key) : null;
+        if (good != null) {
+            // 已被挤出缓存：先返回上一次成功的结果，并立即在后台重新获取
+            cached = restore(good, Instant.now());
+            cache.put(key, cached);
+        }
+        if (cached == null) {
+            try {
+                List<GithubContributionResponse.ContributionData> data = load(key, username, from, to)
+                        .get(properties.getColdWait().toMillis(), TimeUnit.MILLISECONDS);
+                // 加载完成前已写入缓存，取缓存中的获取时间，与快照保持一致
+                CachedContributions loaded = cache.get(key, CachedContributions.class);
+                return new Contributions(data, loaded != null ? loaded.fetchedAt() : Instant.now(), false);
+            } catch (TimeoutException e) {
+                // 请求继续在后台完成并写入缓存
+                throw new RuntimeException("GitHub 数据加载中，请稍后重试");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("获取贡献数据失败: 已中断");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.error("获取贡献数据失败: {}", cause.getMessage(), cause);
+                throw new RuntimeException("获取贡献数据失败: " + cause.getMessage());
+            }
+        }
+        boolean stale = !Instant.now().isBefore(cached.fetchedAt().plus(properties.getSoftTtl()));
+        if (!Instant.now().isBefore(cached.refreshAfter())) {
+            load(key, username, from, to);
+        }
+        return new Contributions(cached.data(), cached.fetchedAt(), stale);
+    }
+
+    /**
+     * 定时在后台刷新作者的数据，使请求几乎总能命中新鲜数据
+     */
+    @Scheduled(fixedDelayString = "${github.refresh-interval:PT30M}", initialDelayString = "${github.refresh-interval:PT30M}")
+    public void refreshKnown() {
+        String username = authorUsername();
+        if (username == null || properties.getToken() == null || properties.getToken().isBlank()) {
+            return;
+        }
+        load(key(username, null, null), username, null, null);
+    }
+
+    /**
+     * 发起或加入该 key 正在进行的请求；成功后先写缓存再移出进行中列表，避免出现两者都查不到的窗口
+     */
+    private CompletableFuture<List<GithubContributionResponse.ContributionData>> load(String key, String username, String from, String to) {
+        CompletableFuture<List<GithubContributionResponse.ContributionData>> created = new CompletableFuture<>();
+        CompletableFuture<List<GithubContributionResponse.ContributionData>> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    List<GithubContributionResponse.ContributionData> data = fetchContributionsDataGraphQL(username, from, to);
+                    Instant now = Instant.now();
+                    cache.put(key, new CachedContributions(data, now, now.plus(properties.getSoftTtl())));
+                    inFlight.remove(key, created);
+                    created.complete(data);
+                    if (isAuthorKey(username, from, to)) {
+                        remember(key, new SnapshotEntry(username, from, to, now.toEpochMilli(), data.stream()
+                                .map(day -> new SnapshotDay(day.getDate(), day.getCount(), day.getLevel()))
+                                .toList()));
+                    }
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    CachedContributions previous = cache.get(key, CachedContributions.class);
+                    if (previous != null) {
+                        log.warn("刷新 GitHub 贡献数据失败，继续使用旧数据: {} {}", key, e.getMessage());
+                        cache.put(key, new CachedContributions(previous.data(), previous.fetchedAt(),
+                                Instant.now().plus(properties.getRetryAfterFailure())));
+                    }
+                    inFlight.remove(key, created);
+                    created.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    /**
+     * 记录作者数据的成功结果并重写快照
+     */
+    private void remember(String key, SnapshotEntry entry) {
+        Path file = snapshotFile();
+        synchronized (snapshotLock) {
+            lastGood.put(key, entry);
+            if (file == null) {
+                return;
+            }
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                objectMapper.writeValue(tmp.toFile(), new Snapshot(List.copyOf(lastGood.values())));
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("写入 GitHub 贡献数据快照失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    private String authorUsername() {
+        String username = authorConfig.getGithubUsername();
+        return username == null || username.isBlank() ? null : username.trim();
+    }
+
+    private boolean isAuthorKey(String username, String from, String to) {
+        return from == null && to == null && username != null && username.equals(authorUsername());
+    }
+
+    private CachedContributions restore(SnapshotEntry entry, Instant refreshAfter) {
+        List<GithubContributionResponse.ContributionData> data = entry.days().stream()
+                .map(day -> GithubContributionResponse.ContributionData.builder()
+                        .date(day.date())
+                        .count(day.count())
+                        .level(day.level())
+                        .build())
+                .toList();
+        return new CachedContributions(data, Instant.ofEpochMilli(entry.fetchedAt()), refreshAfter);
+    }
+
+    /**
+     * 公开接口可传入任意参数，格式不对的直接拒绝，不占用缓存也不请求 GitHub
+     */
+    private static void validate(String username, String from, String to) {
+        if (username == null || username.length() > 39 || !USERNAME.matcher(username).matches()) {
+            throw new IllegalArgumentException("无效的 GitHub 用户名");
+        }
+        try {
+            if (from != null) {
+                LocalDate.parse(from);
+            }
+            if (to != null) {
+                LocalDate.parse(to);
+            }
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("日期格式应为 YYYY-MM-DD");
+        }
+    }
+
+    private Path snapshotFile() {
+        String path = properties.getSnapshotPath();
+        return path == null || path.isBlank() ? null : Paths.get(path);
+    }
+
+    private static String key(String username, String from, String to) {
+        return username + "|" + from + "|" + to;
+    }
+
+    /**
+     * 稍等正在写入的快照完成，再中断仍在请求 GitHub 的任务
+     */
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdown();
         try {
-            return fetchContributionsDataGraphQL(username, from, to);
-        } catch (Exception e) {
-            log.error("获取贡献数据失败: {}", e.getMessage(), e);
-            throw new RuntimeException("获取贡献数据失败: " + e.getMessage());
+            if (!refresher.awaitTermination(2, TimeUnit.SECONDS)) {
+                refresher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            refresher.shutdownNow();
+            Thread.currentThread().interrupt();
         }
     }
 
     private List<GithubContributionResponse.ContributionData> fetchContributionsDataGraphQL(String username, String from, String to) throws IOException, InterruptedException {
+        String githubToken = properties.getToken();
         if (githubToken == null || githubToken.isBlank()) {
             throw new RuntimeException("未配置GitHub Token，请在配置中设置 github.token 或环境变量 GITHUB_TOKEN");
         }
@@ -63,12 +327,12 @@ public class GithubService {
                 query.replace("\"", "\\\""), variables);
 
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(GITHUB_GRAPHQL_URL))
+                .uri(URI.create(properties.getGraphqlUrl()))
                 .header("Authorization", "Bearer " + githubToken)
                 .header("User-Agent", "xm-blog/1.0")
                 .header("Accept", "application/json")
                 .header("Content-Type", "application/json")
-                .timeout(Duration.ofSeconds(20))
+                .timeout(properties.getRequestTimeout())
                 .POST(HttpRequest.BodyPublishers.ofString(bodyJson))
                 .build();
 
@@ -106,6 +370,32 @@ public class GithubService {
         return data;
     }
 
+    /**
+     * 贡献数据与获取时间
+     *
+     * @param stale 是否已超过新鲜期（此时后台正在或即将刷新）
+     */
+    public record Contributions(List<GithubContributionResponse.ContributionData> data, Instant fetchedAt, boolean stale) {
+    }
 
+    /**
+     * 缓存条目：数据、获取时间与下次需要刷新的时间
+     */
+    private record CachedContributions(List<GithubContributionResponse.ContributionData> data,
+                                       Instant fetchedAt, Instant refreshAfter) implements CacheWeighted {
 
+        @Override
+        public long estimatedBytes() {
+            return 96L * data.size();
+        }
+    }
+
+    record Snapshot(List<SnapshotEntry> entries) {
+    }
+
+    record SnapshotEntry(String username, String from, String to, long fetchedAt, List<SnapshotDay> days) {
+    }
+
+    record SnapshotDay(String date, int count, int level) {
+    }
 }
@@ -0,0 +1,35 @@
+package com.xingmiao.blog.app.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 外链图片缓存代理
+ *
+ * <p>文章中引用的外部图片首次访问时拉取并落盘，之后直接读取本地缓存，避免源站慢或限流拖慢页面。</p>
+ */
+public interface ImageProxyService {
+
+    /**
+     * 外链图片对应的代理地址；本站图片、非 http(s) 地址或代理未启用时返回 null
+     */
+    String proxyUrl(String url);
+
+    /**
+     * 将正文中的外链图片改写为代理地址
+     */
+    String rewriteContent(String content);
+
+    /**
+     * 校验代理地址签名
+     */
+    boolean verify(String url, String signature);
+
+    /**
+     * 获取图片缓存文件，未缓存或已过期时拉取；并发请求同一地址只拉取一次
+     *
+     * @throws IllegalArgumentException 地址非法或指向内网
+     * @throws IOException 拉取失败、超时、超过大小限制或内容不是图片
+     */
+    Path fetch(String url) throws IOException;
+}
@@ -0,0 +1,27 @@
+package com.xingmiao.blog.app.service;
+
+import com.xingmiao.blog.common.dto.KnowledgeBaseStatusDto;
+import com.xingmiao.blog.common.dto.KnowledgeSearchHit;
+
+import java.util.List;
+
+/**
+ * 知识库服务
+ *
+ * <p>已发布的公开文章按段落切片后计算向量，存入进程内 HNSW 索引并持久化到磁盘；
+ * 文章变化时增量更新，供「问问博客」检索相关片段。</p>
+ */
+public interface KnowledgeBaseService {
+
+    /**
+     * 检索与问题最相关的文章片段，索引不可用时返回空列表
+     */
+    List<KnowledgeSearchHit> search(String query, int topK);
+
+    KnowledgeBaseStatusDto status();
+
+    /**
+     * 在后台全量重建索引，已在重建时返回 false
+     */
+    boolean rebuild();
+}
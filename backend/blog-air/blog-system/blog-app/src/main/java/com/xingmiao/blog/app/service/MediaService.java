@@ -0,0 +1,59 @@
+package com.xingmiao.blog.app.service;
+
+import com.xingmiao.blog.app.util.ImageInspector;
+import com.xingmiao.blog.common.dto.MediaDto;
+import com.xingmiao.blog.common.dto.MediaImportResult;
+import com.xingmiao.blog.common.dto.MediaLibraryPage;
+
+import java.util.Collection;
+
+/**
+ * 媒体库服务
+ *
+ * <p>每次上传都会在 media 表中登记，管理端按游标分页浏览，不再遍历上传目录。</p>
+ */
+public interface MediaService {
+
+    /**
+     * 登记一个已写入存储的文件；同一 key 重复登记时返回已有记录
+     */
+    MediaDto record(String key, String originalName, String contentType, ImageInspector.Result info);
+
+    /**
+     * 游标分页查询
+     *
+     * @param cursor 上一页返回的 nextCursor，首页传 null
+     * @param size 每页数量
+     * @param keyword 文件名、路径或内容哈希
+     * @param mimeType MIME 类型过滤
+     * @param unused 只看未被任何文章引用的文件
+     */
+    MediaLibraryPage list(Long cursor, int size, String keyword, String mimeType, boolean unused);
+
+    /**
+     * 根据文章修改前后引用的图片地址调整引用计数
+     */
+    void updateReferences(Collection<String> previousUrls, Collection<String> currentUrls);
+
+    /**
+     * 多篇文章被彻底删除后释放其引用的图片，同一文件被几篇文章引用就减几次
+     *
+     * @param urlsPerPost 每篇文章引用的图片地址
+     */
+    void releaseReferences(Collection<? extends Collection<String>> urlsPerPost);
+
+    /**
+     * 地址对应的文件是否仍被文章引用
+     */
+    boolean isReferenced(String url);
+
+    /**
+     * 文件删除后移除媒体库记录
+     */
+    void forget(String url);
+
+    /**
+     * 一次性并行导入上传目录中已有的文件，并按文章内容重建引用计数
+     */
+    MediaImportResult importExisting();
+}
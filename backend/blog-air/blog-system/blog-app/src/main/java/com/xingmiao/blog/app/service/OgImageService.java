@@ -0,0 +1,26 @@
+package com.xingmiao.blog.app.service;
+
+import com.xingmiao.blog.common.dto.PostDto;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 文章社交分享卡片（Open Graph 图片）服务
+ *
+ * <p>每个文章版本只渲染一次并落盘，之后的爬虫请求直接读取静态文件。</p>
+ */
+public interface OgImageService {
+
+    /**
+     * 卡片版本标识，由标题与更新时间计算，可用作 ETag
+     */
+    String versionOf(PostDto post);
+
+    /**
+     * 获取卡片图片文件，未缓存时渲染
+     *
+     * @throws com.xingmiao.blog.common.exception.ServiceBusyException 渲染并发已满
+     */
+    Path getCard(PostDto post) throws IOException;
+}
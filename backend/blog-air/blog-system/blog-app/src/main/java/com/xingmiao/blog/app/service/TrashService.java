@@ -1,5 +1,6 @@
 package com.xingmiao.blog.app.service;
 
+import com.xingmiao.blog.common.dto.BatchJobDto;
 import com.xingmiao.blog.common.dto.PostDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -49,16 +50,40 @@ public interface TrashService {
     void hardDeletePost(Long id);
     
     /**
-     * 批量恢复文章
+     * 批量恢复文章：一次检查分类、一条 UPDATE 恢复
      * 
      * @param ids 文章ID列表
      */
     void batchRestore(List<Long> ids);
     
     /**
-     * 批量硬删除文章
+     * 批量硬删除文章：按块删除文章-标签关联与文章
      * 
      * @param ids 文章ID列表
      */
     void batchHardDelete(List<Long> ids);
+    
+    /**
+     * 后台分块恢复文章，适用于数量很大的批次；分类检查在提交任务前完成
+     * 
+     * @param ids 文章ID列表
+     * @return 任务进度，processed 为已处理的 ID 数，succeeded 为实际恢复的文章数，failed 为不在回收站而跳过的 ID 数
+     */
+    BatchJobDto startBatchRestore(List<Long> ids);
+    
+    /**
+     * 后台分块硬删除文章，每块单独提交
+     * 
+     * @param ids 文章ID列表
+     * @return 任务进度，processed 为已处理的 ID 数，succeeded 为实际删除的文章数，failed 为不在回收站而跳过的 ID 数
+     */
+    BatchJobDto startBatchHardDelete(List<Long> ids);
+    
+    /**
+     * 查询回收站后台任务进度
+     * 
+     * @param jobId 任务ID
+     * @return 任务进度，如果不存在返回空
+     */
+    Optional<BatchJobDto> getJob(Long jobId);
 }
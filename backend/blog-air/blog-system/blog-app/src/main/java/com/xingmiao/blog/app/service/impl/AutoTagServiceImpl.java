@@ -0,0 +1,539 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xingmiao.blog.app.ai.ManualCancellationScope;
+import com.xingmiao.blog.app.ai.UpstreamCancellation;
+import com.xingmiao.blog.app.cache.CacheNames;
+import com.xingmiao.blog.app.config.AiAutoTagProperties;
+import com.xingmiao.blog.app.repository.BatchJobRepository;
+import com.xingmiao.blog.app.repository.CategoryRepository;
+import com.xingmiao.blog.app.repository.PostRepository;
+import com.xingmiao.blog.app.repository.TagRepository;
+import com.xingmiao.blog.app.repository.TagSuggestionRepository;
+import com.xingmiao.blog.app.service.AutoTagService;
+import com.xingmiao.blog.common.domain.entity.BatchJob;
+import com.xingmiao.blog.common.domain.entity.Category;
+import com.xingmiao.blog.common.domain.entity.Post;
+import com.xingmiao.blog.common.domain.entity.Tag;
+import com.xingmiao.blog.common.domain.entity.TagSuggestion;
+import com.xingmiao.blog.common.domain.enums.BatchJobStatus;
+import com.xingmiao.blog.common.domain.enums.SuggestionStatus;
+import com.xingmiao.blog.common.dto.BatchJobDto;
+import com.xingmiao.blog.common.dto.TagDto;
+import com.xingmiao.blog.common.dto.TagSuggestionApplyResult;
+import com.xingmiao.blog.common.dto.TagSuggestionDto;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 批量自动打标签。
+ *
+ * <p>任务按文章 ID 顺序分批读取没有标签的文章，在有界线程池中按速率限制调用模型，
+ * 建议只保留现有标签与分类中的名称；每批结束后保存检查点，服务重启后从检查点继续。
+ * 审核后的建议通过几条集合操作的 SQL 一次性写入 post_tags，不逐篇加载和保存文章。</p>
+ *
+ * <p>每次模型调用都绑定一个 {@link ManualCancellationScope}：等待超时、停止任务或服务关闭时取消作用域，
+ * 中止上游生成，不再为已放弃的结果继续计费。</p>
+ */
+@Slf4j
+@Service
+public class AutoTagServiceImpl implements AutoTagService {
+
+    static final String JOB_TYPE = "auto-tag";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final PostRepository postRepository;
+    private final TagRepository tagRepository;
+    private final CategoryRepository categoryRepository;
+    private final TagSuggestionRepository suggestionRepository;
+    private final BatchJobRepository batchJobRepository;
+    private final StreamingChatModel streamingChatModel;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AiAutoTagProperties properties;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ai-auto-tag");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Set<ManualCancellationScope> inflight = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopRequested;
+    private volatile boolean shuttingDown;
+
+    public AutoTagServiceImpl(PostRepository postRepository, TagRepository tagRepository,
+                              CategoryRepository categoryRepository, TagSuggestionRepository suggestionRepository,
+                              BatchJobRepository batchJobRepository, StreamingChatModel streamingChatModel,
+                              NamedParameterJdbcTemplate jdbcTemplate, AiAutoTagProperties properties,
+                              EntityManagerFactory entityManagerFactory) {
+        this.postRepository = postRepository;
+        this.tagRepository = tagRepository;
+        this.categoryRepository = categoryRepository;
+        this.suggestionRepository = suggestionRepository;
+        this.batchJobRepository = batchJobRepository;
+        this.streamingChatModel = streamingChatModel;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public BatchJobDto start() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("自动打标签任务正在执行");
+        }
+        BatchJob job;
+        try {
+            job = batchJobRepository.save(BatchJob.builder()
+                    .type(JOB_TYPE)
+                    .status(BatchJobStatus.RUNNING)
+                    .build());
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        BatchJobDto dto = toDto(job);
+        launch(job);
+        return dto;
+    }
+
+    /**
+     * 服务重启后继续上次未完成的任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        batchJobRepository.findFirstByTypeAndStatusOrderByIdDesc(JOB_TYPE, BatchJobStatus.RUNNING).ifPresent(job -> {
+            if (running.compareAndSet(false, true)) {
+                log.info("继续自动打标签任务 {}，从文章 ID {} 之后开始", job.getId(), job.getCursorId());
+                launch(job);
+            }
+        });
+    }
+
+    @Override
+    public Optional<BatchJobDto> stop() {
+        if (running.get()) {
+            stopRequested = true;
+            inflight.forEach(ManualCancellationScope::cancel);
+        }
+        return latestJob();
+    }
+
+    @Override
+    public Optional<BatchJobDto> latestJob() {
+        return batchJobRepository.findFirstByTypeOrderByIdDesc(JOB_TYPE).map(this::toDto);
+    }
+
+    private void launch(BatchJob job) {
+        stopRequested = false;
+        runner.execute(() -> run(job));
+    }
+
+    private void run(BatchJob job) {
+        AtomicInteger workerIndex = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, properties.getConcurrency()), r -> {
+            Thread thread = new Thread(r, "ai-auto-tag-worker-" + workerIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, properties.getRequestsPerMinute());
+        long nextPermit = System.nanoTime();
+        try {
+            while (!stopRequested && !shuttingDown) {
+                List<Post> posts = postRepository.findUntaggedAfter(job.getCursorId(),
+                        PageRequest.of(0, Math.max(1, properties.getBatchSize())));
+                if (posts.isEmpty()) {
+                    finish(job, BatchJobStatus.COMPLETED, null);
+                    return;
+                }
+                // 已有建议（含被驳回）的文章不再重复调用模型，检查点之前中断的批次重跑时也不会重复生成
+                Set<Long> suggested = new HashSet<>(suggestionRepository.findPostIdsByPostIdIn(
+                        posts.stream().map(Post::getId).toList()));
+                Vocabulary vocabulary = Vocabulary.of(tagRepository.findAll(), categoryRepository.findAll());
+
+                List<CompletableFuture<Optional<TagSuggestion>>> futures = new ArrayList<>();
+                for (Post post : posts) {
+                    if (stopRequested || shuttingDown) {
+                        break;
+                    }
+                    if (suggested.contains(post.getId())) {
+                        continue;
+                    }
+                    long wait = nextPermit - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    nextPermit = Math.max(System.nanoTime(), nextPermit) + intervalNanos;
+                    futures.add(CompletableFuture.supplyAsync(() -> suggest(post, vocabulary), workers));
+                }
+
+                List<TagSuggestion> batch = new ArrayList<>();
+                int failed = 0;
+                for (CompletableFuture<Optional<TagSuggestion>> future : futures) {
+                    try {
+                        future.join().ifPresent(batch::add);
+                    } catch (CompletionException e) {
+                        if (e.getCause() instanceof CancellationException) {
+                            continue;
+                        }
+                        failed++;
+                        log.warn("生成标签建议失败: {}", e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+                    }
+                }
+                suggestionRepository.saveAll(batch);
+                job.setSucceeded(job.getSucceeded() + batch.size());
+                if (stopRequested || shuttingDown) {
+                    // 本批有调用被中止：只保存已生成的建议，不推进检查点，继续时重跑本批（已有建议的文章会跳过）
+                    job = batchJobRepository.save(job);
+                    break;
+                }
+
+                job.setCursorId(posts.get(posts.size() - 1).getId());
+                job.setProcessed(job.getProcessed() + posts.size());
+                job.setFailed(job.getFailed() + failed);
+                job = batchJobRepository.save(job);
+            }
+            if (shuttingDown) {
+                // 服务关闭：保持 RUNNING，下次启动从检查点继续
+                return;
+            }
+            finish(job, BatchJobStatus.STOPPED, null);
+        } catch (InterruptedException e) {
+            // 服务关闭：保持 RUNNING，下次启动从检查点继续
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("自动打标签任务 {} 失败", job.getId(), e);
+            finish(job, BatchJobStatus.FAILED, e.getMessage());
+        } finally {
+            workers.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private void finish(BatchJob job, BatchJobStatus status, String message) {
+        job.setStatus(status);
+        job.setFinishedAt(LocalDateTime.now());
+        if (message != null) {
+            job.setMessage(message.length() > 500 ? message.substring(0, 500) : message);
+        }
+        batchJobRepository.save(job);
+        log.info("自动打标签任务 {} 结束：{}，处理 {} 篇，生成建议 {} 条，失败 {} 篇",
+                job.getId(), status, job.getProcessed(), job.getSucceeded(), job.getFailed());
+    }
+
+    private Optional<TagSuggestion> suggest(Post post, Vocabulary vocabulary) {
+        ManualCancellationScope scope = new ManualCancellationScope();
+        inflight.add(scope);
+        try {
+            // 先登记再检查标记，与 stop()/shutdown() 先置标记再取消登记的作用域配合，不会漏掉取消
+            if (stopRequested || shuttingDown) {
+                throw new CompletionException(new CancellationException("任务已停止"));
+            }
+            return suggest(post, vocabulary, scope);
+        } finally {
+            inflight.remove(scope);
+        }
+    }
+
+    private Optional<TagSuggestion> suggest(Post post, Vocabulary vocabulary, ManualCancellationScope scope) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        scope.onCancel(() -> result.cancel(false));
+        String prompt = buildPrompt(post, vocabulary);
+        UpstreamCancellation.run(scope, () -> streamingChatModel.chat(prompt, new StreamingChatResponseHandler() {
+            private final StringBuilder text = new StringBuilder();
+
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                if (partialResponse != null) {
+                    text.append(partialResponse);
+                }
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                result.complete(text.toString());
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                result.completeExceptionally(error);
+            }
+        }));
+        String response;
+        try {
+            response = result.get(properties.getRequestTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (CancellationException e) {
+            throw new CompletionException(e);
+        } catch (InterruptedException e) {
+            scope.cancel();
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            // 放弃等待的同时中止上游生成
+            scope.cancel();
+            throw new CompletionException("文章 " + post.getId() + " 等待模型返回超时", e);
+        }
+        Suggestion suggestion = parse(response, vocabulary, properties.getMaxTags());
+        if (suggestion.tagIds().isEmpty() && suggestion.categoryId() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(TagSuggestion.builder()
+                .postId(post.getId())
+                .tagIds(suggestion.tagIds())
+                .categoryId(suggestion.categoryId())
+                .status(SuggestionStatus.PENDING)
+                .build());
+    }
+
+    private String buildPrompt(Post post, Vocabulary vocabulary) {
+        String content = post.getContent() == null ? "" : post.getContent();
+        if (content.length() > properties.getMaxContentChars()) {
+            content = content.substring(0, properties.getMaxContentChars());
+        }
+        return "你是博客编辑，请为下面的文章从给定列表中挑选合适的标签（最多 " + properties.getMaxTags() + " 个）和一个分类。"
+                + "只能使用列表中的原名，没有合适的可以留空。只输出 JSON，格式：{\"tags\":[\"标签名\"],\"category\":\"分类名\"}\n\n"
+                + "可选标签：" + String.join("、", vocabulary.tagNames()) + "\n"
+                + "可选分类：" + String.join("、", vocabulary.categoryNames()) + "\n\n"
+                + "文章标题：" + post.getTitle() + "\n文章内容：\n" + content;
+    }
+
+    /**
+     * 解析模型输出的 JSON，丢弃不在现有标签、分类中的名称
+     */
+    static Suggestion parse(String response, Vocabulary vocabulary, int maxTags) {
+        int start = response == null ? -1 : response.indexOf('{');
+        int end = response == null ? -1 : response.lastIndexOf('}');
+        if (start < 0 || end <= start) {
+            return Suggestion.EMPTY;
+        }
+        JsonNode node;
+        try {
+            node = OBJECT_MAPPER.readTree(response.substring(start, end + 1));
+        } catch (JsonProcessingException e) {
+            log.debug("无法解析标签建议: {}", response);
+            return Suggestion.EMPTY;
+        }
+        Set<Long> tagIds = new LinkedHashSet<>();
+        for (JsonNode tag : node.path("tags")) {
+            Long id = vocabulary.tags().get(normalize(tag.asText()));
+            if (id != null && tagIds.size() < maxTags) {
+                tagIds.add(id);
+            }
+        }
+        Long categoryId = vocabulary.categories().get(normalize(node.path("category").asText("")));
+        return new Suggestion(tagIds, categoryId);
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    record Suggestion(Set<Long> tagIds, Long categoryId) {
+        static final Suggestion EMPTY = new Suggestion(Set.of(), null);
+    }
+
+    /**
+     * 现有标签与分类（按名称忽略大小写匹配）
+     */
+    record Vocabulary(Map<String, Long> tags, Map<String, Long> categories,
+                      List<String> tagNames, List<String> categoryNames) {
+
+        static Vocabulary of(List<Tag> tags, List<Category> categories) {
+            Map<String, Long> tagIds = new HashMap<>();
+            tags.forEach(tag -> tagIds.putIfAbsent(normalize(tag.getName()), tag.getId()));
+            Map<String, Long> categoryIds = new HashMap<>();
+            categories.forEach(category -> categoryIds.putIfAbsent(normalize(category.getName()), category.getId()));
+            return new Vocabulary(tagIds, categoryIds,
+                    tags.stream().map(Tag::getName).toList(),
+                    categories.stream().map(Category::getName).toList());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TagSuggestionDto> listSuggestions(SuggestionStatus status, Pageable pageable) {
+        Page<TagSuggestion> page = suggestionRepository.findByStatus(status == null ? SuggestionStatus.PENDING : status, pageable);
+        Set<Long> postIds = new HashSet<>();
+        Set<Long> tagIds = new HashSet<>();
+        Set<Long> categoryIds = new HashSet<>();
+        for (TagSuggestion suggestion : page.getContent()) {
+            postIds.add(suggestion.getPostId());
+            tagIds.addAll(suggestion.getTagIds());
+            if (suggestion.getCategoryId() != null) {
+                categoryIds.add(suggestion.getCategoryId());
+            }
+        }
+        Map<Long, Post> posts = postRepository.findAllById(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        Map<Long, Tag> tags = tagRepository.findAllById(tagIds).stream()
+                .collect(Collectors.toMap(Tag::getId, Function.identity()));
+        Map<Long, Category> categories = categoryRepository.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        return page.map(suggestion -> {
+            Post post = posts.get(suggestion.getPostId());
+            Category category = suggestion.getCategoryId() == null ? null : categories.get(suggestion.getCategoryId());
+            return TagSuggestionDto.builder()
+                    .id(suggestion.getId())
+                    .postId(suggestion.getPostId())
+                    .postTitle(post == null ? null : post.getTitle())
+                    .tags(suggestion.getTagIds().stream()
+                            .map(tags::get)
+                            .filter(tag -> tag != null)
+                            .map(tag -> TagDto.builder().id(tag.getId()).name(tag.getName()).slug(tag.getSlug())
+                                    .color(tag.getColor()).build())
+                            .toList())
+                    .categoryId(suggestion.getCategoryId())
+                    .categoryName(category == null ? null : category.getName())
+                    .status(suggestion.getStatus())
+                    .createdAt(suggestion.getCreatedAt())
+                    .build();
+        });
+    }
+
+    @Override
+    @Transactional
+    public int reject(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        return suggestionRepository.updateStatus(ids, SuggestionStatus.PENDING, SuggestionStatus.REJECTED, LocalDateTime.now());
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = {CacheNames.TAXONOMY, CacheNames.POSTS, CacheNames.POST_LISTS}, allEntries = true)
+    public TagSuggestionApplyResult apply(List<Long> ids) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String selected = "s.status = 'PENDING'";
+        if (ids != null && !ids.isEmpty()) {
+            selected += " AND s.id IN (:ids)";
+            params.addValue("ids", ids);
+        }
+
+        // 1. 一条 INSERT ... SELECT 写入全部文章-标签关联，跳过已存在的关联和已删除的文章、标签
+        int tagLinks = jdbcTemplate.update(
+                "INSERT INTO post_tags (post_id, tag_id) " +
+                "SELECT DISTINCT s.post_id, st.tag_id FROM tag_suggestions s " +
+                "JOIN tag_suggestion_tags st ON st.suggestion_id = s.id " +
+                "JOIN posts p ON p.id = s.post_id AND p.deleted_at IS NULL " +
+                "JOIN tags t ON t.id = st.tag_id " +
+                "WHERE " + selected + " " +
+                "AND NOT EXISTS (SELECT 1 FROM post_tags pt WHERE pt.post_id = s.post_id AND pt.tag_id = st.tag_id)",
+                params);
+
+        // 2. 只为还没有分类的文章设置建议的分类
+        int categoriesSet = jdbcTemplate.update(
+                "UPDATE posts SET category_id = (SELECT s.category_id FROM tag_suggestions s WHERE s.post_id = posts.id), " +
+                "updated_at = CURRENT_TIMESTAMP " +
+                "WHERE category_id IS NULL AND deleted_at IS NULL AND id IN (" +
+                "SELECT s.post_id FROM tag_suggestions s JOIN categories c ON c.id = s.category_id WHERE " + selected + ")",
+                params);
+
+        // 3. 按关联表重新统计涉及标签的文章数
+        jdbcTemplate.update(
+                "UPDATE tags SET post_count = (" +
+                "SELECT COUNT(*) FROM post_tags pt JOIN posts p ON p.id = pt.post_id " +
+                "WHERE pt.tag_id = tags.id AND p.deleted_at IS NULL) " +
+                "WHERE id IN (SELECT st.tag_id FROM tag_suggestion_tags st " +
+                "JOIN tag_suggestions s ON s.id = st.suggestion_id WHERE " + selected + ")",
+                params);
+
+        // 4. 最后再标记为已应用（前面几步依赖 PENDING 状态筛选）
+        int applied = jdbcTemplate.update(
+                "UPDATE tag_suggestions s SET status = 'APPLIED', updated_at = CURRENT_TIMESTAMP WHERE " + selected,
+                params);
+
+        log.info("批量应用标签建议：{} 条建议，新增 {} 个文章-标签关联，设置 {} 篇文章的分类", applied, tagLinks, categoriesSet);
+        // 以上 SQL 绕过了 Hibernate，提交后清除标签与文章标签集合的二级缓存
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().evict(Tag.class);
+                entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                        .evictCollectionData(Post.class.getName() + ".tags");
+            }
+        });
+        return TagSuggestionApplyResult.builder()
+                .applied(applied)
+                .tagLinks(tagLinks)
+                .categoriesSet(categoriesSet)
+                .build();
+    }
+
+    private BatchJobDto toDto(BatchJob job) {
+        return BatchJobDto.builder()
+                .id(job.getId())
+                .type(job.getType())
+                .status(job.getStatus())
+                .cursorId(job.getCursorId())
+                .processed(job.getProcessed())
+                .succeeded(job.getSucceeded())
+                .failed(job.getFailed())
+                .message(job.getMessage())
+                .startedAt(job.getStartedAt())
+                .updatedAt(job.getUpdatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        inflight.forEach(ManualCancellationScope::cancel);
+        runner.shutdown();
+        try {
+            if (!runner.awaitTermination(5, TimeUnit.SECONDS)) {
+                runner.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            runner.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
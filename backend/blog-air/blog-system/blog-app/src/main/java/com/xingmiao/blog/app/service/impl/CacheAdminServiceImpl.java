@@ -0,0 +1,85 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.xingmiao.blog.app.cache.HotPostCache;
+import com.xingmiao.blog.app.cache.TwoLevelCache;
+import com.xingmiao.blog.app.service.CacheAdminService;
+import com.xingmiao.blog.common.dto.CacheStatsDto;
+import com.xingmiao.blog.common.dto.HotPostDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheAdminServiceImpl implements CacheAdminService {
+
+    private final CacheManager cacheManager;
+    private final HotPostCache hotPostCache;
+
+    @Override
+    public List<CacheStatsDto> stats() {
+        List<CacheStatsDto> result = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (!(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> rawCache)) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+                    (com.github.benmanes.caffeine.cache.Cache<Object, Object>) rawCache;
+            Policy<Object, Object> policy = nativeCache.policy();
+            Optional<Policy.Eviction<Object, Object>> eviction = policy.eviction();
+            boolean weighted = eviction.map(Policy.Eviction::isWeighted).orElse(false);
+            CacheStats stats = nativeCache.stats();
+            CacheStatsDto.CacheStatsDtoBuilder builder = CacheStatsDto.builder();
+            if (cache instanceof TwoLevelCache twoLevel) {
+                builder.twoLevel(twoLevel.isTwoLevel())
+                        .degraded(twoLevel.isDegraded())
+                        .remoteHitCount(twoLevel.getRemoteHits())
+                        .remoteMissCount(twoLevel.getRemoteMisses())
+                        .remoteErrorCount(twoLevel.getRemoteErrors())
+                        .coalescedLoadCount(twoLevel.getCoalescedLoads());
+            }
+            result.add(builder
+                    .name(name)
+                    .size(nativeCache.estimatedSize())
+                    .maximum(eviction.map(Policy.Eviction::getMaximum).orElse(null))
+                    .weighted(weighted)
+                    .weightedSize(weighted ? eviction.get().weightedSize().orElse(0) : null)
+                    .expireAfterWriteSeconds(policy.expireAfterWrite().map(e -> e.getExpiresAfter().toSeconds()).orElse(null))
+                    .expireAfterAccessSeconds(policy.expireAfterAccess().map(e -> e.getExpiresAfter().toSeconds()).orElse(null))
+                    .refreshAfterWriteSeconds(policy.refreshAfterWrite().map(e -> e.getRefreshesAfter().toSeconds()).orElse(null))
+                    .hitCount(stats.hitCount())
+                    .missCount(stats.missCount())
+                    .hitRate(stats.hitRate())
+                    .evictionCount(stats.evictionCount())
+                    .loadFailureCount(stats.loadFailureCount())
+                    .build());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean clear(String name) {
+        if (!cacheManager.getCacheNames().contains(name)) {
+            return false;
+        }
+        cacheManager.getCache(name).clear();
+        log.info("已清空缓存: {}", name);
+        return true;
+    }
+
+    @Override
+    public List<HotPostDto> hotPosts() {
+        return hotPostCache.snapshot();
+    }
+}
@@ -9,8 +9,13 @@ import com.xingmiao.blog.common.exception.CategoryDeleteException;
 import com.xingmiao.blog.app.repository.CategoryRepository;
 import com.xingmiao.blog.app.repository.PostRepository;
 import com.xingmiao.blog.app.service.CategoryService;
+import com.xingmiao.blog.app.service.MediaService;
+import com.xingmiao.blog.app.util.PostImages;
+import com.xingmiao.blog.app.cache.CacheNames;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -30,8 +35,10 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final PostRepository postRepository;
+    private final MediaService mediaService;
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.TAXONOMY, allEntries = true)
     public CategoryDto createCategory(CategoryCreateRequest request) {
         if (categoryRepository.existsBySlug(request.getSlug())) {
             throw new RuntimeException("分类别名已存在: " + request.getSlug());
@@ -62,6 +69,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheNames.TAXONOMY, CacheNames.POSTS, CacheNames.POST_LISTS}, allEntries = true)
     public CategoryDto updateCategory(Long id, CategoryUpdateRequest request) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("分类不存在: " + id));
@@ -129,6 +137,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.TAXONOMY, key = "'categories'", sync = true)
     public List<CategoryDto> getAllCategories() {
         return categoryRepository.findAll().stream()
                 .map(this::convertToDto)
@@ -136,6 +145,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheNames.TAXONOMY, CacheNames.POSTS, CacheNames.POST_LISTS}, allEntries = true)
     public void deleteCategory(Long id) {
         boolean exists = categoryRepository.existsById(id);
         if (!exists) {
@@ -149,6 +159,8 @@ public class CategoryServiceImpl implements CategoryService {
 
         List<Post> trashPosts = postRepository.findByCategory_IdAndDeletedAtIsNotNull(id);
         if (!trashPosts.isEmpty()) {
+            trashPosts.forEach(post -> mediaService.updateReferences(
+                    PostImages.collect(post.getCoverImageUrl(), post.getContent()), Set.of()));
             postRepository.deleteAll(trashPosts);
             log.info("删除分类时级联删除回收站文章，分类ID:{} 删除文章数量:{}",
                     id, trashPosts.size());
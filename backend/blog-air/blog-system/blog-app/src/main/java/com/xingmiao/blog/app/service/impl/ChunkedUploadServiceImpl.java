@@ -0,0 +1,393 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.xingmiao.blog.app.repository.UploadSessionRepository;
+import com.xingmiao.blog.app.service.ChunkedUploadService;
+import com.xingmiao.blog.app.service.MediaService;
+import com.xingmiao.blog.app.storage.FileStorage;
+import com.xingmiao.blog.app.util.ImageInspector;
+import com.xingmiao.blog.app.util.ImageTypes;
+import com.xingmiao.blog.common.domain.entity.UploadSession;
+import com.xingmiao.blog.common.domain.enums.UploadSessionStatus;
+import com.xingmiao.blog.common.dto.ChunkedUploadInitRequest;
+import com.xingmiao.blog.common.dto.ChunkedUploadStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * 分片上传
+ *
+ * <p>每个分片经 {@link FileStorage} 的分段上传直接写入存储（本地存储按偏移量写入预分配的文件，S3 每个分片一次 UploadPart），
+ * 会话与已接收的分片记录在数据库中，应用实例不保存任何会话状态：分片、查询与合并请求可以落到不同实例上，
+ * 按指纹续传也不依赖最初创建会话的实例。记录分片、合并与取消通过会话行锁互斥。</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    private static final Set<String> ALLOWED_CONTENT_TYPES = Set.of(
+            "image/jpeg", "image/png", "image/webp", "image/gif"
+    );
+
+    private final FileStorage fileStorage;
+    private final MediaService mediaService;
+    private final UploadSessionRepository sessionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${upload.chunked.max-file-size:50MB}")
+    private DataSize maxFileSize;
+
+    @Value("${upload.chunked.chunk-size:2MB}")
+    private DataSize chunkSize;
+
+    @Value("${upload.chunked.session-ttl:24h}")
+    private Duration sessionTtl;
+
+    @Override
+    public ChunkedUploadStatus init(ChunkedUploadInitRequest request) throws IOException {
+        String contentType = request.getContentType().toLowerCase(Locale.ROOT);
+        if (!ALLOWED_CONTENT_TYPES.contains(contentType)) {
+            throw new IllegalArgumentException("只支持 JPG、PNG、WEBP、GIF 格式的图片");
+        }
+        if (request.getSize() > maxFileSize.toBytes()) {
+            throw new IllegalArgumentException("文件大小不能超过" + maxFileSize.toMegabytes() + "MB");
+        }
+
+        String fingerprint = request.getFingerprint();
+        if (fingerprint != null && !fingerprint.isBlank()) {
+            ChunkedUploadStatus resumed = transactionTemplate.execute(status -> sessionRepository
+                    .findFirstByFingerprintAndSizeAndContentTypeAndStatusOrderByCreatedAtDesc(
+                            fingerprint, request.getSize(), contentType, UploadSessionStatus.OPEN)
+                    .map(existing -> {
+                        existing.setLastActiveAt(LocalDateTime.now());
+                        log.info("续传分片上传会话: {} 已接收 {}/{}", existing.getId(),
+                                existing.getParts().size(), existing.getTotalChunks());
+                        return toStatus(existing);
+                    })
+                    .orElse(null));
+            if (resumed != null) {
+                return resumed;
+            }
+        }
+
+        // S3 要求除最后一段外每段不小于 5MB
+        int chunk = (int) Math.max(chunkSize.toBytes(), fileStorage.minPartSize());
+        int totalChunks = (int) ((request.getSize() + chunk - 1) / chunk);
+        String uploadId = UUID.randomUUID().toString().replace("-", "");
+        String dateFolder = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
+        String key = dateFolder + "/" + UUID.randomUUID().toString().replace("-", "") + "."
+                + ImageTypes.extensionOf(contentType);
+        String storageUploadId = fileStorage.createMultipart(key, contentType, request.getSize());
+
+        UploadSession session = UploadSession.builder()
+                .id(uploadId)
+                .fingerprint(fingerprint == null || fingerprint.isBlank() ? null : fingerprint)
+                .fileName(request.getFileName())
+                .contentType(contentType)
+                .size(request.getSize())
+                .chunkSize(chunk)
+                .totalChunks(totalChunks)
+                .storageKey(key)
+                .storageUploadId(storageUploadId)
+                .build();
+        try {
+            transactionTemplate.executeWithoutResult(status -> sessionRepository.save(session));
+        } catch (RuntimeException e) {
+            abortQuietly(session);
+            throw e;
+        }
+        log.info("创建分片上传会话: {} 文件:{} 大小:{} 分片数:{}", uploadId, request.getFileName(), request.getSize(), totalChunks);
+        return toStatus(session);
+    }
+
+    @Override
+    public ChunkedUploadStatus writeChunk(String uploadId, long offset, long contentLength, InputStream body) throws IOException {
+        UploadSession session = transactionTemplate.execute(status -> sessionRepository.findById(uploadId).orElse(null));
+        if (session == null) {
+            throw missing(uploadId);
+        }
+        ensureOpen(session);
+        if (offset < 0 || offset >= session.getSize() || offset % session.getChunkSize() != 0) {
+            throw new IllegalArgumentException("非法的分片偏移量: " + offset);
+        }
+        int index = (int) (offset / session.getChunkSize());
+        long expected = Math.min(session.getChunkSize(), session.getSize() - offset);
+        if (contentLength >= 0 && contentLength != expected) {
+            throw new IllegalArgumentException("分片大小不正确，期望 " + expected + " 字节，实际 " + contentLength + " 字节");
+        }
+
+        ChunkBody chunk = new ChunkBody(body, expected);
+        InputStream data = chunk;
+        if (index == 0) {
+            // 首个分片：先读满文件头再校验魔数，校验不通过则不写入存储
+            byte[] head = new byte[(int) Math.min(ImageTypes.MAGIC_LENGTH, expected)];
+            int headLength = readAtLeast(chunk, head, head.length);
+            if (!ImageTypes.matches(head, headLength, session.getContentType())) {
+                throw new IllegalArgumentException("文件内容与声明的图片格式不一致");
+            }
+            data = new SequenceInputStream(new ByteArrayInputStream(head, 0, headLength), chunk);
+        }
+        String partTag = fileStorage.uploadPart(session.getStorageKey(), session.getStorageUploadId(),
+                index + 1, offset, data, expected);
+        chunk.ensureFullyRead();
+
+        // 合并或取消之后到达的分片不再记录
+        return transactionTemplate.execute(status -> {
+            UploadSession locked = sessionRepository.findForUpdate(uploadId).orElseThrow(() -> missing(uploadId));
+            ensureOpen(locked);
+            locked.getParts().put(index, partTag);
+            locked.setLastActiveAt(LocalDateTime.now());
+            return toStatus(locked);
+        });
+    }
+
+    @Override
+    public ChunkedUploadStatus getStatus(String uploadId) {
+        return transactionTemplate.execute(status -> {
+            UploadSession session = sessionRepository.findById(uploadId).orElseThrow(() -> missing(uploadId));
+            session.setLastActiveAt(LocalDateTime.now());
+            return toStatus(session);
+        });
+    }
+
+    @Override
+    public Map<String, Object> complete(String uploadId) throws IOException {
+        Completing completing = transactionTemplate.execute(status -> {
+            UploadSession locked = sessionRepository.findForUpdate(uploadId).orElseThrow(() -> missing(uploadId));
+            ensureOpen(locked);
+            int received = locked.getParts().size();
+            if (received < locked.getTotalChunks()) {
+                throw new IllegalStateException("仍有 " + (locked.getTotalChunks() - received) + " 个分片未上传");
+            }
+            locked.setStatus(UploadSessionStatus.COMPLETING);
+            locked.setLastActiveAt(LocalDateTime.now());
+            return new Completing(locked, List.copyOf(new TreeMap<>(locked.getParts()).values()));
+        });
+        UploadSession session = completing.session();
+        String key = session.getStorageKey();
+
+        try {
+            fileStorage.completeMultipart(key, session.getStorageUploadId(), completing.partTags());
+        } catch (IOException | RuntimeException e) {
+            // 合并失败时恢复为可上传状态，客户端可以重试
+            reopen(uploadId);
+            throw e;
+        }
+
+        // 合并后分段上传已不存在，无论校验结果如何会话都不能再继续
+        ImageInspector.Result info;
+        try (InputStream in = new BufferedInputStream(fileStorage.open(key))) {
+            in.mark(ImageTypes.MAGIC_LENGTH);
+            byte[] head = new byte[ImageTypes.MAGIC_LENGTH];
+            int headLength = readAtLeast(in, head, head.length);
+            if (!ImageTypes.matches(head, headLength, session.getContentType())) {
+                throw new IllegalArgumentException("文件内容与声明的图片格式不一致");
+            }
+            in.reset();
+            info = ImageInspector.inspect(in);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(key);
+            throw e;
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> sessionRepository.deleteById(uploadId));
+        }
+
+        try {
+            mediaService.record(key, session.getFileName(), session.getContentType(), info);
+        } catch (RuntimeException e) {
+            // 登记失败不影响上传结果，可通过媒体库导入补登
+            log.warn("媒体库登记失败: {}", key, e);
+        }
+
+        String fileUrl = fileStorage.publicUrl(key);
+        Map<String, Object> response = new HashMap<>();
+        response.put("url", fileUrl);
+        response.put("fileName", key.substring(key.lastIndexOf('/') + 1));
+        response.put("originalName", session.getFileName());
+        response.put("size", session.getSize());
+        log.info("分片上传完成: {} -> {}", session.getFileName(), fileUrl);
+        return response;
+    }
+
+    @Override
+    public void abort(String uploadId) {
+        UploadSession session = transactionTemplate.execute(status -> sessionRepository.findForUpdate(uploadId)
+                .filter(locked -> locked.getStatus() == UploadSessionStatus.OPEN)
+                .map(locked -> {
+                    sessionRepository.delete(locked);
+                    return locked;
+                })
+                .orElse(null));
+        if (session != null) {
+            abortQuietly(session);
+        }
+    }
+
+    /**
+     * 定期清理长时间无活动的上传会话（包括合并途中实例退出而遗留的会话）；
+     * 各实例都会执行，行锁保证每个会话只被清理一次
+     */
+    @Scheduled(fixedDelayString = "${upload.chunked.cleanup-interval:PT1H}")
+    public void cleanupExpiredSessions() {
+        LocalDateTime deadline = LocalDateTime.now().minus(sessionTtl);
+        List<String> ids = transactionTemplate.execute(status -> sessionRepository.findIdsInactiveSince(deadline));
+        for (String id : ids) {
+            UploadSession expired = transactionTemplate.execute(status -> sessionRepository.findForUpdate(id)
+                    .filter(locked -> locked.getLastActiveAt().isBefore(deadline))
+                    .map(locked -> {
+                        sessionRepository.delete(locked);
+                        return locked;
+                    })
+                    .orElse(null));
+            if (expired != null) {
+                log.info("清理过期分片上传会话: {}", id);
+                abortQuietly(expired);
+            }
+        }
+    }
+
+    private void reopen(String uploadId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> sessionRepository.findForUpdate(uploadId)
+                    .filter(locked -> locked.getStatus() == UploadSessionStatus.COMPLETING)
+                    .ifPresent(locked -> locked.setStatus(UploadSessionStatus.OPEN)));
+        } catch (RuntimeException e) {
+            log.warn("恢复分片上传会话失败: {}", uploadId, e);
+        }
+    }
+
+    private void abortQuietly(UploadSession session) {
+        try {
+            fileStorage.abortMultipart(session.getStorageKey(), session.getStorageUploadId());
+        } catch (IOException | RuntimeException e) {
+            log.warn("清理分片上传失败: {}", session.getId(), e);
+        }
+    }
+
+    private void deleteQuietly(String key) {
+        try {
+            fileStorage.delete(key);
+        } catch (IOException | RuntimeException e) {
+            log.warn("删除文件失败: {}", key, e);
+        }
+    }
+
+    private static IllegalArgumentException missing(String uploadId) {
+        return new IllegalArgumentException("上传会话不存在或已过期: " + uploadId);
+    }
+
+    private static void ensureOpen(UploadSession session) {
+        if (session.getStatus() != UploadSessionStatus.OPEN) {
+            throw new IllegalStateException("上传会话已完成或已取消: " + session.getId());
+        }
+    }
+
+    private static ChunkedUploadStatus toStatus(UploadSession session) {
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < session.getTotalChunks(); i++) {
+            if (!session.getParts().containsKey(i)) {
+                missing.add(i);
+            }
+        }
+        return ChunkedUploadStatus.builder()
+                .uploadId(session.getId())
+                .fileName(session.getFileName())
+                .size(session.getSize())
+                .chunkSize(session.getChunkSize())
+                .totalChunks(session.getTotalChunks())
+                .receivedChunks(session.getTotalChunks() - missing.size())
+                .missingChunks(missing)
+                .completed(missing.isEmpty())
+                .build();
+    }
+
+    private static int readAtLeast(InputStream in, byte[] buffer, int min) throws IOException {
+        int total = 0;
+        while (total < min) {
+            int n = in.read(buffer, total, buffer.length - total);
+            if (n == -1) {
+                break;
+            }
+            total += n;
+        }
+        return total == 0 ? -1 : total;
+    }
+
+    /**
+     * 开始合并时锁定的会话与按序排列的分段标识
+     */
+    private record Completing(UploadSession session, List<String> partTags) {
+    }
+
+    /**
+     * 分片请求体：数据不足或超出预期长度时抛出 {@link IllegalArgumentException}
+     */
+    private static final class ChunkBody extends FilterInputStream {
+
+        private final long expected;
+        private long read;
+
+        private ChunkBody(InputStream in, long expected) {
+            super(in);
+            this.expected = expected;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            count(b == -1 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            count(n);
+            return n;
+        }
+
+        /**
+         * 存储读满分片后确认请求体没有多余数据
+         */
+        private void ensureFullyRead() throws IOException {
+            read();
+        }
+
+        private void count(int n) {
+            if (n == -1) {
+                if (read < expected) {
+                    throw new IllegalArgumentException("分片数据不完整，期望 " + expected + " 字节，实际 " + read + " 字节");
+                }
+                return;
+            }
+            read += n;
+            if (read > expected) {
+                throw new IllegalArgumentException("分片数据超出预期长度 " + expected + " 字节");
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.xingmiao.blog.app.cache.CacheWeighted;
+import com.xingmiao.blog.app.service.ContributionSvgService;
+import com.xingmiao.blog.app.service.GithubService;
+import com.xingmiao.blog.common.dto.GithubContributionResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Service
+public class ContributionSvgServiceImpl implements ContributionSvgService {
+
+    public static final String SVG_CACHE = "github-contributions-svg";
+
+    private static final int CELL = 10;
+    private static final int STEP = 13;
+    private static final int LEFT = 28;
+    private static final int GRID_TOP = 44;
+    private static final String[] COLORS = {"#ebedf0", "#9be9a8", "#40c463", "#30a14e", "#216e39"};
+    private static final String[] WEEKDAYS = {"日", "一", "二", "三", "四", "五", "六"};
+    /**
+     * 模板版本，修改绘制逻辑后递增以使浏览器缓存失效
+     */
+    private static final String TEMPLATE_VERSION = "v1";
+
+    private final GithubService githubService;
+    private final Cache cache;
+
+    public ContributionSvgServiceImpl(GithubService githubService, CacheManager cacheManager) {
+        this.githubService = githubService;
+        this.cache = cacheManager.getCache(SVG_CACHE);
+    }
+
+    @Override
+    public ContributionSvg render(String username) {
+        List<GithubContributionResponse.ContributionData> data = githubService.getContributionsData(username, null, null);
+        // 贡献数据缓存刷新前返回的是同一个列表实例，据此判断是否需要重新渲染
+        Rendered rendered = cache.get(username, Rendered.class);
+        if (rendered != null && rendered.source() == data) {
+            return rendered.svg();
+        }
+        byte[] svg = toSvg(username, data).getBytes(StandardCharsets.UTF_8);
+        ContributionSvg result = new ContributionSvg(svg, gzip(svg), digest(svg));
+        cache.put(username, new Rendered(data, result));
+        log.debug("渲染贡献热力图: {} {} 字节，压缩后 {} 字节", username, svg.length, result.gzip().length);
+        return result;
+    }
+
+    static String toSvg(String username, List<GithubContributionResponse.ContributionData> data) {
+        TreeMap<LocalDate, GithubContributionResponse.ContributionData> days = new TreeMap<>();
+        for (GithubContributionResponse.ContributionData day : data) {
+            try {
+                days.put(LocalDate.parse(day.getDate()), day);
+            } catch (DateTimeParseException e) {
+                log.debug("忽略无法解析的日期: {}", day.getDate());
+            }
+        }
+        LocalDate start = days.isEmpty() ? LocalDate.now() : days.firstKey();
+        LocalDate end = days.isEmpty() ? start : days.lastKey();
+        // 第一列从包含起始日的那个周日开始
+        LocalDate firstSunday = start.minusDays(start.getDayOfWeek().getValue() % 7);
+        int weeks = (int) (ChronoUnit.DAYS.between(firstSunday, end) / 7) + 1;
+        int width = LEFT + weeks * STEP + 8;
+        int legendY = GRID_TOP + 7 * STEP + 8;
+        int height = legendY + CELL + 8;
+
+        StringBuilder out = new StringBuilder(64 * days.size() + 1024);
+        out.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+                .append("\" height=\"").append(height)
+                .append("\" viewBox=\"0 0 ").append(width).append(' ').append(height).append("\">");
+        out.append("<style>text{font-family:-apple-system,\"Segoe UI\",\"PingFang SC\",\"Microsoft YaHei\",sans-serif;fill:#666;font-size:10px}")
+                .append(".h{font-size:13px;fill:#8c8c8c}rect{stroke:#e1e4e8;stroke-width:1}");
+        for (int level = 0; level < COLORS.length; level++) {
+            out.append(".l").append(level).append("{fill:").append(COLORS[level]).append('}');
+        }
+        out.append("</style>");
+        out.append("<text class=\"h\" x=\"0\" y=\"14\">@").append(escape(username)).append(" 的贡献活动</text>");
+
+        // 月份标签：某列的第一天换月时标注，距上一个标签太近则跳过
+        int lastLabelColumn = -3;
+        int lastMonth = -1;
+        for (int column = 0; column < weeks; column++) {
+            LocalDate weekStart = firstSunday.plusWeeks(column);
+            LocalDate labelDay = weekStart.isBefore(start) ? start : weekStart;
+            if (labelDay.getMonthValue() != lastMonth) {
+                lastMonth = labelDay.getMonthValue();
+                if (column - lastLabelColumn >= 3) {
+                    out.append("<text x=\"").append(LEFT + column * STEP).append("\" y=\"36\">")
+                            .append(lastMonth).append("月</text>");
+                    lastLabelColumn = column;
+                }
+            }
+        }
+        for (int row = 1; row < 7; row += 2) {
+            out.append("<text x=\"6\" y=\"").append(GRID_TOP + row * STEP + CELL - 1).append("\">")
+                    .append(WEEKDAYS[row]).append("</text>");
+        }
+
+        for (GithubContributionResponse.ContributionData day : days.values()) {
+            LocalDate date = LocalDate.parse(day.getDate());
+            long offset = ChronoUnit.DAYS.between(firstSunday, date);
+            int x = LEFT + (int) (offset / 7) * STEP;
+            int y = GRID_TOP + (int) (offset % 7) * STEP;
+            int level = Math.max(0, Math.min(day.getLevel(), COLORS.length - 1));
+            out.append("<rect class=\"l").append(level).append("\" x=\"").append(x).append("\" y=\"").append(y)
+                    .append("\" width=\"").append(CELL).append("\" height=\"").append(CELL).append("\" rx=\"2\"><title>")
+                    .append(date.getYear()).append('年').append(date.getMonthValue()).append('月')
+                    .append(date.getDayOfMonth()).append("日: ")
+                    .append(day.getCount() == 0 ? "无贡献" : day.getCount() + " 次贡献")
+                    .append("</title></rect>");
+        }
+
+        // 图例
+        int legendX = width - 8 - 2 * 16 - COLORS.length * STEP;
+        out.append("<text x=\"").append(legendX).append("\" y=\"").append(legendY + CELL - 1).append("\">少</text>");
+        for (int level = 0; level < COLORS.length; level++) {
+            out.append("<rect class=\"l").append(level).append("\" x=\"").append(legendX + 16 + level * STEP)
+                    .append("\" y=\"").append(legendY).append("\" width=\"").append(CELL)
+                    .append("\" height=\"").append(CELL).append("\" rx=\"2\"/>");
+        }
+        out.append("<text x=\"").append(legendX + 16 + COLORS.length * STEP + 2).append("\" y=\"")
+                .append(legendY + CELL - 1).append("\">多</text>");
+        out.append("</svg>");
+        return out.toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String digest(byte[] bytes) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(TEMPLATE_VERSION.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha.digest(bytes), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 缓存条目：渲染所依据的数据实例与渲染结果
+     */
+    private record Rendered(List<GithubContributionResponse.ContributionData> source, ContributionSvg svg)
+            implements CacheWeighted {
+
+        @Override
+        public long estimatedBytes() {
+            // 数据列表由贡献数据缓存持有，这里只计渲染结果
+            return svg.svg().length + svg.gzip().length;
+        }
+    }
+}
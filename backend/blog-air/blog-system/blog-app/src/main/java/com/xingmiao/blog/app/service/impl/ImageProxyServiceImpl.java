@@ -0,0 +1,445 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.xingmiao.blog.app.config.ImageProxyProperties;
+import com.xingmiao.blog.app.service.ImageProxyService;
+import com.xingmiao.blog.app.storage.FileStorage;
+import com.xingmiao.blog.app.util.ImageTypes;
+import com.xingmiao.blog.app.util.PostImages;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+public class ImageProxyServiceImpl implements ImageProxyService {
+
+    private static final String PROXY_PATH = "/api/image-proxy";
+    private static final int COPY_BUFFER_SIZE = 16 * 1024;
+
+    private final ImageProxyProperties properties;
+    private final FileStorage fileStorage;
+    private final Path cacheDir;
+    private final HttpClient httpClient;
+    private final byte[] signingKey;
+    /**
+     * 正在拉取中的地址，同一地址的并发请求共享同一次拉取
+     */
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    /**
+     * 拉取超时后关闭响应流，中断阻塞中的读取
+     */
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "image-proxy-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ImageProxyServiceImpl(ImageProxyProperties properties, FileStorage fileStorage) {
+        this.properties = properties;
+        this.fileStorage = fileStorage;
+        Path dir = Paths.get(properties.getCachePath());
+        if (!dir.isAbsolute()) {
+            dir = Paths.get(System.getProperty("user.dir"), properties.getCachePath());
+        }
+        this.cacheDir = dir.toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(cacheDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法创建图片代理缓存目录: " + cacheDir, e);
+        }
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        if (StringUtils.hasText(properties.getSigningKey())) {
+            this.signingKey = properties.getSigningKey().getBytes(StandardCharsets.UTF_8);
+        } else {
+            log.warn("未配置 image-proxy.signing-key，使用随机密钥，重启或多实例部署后旧的代理地址将失效");
+            this.signingKey = new byte[32];
+            new SecureRandom().nextBytes(signingKey);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+    }
+
+    @Override
+    public String proxyUrl(String url) {
+        if (!properties.isEnabled() || !isExternal(url)) {
+            return null;
+        }
+        return PROXY_PATH + "?url=" + URLEncoder.encode(url, StandardCharsets.UTF_8) + "&sig=" + sign(url);
+    }
+
+    @Override
+    public String rewriteContent(String content) {
+        if (!properties.isEnabled()) {
+            return content;
+        }
+        return PostImages.rewrite(content, url -> {
+            String proxied = proxyUrl(url);
+            return proxied != null ? proxied : url;
+        });
+    }
+
+    @Override
+    public boolean verify(String url, String signature) {
+        if (!StringUtils.hasText(url) || !StringUtils.hasText(signature)) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(url).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public Path fetch(String url) throws IOException {
+        URI uri = parse(url);
+        String hash = sha256(url);
+        Path cached = findCached(hash);
+        if (cached != null && isFresh(cached)) {
+            return cached;
+        }
+
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(hash, mine);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            Path downloaded = download(uri, hash);
+            mine.complete(downloaded);
+            return downloaded;
+        } catch (IOException | RuntimeException e) {
+            if (cached != null) {
+                // 源站不可用时继续使用过期缓存
+                log.warn("外链图片刷新失败，使用过期缓存: {} {}", url, e.getMessage());
+                mine.complete(cached);
+                return cached;
+            }
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(hash, mine);
+        }
+    }
+
+    /**
+     * 清理过期文件，并在缓存总大小超限时按拉取时间淘汰最旧的文件
+     */
+    @Scheduled(fixedDelayString = "${image-proxy.cleanup-interval:PT30M}")
+    public void evict() {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(cacheDir)) {
+            stream.filter(Files::isRegularFile).forEach(files::add);
+        } catch (IOException e) {
+            log.warn("扫描图片代理缓存失败", e);
+            return;
+        }
+
+        Instant expiredBefore = Instant.now().minus(properties.getTtl().multipliedBy(2));
+        long total = 0;
+        List<Path> alive = new ArrayList<>();
+        for (Path file : files) {
+            try {
+                if (file.getFileName().toString().endsWith(".tmp")
+                        ? Files.getLastModifiedTime(file).toInstant().isBefore(Instant.now().minusSeconds(3600))
+                        : Files.getLastModifiedTime(file).toInstant().isBefore(expiredBefore)) {
+                    Files.deleteIfExists(file);
+                } else {
+                    total += Files.size(file);
+                    alive.add(file);
+                }
+            } catch (IOException ignored) {
+                // 文件可能已被并发删除
+            }
+        }
+
+        long limit = properties.getMaxCacheSize().toBytes();
+        if (total <= limit) {
+            return;
+        }
+        alive.sort(Comparator.comparing(ImageProxyServiceImpl::lastModified));
+        for (Path file : alive) {
+            if (total <= limit) {
+                break;
+            }
+            try {
+                long size = Files.size(file);
+                if (Files.deleteIfExists(file)) {
+                    total -= size;
+                }
+            } catch (IOException ignored) {
+                // 忽略删除失败
+            }
+        }
+    }
+
+    private Path download(URI uri, String hash) throws IOException {
+        long maxBytes = properties.getMaxBytes().toBytes();
+        long deadline = System.nanoTime() + properties.getReadTimeout().toNanos();
+        URI current = uri;
+        for (int redirects = 0; ; redirects++) {
+            checkHost(current);
+            HttpRequest request = HttpRequest.newBuilder(current)
+                    .timeout(remaining(deadline))
+                    .header("User-Agent", "xm-blog-image-proxy/1.0")
+                    .header("Accept", "image/*")
+                    .GET()
+                    .build();
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("拉取外链图片被中断", e);
+            }
+
+            int status = response.statusCode();
+            if (status == 301 || status == 302 || status == 303 || status == 307 || status == 308) {
+                response.body().close();
+                String location = response.headers().firstValue("Location")
+                        .orElseThrow(() -> new IOException("重定向缺少 Location"));
+                if (redirects >= properties.getMaxRedirects()) {
+                    throw new IOException("重定向次数过多");
+                }
+                current = parse(current.resolve(location).toString());
+                continue;
+            }
+            if (status != 200) {
+                response.body().close();
+                throw new IOException("源站返回状态码 " + status);
+            }
+            long declared = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+            if (declared > maxBytes) {
+                response.body().close();
+                throw new IOException("图片超过大小限制: " + declared + " 字节");
+            }
+            return saveBody(response.body(), hash, maxBytes, deadline);
+        }
+    }
+
+    private Path saveBody(InputStream body, String hash, long maxBytes, long deadline) throws IOException {
+        Path temp = Files.createTempFile(cacheDir, hash + "-", ".tmp");
+        ScheduledFuture<?> timeout = watchdog.schedule(() -> {
+            try {
+                body.close();
+            } catch (IOException ignored) {
+                // 关闭即可中断读取
+            }
+        }, Math.max(1, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        try {
+            try (InputStream in = body; OutputStream out = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                long total = 0;
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    total += n;
+                    if (total > maxBytes) {
+                        throw new IOException("图片超过大小限制: " + maxBytes + " 字节");
+                    }
+                    out.write(buffer, 0, n);
+                }
+            } catch (IOException e) {
+                if (System.nanoTime() >= deadline) {
+                    throw new IOException("拉取外链图片超时", e);
+                }
+                throw e;
+            }
+
+            byte[] head = new byte[ImageTypes.MAGIC_LENGTH];
+            int headLength;
+            try (InputStream in = Files.newInputStream(temp)) {
+                headLength = in.readNBytes(head, 0, head.length);
+            }
+            String mimeType = ImageTypes.detect(head, headLength);
+            if (mimeType == null) {
+                throw new IOException("内容不是受支持的图片格式");
+            }
+
+            Path target = cacheDir.resolve(hash + "." + ImageTypes.extensionOf(mimeType));
+            deleteVariants(hash, target);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        } finally {
+            timeout.cancel(false);
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path await(CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.get(properties.getReadTimeout().toMillis() + properties.getConnectTimeout().toMillis(),
+                    TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待外链图片拉取被中断", e);
+        } catch (TimeoutException e) {
+            throw new IOException("等待外链图片拉取超时", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private boolean isExternal(String url) {
+        if (!StringUtils.hasText(url)) {
+            return false;
+        }
+        String lower = url.toLowerCase(Locale.ROOT);
+        if (!lower.startsWith("http://") && !lower.startsWith("https://")) {
+            return false;
+        }
+        // 本站上传的图片（含 CDN 地址）不走代理
+        return fileStorage.keyOf(url) == null;
+    }
+
+    private URI parse(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("非法的图片地址");
+        }
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!scheme.equals("http") && !scheme.equals("https") || !StringUtils.hasText(uri.getHost())) {
+            throw new IllegalArgumentException("只支持 http/https 图片地址");
+        }
+        return uri;
+    }
+
+    /**
+     * 拒绝指向本机与内网的地址，避免被用于探测内部服务
+     */
+    private void checkHost(URI uri) {
+        if (properties.isAllowPrivateHosts()) {
+            return;
+        }
+        try {
+            for (InetAddress address : InetAddress.getAllByName(uri.getHost())) {
+                if (address.isLoopbackAddress() || address.isAnyLocalAddress() || address.isLinkLocalAddress()
+                        || address.isSiteLocalAddress() || address.isMulticastAddress()
+                        || isUniqueLocal(address)) {
+                    throw new IllegalArgumentException("不允许代理内网地址");
+                }
+            }
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("无法解析图片域名: " + uri.getHost());
+        }
+    }
+
+    private static boolean isUniqueLocal(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        return bytes.length == 16 && (bytes[0] & 0xFE) == 0xFC;
+    }
+
+    private Path findCached(String hash) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir, hash + ".*")) {
+            for (Path path : stream) {
+                if (!path.getFileName().toString().endsWith(".tmp")) {
+                    return path;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void deleteVariants(String hash, Path keep) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir, hash + ".*")) {
+            for (Path path : stream) {
+                if (!path.equals(keep) && !path.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private boolean isFresh(Path file) {
+        return lastModified(file).toInstant().isAfter(Instant.now().minus(properties.getTtl()));
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static Duration remaining(long deadline) throws IOException {
+        long nanos = deadline - System.nanoTime();
+        if (nanos <= 0) {
+            throw new IOException("拉取外链图片超时");
+        }
+        return Duration.ofNanos(nanos);
+    }
+
+    private String sign(String url) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(signingKey, "HmacSHA256"));
+            byte[] digest = mac.doFinal(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
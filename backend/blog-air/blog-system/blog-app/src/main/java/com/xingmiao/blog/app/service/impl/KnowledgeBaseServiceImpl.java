@@ -0,0 +1,369 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.github.jelmerk.knn.DistanceFunctions;
+import com.github.jelmerk.knn.Item;
+import com.github.jelmerk.knn.SearchResult;
+import com.github.jelmerk.knn.hnsw.HnswIndex;
+import com.github.jelmerk.knn.hnsw.SizeLimitExceededException;
+import com.xingmiao.blog.app.ai.MarkdownChunker;
+import com.xingmiao.blog.app.config.KnowledgeBaseProperties;
+import com.xingmiao.blog.app.event.PostChangedEvent;
+import com.xingmiao.blog.app.repository.PostRepository;
+import com.xingmiao.blog.app.service.KnowledgeBaseService;
+import com.xingmiao.blog.common.domain.entity.Post;
+import com.xingmiao.blog.common.domain.enums.KnowledgeBaseStatus;
+import com.xingmiao.blog.common.domain.enums.PostStatus;
+import com.xingmiao.blog.common.domain.enums.Visibility;
+import com.xingmiao.blog.common.dto.KnowledgeBaseStatusDto;
+import com.xingmiao.blog.common.dto.KnowledgeSearchHit;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 基于 HNSW 近似最近邻索引的知识库。
+ *
+ * <p>所有写操作（加载、重建、增量更新、写盘）都在单线程 kb-indexer 上串行执行，检索直接读当前索引。
+ * 索引与向量模型标识一起保存到磁盘，启动时标识一致则直接加载，否则全量重建。</p>
+ */
+@Slf4j
+@Service
+public class KnowledgeBaseServiceImpl implements KnowledgeBaseService {
+
+    private static final String INDEX_FILE = "index.bin";
+    private static final String META_FILE = "meta.properties";
+    private static final int MIN_CAPACITY = 1024;
+
+    private final PostRepository postRepository;
+    private final EmbeddingModel embeddingModel;
+    private final KnowledgeBaseProperties properties;
+    private final Path indexDir;
+    private final String embeddingSignature;
+    private final ScheduledThreadPoolExecutor indexer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "kb-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile HnswIndex<String, float[], KnowledgeChunk, Float> index;
+    /**
+     * 每篇文章的片段数，删除或更新时据此移除旧片段
+     */
+    private final Map<Long, Integer> chunkCounts = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private volatile LocalDateTime updatedAt;
+    /**
+     * 以下字段只在 kb-indexer 线程上访问
+     */
+    private ScheduledFuture<?> pendingSave;
+    private boolean dirty;
+
+    public KnowledgeBaseServiceImpl(PostRepository postRepository, EmbeddingModel embeddingModel,
+                                    KnowledgeBaseProperties properties) {
+        this.postRepository = postRepository;
+        this.embeddingModel = embeddingModel;
+        this.properties = properties;
+        Path dir = Paths.get(properties.getIndexPath());
+        if (!dir.isAbsolute()) {
+            dir = Paths.get(System.getProperty("user.dir"), properties.getIndexPath());
+        }
+        this.indexDir = dir.toAbsolutePath().normalize();
+        KnowledgeBaseProperties.Embedding embedding = properties.getEmbedding();
+        this.embeddingSignature = embedding.getProvider() + ":" + embedding.getModelName() + ":" + embedding.getDimensions();
+        // 关闭时已立即写盘，不再等待延迟写盘任务
+        indexer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.isEnabled()) {
+            rebuilding.set(true);
+            indexer.execute(this::loadOrRebuild);
+        }
+    }
+
+    /**
+     * 事务提交后再读取文章，保证拿到的是已提交的最新状态
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        if (properties.isEnabled() && event.postId() != null) {
+            indexer.execute(() -> reindex(event.postId()));
+        }
+    }
+
+    @Override
+    public List<KnowledgeSearchHit> search(String query, int topK) {
+        HnswIndex<String, float[], KnowledgeChunk, Float> current = index;
+        if (current == null || query == null || query.isBlank() || current.size() == 0) {
+            return List.of();
+        }
+        float[] vector = embeddingModel.embed(query).content().vector();
+        List<KnowledgeSearchHit> hits = new ArrayList<>();
+        for (SearchResult<KnowledgeChunk, Float> result : current.findNearest(vector, Math.max(1, topK))) {
+            float score = 1 - result.distance();
+            if (score < properties.getMinScore()) {
+                continue;
+            }
+            KnowledgeChunk chunk = result.item();
+            hits.add(KnowledgeSearchHit.builder()
+                    .postId(chunk.postId())
+                    .title(chunk.title())
+                    .slug(chunk.slug())
+                    .text(chunk.text())
+                    .score(score)
+                    .build());
+        }
+        return hits;
+    }
+
+    @Override
+    public KnowledgeBaseStatusDto status() {
+        HnswIndex<String, float[], KnowledgeChunk, Float> current = index;
+        return KnowledgeBaseStatusDto.builder()
+                .status(properties.isEnabled() && current != null ? KnowledgeBaseStatus.ACTIVE : KnowledgeBaseStatus.INACTIVE)
+                .rebuilding(rebuilding.get())
+                .posts(chunkCounts.size())
+                .chunks(current == null ? 0 : current.size())
+                .embeddingModel(embeddingSignature)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    @Override
+    public boolean rebuild() {
+        if (!properties.isEnabled() || !rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        indexer.execute(this::rebuildNow);
+        return true;
+    }
+
+    private void loadOrRebuild() {
+        try {
+            if (load()) {
+                rebuilding.set(false);
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("加载知识库索引失败，将重新构建: {}", e.getMessage());
+        }
+        rebuildNow();
+    }
+
+    private boolean load() throws IOException {
+        Path indexFile = indexDir.resolve(INDEX_FILE);
+        Path metaFile = indexDir.resolve(META_FILE);
+        if (!Files.exists(indexFile) || !Files.exists(metaFile)) {
+            return false;
+        }
+        Properties meta = new Properties();
+        try (InputStream in = Files.newInputStream(metaFile)) {
+            meta.load(in);
+        }
+        if (!embeddingSignature.equals(meta.getProperty("embedding"))) {
+            log.info("向量模型已变化（{} -> {}），重建知识库索引", meta.getProperty("embedding"), embeddingSignature);
+            return false;
+        }
+        HnswIndex<String, float[], KnowledgeChunk, Float> loaded =
+                HnswIndex.load(indexFile, KnowledgeBaseServiceImpl.class.getClassLoader());
+        loaded.setEf(properties.getHnsw().getEf());
+        Map<Long, Integer> counts = new HashMap<>();
+        for (KnowledgeChunk chunk : loaded.items()) {
+            counts.merge(chunk.postId(), 1, Integer::sum);
+        }
+        chunkCounts.clear();
+        chunkCounts.putAll(counts);
+        index = loaded;
+        String savedAt = meta.getProperty("savedAt");
+        updatedAt = savedAt == null ? null : LocalDateTime.parse(savedAt);
+        log.info("已加载知识库索引：{} 篇文章，{} 个片段", counts.size(), loaded.size());
+        return true;
+    }
+
+    private void rebuildNow() {
+        try {
+            long started = System.currentTimeMillis();
+            List<Long> ids = postRepository.findIdsByStatusAndVisibilityAndDeletedAtIsNull(PostStatus.PUBLISHED, Visibility.PUBLIC);
+            HnswIndex<String, float[], KnowledgeChunk, Float> rebuilt = newIndex(Math.max(MIN_CAPACITY, ids.size() * 8));
+            Map<Long, Integer> counts = new HashMap<>();
+            for (Long id : ids) {
+                postRepository.findById(id).filter(KnowledgeBaseServiceImpl::indexable).ifPresent(post -> {
+                    int added = addChunks(rebuilt, post);
+                    if (added > 0) {
+                        counts.put(post.getId(), added);
+                    }
+                });
+            }
+            chunkCounts.clear();
+            chunkCounts.putAll(counts);
+            index = rebuilt;
+            updatedAt = LocalDateTime.now();
+            dirty = true;
+            save();
+            log.info("知识库索引重建完成：{} 篇文章，{} 个片段，耗时 {} ms",
+                    counts.size(), rebuilt.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("知识库索引重建失败", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void reindex(Long postId) {
+        HnswIndex<String, float[], KnowledgeChunk, Float> current = index;
+        if (current == null) {
+            // 尚未加载完成，稍后的全量构建会读取最新状态
+            return;
+        }
+        try {
+            Integer previous = chunkCounts.remove(postId);
+            if (previous != null) {
+                for (int i = 0; i < previous; i++) {
+                    current.remove(KnowledgeChunk.id(postId, i), 0);
+                }
+            }
+            postRepository.findById(postId).filter(KnowledgeBaseServiceImpl::indexable).ifPresent(post -> {
+                int added = addChunks(current, post);
+                if (added > 0) {
+                    chunkCounts.put(postId, added);
+                }
+            });
+            updatedAt = LocalDateTime.now();
+            scheduleSave();
+        } catch (RuntimeException e) {
+            log.warn("更新文章 {} 的知识库索引失败", postId, e);
+        }
+    }
+
+    private int addChunks(HnswIndex<String, float[], KnowledgeChunk, Float> target, Post post) {
+        List<String> texts = MarkdownChunker.split(post.getContent(), properties.getChunkTokens());
+        if (texts.isEmpty()) {
+            return 0;
+        }
+        // 片段前加上标题，使只在标题中出现的关键词也能命中
+        List<TextSegment> segments = texts.stream()
+                .map(text -> TextSegment.from(post.getTitle() + "\n" + text))
+                .toList();
+        List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
+        for (int i = 0; i < texts.size(); i++) {
+            KnowledgeChunk chunk = new KnowledgeChunk(KnowledgeChunk.id(post.getId(), i), embeddings.get(i).vector(),
+                    post.getId(), post.getTitle(), post.getSlug(), texts.get(i));
+            try {
+                target.add(chunk);
+            } catch (SizeLimitExceededException e) {
+                target.resize(target.getMaxItemCount() * 2);
+                target.add(chunk);
+            }
+        }
+        return texts.size();
+    }
+
+    private HnswIndex<String, float[], KnowledgeChunk, Float> newIndex(int capacity) {
+        KnowledgeBaseProperties.Hnsw hnsw = properties.getHnsw();
+        return HnswIndex.newBuilder(properties.getEmbedding().getDimensions(), DistanceFunctions.FLOAT_COSINE_DISTANCE, capacity)
+                .withM(hnsw.getM())
+                .withEf(hnsw.getEf())
+                .withEfConstruction(hnsw.getEfConstruction())
+                .withRemoveEnabled()
+                .build();
+    }
+
+    /**
+     * 合并短时间内的多次修改，延迟写盘
+     */
+    private void scheduleSave() {
+        dirty = true;
+        if (pendingSave == null || pendingSave.isDone()) {
+            pendingSave = indexer.schedule(this::save, properties.getSaveDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void save() {
+        HnswIndex<String, float[], KnowledgeChunk, Float> current = index;
+        if (!dirty || current == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(indexDir);
+            // 先写临时文件再替换，进程中途退出也不会留下损坏的索引
+            Path tmp = indexDir.resolve(INDEX_FILE + ".tmp");
+            current.save(tmp);
+            Files.move(tmp, indexDir.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Properties meta = new Properties();
+            meta.setProperty("embedding", embeddingSignature);
+            meta.setProperty("savedAt", String.valueOf(updatedAt != null ? updatedAt : LocalDateTime.now()));
+            try (OutputStream out = Files.newOutputStream(indexDir.resolve(META_FILE))) {
+                meta.store(out, "knowledge base index");
+            }
+            dirty = false;
+        } catch (IOException e) {
+            log.warn("保存知识库索引失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.execute(this::save);
+        indexer.shutdown();
+        try {
+            if (!indexer.awaitTermination(10, TimeUnit.SECONDS)) {
+                indexer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            indexer.shutdownNow();
+        }
+    }
+
+    private static boolean indexable(Post post) {
+        return post.getDeletedAt() == null
+                && post.getStatus() == PostStatus.PUBLISHED
+                && post.getVisibility() == Visibility.PUBLIC
+                && post.getContent() != null;
+    }
+
+    /**
+     * 索引中的文章片段，随索引一起序列化
+     */
+    record KnowledgeChunk(String id, float[] vector, Long postId, String title, String slug, String text)
+            implements Item<String, float[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        static String id(Long postId, int index) {
+            return postId + "#" + index;
+        }
+
+        @Override
+        public int dimensions() {
+            return vector.length;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.xingmiao.blog.app.repository.MediaRepository;
+import com.xingmiao.blog.app.repository.PostRepository;
+import com.xingmiao.blog.app.service.MediaService;
+import com.xingmiao.blog.app.storage.FileStorage;
+import com.xingmiao.blog.app.util.ImageInspector;
+import com.xingmiao.blog.app.util.PostImages;
+import com.xingmiao.blog.common.domain.entity.Media;
+import com.xingmiao.blog.common.domain.entity.Post;
+import com.xingmiao.blog.common.dto.MediaDto;
+import com.xingmiao.blog.common.dto.MediaImportResult;
+import com.xingmiao.blog.common.dto.MediaLibraryPage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MediaServiceImpl implements MediaService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int IMPORT_BATCH_SIZE = 200;
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "webp", "gif");
+    private static final DateTimeFormatter DATE_FOLDER = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+    private final MediaRepository mediaRepository;
+    private final PostRepository postRepository;
+    private final FileStorage fileStorage;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${upload.library.import-parallelism:4}")
+    private int importParallelism;
+
+    private final AtomicBoolean importing = new AtomicBoolean(false);
+
+    @Override
+    public MediaDto record(String key, String originalName, String contentType, ImageInspector.Result info) {
+        // 在独立事务中登记：唯一键冲突只回滚这次插入，不会把调用方的事务标记为 rollback-only
+        TransactionTemplate requiresNew = new TransactionTemplate(
+                Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            return requiresNew.execute(status -> mediaRepository.findByStorageKey(key)
+                    .map(this::convertToDto)
+                    .orElseGet(() -> convertToDto(mediaRepository.save(buildMedia(key, originalName, contentType, info)))));
+        } catch (DataIntegrityViolationException e) {
+            // 并发登记同一 key，以已有记录为准
+            return requiresNew.execute(status -> mediaRepository.findByStorageKey(key).map(this::convertToDto))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MediaLibraryPage list(Long cursor, int size, String keyword, String mimeType, boolean unused) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // 多取一条用于判断是否还有下一页
+        List<Media> rows = mediaRepository.findLibraryPage(
+                cursor,
+                StringUtils.hasText(mimeType) ? mimeType.trim() : null,
+                unused,
+                StringUtils.hasText(keyword) ? keyword.trim() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Media> page = hasMore ? rows.subList(0, pageSize) : rows;
+        return MediaLibraryPage.builder()
+                .items(page.stream().map(this::convertToDto).toList())
+                .nextCursor(hasMore ? page.get(page.size() - 1).getId() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public void updateReferences(Collection<String> previousUrls, Collection<String> currentUrls) {
+        Set<String> before = toKeys(previousUrls);
+        Set<String> after = toKeys(currentUrls);
+
+        Set<String> removed = new HashSet<>(before);
+        removed.removeAll(after);
+        Set<String> added = new HashSet<>(after);
+        added.removeAll(before);
+
+        if (!removed.isEmpty()) {
+            mediaRepository.adjustReferenceCount(removed, -1);
+        }
+        if (!added.isEmpty()) {
+            mediaRepository.adjustReferenceCount(added, 1);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void releaseReferences(Collection<? extends Collection<String>> urlsPerPost) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Collection<String> urls : urlsPerPost) {
+            toKeys(urls).forEach(key -> counts.merge(key, 1, Integer::sum));
+        }
+        // 按减少的次数分组，每组一条 UPDATE
+        Map<Integer, List<String>> keysByCount = counts.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+        keysByCount.forEach((count, keys) -> mediaRepository.adjustReferenceCount(keys, -count));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isReferenced(String url) {
+        String key = fileStorage.keyOf(url);
+        return key != null && mediaRepository.existsByStorageKeyAndReferenceCountGreaterThan(key, 0);
+    }
+
+    @Override
+    @Transactional
+    public void forget(String url) {
+        String key = fileStorage.keyOf(url);
+        if (key != null) {
+            mediaRepository.deleteByStorageKey(key);
+        }
+    }
+
+    @Override
+    public MediaImportResult importExisting() {
+        if (!importing.compareAndSet(false, true)) {
+            throw new IllegalStateException("媒体库导入正在进行中");
+        }
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, importParallelism));
+        try {
+            Set<String> known = new HashSet<>(mediaRepository.findAllStorageKeys());
+            List<String> keys;
+            try (Stream<String> stream = fileStorage.listKeys()) {
+                keys = stream.sorted().toList();
+            }
+
+            AtomicInteger failed = new AtomicInteger();
+            List<String> pending = keys.stream()
+                    .filter(key -> !known.contains(key) && IMAGE_EXTENSIONS.contains(extensionOf(key)))
+                    .toList();
+
+            // 读取与哈希计算并行执行，入库按 key 顺序分批写入，保证 id 顺序与上传日期一致
+            List<CompletableFuture<Media>> futures = pending.stream()
+                    .map(key -> CompletableFuture.supplyAsync(() -> inspectExisting(key, failed), executor))
+                    .toList();
+            List<Media> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            int imported = 0;
+            for (CompletableFuture<Media> future : futures) {
+                Media media = future.join();
+                if (media == null) {
+                    continue;
+                }
+                batch.add(media);
+                if (batch.size() >= IMPORT_BATCH_SIZE) {
+                    imported += saveBatch(batch);
+                }
+            }
+            imported += saveBatch(batch);
+
+            rebuildReferenceCounts();
+
+            MediaImportResult result = MediaImportResult.builder()
+                    .scanned(keys.size())
+                    .imported(imported)
+                    .skipped(keys.size() - pending.size())
+                    .failed(failed.get())
+                    .durationMs(System.currentTimeMillis() - start)
+                    .build();
+            log.info("媒体库导入完成: {}", result);
+            return result;
+        } catch (IOException e) {
+            throw new RuntimeException("读取上传文件列表失败", e);
+        } finally {
+            executor.shutdownNow();
+            importing.set(false);
+        }
+    }
+
+    private Media inspectExisting(String key, AtomicInteger failed) {
+        try (InputStream in = fileStorage.open(key)) {
+            ImageInspector.Result info = ImageInspector.inspect(in);
+            if (info.mimeType() == null) {
+                log.warn("跳过无法识别的图片文件: {}", key);
+                failed.incrementAndGet();
+                return null;
+            }
+            Media media = buildMedia(key, null, info.mimeType(), info);
+            media.setCreatedAt(dateOf(key));
+            return media;
+        } catch (Exception e) {
+            log.warn("导入媒体文件失败: {}", key, e);
+            failed.incrementAndGet();
+            return null;
+        }
+    }
+
+    private int saveBatch(List<Media> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int size = batch.size();
+        mediaRepository.saveAll(batch);
+        batch.clear();
+        return size;
+    }
+
+    /**
+     * 按全部文章（含回收站）当前内容重新计算引用计数
+     */
+    private void rebuildReferenceCounts() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, Integer> counts = new HashMap<>();
+            int pageNumber = 0;
+            Page<Post> page;
+            do {
+                page = postRepository.findAll(PageRequest.of(pageNumber++, IMPORT_BATCH_SIZE, Sort.by("id")));
+                for (Post post : page.getContent()) {
+                    for (String key : toKeys(PostImages.collect(post.getCoverImageUrl(), post.getContent()))) {
+                        counts.merge(key, 1, Integer::sum);
+                    }
+                }
+            } while (page.hasNext());
+
+            mediaRepository.resetReferenceCounts();
+            counts.forEach(mediaRepository::updateReferenceCount);
+        });
+    }
+
+    private Media buildMedia(String key, String originalName, String contentType, ImageInspector.Result info) {
+        return Media.builder()
+                .storageKey(key)
+                .originalName(StringUtils.hasText(originalName) ? originalName : key.substring(key.lastIndexOf('/') + 1))
+                .contentHash(info.sha256())
+                .size(info.size())
+                .width(info.width())
+                .height(info.height())
+                .mimeType(info.mimeType() != null ? info.mimeType() : contentType)
+                .referenceCount(0)
+                .build();
+    }
+
+    private Set<String> toKeys(Collection<String> urls) {
+        if (urls == null || urls.isEmpty()) {
+            return Set.of();
+        }
+        return urls.stream()
+                .map(fileStorage::keyOf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static String extensionOf(String key) {
+        int idx = key.lastIndexOf('.');
+        return idx < 0 ? "" : key.substring(idx + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 上传文件按 yyyy/MM/dd 目录存放，导入时以目录日期作为创建时间
+     */
+    private static LocalDateTime dateOf(String key) {
+        int idx = key.lastIndexOf('/');
+        if (idx > 0) {
+            try {
+                return LocalDate.parse(key.substring(0, idx), DATE_FOLDER).atStartOfDay();
+            } catch (DateTimeParseException ignored) {
+                // 非日期目录
+            }
+        }
+        return LocalDateTime.now();
+    }
+
+    private MediaDto convertToDto(Media media) {
+        return MediaDto.builder()
+                .id(media.getId())
+                .url(fileStorage.publicUrl(media.getStorageKey()))
+                .storageKey(media.getStorageKey())
+                .originalName(media.getOriginalName())
+                .contentHash(media.getContentHash())
+                .size(media.getSize())
+                .width(media.getWidth())
+                .height(media.getHeight())
+                .mimeType(media.getMimeType())
+                .referenceCount(media.getReferenceCount())
+                .createdAt(media.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,302 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.xingmiao.blog.app.service.CategoryService;
+import com.xingmiao.blog.app.service.OgImageService;
+import com.xingmiao.blog.common.dto.CategoryDto;
+import com.xingmiao.blog.common.dto.PostDto;
+import com.xingmiao.blog.common.dto.TagDto;
+import com.xingmiao.blog.common.exception.ServiceBusyException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OgImageServiceImpl implements OgImageService {
+
+    private static final int WIDTH = 1200;
+    private static final int HEIGHT = 630;
+    private static final int PADDING = 80;
+    private static final int TITLE_MAX_LINES = 3;
+    /**
+     * 卡片模板版本，修改绘制逻辑后递增以使旧缓存失效
+     */
+    private static final String TEMPLATE_VERSION = "v1";
+    private static final List<String> PREFERRED_FONTS = List.of(
+            "Noto Sans CJK SC", "Noto Sans SC", "PingFang SC", "Microsoft YaHei", "WenQuanYi Zen Hei", "SansSerif");
+
+    private final CategoryService categoryService;
+
+    @Value("${blog.og.cache-path:og-cache}")
+    private String cachePath;
+
+    @Value("${blog.og.site-name:${blog.author.nickname:}}")
+    private String siteName;
+
+    @Value("${blog.og.site-url:${blog.author.website:}}")
+    private String siteUrl;
+
+    @Value("${blog.og.font-path:}")
+    private String fontPath;
+
+    @Value("${blog.og.max-concurrent-renders:2}")
+    private int maxConcurrentRenders;
+
+    @Value("${blog.og.render-wait:3s}")
+    private Duration renderWait;
+
+    private Path cacheDir;
+    private Font baseFont;
+    private Semaphore renderPermits;
+
+    @PostConstruct
+    void init() throws IOException {
+        Path dir = Paths.get(cachePath);
+        if (!dir.isAbsolute()) {
+            dir = Paths.get(System.getProperty("user.dir"), cachePath);
+        }
+        this.cacheDir = dir.toAbsolutePath().normalize();
+        Files.createDirectories(cacheDir);
+        this.renderPermits = new Semaphore(Math.max(1, maxConcurrentRenders), true);
+        this.baseFont = loadBaseFont();
+    }
+
+    @Override
+    public String versionOf(PostDto post) {
+        String source = TEMPLATE_VERSION + '\n' + post.getTitle() + '\n' + post.getUpdatedAt();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Path getCard(PostDto post) throws IOException {
+        Path target = cacheDir.resolve(post.getId() + "-" + versionOf(post) + ".png");
+        if (Files.exists(target)) {
+            return target;
+        }
+
+        boolean acquired;
+        try {
+            acquired = renderPermits.tryAcquire(renderWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("分享卡片生成被中断", 1);
+        }
+        if (!acquired) {
+            throw new ServiceBusyException("分享卡片生成繁忙，请稍后重试", Math.max(1, renderWait.toSeconds()));
+        }
+        try {
+            // 等待许可期间可能已由其他请求生成
+            if (Files.exists(target)) {
+                return target;
+            }
+            long start = System.currentTimeMillis();
+            BufferedImage image = render(post);
+            Path temp = Files.createTempFile(cacheDir, post.getId() + "-", ".tmp");
+            try {
+                ImageIO.write(image, "png", temp.toFile());
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            removeStaleVersions(post.getId(), target);
+            log.info("生成分享卡片: 文章ID:{} 耗时:{}ms", post.getId(), System.currentTimeMillis() - start);
+            return target;
+        } finally {
+            renderPermits.release();
+        }
+    }
+
+    private BufferedImage render(PostDto post) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+
+            // 背景
+            g.setPaint(new GradientPaint(0, 0, new Color(0x1E1B4B), WIDTH, HEIGHT, new Color(0x0F766E)));
+            g.fillRect(0, 0, WIDTH, HEIGHT);
+            g.setColor(new Color(255, 255, 255, 18));
+            g.fillOval(WIDTH - 380, -180, 560, 560);
+            g.fillOval(WIDTH - 220, HEIGHT - 200, 320, 320);
+
+            int y = PADDING;
+
+            // 分类
+            String category = categoryName(post.getCategoryId());
+            if (StringUtils.hasText(category)) {
+                g.setFont(baseFont.deriveFont(Font.BOLD, 26f));
+                FontMetrics fm = g.getFontMetrics();
+                int pillWidth = fm.stringWidth(category) + 40;
+                g.setColor(new Color(255, 255, 255, 40));
+                g.fillRoundRect(PADDING, y, pillWidth, 48, 24, 24);
+                g.setColor(Color.WHITE);
+                g.drawString(category, PADDING + 20, y + 24 + (fm.getAscent() - fm.getDescent()) / 2);
+            }
+            y += 110;
+
+            // 标题
+            g.setFont(baseFont.deriveFont(Font.BOLD, 64f));
+            FontMetrics titleMetrics = g.getFontMetrics();
+            int lineHeight = (int) (titleMetrics.getHeight() * 1.15);
+            g.setColor(Color.WHITE);
+            for (String line : wrap(post.getTitle(), titleMetrics, WIDTH - PADDING * 2, TITLE_MAX_LINES)) {
+                y += titleMetrics.getAscent();
+                g.drawString(line, PADDING, y);
+                y += lineHeight - titleMetrics.getAscent();
+            }
+
+            // 标签
+            if (post.getTags() != null && !post.getTags().isEmpty()) {
+                g.setFont(baseFont.deriveFont(Font.PLAIN, 28f));
+                String tags = post.getTags().stream()
+                        .map(TagDto::getName)
+                        .filter(StringUtils::hasText)
+                        .map(name -> "#" + name)
+                        .collect(Collectors.joining("   "));
+                g.setColor(new Color(0x99F6E4));
+                g.drawString(ellipsize(tags, g.getFontMetrics(), WIDTH - PADDING * 2), PADDING, HEIGHT - 140);
+            }
+
+            // 底部站点信息
+            g.setColor(new Color(0x2DD4BF));
+            g.fillRoundRect(PADDING, HEIGHT - 104, 64, 6, 6, 6);
+            g.setColor(Color.WHITE);
+            g.setFont(baseFont.deriveFont(Font.BOLD, 30f));
+            if (StringUtils.hasText(siteName)) {
+                g.drawString(siteName, PADDING, HEIGHT - 52);
+            }
+            if (StringUtils.hasText(siteUrl)) {
+                g.setFont(baseFont.deriveFont(Font.PLAIN, 24f));
+                FontMetrics fm = g.getFontMetrics();
+                String host = siteUrl.replaceFirst("^https?://", "").replaceAll("/+$", "");
+                g.setColor(new Color(255, 255, 255, 180));
+                g.drawString(host, WIDTH - PADDING - fm.stringWidth(host), HEIGHT - 52);
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * 按像素宽度折行：英文优先在空格处断开，中文逐字断开；超出最大行数时末行加省略号
+     */
+    private static List<String> wrap(String text, FontMetrics fm, int maxWidth, int maxLines) {
+        List<String> lines = new ArrayList<>();
+        String remaining = text == null ? "" : text.trim().replaceAll("\\s+", " ");
+        while (!remaining.isEmpty() && lines.size() < maxLines) {
+            if (fm.stringWidth(remaining) <= maxWidth) {
+                lines.add(remaining);
+                remaining = "";
+                break;
+            }
+            int end = 0;
+            while (end < remaining.length()) {
+                int next = remaining.offsetByCodePoints(end, 1);
+                if (fm.stringWidth(remaining.substring(0, next)) > maxWidth) {
+                    break;
+                }
+                end = next;
+            }
+            end = Math.max(end, remaining.offsetByCodePoints(0, 1));
+            int space = remaining.lastIndexOf(' ', end);
+            if (space > end / 2 && end < remaining.length() && Character.isLetterOrDigit(remaining.charAt(end))) {
+                end = space;
+            }
+            lines.add(remaining.substring(0, end).trim());
+            remaining = remaining.substring(end).trim();
+        }
+        if (!remaining.isEmpty() && !lines.isEmpty()) {
+            int last = lines.size() - 1;
+            lines.set(last, ellipsize(lines.get(last) + "…", fm, maxWidth));
+        }
+        return lines;
+    }
+
+    private static String ellipsize(String text, FontMetrics fm, int maxWidth) {
+        if (fm.stringWidth(text) <= maxWidth) {
+            return text;
+        }
+        String body = text.endsWith("…") ? text.substring(0, text.length() - 1) : text;
+        while (!body.isEmpty() && fm.stringWidth(body + "…") > maxWidth) {
+            body = body.substring(0, body.offsetByCodePoints(body.length(), -1));
+        }
+        return body + "…";
+    }
+
+    private String categoryName(Long categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        return categoryService.getCategoryById(categoryId).map(CategoryDto::getName).orElse(null);
+    }
+
+    private void removeStaleVersions(Long postId, Path current) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir, postId + "-*.png")) {
+            for (Path path : stream) {
+                if (!path.equals(current)) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("清理旧分享卡片失败: 文章ID:{}", postId, e);
+        }
+    }
+
+    /**
+     * 优先使用配置的字体文件，否则选择系统中可显示中文的字体
+     */
+    private Font loadBaseFont() {
+        if (StringUtils.hasText(fontPath)) {
+            try (InputStream in = Files.newInputStream(Paths.get(fontPath))) {
+                return Font.createFont(Font.TRUETYPE_FONT, in);
+            } catch (IOException | FontFormatException e) {
+                log.warn("加载分享卡片字体失败，使用系统字体: {}", fontPath, e);
+            }
+        }
+        Set<String> installed = Set.of(GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames());
+        for (String family : PREFERRED_FONTS) {
+            if (installed.contains(family)) {
+                Font font = new Font(family, Font.PLAIN, 12);
+                if (font.canDisplay('中') || "SansSerif".equals(family)) {
+                    return font;
+                }
+            }
+        }
+        return new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+    }
+}
@@ -6,33 +6,31 @@ import com.xingmiao.blog.common.domain.entity.Tag;
 import com.xingmiao.blog.common.dto.PostCreateRequest;
 import com.xingmiao.blog.common.dto.PostDto;
 import com.xingmiao.blog.common.dto.PostUpdateRequest;
+import com.xingmiao.blog.app.cache.CacheNames;
+import com.xingmiao.blog.app.event.PostChangedEvent;
 import com.xingmiao.blog.app.repository.CategoryRepository;
 import com.xingmiao.blog.app.repository.PostRepository;
 import com.xingmiao.blog.app.repository.TagRepository;
+import com.xingmiao.blog.app.service.MediaService;
 import com.xingmiao.blog.app.service.PostService;
+import com.xingmiao.blog.app.storage.FileStorage;
+import com.xingmiao.blog.app.util.PostImages;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
 
-import java.net.URI;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
@@ -48,10 +46,14 @@ public class PostServiceImpl implements PostService {
     @Autowired
     private TagRepository tagRepository;
 
-    @Value("${upload.path:uploads}")
-    private String uploadPath;
+    @Autowired
+    private FileStorage fileStorage;
+
+    @Autowired
+    private MediaService mediaService;
 
-    private static final Pattern IMAGE_URL_PATTERN = Pattern.compile("!\\[[^]]*]\\(([^)]+)\\)");
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
 
     @Override
@@ -88,9 +90,11 @@ public class PostServiceImpl implements PostService {
                 .tags(tags)
                 .build();
         Post savedPost = postRepository.save(post);
+        mediaService.updateReferences(Set.of(), PostImages.collect(savedPost.getCoverImageUrl(), savedPost.getContent()));
         // 明文模式：不再生成访问口令记录
         // 刷新标签计数
         refreshTagPostCounts(tags);
+        eventPublisher.publishEvent(new PostChangedEvent(savedPost.getId()));
         return convertToDto(savedPost);
     }
 
@@ -110,6 +114,8 @@ public class PostServiceImpl implements PostService {
         }
         // 记录更新前后的标签集合以便刷新计数
         Set<Tag> beforeTags = existingPost.getTags() == null ? new HashSet<>() : new HashSet<>(existingPost.getTags());
+        // 记录更新前引用的图片以便调整媒体库引用计数
+        Set<String> beforeImages = PostImages.collect(existingPost.getCoverImageUrl(), existingPost.getContent());
 
         if (request.getTitle() != null) {
             existingPost.setTitle(request.getTitle());
@@ -166,6 +172,7 @@ public class PostServiceImpl implements PostService {
             existingPost.setTags(newTags);
         }
         Post updatedPost = postRepository.save(existingPost);
+        mediaService.updateReferences(beforeImages, PostImages.collect(updatedPost.getCoverImageUrl(), updatedPost.getContent()));
 
         // 明文模式：不再维护访问口令记录
 
@@ -175,6 +182,7 @@ public class PostServiceImpl implements PostService {
             affected.addAll(updatedPost.getTags());
         }
         refreshTagPostCounts(affected);
+        eventPublisher.publishEvent(new PostChangedEvent(updatedPost.getId()));
 
         return convertToDto(updatedPost);
     }
@@ -194,6 +202,7 @@ public class PostServiceImpl implements PostService {
         
         // 刷新标签计数
         refreshTagPostCounts(affected);
+        eventPublisher.publishEvent(new PostChangedEvent(id));
     }
 
     private void cleanupPostImages(Post post) {
@@ -201,71 +210,23 @@ public class PostServiceImpl implements PostService {
             return;
         }
 
-        Set<String> urls = new LinkedHashSet<>();
-        if (StringUtils.hasText(post.getCoverImageUrl())) {
-            urls.add(post.getCoverImageUrl());
-        }
-        if (StringUtils.hasText(post.getContent())) {
-            urls.addAll(extractImageUrls(post.getContent()));
-        }
-
-        urls.forEach(this::deleteFileSilently);
-    }
-
-    private List<String> extractImageUrls(String content) {
-        List<String> urls = new ArrayList<>();
-        if (!StringUtils.hasText(content)) {
-            return urls;
-        }
-        Matcher matcher = IMAGE_URL_PATTERN.matcher(content);
-        while (matcher.find()) {
-            String url = matcher.group(1);
-            if (StringUtils.hasText(url)) {
-                urls.add(url.trim());
-            }
-        }
-        return urls;
+        Set<String> urls = PostImages.collect(post.getCoverImageUrl(), post.getContent());
+        mediaService.updateReferences(urls, Set.of());
+        // 仍被其他文章引用的图片保留
+        urls.stream()
+                .filter(url -> !mediaService.isReferenced(url))
+                .forEach(this::deleteFileSilently);
     }
 
     private void deleteFileSilently(String url) {
-        if (!StringUtils.hasText(url)) {
+        // 外部网络图片等非本站上传的地址返回 null，不删除
+        String key = fileStorage.keyOf(url);
+        if (key == null) {
             return;
         }
-
         try {
-            String cleanedUrl = url.trim();
-            // 处理 Markdown 中的引用 URL（可能包含多余的括号或引号）
-            cleanedUrl = cleanedUrl.replaceAll("^[\"'()]+|[\"'()]+$", "");
-
-            if (cleanedUrl.startsWith("http://") || cleanedUrl.startsWith("https://")) {
-                // 外部网络图片，不删除
-                try {
-                    URI uri = URI.create(cleanedUrl);
-                    String path = uri.getPath();
-                    if (StringUtils.hasText(path) && path.startsWith("/uploads/")) {
-                        cleanedUrl = path;
-                    } else {
-                        return;
-                    }
-                } catch (Exception e) {
-                    return;
-                }
-            }
-
-            if (!cleanedUrl.startsWith("/uploads/")) {
-                return; // 非本地上传文件，跳过
-            }
-
-            Path uploadBasePath = Paths.get(uploadPath);
-            if (!uploadBasePath.isAbsolute()) {
-                uploadBasePath = Paths.get(System.getProperty("user.dir"), uploadPath);
-            }
-
-            String relativePath = cleanedUrl.replaceFirst("^/uploads/?", "");
-            Path filePath = uploadBasePath.resolve(relativePath);
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
-            }
+            fileStorage.delete(key);
+            mediaService.forget(url);
         } catch (Exception ignored) {
             // 忽略删除失败，避免影响主流程
         }
@@ -280,6 +241,7 @@ public class PostServiceImpl implements PostService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.POSTS, key = "#slug", sync = true)
     public Optional<PostDto> getBySlug(String slug) {
         return postRepository.findBySlugAndStatusAndDeletedAtIsNull(slug, 
                 com.xingmiao.blog.common.domain.enums.PostStatus.PUBLISHED)
@@ -336,6 +298,7 @@ public class PostServiceImpl implements PostService {
     
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.POST_LISTS, key = "'all:' + #pageable", sync = true)
     public Page<PostDto> listPublishedPosts(Pageable pageable) {
         Pageable effectivePageable = applyPinnedSort(pageable);
         return postRepository.findByStatusAndVisibilityInAndDeletedAtIsNull(
@@ -347,6 +310,7 @@ public class PostServiceImpl implements PostService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.POST_LISTS, key = "'category:' + #categoryId + ':' + #pageable", sync = true)
     public Page<PostDto> listPublishedPostsByCategory(Long categoryId, Pageable pageable) {
         Pageable effectivePageable = applyPinnedSort(pageable);
         return postRepository.findByCategory_IdAndStatusAndVisibilityInAndDeletedAtIsNull(
@@ -359,6 +323,7 @@ public class PostServiceImpl implements PostService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.POST_LISTS, key = "'tag:' + #tagId + ':' + #pageable", sync = true)
     public Page<PostDto> listPublishedPostsByTag(Long tagId, Pageable pageable) {
         Pageable effectivePageable = applyPinnedSort(pageable);
         return postRepository.findByTags_IdAndStatusAndVisibilityInAndDeletedAtIsNull(
@@ -404,6 +369,7 @@ public class PostServiceImpl implements PostService {
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheNames.POSTS, CacheNames.POST_LISTS}, allEntries = true)
     public PostDto pin(Long id) {
         Post post = postRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("文章不存在，ID:" + id));
@@ -425,6 +391,7 @@ public class PostServiceImpl implements PostService {
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheNames.POSTS, CacheNames.POST_LISTS}, allEntries = true)
     public PostDto unpin(Long id) {
         Post post = postRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("文章不存在，ID:" + id));
@@ -8,7 +8,10 @@ import com.xingmiao.blog.common.exception.TagDeleteException;
 import com.xingmiao.blog.app.repository.TagRepository;
 import com.xingmiao.blog.app.repository.PostRepository;
 import com.xingmiao.blog.app.service.TagService;
+import com.xingmiao.blog.app.cache.CacheNames;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -27,6 +30,7 @@ public class TagServiceImpl implements TagService {
     private final PostRepository postRepository;
     
     @Override
+    @CacheEvict(cacheNames = CacheNames.TAXONOMY, allEntries = true)
     public TagDto createTag(TagCreateRequest request) {
         // 检查名称和别名是否已存在
         if (tagRepository.existsByName(request.getName())) {
@@ -47,6 +51,7 @@ public class TagServiceImpl implements TagService {
     }
     
     @Override
+    @CacheEvict(cacheNames = {CacheNames.TAXONOMY, CacheNames.POSTS, CacheNames.POST_LISTS}, allEntries = true)
     public TagDto updateTag(Long id, TagUpdateRequest request) {
         Tag tag = tagRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("标签不存在: " + id));
@@ -100,6 +105,7 @@ public class TagServiceImpl implements TagService {
     
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.TAXONOMY, key = "'tags'", sync = true)
     public List<TagDto> getAllTags() {
         return tagRepository.findAll().stream()
                 .map(this::convertToDto)
@@ -107,6 +113,7 @@ public class TagServiceImpl implements TagService {
     }
     
     @Override
+    @CacheEvict(cacheNames = {CacheNames.TAXONOMY, CacheNames.POSTS, CacheNames.POST_LISTS}, allEntries = true)
     public void deleteTag(Long id) {
         Tag tag = tagRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("标签不存在: " + id));
@@ -1,19 +1,44 @@
 package com.xingmiao.blog.app.service.impl;
 
+import com.xingmiao.blog.app.event.PostChangedEvent;
+import com.xingmiao.blog.app.repository.BatchJobRepository;
 import com.xingmiao.blog.app.repository.PostRepository;
 import com.xingmiao.blog.app.repository.CategoryRepository;
+import com.xingmiao.blog.app.service.MediaService;
 import com.xingmiao.blog.app.service.TrashService;
+import com.xingmiao.blog.app.util.PostImages;
+import com.xingmiao.blog.common.domain.entity.BatchJob;
 import com.xingmiao.blog.common.domain.entity.Post;
+import com.xingmiao.blog.common.domain.enums.BatchJobStatus;
+import com.xingmiao.blog.common.dto.BatchJobDto;
 import com.xingmiao.blog.common.dto.PostDto;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 /**
  * 回收站服务实现类
@@ -27,8 +52,28 @@ import java.util.Optional;
 @Slf4j
 public class TrashServiceImpl implements TrashService {
 
+    static final String RESTORE_JOB_TYPE = "trash-restore";
+    static final String PURGE_JOB_TYPE = "trash-purge";
+    private static final Set<String> JOB_TYPES = Set.of(RESTORE_JOB_TYPE, PURGE_JOB_TYPE);
+    /**
+     * 每条 IN 查询、每次提交处理的文章数
+     */
+    static final int CHUNK_SIZE = 500;
+
     private final PostRepository postRepository;
     private final CategoryRepository categoryRepository;
+    private final BatchJobRepository batchJobRepository;
+    private final MediaService mediaService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "trash-batch");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Override
     @Transactional(readOnly = true)
@@ -61,6 +106,7 @@ public class TrashServiceImpl implements TrashService {
         
         post.setDeletedAt(null);
         postRepository.save(post);
+        eventPublisher.publishEvent(new PostChangedEvent(post.getId()));
         
         
         log.info("文章已从回收站恢复，ID:{} 标题:{}", id, post.getTitle());
@@ -73,6 +119,7 @@ public class TrashServiceImpl implements TrashService {
                 .orElseThrow(() -> new RuntimeException("回收站中文章不存在，ID:" + id));
         
         String title = post.getTitle();
+        releaseImages(post);
         postRepository.delete(post);
         
         log.info("文章已从回收站硬删除，ID:{} 标题:{}", id, title);
@@ -85,33 +132,15 @@ public class TrashServiceImpl implements TrashService {
             throw new RuntimeException("文章ID列表不能为空");
         }
         
-        List<Post> posts = postRepository.findAllById(ids);
-        List<Post> trashPosts = posts.stream()
-                .filter(post -> post.getDeletedAt() != null)
-                .toList();
-        
-        if (trashPosts.isEmpty()) {
+        List<Long> trashIds = postRepository.findTrashedIdsIn(ids);
+        if (trashIds.isEmpty()) {
             throw new RuntimeException("没有找到可恢复的文章");
         }
         
-        // 检查每个文章的分类是否存在且激活
-        for (Post post : trashPosts) {
-            if (post.getCategory() != null) {
-                boolean categoryExists = categoryRepository.existsById(post.getCategory().getId());
-
-                if (!categoryExists) {
-                    throw new RuntimeException("无法恢复文章 \"" + post.getTitle() + "\"，其分类 \"" + post.getCategory().getName() + "\" 不存在或已被删除。请先恢复分类后再恢复文章。");
-                }
-            }
-        }
-        
-        // 批量恢复
-        trashPosts.forEach(post -> post.setDeletedAt(null));
-        postRepository.saveAll(trashPosts);
+        checkCategories(trashIds);
+        int restored = restore(trashIds);
         
-        
-        log.info("批量恢复文章完成，恢复数量:{} 文章ID:{}", trashPosts.size(), 
-                trashPosts.stream().map(Post::getId).toList());
+        log.info("批量恢复文章完成，恢复数量:{} 文章ID:{}", restored, trashIds);
     }
 
     @Override
@@ -121,20 +150,186 @@ public class TrashServiceImpl implements TrashService {
             throw new RuntimeException("文章ID列表不能为空");
         }
         
-        List<Post> posts = postRepository.findAllById(ids);
-        List<Post> trashPosts = posts.stream()
-                .filter(post -> post.getDeletedAt() != null)
-                .toList();
-        
-        if (trashPosts.isEmpty()) {
+        List<Long> trashIds = postRepository.findTrashedIdsIn(ids);
+        if (trashIds.isEmpty()) {
             throw new RuntimeException("没有找到可删除的文章");
         }
         
-        // 批量硬删除
-        postRepository.deleteAll(trashPosts);
+        int deleted = 0;
+        for (List<Long> chunk : chunks(trashIds)) {
+            deleted += purge(chunk);
+        }
         
-        log.info("批量硬删除文章完成，删除数量:{} 文章ID:{}", trashPosts.size(),
-                trashPosts.stream().map(Post::getId).toList());
+        log.info("批量硬删除文章完成，删除数量:{} 文章ID:{}", deleted, trashIds);
+    }
+
+    @Override
+    public BatchJobDto startBatchRestore(List<Long> ids) {
+        List<Long> sorted = normalize(ids);
+        checkCategories(sorted);
+        return startJob(RESTORE_JOB_TYPE, sorted, chunk -> restore(postRepository.findTrashedIdsIn(chunk)));
+    }
+
+    @Override
+    public BatchJobDto startBatchHardDelete(List<Long> ids) {
+        return startJob(PURGE_JOB_TYPE, normalize(ids), this::purge);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BatchJobDto> getJob(Long jobId) {
+        return batchJobRepository.findById(jobId)
+                .filter(job -> JOB_TYPES.contains(job.getType()))
+                .map(this::toDto);
+    }
+
+    /**
+     * 任务只在内存中保存 ID 列表，服务重启后无法继续，标记为失败；重新提交同一批 ID 时已处理的文章会被跳过
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        for (BatchJob job : batchJobRepository.findByTypeInAndStatus(JOB_TYPES, BatchJobStatus.RUNNING)) {
+            finish(job, BatchJobStatus.FAILED, "服务重启，任务中断，已处理到文章ID " + job.getCursorId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    /**
+     * 一次查询检查全部文章的分类是否存在（ID 过多时按块查询）
+     */
+    private void checkCategories(List<Long> ids) {
+        for (List<Long> chunk : chunks(ids)) {
+            List<String> titles = postRepository.findTrashedTitlesWithMissingCategory(chunk);
+            if (!titles.isEmpty()) {
+                throw new RuntimeException("无法恢复文章 \"" + titles.get(0) + "\" 等 " + titles.size()
+                        + " 篇，其分类不存在或已被删除。请先恢复分类后再恢复文章。");
+            }
+        }
+    }
+
+    /**
+     * 一条 UPDATE 恢复给定的回收站文章
+     */
+    private int restore(List<Long> trashIds) {
+        if (trashIds.isEmpty()) {
+            return 0;
+        }
+        int restored = postRepository.restoreTrashed(trashIds);
+        trashIds.forEach(id -> eventPublisher.publishEvent(new PostChangedEvent(id)));
+        return restored;
+    }
+
+    /**
+     * 彻底删除给定 ID 中仍在回收站的文章：释放图片引用，再各用一条 DELETE 删除文章-标签关联与文章
+     */
+    private int purge(List<Long> ids) {
+        List<Object[]> sources = postRepository.findTrashedImageSources(ids);
+        if (sources.isEmpty()) {
+            return 0;
+        }
+        mediaService.releaseReferences(sources.stream()
+                .map(row -> PostImages.collect((String) row[1], (String) row[2]))
+                .toList());
+        MapSqlParameterSource params = new MapSqlParameterSource("ids",
+                sources.stream().map(row -> (Long) row[0]).toList());
+        jdbcTemplate.update("DELETE FROM post_tags WHERE post_id IN (:ids)", params);
+        int deleted = jdbcTemplate.update("DELETE FROM posts WHERE id IN (:ids) AND deleted_at IS NOT NULL", params);
+        // 以上 SQL 绕过了 Hibernate，提交后清除文章标签集合的二级缓存
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                        .evictCollectionData(Post.class.getName() + ".tags");
+            }
+        });
+        return deleted;
+    }
+
+    private BatchJobDto startJob(String type, List<Long> ids, Function<List<Long>, Integer> action) {
+        BatchJob job = batchJobRepository.save(BatchJob.builder()
+                .type(type)
+                .status(BatchJobStatus.RUNNING)
+                .build());
+        BatchJobDto dto = toDto(job);
+        runner.execute(() -> runJob(job, ids, action));
+        return dto;
+    }
+
+    /**
+     * 每块单独提交并更新进度，cursorId 为已处理的最大文章 ID
+     */
+    private void runJob(BatchJob job, List<Long> ids, Function<List<Long>, Integer> action) {
+        try {
+            for (List<Long> chunk : chunks(ids)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // 服务关闭：保持 RUNNING，下次启动时标记为中断
+                    return;
+                }
+                int affected = transactionTemplate.execute(status -> action.apply(chunk));
+                job.setCursorId(chunk.get(chunk.size() - 1));
+                job.setProcessed(job.getProcessed() + chunk.size());
+                job.setSucceeded(job.getSucceeded() + affected);
+                job.setFailed(job.getFailed() + chunk.size() - affected);
+                job = batchJobRepository.save(job);
+            }
+            finish(job, BatchJobStatus.COMPLETED, null);
+        } catch (RuntimeException e) {
+            log.error("回收站任务 {} 失败", job.getId(), e);
+            finish(job, BatchJobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private void finish(BatchJob job, BatchJobStatus status, String message) {
+        job.setStatus(status);
+        job.setFinishedAt(LocalDateTime.now());
+        if (message != null) {
+            job.setMessage(message.length() > 500 ? message.substring(0, 500) : message);
+        }
+        batchJobRepository.save(job);
+        log.info("回收站任务 {}（{}）结束：{}，处理 {} 个ID，成功 {} 篇，跳过 {} 个",
+                job.getId(), job.getType(), status, job.getProcessed(), job.getSucceeded(), job.getFailed());
+    }
+
+    private static List<Long> normalize(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new RuntimeException("文章ID列表不能为空");
+        }
+        return ids.stream().filter(Objects::nonNull).distinct().sorted().toList();
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+
+    private BatchJobDto toDto(BatchJob job) {
+        return BatchJobDto.builder()
+                .id(job.getId())
+                .type(job.getType())
+                .status(job.getStatus())
+                .cursorId(job.getCursorId())
+                .processed(job.getProcessed())
+                .succeeded(job.getSucceeded())
+                .failed(job.getFailed())
+                .message(job.getMessage())
+                .startedAt(job.getStartedAt())
+                .updatedAt(job.getUpdatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    /**
+     * 文章被删除后释放其引用的图片，更新媒体库引用计数
+     */
+    private void releaseImages(Post post) {
+        mediaService.updateReferences(PostImages.collect(post.getCoverImageUrl(), post.getContent()), Set.of());
     }
 
     /**
@@ -0,0 +1,86 @@
+package com.xingmiao.blog.app.storage;
+
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+
+/**
+ * 存储实现的公共部分：访问地址与 key 之间的互相转换
+ */
+public abstract class AbstractFileStorage implements FileStorage {
+
+    protected static final String LOCAL_URL_PREFIX = "/uploads/";
+
+    private final String publicBaseUrl;
+
+    protected AbstractFileStorage(String publicBaseUrl) {
+        this.publicBaseUrl = StringUtils.hasText(publicBaseUrl)
+                ? publicBaseUrl.trim().replaceAll("/+$", "")
+                : null;
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        String normalized = normalizeKey(key);
+        return publicBaseUrl != null ? publicBaseUrl + "/" + normalized : LOCAL_URL_PREFIX + normalized;
+    }
+
+    @Override
+    public String keyOf(String url) {
+        if (!StringUtils.hasText(url)) {
+            return null;
+        }
+        // 处理 Markdown 中的引用 URL（可能包含多余的括号或引号）
+        String cleanedUrl = url.trim().replaceAll("^[\"'()]+|[\"'()]+$", "");
+
+        if (publicBaseUrl != null && cleanedUrl.startsWith(publicBaseUrl + "/")) {
+            return safeKey(stripQuery(cleanedUrl.substring(publicBaseUrl.length() + 1)));
+        }
+        if (cleanedUrl.startsWith("http://") || cleanedUrl.startsWith("https://")) {
+            // 外部网络图片只认 /uploads/ 路径，其余地址不归本存储管理
+            try {
+                String path = URI.create(cleanedUrl).getPath();
+                if (!StringUtils.hasText(path) || !path.startsWith(LOCAL_URL_PREFIX)) {
+                    return null;
+                }
+                cleanedUrl = path;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+        if (!cleanedUrl.startsWith(LOCAL_URL_PREFIX)) {
+            return null;
+        }
+        return safeKey(stripQuery(cleanedUrl.substring(LOCAL_URL_PREFIX.length())));
+    }
+
+    protected String normalizeKey(String key) {
+        String safe = safeKey(key);
+        if (safe == null) {
+            throw new IllegalArgumentException("非法的文件 key: " + key);
+        }
+        return safe;
+    }
+
+    private static String stripQuery(String value) {
+        int idx = value.indexOf('?');
+        if (idx >= 0) {
+            value = value.substring(0, idx);
+        }
+        idx = value.indexOf('#');
+        return idx >= 0 ? value.substring(0, idx) : value;
+    }
+
+    private static String safeKey(String key) {
+        if (!StringUtils.hasText(key)) {
+            return null;
+        }
+        String normalized = key.replace("\\", "/").replaceAll("^/+", "");
+        for (String segment : normalized.split("/")) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) {
+                return null;
+            }
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,105 @@
+package com.xingmiao.blog.app.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * 上传文件存储抽象
+ *
+ * <p>文件以 key（如 {@code 2024/01/01/xxx.png}）标识，调用方不感知文件实际存放在本地磁盘还是对象存储。
+ * 对外访问地址统一由 {@link #publicUrl(String)} 生成，数据库与文章内容中保存的是该地址。</p>
+ */
+public interface FileStorage {
+
+    /**
+     * 以流的方式写入文件
+     *
+     * @param key 文件 key
+     * @param in 文件内容
+     * @param size 内容长度
+     * @param contentType MIME 类型
+     */
+    void store(String key, InputStream in, long size, String contentType) throws IOException;
+
+    /**
+     * 写入本地已存在的文件（如分片上传合并后的临时文件），调用后源文件不再保留
+     */
+    void store(String key, Path source, String contentType) throws IOException;
+
+    /**
+     * 开始分段写入一个文件（分片上传）。分段可以乱序、并行地由任意实例写入，
+     * 存储侧的上传标识与分段标识由调用方保存在共享的会话记录中。
+     *
+     * @param size 文件总长度
+     * @return 存储侧的上传标识
+     */
+    String createMultipart(String key, String contentType, long size) throws IOException;
+
+    /**
+     * 写入一个分段，读取恰好 size 字节
+     *
+     * @param partNumber 分段序号，从 1 开始
+     * @param offset 分段在文件中的偏移量
+     * @return 分段标识，合并时按分段序号依次传回
+     */
+    String uploadPart(String key, String uploadId, int partNumber, long offset, InputStream in, long size) throws IOException;
+
+    /**
+     * 按分段序号合并全部分段，完成后文件以 key 可见
+     *
+     * @param partTags 第 i 个元素为第 i + 1 段的分段标识
+     */
+    void completeMultipart(String key, String uploadId, List<String> partTags) throws IOException;
+
+    /**
+     * 放弃分段写入并清理已写入的分段
+     */
+    void abortMultipart(String key, String uploadId) throws IOException;
+
+    /**
+     * 除最后一段外每段的最小长度
+     */
+    default long minPartSize() {
+        return 1;
+    }
+
+    /**
+     * 读取文件内容
+     */
+    InputStream open(String key) throws IOException;
+
+    boolean exists(String key);
+
+    /**
+     * 列出存储中的全部文件 key，用于一次性导入等后台任务；调用方负责关闭返回的流
+     */
+    Stream<String> listKeys() throws IOException;
+
+    /**
+     * 删除文件
+     *
+     * @return 文件存在并被删除时返回 true
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * 文件的对外访问地址；配置了 CDN 时返回 CDN 地址
+     */
+    String publicUrl(String key);
+
+    /**
+     * 将访问地址还原为文件 key；非本存储管理的地址返回 null
+     */
+    String keyOf(String url);
+
+    /**
+     * 本地存储的根目录，仅本地实现返回值，用于静态资源映射
+     */
+    default Optional<Path> localRoot() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,161 @@
+package com.xingmiao.blog.app.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 本地磁盘存储，文件保存在 upload.path 下
+ *
+ * <p>分段写入时预分配 upload.chunked.temp-path 下的临时文件，各分段按偏移量直接写入，合并时移动到目标位置。
+ * 多实例共用本地存储时，两个目录都需要挂载到共享卷上。</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "upload.storage", name = "type", havingValue = "local", matchIfMissing = true)
+public class LocalFileStorage extends AbstractFileStorage {
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-f]{32}");
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path partsRoot;
+
+    public LocalFileStorage(@Value("${upload.path:uploads}") String uploadPath,
+                            @Value("${upload.chunked.temp-path:uploads-tmp}") String partsPath,
+                            StorageProperties properties) {
+        super(properties.getPublicBaseUrl());
+        this.root = resolveBasePath(uploadPath);
+        this.partsRoot = resolveBasePath(partsPath);
+    }
+
+    @Override
+    public void store(String key, InputStream in, long size, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void store(String key, Path source, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public String createMultipart(String key, String contentType, long size) throws IOException {
+        normalizeKey(key);
+        String uploadId = UUID.randomUUID().toString().replace("-", "");
+        Files.createDirectories(partsRoot);
+        // 预分配目标文件，后续分段按偏移量直接写入
+        try (RandomAccessFile raf = new RandomAccessFile(partFile(uploadId).toFile(), "rw")) {
+            raf.setLength(size);
+        }
+        return uploadId;
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, long offset, InputStream in, long size) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long written = 0;
+        // 不带 CREATE：会话已被取消、临时文件已删除时直接失败
+        try (FileChannel channel = FileChannel.open(partFile(uploadId), StandardOpenOption.WRITE)) {
+            while (written < size) {
+                int n = in.read(buffer, 0, (int) Math.min(buffer.length, size - written));
+                if (n == -1) {
+                    throw new IOException("分段数据提前结束，期望 " + size + " 字节，实际 " + written + " 字节");
+                }
+                ByteBuffer src = ByteBuffer.wrap(buffer, 0, n);
+                long position = offset + written;
+                while (src.hasRemaining()) {
+                    position += channel.write(src, position);
+                }
+                written += n;
+            }
+        }
+        // 本地分段都写在同一个文件里，不需要额外的分段标识
+        return String.valueOf(partNumber);
+    }
+
+    @Override
+    public void completeMultipart(String key, String uploadId, List<String> partTags) throws IOException {
+        store(key, partFile(uploadId), null);
+    }
+
+    @Override
+    public void abortMultipart(String key, String uploadId) throws IOException {
+        Files.deleteIfExists(partFile(uploadId));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public Stream<String> listKeys() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return Stream.empty();
+        }
+        return Files.walk(root)
+                .filter(Files::isRegularFile)
+                .map(path -> root.relativize(path).toString().replace("\\", "/"));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Optional<Path> localRoot() {
+        return Optional.of(root);
+    }
+
+    private Path partFile(String uploadId) {
+        if (uploadId == null || !UPLOAD_ID.matcher(uploadId).matches()) {
+            throw new IllegalArgumentException("非法的分段上传标识: " + uploadId);
+        }
+        return partsRoot.resolve(uploadId + ".part");
+    }
+
+    /**
+     * 相对路径转换为项目根目录下的绝对路径
+     */
+    private static Path resolveBasePath(String path) {
+        Path basePath = Paths.get(path);
+        if (!basePath.isAbsolute()) {
+            basePath = Paths.get(System.getProperty("user.dir"), path);
+        }
+        return basePath.toAbsolutePath().normalize();
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(normalizeKey(key)).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("非法的文件 key: " + key);
+        }
+        return path;
+    }
+}
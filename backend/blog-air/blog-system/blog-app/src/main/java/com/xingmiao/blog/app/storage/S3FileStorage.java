@@ -0,0 +1,360 @@
+package com.xingmiao.blog.app.storage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * S3 兼容对象存储（AWS S3、MinIO 等）
+ *
+ * <p>大文件使用分段上传，内存中最多只保留一个分段，应用节点本身不保存任何上传文件。
+ * 分片上传的每个分片对应一次 UploadPart，分片可以由不同实例写入。</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "upload.storage", name = "type", havingValue = "s3")
+public class S3FileStorage extends AbstractFileStorage {
+
+    /**
+     * S3 要求除最后一段外每段不小于 5MB
+     */
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final S3Client s3Client;
+    private final StorageProperties.S3 config;
+
+    public S3FileStorage(StorageProperties properties) {
+        super(properties.getPublicBaseUrl());
+        this.config = properties.getS3();
+        if (!StringUtils.hasText(config.getBucket())) {
+            throw new IllegalStateException("使用 S3 存储时必须配置 upload.storage.s3.bucket");
+        }
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(config.getRegion()))
+                .forcePathStyle(config.isPathStyleAccess());
+        if (StringUtils.hasText(config.getEndpoint())) {
+            builder.endpointOverride(URI.create(config.getEndpoint()));
+        }
+        if (StringUtils.hasText(config.getAccessKey())) {
+            builder.credentialsProvider(StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(config.getAccessKey(), config.getSecretKey())));
+        } else {
+            builder.credentialsProvider(DefaultCredentialsProvider.create());
+        }
+        this.s3Client = builder.build();
+    }
+
+    @PreDestroy
+    public void close() {
+        s3Client.close();
+    }
+
+    @Override
+    public void store(String key, InputStream in, long size, String contentType) throws IOException {
+        String objectKey = objectKey(key);
+        if (size <= config.getMultipartThreshold().toBytes()) {
+            s3Client.putObject(putRequest(objectKey, contentType, size), RequestBody.fromInputStream(in, size));
+            return;
+        }
+
+        int partSize = (int) config.getPartSize().toBytes();
+        byte[] buffer = new byte[partSize];
+        multipartUpload(objectKey, contentType, size, (partNumber, offset, length) -> {
+            int read = in.readNBytes(buffer, 0, (int) length);
+            if (read != length) {
+                throw new IOException("上传流提前结束，期望 " + length + " 字节，实际 " + read + " 字节");
+            }
+            return RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, read), read);
+        });
+    }
+
+    @Override
+    public void store(String key, Path source, String contentType) throws IOException {
+        String objectKey = objectKey(key);
+        long size = Files.size(source);
+        if (size <= config.getMultipartThreshold().toBytes()) {
+            s3Client.putObject(putRequest(objectKey, contentType, size), RequestBody.fromFile(source));
+        } else {
+            // 分段直接从文件对应区间读取，重试时可重新打开，无需整段缓冲
+            multipartUpload(objectKey, contentType, size, (partNumber, offset, length) ->
+                    RequestBody.fromContentProvider(() -> openRange(source, offset, length), length, contentType));
+        }
+        Files.deleteIfExists(source);
+    }
+
+    @Override
+    public String createMultipart(String key, String contentType, long size) throws IOException {
+        try {
+            return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(config.getBucket())
+                    .key(objectKey(key))
+                    .contentType(contentType)
+                    .build()).uploadId();
+        } catch (S3Exception e) {
+            throw new IOException("创建分段上传失败: " + key, e);
+        }
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, long offset, InputStream in, long size) throws IOException {
+        // 与 store 一样在内存中缓冲一个分段，分段不完整时不发起请求
+        byte[] buffer = in.readNBytes(Math.toIntExact(size));
+        if (buffer.length != size) {
+            throw new IOException("分段数据提前结束，期望 " + size + " 字节，实际 " + buffer.length + " 字节");
+        }
+        try {
+            return s3Client.uploadPart(UploadPartRequest.builder()
+                            .bucket(config.getBucket())
+                            .key(objectKey(key))
+                            .uploadId(uploadId)
+                            .partNumber(partNumber)
+                            .contentLength(size)
+                            .build(),
+                    RequestBody.fromBytes(buffer)).eTag();
+        } catch (S3Exception e) {
+            throw new IOException("上传分段失败: " + key + " part:" + partNumber, e);
+        }
+    }
+
+    @Override
+    public void completeMultipart(String key, String uploadId, List<String> partTags) throws IOException {
+        List<CompletedPart> parts = new ArrayList<>(partTags.size());
+        for (int i = 0; i < partTags.size(); i++) {
+            parts.add(CompletedPart.builder().partNumber(i + 1).eTag(partTags.get(i)).build());
+        }
+        try {
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(config.getBucket())
+                    .key(objectKey(key))
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (S3Exception e) {
+            throw new IOException("合并分段失败: " + key, e);
+        }
+    }
+
+    @Override
+    public void abortMultipart(String key, String uploadId) throws IOException {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(config.getBucket())
+                    .key(objectKey(key))
+                    .uploadId(uploadId)
+                    .build());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return;
+            }
+            throw new IOException("放弃分段上传失败: " + key, e);
+        }
+    }
+
+    @Override
+    public long minPartSize() {
+        return MIN_PART_SIZE;
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        try {
+            return s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(config.getBucket())
+                    .key(objectKey(key))
+                    .build());
+        } catch (S3Exception e) {
+            throw new IOException("读取对象失败: " + key, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(config.getBucket())
+                    .key(objectKey(key))
+                    .build());
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<String> listKeys() {
+        String prefix = config.getPrefix() == null ? "" : config.getPrefix();
+        return s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                        .bucket(config.getBucket())
+                        .prefix(prefix)
+                        .build())
+                .contents()
+                .stream()
+                .map(object -> object.key().substring(prefix.length()))
+                .filter(key -> !key.isEmpty() && !key.endsWith("/"));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        if (!exists(key)) {
+            return false;
+        }
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(config.getBucket())
+                    .key(objectKey(key))
+                    .build());
+            return true;
+        } catch (S3Exception e) {
+            throw new IOException("删除对象失败: " + key, e);
+        }
+    }
+
+    private void multipartUpload(String objectKey, String contentType, long size, PartBodySupplier parts) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(config.getBucket())
+                .key(objectKey)
+                .contentType(contentType)
+                .build()).uploadId();
+        long partSize = config.getPartSize().toBytes();
+        List<CompletedPart> completedParts = new ArrayList<>();
+        try {
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                long length = Math.min(partSize, size - offset);
+                String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(config.getBucket())
+                                .key(objectKey)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength(length)
+                                .build(),
+                        parts.get(partNumber, offset, length)).eTag();
+                completedParts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(config.getBucket())
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            log.warn("分段上传失败，放弃上传: {} uploadId:{}", objectKey, uploadId);
+            try {
+                s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(config.getBucket())
+                        .key(objectKey)
+                        .uploadId(uploadId)
+                        .build());
+            } catch (RuntimeException abortError) {
+                e.addSuppressed(abortError);
+            }
+            if (e instanceof S3Exception) {
+                throw new IOException("分段上传失败: " + objectKey, e);
+            }
+            throw e;
+        }
+    }
+
+    private PutObjectRequest putRequest(String objectKey, String contentType, long size) {
+        return PutObjectRequest.builder()
+                .bucket(config.getBucket())
+                .key(objectKey)
+                .contentType(contentType)
+                .contentLength(size)
+                .build();
+    }
+
+    private String objectKey(String key) {
+        String prefix = config.getPrefix() == null ? "" : config.getPrefix();
+        return prefix + normalizeKey(key);
+    }
+
+    private static InputStream openRange(Path source, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(source, StandardOpenOption.READ).position(offset);
+            return new RangeInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            throw new IllegalStateException("读取分段失败: " + source, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PartBodySupplier {
+        RequestBody get(int partNumber, long offset, long length) throws IOException;
+    }
+
+    /**
+     * 只读取底层流中指定长度的数据
+     */
+    private static final class RangeInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private RangeInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+    }
+}
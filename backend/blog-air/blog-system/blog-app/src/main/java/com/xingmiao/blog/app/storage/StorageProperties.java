@@ -0,0 +1,64 @@
+package com.xingmiao.blog.app.storage;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 上传文件存储配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upload.storage")
+public class StorageProperties {
+
+    /**
+     * 存储类型：local（本地磁盘，默认）或 s3（S3 兼容对象存储，如 MinIO）
+     */
+    private String type = "local";
+
+    /**
+     * 对外访问的基础地址（如 CDN 域名 https://cdn.example.com/uploads），为空时使用 /uploads/
+     */
+    private String publicBaseUrl;
+
+    private S3 s3 = new S3();
+
+    @Data
+    public static class S3 {
+
+        /**
+         * S3 兼容服务地址，如 http://localhost:9000（MinIO）；为空时使用 AWS 默认地址
+         */
+        private String endpoint;
+
+        private String region = "us-east-1";
+
+        private String bucket;
+
+        private String accessKey;
+
+        private String secretKey;
+
+        /**
+         * 对象 key 前缀
+         */
+        private String prefix = "uploads/";
+
+        /**
+         * MinIO 等自建服务需要 path-style 访问
+         */
+        private boolean pathStyleAccess = true;
+
+        /**
+         * 超过该大小时使用分段上传
+         */
+        private DataSize multipartThreshold = DataSize.ofMegabytes(8);
+
+        /**
+         * 分段上传时每段大小（S3 要求除最后一段外不小于 5MB）
+         */
+        private DataSize partSize = DataSize.ofMegabytes(8);
+    }
+}
@@ -0,0 +1,21 @@
+package com.xingmiao.blog.app.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 客户端 IP 解析，用于点赞去重与按客户端限流
+ *
+ * <p>转发头只在对端是可信代理时才采信：{@code server.forward-headers-strategy=native} 启用 Tomcat 的
+ * RemoteIpValve，对端地址匹配 {@code server.tomcat.remoteip.internal-proxies}（默认为内网与本机地址）时，
+ * 从 X-Forwarded-For 右侧起跳过可信代理，取第一个不可信的地址作为 {@link HttpServletRequest#getRemoteAddr()}；
+ * 直连应用的请求自带的 X-Forwarded-For、X-Real-IP 一律忽略。</p>
+ */
+public final class ClientIp {
+
+    private ClientIp() {
+    }
+
+    public static String of(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
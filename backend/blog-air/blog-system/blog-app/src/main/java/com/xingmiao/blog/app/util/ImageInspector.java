@@ -0,0 +1,126 @@
+package com.xingmiao.blog.app.util;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+
+/**
+ * 图片元信息提取工具
+ *
+ * <p>一次顺序读取同时得到内容哈希、大小、真实格式与宽高；宽高只解析文件头，不解码像素。</p>
+ */
+public final class ImageInspector {
+
+    private ImageInspector() {
+    }
+
+    /**
+     * 图片元信息，无法识别的字段为 null
+     */
+    public record Result(String sha256, long size, String mimeType, Integer width, Integer height) {
+    }
+
+    public static Result inspect(InputStream source) throws IOException {
+        DigestingInputStream digesting = new DigestingInputStream(source);
+        BufferedInputStream in = new BufferedInputStream(digesting);
+
+        in.mark(ImageTypes.MAGIC_LENGTH);
+        byte[] head = in.readNBytes(ImageTypes.MAGIC_LENGTH);
+        in.reset();
+        String mimeType = ImageTypes.detect(head, head.length);
+
+        Integer width = null;
+        Integer height = null;
+        ImageInputStream iis = new MemoryCacheImageInputStream(in);
+        try {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (readers.hasNext()) {
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(iis, true, true);
+                    width = reader.getWidth(0);
+                    height = reader.getHeight(0);
+                } catch (IOException | RuntimeException ignored) {
+                    // 文件头损坏或格式不受支持时不记录宽高
+                } finally {
+                    reader.dispose();
+                }
+            }
+        } finally {
+            iis.close();
+        }
+
+        // 读完剩余内容以完成哈希计算
+        in.transferTo(OutputStream.nullOutputStream());
+        return new Result(digesting.hex(), digesting.count, mimeType, width, height);
+    }
+
+    private static final class DigestingInputStream extends FilterInputStream {
+
+        private final MessageDigest digest;
+        private long count;
+
+        private DigestingInputStream(InputStream in) {
+            super(in);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                digest.update((byte) b);
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                digest.update(b, off, n);
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // 跳过的内容同样需要计入哈希
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read < 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private String hex() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.xingmiao.blog.app.util;
+
+import java.util.Locale;
+
+/**
+ * 图片类型识别工具
+ *
+ * <p>根据文件头魔数判断真实的图片格式，避免仅凭扩展名或客户端声明的 Content-Type 放行文件。</p>
+ */
+public final class ImageTypes {
+
+    /**
+     * 识别所需的最少字节数
+     */
+    public static final int MAGIC_LENGTH = 12;
+
+    private ImageTypes() {
+    }
+
+    /**
+     * 根据文件头识别图片 MIME 类型
+     *
+     * @param head 文件开头的字节
+     * @param length 有效字节数
+     * @return 识别出的 MIME 类型，无法识别时返回 null
+     */
+    public static String detect(byte[] head, int length) {
+        if (head == null || length < 3) {
+            return null;
+        }
+        if ((head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (length >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G'
+                && head[4] == 0x0D && head[5] == 0x0A && head[6] == 0x1A && head[7] == 0x0A) {
+            return "image/png";
+        }
+        if (length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8'
+                && (head[4] == '7' || head[4] == '9') && head[5] == 'a') {
+            return "image/gif";
+        }
+        if (length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    /**
+     * 判断文件头是否与声明的 MIME 类型一致
+     */
+    public static boolean matches(byte[] head, int length, String declaredContentType) {
+        String detected = detect(head, length);
+        return detected != null && declaredContentType != null
+                && detected.equals(declaredContentType.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * MIME 类型对应的标准扩展名
+     */
+    public static String extensionOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        return switch (contentType.toLowerCase(Locale.ROOT)) {
+            case "image/jpeg" -> "jpg";
+            case "image/png" -> "png";
+            case "image/gif" -> "gif";
+            case "image/webp" -> "webp";
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.xingmiao.blog.app.util;
+
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 文章引用的图片地址提取（封面 + Markdown 正文图片）
+ */
+public final class PostImages {
+
+    private static final Pattern IMAGE_URL_PATTERN = Pattern.compile("!\\[[^]]*]\\(([^)]+)\\)");
+    private static final Pattern HTML_IMG_SRC_PATTERN = Pattern.compile("(<img\\b[^>]*?\\bsrc\\s*=\\s*)([\"'])([^\"']+)\\2", Pattern.CASE_INSENSITIVE);
+
+    private PostImages() {
+    }
+
+    public static Set<String> collect(String coverImageUrl, String content) {
+        Set<String> urls = new LinkedHashSet<>();
+        if (StringUtils.hasText(coverImageUrl)) {
+            urls.add(coverImageUrl.trim());
+        }
+        if (StringUtils.hasText(content)) {
+            Matcher matcher = IMAGE_URL_PATTERN.matcher(content);
+            while (matcher.find()) {
+                String url = matcher.group(1);
+                if (StringUtils.hasText(url)) {
+                    urls.add(url.trim());
+                }
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * 改写正文中的图片地址（Markdown 图片与 HTML img 标签），mapper 返回原值表示不改写
+     */
+    public static String rewrite(String content, UnaryOperator<String> mapper) {
+        if (!StringUtils.hasText(content)) {
+            return content;
+        }
+        Matcher markdown = IMAGE_URL_PATTERN.matcher(content);
+        StringBuilder sb = new StringBuilder(content.length());
+        while (markdown.find()) {
+            // 目标可能带标题：![alt](url "title")
+            String target = markdown.group(1).trim();
+            int space = target.indexOf(' ');
+            String url = space < 0 ? target : target.substring(0, space);
+            String suffix = space < 0 ? "" : target.substring(space);
+            String image = markdown.group().substring(0, markdown.start(1) - markdown.start())
+                    + mapper.apply(url) + suffix + ")";
+            markdown.appendReplacement(sb, Matcher.quoteReplacement(image));
+        }
+        markdown.appendTail(sb);
+
+        Matcher html = HTML_IMG_SRC_PATTERN.matcher(sb.toString());
+        StringBuilder result = new StringBuilder(sb.length());
+        while (html.find()) {
+            String replaced = mapper.apply(html.group(3).trim());
+            html.appendReplacement(result, Matcher.quoteReplacement(html.group(1) + html.group(2) + replaced + html.group(2)));
+        }
+        html.appendTail(result);
+        return result.toString();
+    }
+}
@@ -0,0 +1,173 @@
+package com.xingmiao.blog.app.ai;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AI 流式接口压测：N 个并发 SSE 客户端请求总结接口，统计首字延迟、输出速度与错误率。
+ *
+ * <p>默认跳过，需先以 simulated-llm profile 启动服务（避免产生模型调用费用），再指定地址运行：</p>
+ * <pre>
+ * mvn test -Dtest=AiLoadTest -Dai.load.url=http://localhost:8080/ai/summarize/stream \
+ *     -Dai.load.clients=32 -Dai.load.requests=256
+ * </pre>
+ * <p>每个请求的正文带随机后缀并设置 regenerate，不会命中结果缓存或合并到进行中的生成。</p>
+ */
+@EnabledIfSystemProperty(named = "ai.load.url", matches = ".+")
+class AiLoadTest {
+
+    private final String url = System.getProperty("ai.load.url");
+    private final int clients = Integer.getInteger("ai.load.clients", 16);
+    private final int requests = Integer.getInteger("ai.load.requests", clients * 4);
+    private final int contentChars = Integer.getInteger("ai.load.content-chars", 2000);
+
+    @Test
+    void run() throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        AtomicInteger sequence = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<List<Result>>> futures = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            futures.add(pool.submit(() -> {
+                List<Result> results = new ArrayList<>();
+                int n;
+                while ((n = sequence.getAndIncrement()) < requests) {
+                    results.add(call(http, n));
+                }
+                return results;
+            }));
+        }
+        List<Result> results = new ArrayList<>();
+        for (Future<List<Result>> future : futures) {
+            results.addAll(future.get());
+        }
+        pool.shutdown();
+        report(results, System.nanoTime() - started);
+    }
+
+    private Result call(HttpClient http, int n) {
+        String content = "压测文章 " + n + "：" + "流式接口需要在高并发下保持稳定的首字延迟。".repeat(Math.max(1, contentChars / 22))
+                + System.nanoTime();
+        String body = "{\"content\":\"" + content + "\",\"regenerate\":true}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                // 压测客户端共用一个 IP，按序号区分以免触发单客户端并发限制
+                // （仅在本机直连应用时有效：127.0.0.1 属于可信代理，其他来源的 X-Forwarded-For 会被忽略）
+                .header("X-Forwarded-For", "198.18." + (n / 250 % 250) + "." + (n % 250 + 1))
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<java.io.InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() != 200) {
+                response.body().close();
+                return Result.rejected(response.statusCode());
+            }
+            long firstData = -1;
+            int chars = 0;
+            boolean error = false;
+            String event = null;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("event:")) {
+                        event = line.substring(6).trim();
+                    } else if (line.startsWith("data:")) {
+                        if ("error".equals(event)) {
+                            error = true;
+                        } else if (event == null) {
+                            if (firstData < 0) {
+                                firstData = System.nanoTime() - start;
+                            }
+                            chars += line.length() - 5;
+                        }
+                    } else if (line.isEmpty()) {
+                        event = null;
+                    }
+                }
+            }
+            return new Result(200, error || firstData < 0, firstData, System.nanoTime() - start, chars);
+        } catch (Exception e) {
+            return new Result(-1, true, -1, System.nanoTime() - start, 0);
+        }
+    }
+
+    private void report(List<Result> results, long wallNanos) {
+        Map<Integer, Integer> statuses = new TreeMap<>();
+        List<Double> ttft = new ArrayList<>();
+        List<Double> duration = new ArrayList<>();
+        List<Double> tokensPerSecond = new ArrayList<>();
+        int errors = 0;
+        for (Result r : results) {
+            statuses.merge(r.status, 1, Integer::sum);
+            if (r.status != 200) {
+                continue;
+            }
+            if (r.error) {
+                errors++;
+                continue;
+            }
+            ttft.add(r.firstDataNanos / 1e6);
+            duration.add(r.totalNanos / 1e6);
+            double streamingSeconds = (r.totalNanos - r.firstDataNanos) / 1e9;
+            if (streamingSeconds > 0) {
+                // 输出会被合并发送，按字符数估算 token（中文约 1 字 1 token）
+                tokensPerSecond.add(r.chars / streamingSeconds);
+            }
+        }
+        int accepted = statuses.getOrDefault(200, 0);
+        System.out.printf("%n=== AI 压测：%s ===%n", url);
+        System.out.printf("客户端 %d，请求 %d，总耗时 %.1f s，吞吐 %.2f req/s%n",
+                clients, results.size(), wallNanos / 1e9, results.size() / (wallNanos / 1e9));
+        System.out.printf("状态码分布 %s（429/503 为被限流或排队已满，-1 为连接失败）%n", statuses);
+        System.out.printf("错误率 %.2f%%（已接受请求中以 error 事件结束或没有输出的比例），拒绝率 %.2f%%%n",
+                accepted == 0 ? 0 : errors * 100.0 / accepted,
+                (results.size() - accepted) * 100.0 / results.size());
+        printPercentiles("首字延迟 (ms)", ttft);
+        printPercentiles("总时长 (ms)", duration);
+        printPercentiles("输出速度 (token/s)", tokensPerSecond);
+    }
+
+    private static void printPercentiles(String name, List<Double> values) {
+        if (values.isEmpty()) {
+            System.out.printf("%-18s 无数据%n", name);
+            return;
+        }
+        Collections.sort(values);
+        System.out.printf("%-18s p50 %9.1f  p90 %9.1f  p99 %9.1f  max %9.1f%n", name,
+                percentile(values, 0.5), percentile(values, 0.9), percentile(values, 0.99), values.get(values.size() - 1));
+    }
+
+    private static double percentile(List<Double> sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private record Result(int status, boolean error, long firstDataNanos, long totalNanos, int chars) {
+        static Result rejected(int status) {
+            return new Result(status, false, -1, 0, 0);
+        }
+    }
+}
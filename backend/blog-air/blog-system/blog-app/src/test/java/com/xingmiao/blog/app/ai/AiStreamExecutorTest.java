@@ -0,0 +1,151 @@
+package com.xingmiao.blog.app.ai;
+
+import com.xingmiao.blog.app.config.AiExecutionProperties;
+import com.xingmiao.blog.common.exception.ServiceBusyException;
+import com.xingmiao.blog.common.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiStreamExecutorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AiStreamExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.destroy();
+    }
+
+    @Test
+    void rejectsClientOverItsStreamLimit() throws Exception {
+        executor = executor(4, 4, 1, Duration.ofSeconds(30));
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit("polish", "198.51.100.1", blocking(started));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        TooManyRequestsException error = assertThrows(TooManyRequestsException.class,
+                () -> executor.submit("polish", "198.51.100.1", AiStream::complete));
+        assertEquals(5, error.getRetryAfterSeconds());
+        assertEquals(1, registry.counter("ai.requests.rejected", "reason", "client_limit").count());
+        // 其他客户端不受影响
+        assertNotNull(executor.submit("polish", "198.51.100.2", AiStream::complete));
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        executor = executor(1, 1, 1, Duration.ofSeconds(30));
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit("polish", "198.51.100.1", blocking(started));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.submit("polish", "198.51.100.2", AiStream::complete);
+
+        assertThrows(ServiceBusyException.class, () -> executor.submit("polish", "198.51.100.3", AiStream::complete));
+        assertEquals(1, registry.counter("ai.requests.rejected", "reason", "queue_full").count());
+        // 被拒绝的请求不占用客户端名额，有空位后同一客户端可以再次提交
+        release.countDown();
+        await(() -> submitQuietly("198.51.100.3"));
+    }
+
+    @Test
+    void cancelsStreamAfterTimeoutAndReleasesClient() throws Exception {
+        executor = executor(1, 1, 1, Duration.ofMillis(200));
+        AtomicReference<AiStream> stream = new AtomicReference<>();
+        AtomicBoolean upstreamCancelled = new AtomicBoolean();
+        // 任务发起生成后一直没有结束
+        executor.submit("summarize", "198.51.100.1", s -> {
+            stream.set(s);
+            s.onCancel(() -> upstreamCancelled.set(true));
+        });
+
+        await(() -> stream.get() != null && stream.get().isCancelled());
+        assertTrue(upstreamCancelled.get());
+        assertEquals(1, registry.counter("ai.streams.timeout").count());
+        await(() -> submitQuietly("198.51.100.1"));
+    }
+
+    @Test
+    void cancellingQueuedRequestReleasesClientSlot() throws Exception {
+        executor = executor(1, 2, 1, Duration.ofSeconds(30));
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit("polish", "198.51.100.1", blocking(started));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicBoolean ran = new AtomicBoolean();
+        SseEmitter queued = executor.submit("polish", "198.51.100.2", s -> ran.set(true));
+        assertThrows(TooManyRequestsException.class, () -> executor.submit("polish", "198.51.100.2", AiStream::complete));
+
+        // 排队期间客户端断开：移出队列并归还名额，不会等到轮到它执行
+        disconnect(queued);
+        assertNotNull(executor.submit("polish", "198.51.100.2", AiStream::complete));
+        release.countDown();
+        Thread.sleep(100);
+        assertFalse(ran.get());
+    }
+
+    private AiStreamExecutor executor(int threads, int queue, int perClient, Duration timeout) {
+        AiExecutionProperties properties = new AiExecutionProperties();
+        properties.setMaxConcurrentStreams(threads);
+        properties.setQueueCapacity(queue);
+        properties.setMaxStreamsPerClient(perClient);
+        properties.setStreamTimeout(timeout);
+        return new AiStreamExecutor(properties, registry);
+    }
+
+    private Consumer<AiStream> blocking(CountDownLatch started) {
+        return stream -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stream.complete();
+        };
+    }
+
+    private boolean submitQuietly(String clientId) {
+        try {
+            executor.submit("summarize", clientId, AiStream::complete);
+            return true;
+        } catch (TooManyRequestsException | ServiceBusyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 模拟 Servlet 容器在客户端断开时触发的完成回调
+     */
+    private static void disconnect(SseEmitter emitter) {
+        ((Runnable) ReflectionTestUtils.getField(emitter, "completionCallback")).run();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("等待超时");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.xingmiao.blog.app.ai;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * 按固定间隔在独立线程上逐个输出分片的模型，模拟上游流式响应
+ */
+class FakeStreamingChatModel implements StreamingChatModel {
+
+    private final Function<String, List<String>> responder;
+    private final long intervalNanos;
+    final List<String> prompts = new CopyOnWriteArrayList<>();
+    final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+
+    FakeStreamingChatModel(List<String> tokens, long intervalMicros) {
+        this(prompt -> tokens, intervalMicros);
+    }
+
+    /**
+     * @param responder 根据提示词决定输出的分片
+     */
+    FakeStreamingChatModel(Function<String, List<String>> responder, long intervalMicros) {
+        this.responder = responder;
+        this.intervalNanos = intervalMicros * 1000;
+    }
+
+    @Override
+    public void doChat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+        String prompt = ((UserMessage) chatRequest.messages().get(chatRequest.messages().size() - 1)).singleText();
+        prompts.add(prompt);
+        List<String> tokens = responder.apply(prompt);
+        maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread thread = new Thread(() -> {
+            for (String token : tokens) {
+                LockSupport.parkNanos(intervalNanos);
+                handler.onPartialResponse(token);
+            }
+            running.decrementAndGet();
+            handler.onCompleteResponse(ChatResponse.builder()
+                    .aiMessage(AiMessage.from(String.join("", tokens)))
+                    .build());
+        }, "fake-model");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,161 @@
+package com.xingmiao.blog.app.ai;
+
+import com.xingmiao.blog.app.config.AiLongDocumentProperties;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongDocumentSummarizerTest {
+
+    @Test
+    void chunksFollowHeadingsAndStayWithinBudget() {
+        String content = section("第一章", 30) + "\n\n" + section("第二章", 30) + "\n\n" + section("第三章", 30);
+
+        List<String> chunks = MarkdownChunker.split(content, 400);
+
+        assertEquals(3, chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            assertTrue(chunks.get(i).startsWith("## 第" + "一二三".charAt(i) + "章"), chunks.get(i));
+            assertTrue(MarkdownChunker.estimateTokens(chunks.get(i)) <= 400);
+        }
+        assertEquals(content.replaceAll("\\s", ""), String.join("", chunks).replaceAll("\\s", ""));
+    }
+
+    @Test
+    void oversizedParagraphAndCodeBlockAreHandled() {
+        String longParagraph = "很长的一句话没有标点".repeat(200);
+        String code = "```java\nclass A {}\n\nclass B {}\n```";
+        List<String> chunks = MarkdownChunker.split("# 标题\n\n" + longParagraph + "\n\n" + code, 500);
+
+        assertTrue(chunks.size() >= 4);
+        assertTrue(chunks.stream().allMatch(c -> MarkdownChunker.estimateTokens(c) <= 500));
+        // 代码块内的空行不应被拆开
+        assertTrue(chunks.get(chunks.size() - 1).endsWith(code));
+    }
+
+    @Test
+    void mapsInParallelThenStreamsReduce() throws Exception {
+        FakeStreamingChatModel model = new FakeStreamingChatModel(prompt -> prompt.contains("分段提炼的要点")
+                ? List.of("全文", "摘要")
+                : List.of("要点", "。"), 5_000);
+        AiLongDocumentProperties properties = new AiLongDocumentProperties();
+        properties.setChunkTokens(400);
+        properties.setThresholdTokens(1000);
+        properties.setMapConcurrency(2);
+        LongDocumentSummarizer summarizer = new LongDocumentSummarizer(model, properties);
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            content.append(section("章节" + i, 30)).append("\n\n");
+        }
+        assertTrue(summarizer.isLong(content.toString()));
+        assertFalse(summarizer.isLong("短文"));
+
+        RecordingSink sink = new RecordingSink();
+        summarizer.summarize(content.toString(), 200, sink);
+        sink.done.get(10, TimeUnit.SECONDS);
+
+        assertEquals("全文摘要", sink.output.toString());
+        assertEquals(7, model.prompts.size());
+        assertEquals(2, model.maxConcurrent.get());
+        List<LongDocumentSummarizer.Progress> mapProgress = sink.progress.stream()
+                .filter(p -> p.phase().equals("map")).toList();
+        assertEquals(7, mapProgress.size());
+        assertEquals(6, mapProgress.get(mapProgress.size() - 1).done());
+        assertEquals("reduce", sink.progress.get(sink.progress.size() - 1).phase());
+        assertTrue(model.prompts.get(6).contains("第 6 部分要点"));
+    }
+
+    @Test
+    void failedChunkFailsWholeSummary() throws Exception {
+        FakeStreamingChatModel ok = new FakeStreamingChatModel(List.of("要点"), 1_000);
+        LongDocumentSummarizer summarizer = new LongDocumentSummarizer(new FailingModel(ok, "第 2/"), properties());
+
+        RecordingSink sink = new RecordingSink();
+        summarizer.summarize(section("甲", 30) + "\n\n" + section("乙", 30) + "\n\n" + section("丙", 30), null, sink);
+
+        CompletableFuture<Void> done = sink.done;
+        assertThrows(Exception.class, () -> done.get(10, TimeUnit.SECONDS));
+        assertTrue(sink.error.getMessage().contains("第 2 段"));
+    }
+
+    private static AiLongDocumentProperties properties() {
+        AiLongDocumentProperties properties = new AiLongDocumentProperties();
+        properties.setChunkTokens(400);
+        properties.setMapConcurrency(1);
+        return properties;
+    }
+
+    private static String section(String title, int paragraphs) {
+        StringBuilder sb = new StringBuilder("## ").append(title).append("\n\n");
+        for (int i = 0; i < paragraphs; i++) {
+            if (i > 0) {
+                sb.append("\n\n");
+            }
+            sb.append("这是").append(title).append("的第").append(i).append("段。");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 提示词包含指定内容时返回错误
+     */
+    private record FailingModel(FakeStreamingChatModel delegate, String marker)
+            implements StreamingChatModel {
+        @Override
+        public void doChat(ChatRequest request, StreamingChatResponseHandler handler) {
+            String prompt = request.messages().toString();
+            if (prompt.contains(marker)) {
+                handler.onError(new RuntimeException("upstream 500"));
+            } else {
+                delegate.doChat(request, handler);
+            }
+        }
+    }
+
+    private static class RecordingSink implements GenerationSink {
+        final StringBuilder output = new StringBuilder();
+        final List<LongDocumentSummarizer.Progress> progress = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        volatile Throwable error;
+
+        @Override
+        public void progress(Object data) {
+            progress.add((LongDocumentSummarizer.Progress) data);
+        }
+
+        @Override
+        public void onPartialResponse(String partialResponse) {
+            output.append(partialResponse);
+        }
+
+        @Override
+        public void onCompleteResponse(ChatResponse completeResponse) {
+            done.complete(null);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+            done.completeExceptionally(error);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void onCancel(Runnable hook) {
+        }
+    }
+}
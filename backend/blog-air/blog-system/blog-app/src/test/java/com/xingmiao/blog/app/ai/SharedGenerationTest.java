@@ -0,0 +1,150 @@
+package com.xingmiao.blog.app.ai;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedGenerationTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void lateSubscriberReceivesFullOutput() {
+        AtomicReference<String> cached = new AtomicReference<>();
+        AtomicBoolean finished = new AtomicBoolean();
+        SharedGeneration generation = new SharedGeneration(cached::set, g -> finished.set(true));
+
+        Subscriber first = subscribe(generation);
+        generation.onPartialResponse("Hello");
+        generation.onPartialResponse(", ");
+        Subscriber second = subscribe(generation);
+        generation.onPartialResponse("world");
+        generation.onCompleteResponse(ChatResponse.builder().aiMessage(AiMessage.from("Hello, world")).build());
+
+        assertEquals("Hello, world", first.text());
+        assertEquals("Hello, world", second.text());
+        assertTrue(first.stream.isFinished() && !first.stream.isCancelled());
+        assertTrue(second.stream.isFinished());
+        assertEquals("Hello, world", cached.get());
+        assertTrue(finished.get());
+        // 结束后不能再加入
+        assertFalse(generation.attach(new AiStream("test", new SseEmitter()), coalescer(new ArrayList<>())));
+    }
+
+    @Test
+    void upstreamIsCancelledOnlyWhenLastSubscriberLeaves() {
+        SharedGeneration generation = new SharedGeneration(text -> fail("取消的生成不应写入缓存"), g -> {});
+        AtomicBoolean upstreamClosed = new AtomicBoolean();
+        generation.onCancel(() -> upstreamClosed.set(true));
+
+        Subscriber first = subscribe(generation);
+        Subscriber second = subscribe(generation);
+        generation.onPartialResponse("a");
+
+        first.stream.cancel();
+        assertFalse(upstreamClosed.get());
+        generation.onPartialResponse("b");
+        assertEquals("ab", second.text());
+
+        second.stream.cancel();
+        assertTrue(upstreamClosed.get());
+        assertTrue(generation.isCancelled());
+        generation.onCompleteResponse(null);
+    }
+
+    @Test
+    void errorIsDeliveredToEverySubscriber() {
+        SharedGeneration generation = new SharedGeneration(text -> fail("失败的生成不应写入缓存"), g -> {});
+        Subscriber first = subscribe(generation);
+        Subscriber second = subscribe(generation);
+
+        generation.onError(new RuntimeException("upstream"));
+
+        assertTrue(first.stream.isFailed());
+        assertTrue(second.stream.isFailed());
+    }
+
+    @Test
+    void slowLateSubscriberDoesNotBlockProducer() throws Exception {
+        SharedGeneration generation = new SharedGeneration(text -> {}, g -> {});
+        Subscriber first = subscribe(generation);
+        generation.onPartialResponse("Hello, ");
+
+        // 后加入的客户端在回放已生成内容时卡住
+        CountDownLatch replaying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> slowChunks = Collections.synchronizedList(new ArrayList<>());
+        AiStream slowStream = new AiStream("test", new SseEmitter());
+        TokenCoalescer slow = new TokenCoalescer(chunk -> {
+            if (slowChunks.isEmpty()) {
+                replaying.countDown();
+                await(release);
+            }
+            slowChunks.add(chunk);
+            return true;
+        }, scheduler, 64, 0);
+        CompletableFuture<Boolean> attached = CompletableFuture.supplyAsync(() -> generation.attach(slowStream, slow));
+        assertTrue(replaying.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture.runAsync(() -> {
+            generation.onPartialResponse("world");
+            generation.onCompleteResponse(null);
+        }).get(1, TimeUnit.SECONDS);
+        assertEquals("Hello, world", first.text());
+        assertTrue(first.stream.isFinished());
+        assertFalse(slowStream.isFinished(), "回放结束前不会提前完成");
+
+        release.countDown();
+        assertTrue(attached.get(5, TimeUnit.SECONDS));
+        assertEquals("Hello, world", String.join("", slowChunks));
+        assertTrue(slowStream.isFinished());
+    }
+
+    private Subscriber subscribe(SharedGeneration generation) {
+        List<String> chunks = new ArrayList<>();
+        AiStream stream = new AiStream("test", new SseEmitter());
+        assertTrue(generation.attach(stream, coalescer(chunks)));
+        return new Subscriber(stream, chunks);
+    }
+
+    private TokenCoalescer coalescer(List<String> chunks) {
+        return new TokenCoalescer(chunk -> {
+            chunks.add(chunk);
+            return true;
+        }, scheduler, 64, 0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Subscriber(AiStream stream, List<String> chunks) {
+        String text() {
+            return String.join("", chunks);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.xingmiao.blog.app.ai;
+
+import com.xingmiao.blog.app.config.AiSimulationProperties;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedStreamingChatModelTest {
+
+    private SimulatedStreamingChatModel model;
+
+    @AfterEach
+    void tearDown() {
+        model.close();
+    }
+
+    @Test
+    void emitsConfiguredTokensAndUsage() throws Exception {
+        AiSimulationProperties properties = fast();
+        model = new SimulatedStreamingChatModel(properties);
+        AtomicInteger partials = new AtomicInteger();
+        CompletableFuture<ChatResponse> done = new CompletableFuture<>();
+
+        model.chat("你好", handler(partials, done));
+
+        ChatResponse response = done.get(5, TimeUnit.SECONDS);
+        assertEquals(20, partials.get());
+        assertEquals(20, response.tokenUsage().outputTokenCount());
+        assertEquals(40, response.aiMessage().text().length());
+    }
+
+    @Test
+    void errorRateOneAlwaysFails() {
+        AiSimulationProperties properties = fast();
+        properties.setErrorRate(1);
+        model = new SimulatedStreamingChatModel(properties);
+        CompletableFuture<ChatResponse> done = new CompletableFuture<>();
+
+        model.chat("你好", handler(new AtomicInteger(), done));
+
+        assertThrows(Exception.class, () -> done.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void stopsWhenScopeCancelled() throws Exception {
+        AiSimulationProperties properties = fast();
+        properties.setTokensPerSecond(200);
+        model = new SimulatedStreamingChatModel(properties);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicInteger partials = new AtomicInteger();
+        CompletableFuture<ChatResponse> done = new CompletableFuture<>();
+
+        UpstreamCancellation.run(new CancellationScope() {
+            @Override
+            public boolean isCancelled() {
+                return cancelled.get();
+            }
+
+            @Override
+            public void onCancel(Runnable hook) {
+            }
+        }, () -> model.chat("你好", handler(partials, done)));
+        while (partials.get() < 3) {
+            Thread.sleep(5);
+        }
+        cancelled.set(true);
+        int seen = partials.get();
+        Thread.sleep(200);
+
+        assertTrue(partials.get() <= seen + 1);
+        assertFalse(done.isDone());
+    }
+
+    private static AiSimulationProperties fast() {
+        AiSimulationProperties properties = new AiSimulationProperties();
+        properties.setFirstTokenLatency(Duration.ZERO);
+        properties.setFirstTokenJitter(Duration.ZERO);
+        properties.setTokensPerSecond(2000);
+        properties.setResponseTokens(20);
+        properties.setResponseTokensJitter(0);
+        return properties;
+    }
+
+    private static StreamingChatResponseHandler handler(AtomicInteger partials, CompletableFuture<ChatResponse> done) {
+        return new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                partials.incrementAndGet();
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                done.complete(completeResponse);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                done.completeExceptionally(error);
+            }
+        };
+    }
+}
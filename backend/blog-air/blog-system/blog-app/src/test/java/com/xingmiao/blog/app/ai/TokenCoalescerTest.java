@@ -0,0 +1,126 @@
+package com.xingmiao.blog.app.ai;
+
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenCoalescerTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void fastStreamIsMergedWithoutLosingOrder() throws Exception {
+        List<String> tokens = tokens(500);
+        Result result = run(new FakeStreamingChatModel(tokens, 200), 64, 30);
+
+        assertEquals(String.join("", tokens), String.join("", result.chunks));
+        // 500 个分片约 100ms 内到达，按 30ms 窗口应合并为少量发送
+        assertTrue(result.chunks.size() < 50, "发送次数: " + result.chunks.size());
+        assertTrue(result.chunks.stream().allMatch(c -> c.length() <= 64 + 4));
+    }
+
+    @Test
+    void firstTokenIsSentImmediately() throws Exception {
+        List<String> tokens = tokens(100);
+        Result result = run(new FakeStreamingChatModel(tokens, 500), 64, 30);
+
+        assertEquals(tokens.get(0), result.chunks.get(0));
+        assertTrue(result.firstChunkDelayMillis < 20, "首包延迟: " + result.firstChunkDelayMillis);
+    }
+
+    @Test
+    void slowStreamPassesThrough() throws Exception {
+        List<String> tokens = tokens(10);
+        Result result = run(new FakeStreamingChatModel(tokens, 50_000), 64, 30);
+
+        // 分片间隔 50ms 大于窗口，不应被合并
+        assertEquals(tokens, result.chunks);
+    }
+
+    @Test
+    void sizeThresholdFlushesBeforeWindowEnds() throws Exception {
+        List<String> tokens = tokens(200);
+        Result result = run(new FakeStreamingChatModel(tokens, 0), 16, 10_000);
+
+        assertEquals(String.join("", tokens), String.join("", result.chunks));
+        assertTrue(result.chunks.size() > 10);
+        assertTrue(result.elapsedMillis < 5_000, "不应等待窗口结束: " + result.elapsedMillis);
+    }
+
+    @Test
+    void stopsSendingOnceDownstreamCloses() {
+        List<String> sent = new ArrayList<>();
+        TokenCoalescer coalescer = new TokenCoalescer(chunk -> {
+            sent.add(chunk);
+            return false;
+        }, scheduler, 64, 0);
+
+        coalescer.append("a");
+        coalescer.append("b");
+        coalescer.flush();
+
+        assertEquals(List.of("a"), sent);
+    }
+
+    private Result run(FakeStreamingChatModel model, int maxChars, long windowMillis) throws Exception {
+        List<String> chunks = Collections.synchronizedList(new ArrayList<>());
+        long[] firstChunkAt = {0};
+        long start = System.nanoTime();
+        TokenCoalescer coalescer = new TokenCoalescer(chunk -> {
+            if (chunks.isEmpty()) {
+                firstChunkAt[0] = System.nanoTime();
+            }
+            chunks.add(chunk);
+            return true;
+        }, scheduler, maxChars, windowMillis);
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        long[] firstTokenAt = {0};
+        model.chat("prompt", new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                if (firstTokenAt[0] == 0) {
+                    firstTokenAt[0] = System.nanoTime();
+                }
+                coalescer.append(partialResponse);
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                coalescer.flush();
+                done.complete(null);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                done.completeExceptionally(error);
+            }
+        });
+        done.get(30, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new Result(new ArrayList<>(chunks), TimeUnit.NANOSECONDS.toMillis(firstChunkAt[0] - firstTokenAt[0]), elapsed);
+    }
+
+    private static List<String> tokens(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "t" + (i % 10) + " ").toList();
+    }
+
+    private record Result(List<String> chunks, long firstChunkDelayMillis, long elapsedMillis) {}
+}
@@ -0,0 +1,89 @@
+package com.xingmiao.blog.app.cache;
+
+import com.xingmiao.blog.app.config.AuthorConfig;
+import com.xingmiao.blog.app.config.CacheWarmupProperties;
+import com.xingmiao.blog.app.repository.PostRepository;
+import com.xingmiao.blog.app.service.CategoryService;
+import com.xingmiao.blog.app.service.ContributionSvgService;
+import com.xingmiao.blog.app.service.GithubService;
+import com.xingmiao.blog.app.service.PostService;
+import com.xingmiao.blog.app.service.TagService;
+import com.xingmiao.blog.common.domain.enums.PostStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CacheWarmerTest {
+
+    private final CacheWarmupProperties properties = new CacheWarmupProperties();
+    private final CategoryService categoryService = mock(CategoryService.class);
+    private final TagService tagService = mock(TagService.class);
+    private final PostService postService = mock(PostService.class);
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final GithubService githubService = mock(GithubService.class);
+    private final ContributionSvgService svgService = mock(ContributionSvgService.class);
+    private final AuthorConfig authorConfig = new AuthorConfig();
+
+    @Test
+    void readyOnlyAfterAllTasksRan() throws Exception {
+        properties.setPages(2);
+        authorConfig.setGithubUsername("octocat");
+        when(postRepository.findTopViewedSlugs(PostStatus.PUBLISHED, PageRequest.of(0, 20)))
+                .thenReturn(List.of("a", "b"));
+        when(githubService.getContributions("octocat", null, null)).thenThrow(new RuntimeException("no token"));
+        CacheWarmer warmer = warmer();
+
+        assertEquals(Status.OUT_OF_SERVICE, warmer.health().getStatus());
+        warmer.warmUp().get(5, TimeUnit.SECONDS);
+
+        Health health = warmer.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(6, health.getDetails().get("tasks"));
+        assertEquals(1, health.getDetails().get("failed"));
+        assertEquals(false, health.getDetails().get("timedOut"));
+        verify(categoryService).getAllCategories();
+        verify(tagService).getAllTags();
+        verify(postService).listPublishedPosts(PageRequest.of(0, 10));
+        verify(postService).listPublishedPosts(PageRequest.of(1, 10));
+        verify(postService).getBySlug("a");
+        verify(postService).getBySlug("b");
+    }
+
+    @Test
+    void timeoutStillMarksReady() throws Exception {
+        properties.setTimeout(Duration.ofMillis(200));
+        properties.setTopPosts(0);
+        CountDownLatch release = new CountDownLatch(1);
+        when(tagService.getAllTags()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        CacheWarmer warmer = warmer();
+
+        try {
+            warmer.warmUp().get(5, TimeUnit.SECONDS);
+            Health health = warmer.health();
+            assertEquals(Status.UP, health.getStatus());
+            assertEquals(true, health.getDetails().get("timedOut"));
+        } finally {
+            release.countDown();
+        }
+        verify(postRepository, never()).findTopViewedSlugs(any(), any());
+        verifyNoInteractions(githubService);
+    }
+
+    private CacheWarmer warmer() {
+        return new CacheWarmer(properties, categoryService, tagService, postService, postRepository,
+                githubService, svgService, authorConfig);
+    }
+}
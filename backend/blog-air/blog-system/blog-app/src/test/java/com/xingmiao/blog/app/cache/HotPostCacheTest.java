@@ -0,0 +1,99 @@
+package com.xingmiao.blog.app.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xingmiao.blog.app.config.HotPostProperties;
+import com.xingmiao.blog.app.event.PostChangedEvent;
+import com.xingmiao.blog.common.domain.enums.Visibility;
+import com.xingmiao.blog.common.dto.HotPostDto;
+import com.xingmiao.blog.common.dto.PostDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotPostCacheTest {
+
+    @Test
+    void heavyHittersForgetExpiredBuckets() {
+        AtomicLong now = new AtomicLong(0);
+        HeavyHitters hitters = new HeavyHitters(Duration.ofSeconds(60), 6, 8, now::get);
+        for (int i = 0; i < 5; i++) {
+            hitters.record("a");
+        }
+        now.set(30_000);
+        hitters.record("a");
+        hitters.record("b");
+
+        assertEquals(List.of(new HeavyHitters.HotKey("a", 6, 0), new HeavyHitters.HotKey("b", 1, 0)),
+                hitters.top(10, 1));
+
+        now.set(65_000);
+        assertEquals(List.of(new HeavyHitters.HotKey("a", 1, 0), new HeavyHitters.HotKey("b", 1, 0)),
+                hitters.top(10, 1));
+    }
+
+    @Test
+    void heavyHittersReplaceMinimumWhenFull() {
+        HeavyHitters hitters = new HeavyHitters(Duration.ofSeconds(60), 1, 2, () -> 0);
+        for (int i = 0; i < 10; i++) {
+            hitters.record("hot");
+        }
+        hitters.record("x");
+        hitters.record("y");
+        hitters.record("hot");
+
+        List<HeavyHitters.HotKey> top = hitters.top(10, 0);
+        assertEquals(new HeavyHitters.HotKey("hot", 11, 0), top.get(0));
+        assertEquals(new HeavyHitters.HotKey("y", 2, 1), top.get(1));
+        // 只有保证计数达到阈值的 key 才算热点
+        assertEquals(List.of(top.get(0)), hitters.top(10, 2));
+    }
+
+    @Test
+    void pinsOnlyHotPublicPostsUntilChanged() {
+        HotPostProperties properties = new HotPostProperties();
+        properties.setMinRequests(3);
+        HotPostCache cache = new HotPostCache(properties, new ObjectMapper());
+        for (int i = 0; i < 3; i++) {
+            cache.record("hot");
+            cache.record("locked");
+        }
+        cache.record("cold");
+
+        cache.offer("hot", post(1L, Visibility.PUBLIC));
+        assertNull(cache.get("hot"), "刷新热点集合之前不固定");
+
+        cache.refresh();
+        cache.offer("hot", post(1L, Visibility.PUBLIC));
+        cache.offer("locked", post(2L, Visibility.PASSWORD));
+        cache.offer("cold", post(3L, Visibility.PUBLIC));
+
+        HotPostCache.Pinned pinned = cache.get("hot");
+        assertNotNull(pinned);
+        assertEquals(1L, pinned.postId());
+        assertTrue(new String(pinned.json()).contains("\"slug\":\"hot\""));
+        assertNull(cache.get("locked"));
+        assertNull(cache.get("cold"));
+
+        List<HotPostDto> snapshot = cache.snapshot();
+        assertEquals(List.of("hot", "locked"), snapshot.stream().map(HotPostDto::getSlug).toList());
+        assertTrue(snapshot.get(0).isPinned());
+        assertEquals(1, snapshot.get(0).getPinnedHits());
+        assertFalse(snapshot.get(1).isPinned());
+
+        cache.onPostChanged(new PostChangedEvent(1L));
+        assertNull(cache.get("hot"));
+    }
+
+    private static PostDto post(Long id, Visibility visibility) {
+        String slug = switch (id.intValue()) {
+            case 1 -> "hot";
+            case 2 -> "locked";
+            default -> "cold";
+        };
+        return PostDto.builder().id(id).slug(slug).visibility(visibility).build();
+    }
+}
@@ -0,0 +1,241 @@
+package com.xingmiao.blog.app.cache;
+
+import com.xingmiao.blog.app.config.CacheConfig;
+import com.xingmiao.blog.app.config.CacheSpecProperties;
+import com.xingmiao.blog.common.domain.enums.PostStatus;
+import com.xingmiao.blog.common.dto.PostDto;
+import com.xingmiao.blog.common.dto.TagDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用内存实现代替 Redis，模拟两个节点共享同一个二级存储与失效通道
+ */
+class TwoLevelCacheTest {
+
+    private final InMemoryStore store = new InMemoryStore();
+    private final InMemoryBus bus = new InMemoryBus();
+
+    @Test
+    void nodesShareValuesAndInvalidateEachOther() {
+        CacheManager nodeA = node(Duration.ofSeconds(30));
+        CacheManager nodeB = node(Duration.ofSeconds(30));
+        AtomicInteger loads = new AtomicInteger();
+
+        PostDto first = nodeA.getCache(CacheNames.POSTS).get("hello", () -> post("v" + loads.incrementAndGet()));
+        PostDto fromB = nodeB.getCache(CacheNames.POSTS).get("hello", () -> post("v" + loads.incrementAndGet()));
+        assertEquals(1, loads.get(), "节点 B 应命中二级缓存");
+        assertEquals(first, fromB);
+        // 每次读取得到独立副本
+        fromB.setContent("changed");
+        assertEquals("v1", nodeB.getCache(CacheNames.POSTS).get("hello", PostDto.class).getContent());
+
+        nodeA.getCache(CacheNames.POSTS).evict("hello");
+        assertNull(nodeB.getCache(CacheNames.POSTS).get("hello"), "节点 B 的一级缓存应随通知失效");
+
+        nodeB.getCache(CacheNames.POSTS).put("hello", post("v2"));
+        nodeA.getCache(CacheNames.POSTS).get("hello");
+        nodeB.getCache(CacheNames.POSTS).clear();
+        assertNull(nodeA.getCache(CacheNames.POSTS).get("hello"));
+        assertTrue(store.values.isEmpty());
+    }
+
+    @Test
+    void degradesToLocalOnlyWhileStoreIsDown() throws Exception {
+        CacheManager manager = node(Duration.ofSeconds(1));
+        Cache cache = manager.getCache(CacheNames.POSTS);
+        TwoLevelCache twoLevel = (TwoLevelCache) cache;
+
+        store.down.set(true);
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("v1", cache.get("a", () -> post("v" + loads.incrementAndGet())).getContent());
+        assertEquals("v1", cache.get("a", () -> post("v" + loads.incrementAndGet())).getContent());
+        assertTrue(twoLevel.isDegraded());
+        long errors = twoLevel.getRemoteErrors();
+        // 故障期间不再访问二级存储
+        cache.get("b", () -> post("x"));
+        assertEquals(errors, twoLevel.getRemoteErrors());
+
+        store.down.set(false);
+        Thread.sleep(1100);
+        cache.put("c", post("c"));
+        assertFalse(twoLevel.isDegraded());
+        assertTrue(store.values.containsKey("blog:cache:posts:c"));
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        TwoLevelCache cache = (TwoLevelCache) node(Duration.ofSeconds(30)).getCache(CacheNames.POSTS);
+        int threads = 16;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<PostDto>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get("hot", () -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    assertTrue(release.await(5, TimeUnit.SECONDS));
+                    return post("hot");
+                })));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            // 等其余线程都进入等待后再放行
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (cache.getCoalescedLoads() < threads - 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            Set<PostDto> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<PostDto> result : results) {
+                PostDto dto = result.get(5, TimeUnit.SECONDS);
+                assertEquals("hot", dto.getContent());
+                distinct.add(dto);
+            }
+            assertEquals(1, loads.get());
+            assertEquals(threads - 1, cache.getCoalescedLoads());
+            // 共享的是字节，每个调用方拿到各自的副本
+            assertEquals(threads, distinct.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failuresAndNullsAreNotCached() {
+        Cache cache = node(Duration.ofSeconds(30)).getCache(CacheNames.POSTS);
+
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("flaky", () -> {
+            throw new IllegalStateException("db down");
+        }));
+        assertEquals("ok", cache.get("flaky", () -> post("ok")).getContent());
+
+        assertNull(cache.get("missing", () -> null));
+        assertNull(cache.get("missing"));
+        assertFalse(store.values.containsKey("blog:cache:posts:missing"));
+    }
+
+    @Test
+    void pagesAndListsRoundTrip() {
+        SmileCacheSerializer serializer = new SmileCacheSerializer();
+        Page<PostDto> page = new PageImpl<>(List.of(post("a"), post("b")),
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "publishedAt")), 7);
+
+        @SuppressWarnings("unchecked")
+        Page<PostDto> copy = (Page<PostDto>) serializer.deserialize(serializer.serialize(page));
+        assertEquals(page.getContent(), copy.getContent());
+        assertEquals(7, copy.getTotalElements());
+        assertEquals(page.getPageable(), copy.getPageable());
+
+        List<TagDto> tags = List.of(TagDto.builder().id(1L).name("java").postCount(3).build());
+        assertEquals(tags, serializer.deserialize(serializer.serialize(tags)));
+    }
+
+    private CacheManager node(Duration retryInterval) {
+        CacheSpecProperties properties = new CacheSpecProperties();
+        CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec();
+        spec.setTwoLevel(true);
+        spec.setExpireAfterWrite(Duration.ofMinutes(5));
+        properties.getSpecs().put(CacheNames.POSTS, spec);
+        properties.getRedis().setRetryInterval(retryInterval);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("store", store);
+        beanFactory.registerSingleton("bus", bus);
+        return new CacheConfig().cacheManager(properties, beanFactory.getBeanProvider(NamedCacheLoader.class),
+                beanFactory.getBeanProvider(RemoteCacheStore.class), beanFactory.getBeanProvider(CacheInvalidationBus.class));
+    }
+
+    private static PostDto post(String content) {
+        return PostDto.builder()
+                .id(1L)
+                .slug("hello")
+                .content(content)
+                .status(PostStatus.PUBLISHED)
+                .publishedAt(LocalDateTime.of(2024, 5, 1, 12, 0))
+                .tags(List.of(TagDto.builder().id(2L).name("java").build()))
+                .build();
+    }
+
+    private static class InMemoryStore implements RemoteCacheStore {
+
+        final Map<String, byte[]> values = new ConcurrentHashMap<>();
+        final AtomicBoolean down = new AtomicBoolean();
+
+        @Override
+        public byte[] get(String key) {
+            check();
+            return values.get(key);
+        }
+
+        @Override
+        public void put(String key, byte[] value, Duration ttl) {
+            check();
+            values.put(key, value);
+        }
+
+        @Override
+        public void evict(String key) {
+            check();
+            values.remove(key);
+        }
+
+        @Override
+        public void clear(String keyPrefix) {
+            check();
+            values.keySet().removeIf(key -> key.startsWith(keyPrefix));
+        }
+
+        private void check() {
+            if (down.get()) {
+                throw new IllegalStateException("store down");
+            }
+        }
+    }
+
+    private static class InMemoryBus implements CacheInvalidationBus {
+
+        private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(CacheInvalidation invalidation) {
+            // 经过编码与解码，与 Redis 通道一致
+            CacheInvalidation received = CacheInvalidation.decode(invalidation.encode());
+            listeners.forEach(listener -> listener.accept(received));
+        }
+
+        @Override
+        public void subscribe(Consumer<CacheInvalidation> listener) {
+            listeners.add(listener);
+        }
+    }
+}
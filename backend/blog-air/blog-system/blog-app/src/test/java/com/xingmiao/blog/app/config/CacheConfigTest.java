@@ -0,0 +1,111 @@
+package com.xingmiao.blog.app.config;
+
+import com.xingmiao.blog.app.cache.CacheInvalidationBus;
+import com.xingmiao.blog.app.cache.NamedCacheLoader;
+import com.xingmiao.blog.app.cache.RemoteCacheStore;
+import com.xingmiao.blog.app.service.impl.CacheAdminServiceImpl;
+import com.xingmiao.blog.common.dto.CacheStatsDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    @Test
+    void specsBoundCachesAndRecordStats() {
+        CacheSpecProperties properties = new CacheSpecProperties();
+        CacheSpecProperties.Spec bySize = new CacheSpecProperties.Spec();
+        bySize.setMaximumSize(2);
+        bySize.setExpireAfterWrite(Duration.ofMinutes(5));
+        properties.getSpecs().put("small", bySize);
+        CacheSpecProperties.Spec byWeight = new CacheSpecProperties.Spec();
+        byWeight.setMaximumWeight(DataSize.ofBytes(1000));
+        properties.getSpecs().put("bytes", byWeight);
+        CacheManager manager = manager(properties, null);
+
+        Cache small = manager.getCache("small");
+        for (int i = 0; i < 10; i++) {
+            small.put(i, "v" + i);
+        }
+        small.get(9);
+        small.get("missing");
+        Cache bytes = manager.getCache("bytes");
+        for (int i = 0; i < 5; i++) {
+            bytes.put(i, new byte[400]);
+        }
+        cleanUp(small, bytes);
+
+        CacheStatsDto smallStats = stats(manager, "small");
+        assertEquals(2, smallStats.getSize());
+        assertEquals(2L, smallStats.getMaximum());
+        assertEquals(300, smallStats.getExpireAfterWriteSeconds());
+        assertEquals(1, smallStats.getHitCount());
+        assertEquals(1, smallStats.getMissCount());
+        assertEquals(8, smallStats.getEvictionCount());
+        CacheStatsDto byteStats = stats(manager, "bytes");
+        assertTrue(byteStats.isWeighted());
+        assertTrue(byteStats.getWeightedSize() <= 1000);
+        assertEquals(2, byteStats.getSize());
+    }
+
+    @Test
+    void unknownCacheNamesFailFast() {
+        CacheManager manager = manager(new CacheSpecProperties(), null);
+
+        assertThrows(IllegalArgumentException.class, () -> manager.getCache("github-contributions"));
+    }
+
+    @Test
+    void refreshAfterWriteRequiresLoader() {
+        CacheSpecProperties properties = new CacheSpecProperties();
+        CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec();
+        spec.setRefreshAfterWrite(Duration.ofMinutes(1));
+        properties.getSpecs().put("refreshing", spec);
+
+        assertThrows(IllegalStateException.class, () -> manager(properties, null));
+
+        AtomicInteger loads = new AtomicInteger();
+        CacheManager manager = manager(properties, new NamedCacheLoader() {
+            @Override
+            public String cacheName() {
+                return "refreshing";
+            }
+
+            @Override
+            public Object load(Object key) {
+                return key + "#" + loads.incrementAndGet();
+            }
+        });
+        assertEquals("a#1", manager.getCache("refreshing").get("a").get());
+    }
+
+    private static CacheManager manager(CacheSpecProperties properties, NamedCacheLoader loader) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        if (loader != null) {
+            beanFactory.registerSingleton("loader", loader);
+        }
+        return new CacheConfig().cacheManager(properties, beanFactory.getBeanProvider(NamedCacheLoader.class),
+                beanFactory.getBeanProvider(RemoteCacheStore.class), beanFactory.getBeanProvider(CacheInvalidationBus.class));
+    }
+
+    private static void cleanUp(Cache... caches) {
+        for (Cache cache : caches) {
+            ((CaffeineCache) cache).getNativeCache().cleanUp();
+        }
+    }
+
+    private static CacheStatsDto stats(CacheManager manager, String name) {
+        return new CacheAdminServiceImpl(manager, null).stats().stream()
+                .filter(s -> s.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
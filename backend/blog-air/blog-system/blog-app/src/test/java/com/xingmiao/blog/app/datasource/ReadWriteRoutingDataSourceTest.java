@@ -0,0 +1,146 @@
+package com.xingmiao.blog.app.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 以两个 H2 内存库分别充当主库与从库，各自写入不同的标记行以区分读到的是哪个库
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final AtomicBoolean replicaDown = new AtomicBoolean();
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = new DelegatingDataSource(database("replica")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (replicaDown.get()) {
+                    throw new SQLException("Connection refused");
+                }
+                return super.getConnection();
+            }
+        };
+        routing = new ReadWriteRoutingDataSource(primary, Map.of("r1", replica), Duration.ofSeconds(1));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadWriteRoutingDataSource.clearPrimaryRequired();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertEquals("replica", readOnly.execute(status -> source()));
+        assertEquals("primary", readWrite.execute(status -> source()));
+        assertEquals("primary", source(), "事务外的语句走主库");
+
+        readWrite.executeWithoutResult(status -> jdbc.update("UPDATE marker SET source = 'primary-updated'"));
+        assertEquals("replica", readOnly.execute(status -> source()));
+    }
+
+    @Test
+    void stickyRequestReadsPrimary() throws Exception {
+        AtomicReference<String> seen = new AtomicReference<>();
+        ReadYourWritesFilter filter = new ReadYourWritesFilter("blog_rw", Duration.ofMillis(1500),
+                List.of("/api/posts/*"));
+
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/posts/1"), writeResponse,
+                new MockFilterChain());
+        Cookie cookie = writeResponse.getCookie("blog_rw");
+        assertNotNull(cookie);
+        assertEquals(2, cookie.getMaxAge());
+
+        MockHttpServletRequest sticky = new MockHttpServletRequest("GET", "/api/posts/1");
+        sticky.setCookies(cookie);
+        filter.doFilter(sticky, new MockHttpServletResponse(),
+                (request, response) -> seen.set(readOnly.execute(status -> source())));
+        assertEquals("primary", seen.get());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/posts/1"), new MockHttpServletResponse(),
+                (request, response) -> seen.set(readOnly.execute(status -> source())));
+        assertEquals("replica", seen.get());
+
+        // 访客的写请求（点赞、AI 生成）不粘滞主库
+        MockHttpServletResponse likeResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/likes/post/1"), likeResponse,
+                (request, response) -> seen.set(readOnly.execute(status -> source())));
+        assertNull(likeResponse.getCookie("blog_rw"));
+        assertEquals("replica", seen.get());
+    }
+
+    @Test
+    void cacheLoadsReadPrimary() throws Exception {
+        assertEquals("primary", ReadWriteRoutingDataSource.callOnPrimary(() -> readOnly.execute(status -> source())));
+        assertEquals("replica", readOnly.execute(status -> source()), "加载结束后恢复路由");
+
+        ReadWriteRoutingDataSource.usePrimary();
+        ReadWriteRoutingDataSource.callOnPrimary(() -> null);
+        assertEquals("primary", readOnly.execute(status -> source()), "不清除粘滞请求的标记");
+    }
+
+    @Test
+    void fallsBackToPrimaryUntilReplicaRecovers() {
+        replicaDown.set(true);
+        assertEquals("primary", readOnly.execute(status -> source()));
+        assertFalse(routing.hasHealthyReplica());
+
+        routing.checkReplicas();
+        assertFalse(routing.hasHealthyReplica());
+        replicaDown.set(false);
+        assertEquals("primary", readOnly.execute(status -> source()), "恢复前不再尝试从库");
+
+        routing.checkReplicas();
+        assertTrue(routing.hasHealthyReplica());
+        assertEquals("replica", readOnly.execute(status -> source()));
+        assertEquals(2L, routing.stats().get("primaryReads"));
+    }
+
+    private String source() {
+        return jdbc.queryForObject("SELECT source FROM marker", String.class);
+    }
+
+    private static DataSource database(String source) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + source + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE marker (source VARCHAR(32))");
+        jdbc.update("INSERT INTO marker VALUES (?)", source);
+        return dataSource;
+    }
+}
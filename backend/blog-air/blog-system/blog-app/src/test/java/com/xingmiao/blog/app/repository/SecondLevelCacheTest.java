@@ -0,0 +1,134 @@
+package com.xingmiao.blog.app.repository;
+
+import com.xingmiao.blog.common.domain.entity.Category;
+import com.xingmiao.blog.common.domain.entity.Post;
+import com.xingmiao.blog.common.domain.entity.Tag;
+import com.xingmiao.blog.common.domain.enums.ContentType;
+import com.xingmiao.blog.common.domain.enums.PostStatus;
+import com.xingmiao.blog.common.domain.enums.Visibility;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 每次查询都在新的事务（新的持久化上下文）中执行，第二次起只能由二级缓存提供数据
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:l2-cache;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // JCache 的 CacheManager 在 JVM 内共享，与其他测试上下文的缓存区域隔开
+        "spring.jpa.properties.hibernate.cache.region_prefix=l2-cache-test",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void repeatLookupsIssueNoSql() {
+        Category backend = categoryRepository.save(Category.builder().name("后端").slug("backend-l2").build());
+        Tag java = tagRepository.save(Tag.builder().name("Java-l2").slug("java-l2").build());
+        Tag spring = tagRepository.save(Tag.builder().name("Spring-l2").slug("spring-l2").build());
+        Post post = postRepository.save(Post.builder()
+                .title("缓存")
+                .slug("l2-cache-post")
+                .content("正文")
+                .contentType(ContentType.MARKDOWN)
+                .status(PostStatus.PUBLISHED)
+                .visibility(Visibility.PUBLIC)
+                .category(backend)
+                .tags(new LinkedHashSet<>(Set.of(java, spring)))
+                .build());
+        entityManagerFactory.getCache().evictAll();
+
+        // 第一次：查询数据库并写入缓存
+        taxonomyLookups(backend, java, spring);
+        tagSlugs(post);
+        long statements = statistics.getPrepareStatementCount();
+        long collectionLoads = statistics.getCollectionLoadCount();
+        assertTrue(statistics.getSecondLevelCachePutCount() > 0);
+
+        // 第二次：分类、标签全部命中缓存，不执行 SQL
+        List<Object> again = taxonomyLookups(backend, java, spring);
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals("后端", ((Category) again.get(0)).getName());
+        assertEquals("Spring-l2", ((Tag) again.get(2)).getName());
+
+        // 文章本身不缓存，会查询文章行；标签集合来自缓存，不再查询关联表
+        assertEquals(Set.of("java-l2", "spring-l2"), tagSlugs(post));
+        assertEquals(collectionLoads, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void slugChangesUpdateTheNaturalIdCache() {
+        Tag tag = tagRepository.save(Tag.builder().name("Rename-l2").slug("old-slug-l2").build());
+        assertTrue(inTx(() -> tagRepository.findBySlug("old-slug-l2")).isPresent());
+
+        tx.executeWithoutResult(status -> tagRepository.findById(tag.getId()).orElseThrow().setSlug("new-slug-l2"));
+
+        assertTrue(inTx(() -> tagRepository.findBySlug("old-slug-l2")).isEmpty());
+        assertEquals(tag.getId(), inTx(() -> tagRepository.findBySlug("new-slug-l2")).orElseThrow().getId());
+        assertTrue(inTx(() -> tagRepository.findBySlug("missing-l2")).isEmpty());
+    }
+
+    private List<Object> taxonomyLookups(Category category, Tag java, Tag spring) {
+        Category byId = inTx(() -> categoryRepository.findById(category.getId()).orElseThrow());
+        Category bySlug = inTx(() -> categoryRepository.findBySlug("backend-l2").orElseThrow());
+        assertEquals(byId.getId(), bySlug.getId());
+        Tag javaBySlug = inTx(() -> tagRepository.findBySlug("java-l2").orElseThrow());
+        assertEquals(java.getId(), javaBySlug.getId());
+        Tag springById = inTx(() -> tagRepository.findById(spring.getId()).orElseThrow());
+        return List.of(bySlug, javaBySlug, springById);
+    }
+
+    private Set<String> tagSlugs(Post post) {
+        return inTx(() -> postRepository.findById(post.getId()).orElseThrow().getTags().stream()
+                .map(Tag::getSlug)
+                .collect(Collectors.toSet()));
+    }
+
+    private <T> T inTx(Supplier<T> action) {
+        return tx.execute(status -> action.get());
+    }
+}
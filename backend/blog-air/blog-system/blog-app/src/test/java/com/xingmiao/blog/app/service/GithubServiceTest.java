@@ -0,0 +1,225 @@
+package com.xingmiao.blog.app.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.xingmiao.blog.app.config.AuthorConfig;
+import com.xingmiao.blog.app.config.GithubProperties;
+import com.xingmiao.blog.common.dto.GithubContributionResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用本地 HTTP 服务替代 GitHub GraphQL 接口，验证缓存、后台刷新、失败回退与快照
+ */
+class GithubServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger count = new AtomicInteger(3);
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicReference<CountDownLatch> gate = new AtomicReference<>(new CountDownLatch(0));
+    private GithubProperties properties;
+    private GithubService service;
+    private ConcurrentMapCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/graphql", exchange -> {
+            calls.incrementAndGet();
+            try {
+                gate.get().await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"data\":{\"user\":{\"contributionsCollection\":{\"contributionCalendar\":{\"weeks\":["
+                    + "{\"contributionDays\":[{\"date\":\"2024-01-01\",\"contributionCount\":" + count.get() + "}]}"
+                    + "]}}}}}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.get(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        properties = new GithubProperties();
+        properties.setToken("test-token");
+        properties.setGraphqlUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/graphql");
+        properties.setRetryAfterFailure(Duration.ZERO);
+        properties.setSnapshotPath(tempDir.resolve("contributions.json").toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.get().countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void freshValueIsServedFromCache() {
+        service = newService(Duration.ofMinutes(5));
+
+        assertEquals(3, first(service.getContributionsData("octocat", null, null)).getCount());
+        assertEquals(3, first(service.getContributionsData("octocat", null, null)).getCount());
+        assertEquals(1, calls.get());
+
+        // 不同的日期范围是不同的缓存项
+        service.getContributionsData("octocat", "2024-01-01", "2024-12-31");
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void staleValueIsServedWhileSingleRefreshRuns() {
+        service = newService(Duration.ZERO);
+        service.getContributionsData("octocat", null, null);
+
+        // 让后台刷新卡住，期间的请求立即拿到旧值，且只发起一次刷新
+        gate.set(new CountDownLatch(1));
+        count.set(7);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(3, first(service.getContributionsData("octocat", null, null)).getCount());
+        }
+        await(() -> calls.get() == 2);
+        gate.get().countDown();
+
+        await(() -> first(service.getContributionsData("octocat", null, null)).getCount() == 7);
+    }
+
+    @Test
+    void lastGoodValueSurvivesUpstreamErrors() {
+        service = newService(Duration.ZERO);
+        service.getContributionsData("octocat", null, null);
+
+        status.set(502);
+        service.getContributionsData("octocat", null, null);
+        await(() -> calls.get() >= 2);
+        assertEquals(3, first(service.getContributionsData("octocat", null, null)).getCount());
+
+        // 没有旧值时把错误抛给调用方
+        assertThrows(RuntimeException.class, () -> service.getContributionsData("someone-else", null, null));
+    }
+
+    @Test
+    void evictedKeyServesLastGoodValue() {
+        service = newService(Duration.ofMinutes(5));
+        service.getContributionsData("octocat", null, null);
+        await(() -> Files.exists(tempDir.resolve("contributions.json")));
+
+        // 大量其他 key 把它挤出缓存后，GitHub 出错时仍返回上一次成功的结果，并在后台重新获取
+        cacheManager.getCache(GithubService.CONTRIBUTIONS_CACHE).clear();
+        status.set(502);
+        GithubService.Contributions contributions = service.getContributions("octocat", null, null);
+        assertEquals(3, first(contributions.data()).getCount());
+        await(() -> calls.get() == 2);
+    }
+
+    @Test
+    void onlyAuthorKeyIsSnapshottedAndRefreshed() throws Exception {
+        service = newService(Duration.ofMinutes(5));
+        service.getContributionsData("someone-else", null, null);
+        service.getContributionsData("octocat", "2024-01-01", "2024-12-31");
+        service.getContributionsData("octocat", null, null);
+        await(() -> Files.exists(tempDir.resolve("contributions.json")));
+
+        String snapshot = Files.readString(tempDir.resolve("contributions.json"));
+        assertFalse(snapshot.contains("someone-else"));
+        assertFalse(snapshot.contains("2024-12-31"));
+
+        // 定时刷新只请求作者的数据
+        service.refreshKnown();
+        await(() -> calls.get() == 4);
+        Thread.sleep(100);
+        assertEquals(4, calls.get());
+
+        // 访客的 key 被挤出缓存后不再有旧值可用
+        cacheManager.getCache(GithubService.CONTRIBUTIONS_CACHE).clear();
+        status.set(502);
+        assertThrows(RuntimeException.class, () -> service.getContributionsData("someone-else", null, null));
+        assertEquals(3, first(service.getContributionsData("octocat", null, null)).getCount());
+    }
+
+    @Test
+    void rejectsMalformedKeysWithoutCallingGithub() {
+        service = newService(Duration.ofMinutes(5));
+
+        assertThrows(IllegalArgumentException.class, () -> service.getContributions("octo\"}", null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.getContributions("-octocat", null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.getContributions("a".repeat(40), null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.getContributions("octocat", "2024-13-01", null));
+        assertThrows(IllegalArgumentException.class, () -> service.getContributions("octocat", null, "tomorrow"));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void snapshotServesColdStartWithoutGithub() {
+        service = newService(Duration.ofMinutes(5));
+        GithubService.Contributions fetched = service.getContributions("octocat", null, null);
+        await(() -> Files.exists(tempDir.resolve("contributions.json")));
+        service.shutdown();
+
+        // 重启后 GitHub 不可用且没有 token，仍直接返回快照并保留原获取时间
+        status.set(502);
+        properties.setToken("");
+        service = newService(Duration.ofMinutes(5));
+        service.loadSnapshot();
+        GithubService.Contributions restored = service.getContributions("octocat", null, null);
+
+        assertEquals(3, first(restored.data()).getCount());
+        assertEquals(fetched.fetchedAt().toEpochMilli(), restored.fetchedAt().toEpochMilli());
+        assertFalse(restored.stale());
+        assertEquals(1, calls.get());
+    }
+
+    private GithubService newService(Duration softTtl) {
+        properties.setSoftTtl(softTtl);
+        cacheManager = new ConcurrentMapCacheManager(GithubService.CONTRIBUTIONS_CACHE);
+        AuthorConfig authorConfig = new AuthorConfig();
+        authorConfig.setGithubUsername("octocat");
+        return new GithubService(properties, cacheManager, authorConfig);
+    }
+
+    private static GithubContributionResponse.ContributionData first(List<GithubContributionResponse.ContributionData> data) {
+        assertEquals(1, data.size());
+        return data.get(0);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("等待刷新超时");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+}
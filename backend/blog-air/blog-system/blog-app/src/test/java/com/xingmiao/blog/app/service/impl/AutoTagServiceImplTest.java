@@ -0,0 +1,268 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.xingmiao.blog.app.ai.CancellationScope;
+import com.xingmiao.blog.app.ai.UpstreamCancellation;
+import com.xingmiao.blog.app.config.AiAutoTagProperties;
+import com.xingmiao.blog.app.repository.BatchJobRepository;
+import com.xingmiao.blog.app.repository.CategoryRepository;
+import com.xingmiao.blog.app.repository.PostRepository;
+import com.xingmiao.blog.app.repository.TagRepository;
+import com.xingmiao.blog.app.repository.TagSuggestionRepository;
+import com.xingmiao.blog.common.domain.entity.Category;
+import com.xingmiao.blog.common.domain.entity.Post;
+import com.xingmiao.blog.common.domain.entity.Tag;
+import com.xingmiao.blog.common.domain.entity.TagSuggestion;
+import com.xingmiao.blog.common.domain.enums.BatchJobStatus;
+import com.xingmiao.blog.common.domain.enums.ContentType;
+import com.xingmiao.blog.common.domain.enums.PostStatus;
+import com.xingmiao.blog.common.domain.enums.SuggestionStatus;
+import com.xingmiao.blog.common.domain.enums.Visibility;
+import com.xingmiao.blog.common.dto.BatchJobDto;
+import com.xingmiao.blog.common.dto.TagSuggestionApplyResult;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 在 H2（MySQL 兼容模式）上验证任务检查点与批量应用 SQL
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:auto-tag;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AutoTagServiceImpl.class, AiAutoTagProperties.class, AutoTagServiceImplTest.ModelConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AutoTagServiceImplTest {
+
+    @Autowired
+    private AutoTagServiceImpl service;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private TagSuggestionRepository suggestionRepository;
+    @Autowired
+    private BatchJobRepository batchJobRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AiAutoTagProperties properties;
+
+    private Tag java;
+    private Tag spring;
+    private Category backend;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM post_tags");
+        suggestionRepository.deleteAll();
+        batchJobRepository.deleteAll();
+        postRepository.deleteAll();
+        tagRepository.deleteAll();
+        categoryRepository.deleteAll();
+        ModelConfig.HANGING.clear();
+
+        java = tagRepository.save(Tag.builder().name("Java").slug("java").build());
+        spring = tagRepository.save(Tag.builder().name("Spring").slug("spring").build());
+        backend = categoryRepository.save(Category.builder().name("后端").slug("backend").level(1).sortOrder(0).build());
+    }
+
+    @Test
+    void jobRecordsConstrainedSuggestionsAndCheckpoints() throws Exception {
+        Post first = post("Spring Boot 入门", null);
+        Post second = post("JVM 调优", null);
+
+        BatchJobDto started = service.start();
+        BatchJobDto job = awaitFinished();
+
+        assertEquals(BatchJobStatus.COMPLETED, job.getStatus());
+        assertEquals(started.getId(), job.getId());
+        assertEquals(2, job.getProcessed());
+        assertEquals(second.getId(), job.getCursorId());
+        List<TagSuggestion> suggestions = suggestionRepository.findAll();
+        assertEquals(2, suggestions.size());
+        TagSuggestion forFirst = suggestions.stream().filter(s -> s.getPostId().equals(first.getId())).findFirst().orElseThrow();
+        // 模型返回的“不存在的标签”被丢弃
+        assertEquals(Set.of(java.getId(), spring.getId()), Set.copyOf(jdbcTemplate.queryForList(
+                "SELECT tag_id FROM tag_suggestion_tags WHERE suggestion_id = ?", Long.class, forFirst.getId())));
+        assertEquals(backend.getId(), forFirst.getCategoryId());
+
+        // 已有建议的文章不会重复生成
+        service.start();
+        assertEquals(0, awaitFinished().getSucceeded());
+        assertEquals(2, suggestionRepository.count());
+    }
+
+    @Test
+    void timedOutSuggestionAbortsUpstreamGeneration() throws Exception {
+        Duration timeout = properties.getRequestTimeout();
+        properties.setRequestTimeout(Duration.ofMillis(200));
+        try {
+            post(ModelConfig.HANG + " 超时", null);
+
+            service.start();
+            BatchJobDto job = awaitFinished();
+
+            assertEquals(BatchJobStatus.COMPLETED, job.getStatus());
+            assertEquals(1, job.getFailed());
+            assertEquals(1, ModelConfig.HANGING.size());
+            assertTrue(ModelConfig.HANGING.get(0).isCancelled());
+        } finally {
+            properties.setRequestTimeout(timeout);
+        }
+    }
+
+    @Test
+    void stopAbortsInFlightGenerationsAndKeepsCheckpoint() throws Exception {
+        Post done = post("Spring Boot 入门", null);
+        post(ModelConfig.HANG + " 停止", null);
+
+        service.start();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (ModelConfig.HANGING.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, ModelConfig.HANGING.size());
+        service.stop();
+        BatchJobDto job = awaitFinished();
+
+        assertEquals(BatchJobStatus.STOPPED, job.getStatus());
+        assertTrue(ModelConfig.HANGING.get(0).isCancelled());
+        // 被中止的调用不计为失败，检查点不推进；已生成的建议照常保存
+        assertEquals(0, job.getFailed());
+        assertEquals(0, job.getProcessed());
+        assertEquals(0L, job.getCursorId());
+        assertEquals(1, job.getSucceeded());
+        assertEquals(List.of(done.getId()), suggestionRepository.findAll().stream().map(TagSuggestion::getPostId).toList());
+    }
+
+    @Test
+    void applyWritesPostTagsSetWise() {
+        Category existing = categoryRepository.save(Category.builder().name("随笔").slug("notes").level(1).sortOrder(1).build());
+        Post uncategorized = post("A", null);
+        Post categorized = post("B", existing);
+        Post rejected = post("C", null);
+        TagSuggestion a = suggestion(uncategorized, backend, java, spring);
+        suggestion(categorized, backend, java);
+        TagSuggestion c = suggestion(rejected, backend, spring);
+        assertEquals(1, service.reject(List.of(c.getId())));
+
+        TagSuggestionApplyResult result = service.apply(null);
+
+        assertEquals(2, result.getApplied());
+        assertEquals(3, result.getTagLinks());
+        assertEquals(1, result.getCategoriesSet());
+        assertEquals(2, count("SELECT COUNT(*) FROM post_tags WHERE post_id = ?", uncategorized.getId()));
+        assertEquals(0, count("SELECT COUNT(*) FROM post_tags WHERE post_id = ?", rejected.getId()));
+        assertEquals(backend.getId(), postRepository.findById(uncategorized.getId()).orElseThrow().getCategory().getId());
+        // 已有分类不被覆盖
+        assertEquals(existing.getId(), postRepository.findById(categorized.getId()).orElseThrow().getCategory().getId());
+        assertEquals(2, tagRepository.findById(java.getId()).orElseThrow().getPostCount());
+        assertEquals(1, tagRepository.findById(spring.getId()).orElseThrow().getPostCount());
+        assertEquals(SuggestionStatus.APPLIED, suggestionRepository.findById(a.getId()).orElseThrow().getStatus());
+
+        // 重复应用不会产生新的关联
+        assertEquals(0, service.apply(null).getTagLinks());
+    }
+
+    private BatchJobDto awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            BatchJobDto job = service.latestJob().orElseThrow();
+            if (job.getStatus() != BatchJobStatus.RUNNING) {
+                // 等运行标记复位，便于再次启动
+                Thread.sleep(50);
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        return fail("等待任务结束超时");
+    }
+
+    private Post post(String title, Category category) {
+        return postRepository.save(Post.builder()
+                .title(title)
+                .slug("post-" + title.hashCode())
+                .content(title + " 的正文")
+                .contentType(ContentType.MARKDOWN)
+                .status(PostStatus.PUBLISHED)
+                .visibility(Visibility.PUBLIC)
+                .category(category)
+                .build());
+    }
+
+    private TagSuggestion suggestion(Post post, Category category, Tag... tags) {
+        TagSuggestion suggestion = TagSuggestion.builder()
+                .postId(post.getId())
+                .categoryId(category.getId())
+                .build();
+        for (Tag tag : tags) {
+            suggestion.getTagIds().add(tag.getId());
+        }
+        return suggestionRepository.save(suggestion);
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+
+    @TestConfiguration
+    static class ModelConfig {
+
+        /**
+         * 标题含此标记的文章不返回结果，只记录调用绑定的取消作用域
+         */
+        static final String HANG = "[挂起]";
+        static final List<CancellationScope> HANGING = new CopyOnWriteArrayList<>();
+
+        /**
+         * 返回包含一个不存在标签的建议
+         */
+        @Bean
+        StreamingChatModel streamingChatModel() {
+            return new StreamingChatModel() {
+                @Override
+                public void doChat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+                    String prompt = ((UserMessage) chatRequest.messages().get(0)).singleText();
+                    assertTrue(prompt.contains("Java、Spring"));
+                    if (prompt.contains(HANG)) {
+                        HANGING.add(UpstreamCancellation.current());
+                        return;
+                    }
+                    String json = "```json\n{\"tags\":[\"spring\",\"Java\",\"Kotlin\"],\"category\":\"后端\"}\n```";
+                    handler.onPartialResponse(json);
+                    handler.onCompleteResponse(ChatResponse.builder().aiMessage(AiMessage.from(json)).build());
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.xingmiao.blog.app.repository.UploadSessionRepository;
+import com.xingmiao.blog.app.service.MediaService;
+import com.xingmiao.blog.app.storage.FileStorage;
+import com.xingmiao.blog.app.storage.LocalFileStorage;
+import com.xingmiao.blog.app.storage.StorageProperties;
+import com.xingmiao.blog.common.domain.entity.UploadSession;
+import com.xingmiao.blog.common.dto.ChunkedUploadInitRequest;
+import com.xingmiao.blog.common.dto.ChunkedUploadStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 以 16 字节分片验证分片上传协议：会话保存在 H2（MySQL 兼容模式）中，文件落到本地存储；
+ * 另建一个共用数据库与存储的服务实例模拟多副本部署
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:chunked-upload;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "upload.path=" + ChunkedUploadServiceImplTest.UPLOAD_PATH,
+        "upload.chunked.temp-path=" + ChunkedUploadServiceImplTest.TEMP_PATH,
+        "upload.chunked.max-file-size=1MB",
+        "upload.chunked.chunk-size=16B",
+        "upload.chunked.session-ttl=1h"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ChunkedUploadServiceImpl.class, LocalFileStorage.class, StorageProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChunkedUploadServiceImplTest {
+
+    static final String UPLOAD_PATH = "target/chunked-test-uploads";
+    static final String TEMP_PATH = "target/chunked-test-tmp";
+    private static final int CHUNK = 16;
+    private static final byte[] PNG = pngBytes(40);
+
+    @Autowired
+    private ChunkedUploadServiceImpl service;
+    @Autowired
+    private FileStorage fileStorage;
+    @Autowired
+    private UploadSessionRepository sessionRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @MockBean
+    private MediaService mediaService;
+
+    private final Path uploads = Paths.get(System.getProperty("user.dir"), UPLOAD_PATH);
+    private final Path temp = Paths.get(System.getProperty("user.dir"), TEMP_PATH);
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository.deleteAll();
+        FileSystemUtils.deleteRecursively(uploads.toFile());
+        FileSystemUtils.deleteRecursively(temp.toFile());
+    }
+
+    @Test
+    void resumesSessionWithSameFingerprintOnAnotherInstance() throws Exception {
+        ChunkedUploadStatus first = service.init(request("cover.png-40-1"));
+        service.writeChunk(first.getUploadId(), 0, CHUNK, chunk(0));
+
+        ChunkedUploadStatus resumed = replica().init(request("cover.png-40-1"));
+        assertEquals(first.getUploadId(), resumed.getUploadId());
+        assertEquals(3, resumed.getTotalChunks());
+        assertEquals(List.of(1, 2), resumed.getMissingChunks());
+
+        ChunkedUploadStatus other = service.init(request("cover.png-40-2"));
+        assertNotEquals(first.getUploadId(), other.getUploadId());
+    }
+
+    @Test
+    void rejectsFirstChunkWithWrongMagicBytes() throws Exception {
+        String uploadId = service.init(request(null)).getUploadId();
+        byte[] gif = Arrays.copyOf("GIF89a".getBytes(), CHUNK);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> service.writeChunk(uploadId, 0, CHUNK, new ByteArrayInputStream(gif)));
+        assertTrue(error.getMessage().contains("格式不一致"));
+        assertEquals(List.of(0, 1, 2), service.getStatus(uploadId).getMissingChunks());
+    }
+
+    @Test
+    void rejectsChunkWithWrongLength() throws Exception {
+        String uploadId = service.init(request(null)).getUploadId();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.writeChunk(uploadId, CHUNK, CHUNK - 1, chunk(1)));
+        // 未声明长度时按实际读到的字节数校验
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(uploadId, 2 * CHUNK, -1,
+                new ByteArrayInputStream(Arrays.copyOfRange(PNG, 2 * CHUNK, PNG.length - 1))));
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(uploadId, CHUNK, -1,
+                new ByteArrayInputStream(Arrays.copyOfRange(PNG, CHUNK, 2 * CHUNK + 1))));
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(uploadId, 5, -1, chunk(0)));
+        assertEquals(3, service.getStatus(uploadId).getMissingChunks().size());
+    }
+
+    @Test
+    void completesChunksWrittenOutOfOrderThroughDifferentInstances() throws Exception {
+        ChunkedUploadServiceImpl replica = replica();
+        String uploadId = service.init(request(null)).getUploadId();
+        replica.writeChunk(uploadId, 2 * CHUNK, -1, chunk(2));
+        service.writeChunk(uploadId, 0, CHUNK, chunk(0));
+        assertThrows(IllegalStateException.class, () -> replica.complete(uploadId));
+
+        assertTrue(replica.writeChunk(uploadId, CHUNK, CHUNK, chunk(1)).getCompleted());
+        Map<String, Object> result = replica.complete(uploadId);
+
+        String url = (String) result.get("url");
+        assertTrue(url.startsWith("/uploads/") && url.endsWith(".png"));
+        String key = url.substring("/uploads/".length());
+        assertArrayEquals(PNG, Files.readAllBytes(uploads.resolve(key)));
+        verify(mediaService).record(eq(key), eq("cover.png"), eq("image/png"), any());
+        assertThrows(IllegalArgumentException.class, () -> service.getStatus(uploadId));
+        assertEquals(0, sessionRepository.count());
+        assertTempEmpty();
+    }
+
+    @Test
+    void abortRejectsChunkInFlightAndLaterChunks() throws Exception {
+        String uploadId = service.init(request(null)).getUploadId();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream slowBody = new ByteArrayInputStream(chunk(1).readAllBytes()) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                if (pos == 0) {
+                    reading.countDown();
+                    await(release);
+                }
+                return super.read(b, off, len);
+            }
+        };
+
+        CompletableFuture<ChunkedUploadStatus> write = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.writeChunk(uploadId, CHUNK, CHUNK, slowBody);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        replica().abort(uploadId);
+        release.countDown();
+
+        // 取消后写完的分片不再记录
+        ExecutionException error = assertThrows(ExecutionException.class, () -> write.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        assertTempEmpty();
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(uploadId, 0, CHUNK, chunk(0)));
+    }
+
+    @Test
+    void cleanupRemovesInactiveSessions() throws Exception {
+        String stale = service.init(request(null)).getUploadId();
+        String active = service.init(request(null)).getUploadId();
+        transactionTemplate.executeWithoutResult(status -> {
+            UploadSession session = sessionRepository.findById(stale).orElseThrow();
+            session.setLastActiveAt(LocalDateTime.now().minusHours(2));
+        });
+
+        replica().cleanupExpiredSessions();
+
+        assertFalse(sessionRepository.existsById(stale));
+        assertTrue(sessionRepository.existsById(active));
+        try (var files = Files.list(temp)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    /**
+     * 共用数据库与存储的另一个实例
+     */
+    private ChunkedUploadServiceImpl replica() {
+        ChunkedUploadServiceImpl replica = new ChunkedUploadServiceImpl(fileStorage, mediaService,
+                sessionRepository, transactionTemplate);
+        ReflectionTestUtils.setField(replica, "maxFileSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(replica, "chunkSize", DataSize.ofBytes(CHUNK));
+        ReflectionTestUtils.setField(replica, "sessionTtl", Duration.ofHours(1));
+        return replica;
+    }
+
+    private void assertTempEmpty() throws IOException {
+        try (var files = Files.list(temp)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static ChunkedUploadInitRequest request(String fingerprint) {
+        return ChunkedUploadInitRequest.builder()
+                .fileName("cover.png")
+                .size((long) PNG.length)
+                .contentType("IMAGE/PNG")
+                .fingerprint(fingerprint)
+                .build();
+    }
+
+    private static InputStream chunk(int index) {
+        int from = index * CHUNK;
+        return new ByteArrayInputStream(Arrays.copyOfRange(PNG, from, Math.min(from + CHUNK, PNG.length)));
+    }
+
+    private static byte[] pngBytes(int size) {
+        byte[] bytes = new byte[size];
+        byte[] magic = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+        System.arraycopy(magic, 0, bytes, 0, magic.length);
+        for (int i = magic.length; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
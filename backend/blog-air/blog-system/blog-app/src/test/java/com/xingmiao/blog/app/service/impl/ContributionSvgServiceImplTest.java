@@ -0,0 +1,61 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.xingmiao.blog.app.service.ContributionSvgService.ContributionSvg;
+import com.xingmiao.blog.app.service.GithubService;
+import com.xingmiao.blog.common.dto.GithubContributionResponse.ContributionData;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ContributionSvgServiceImplTest {
+
+    @Test
+    void rendersOnceUntilDataChanges() throws Exception {
+        GithubService githubService = mock(GithubService.class);
+        List<ContributionData> year = year(LocalDate.of(2024, 1, 3), 3);
+        when(githubService.getContributionsData("octo<cat>", null, null)).thenReturn(year);
+        ContributionSvgServiceImpl service = new ContributionSvgServiceImpl(githubService,
+                new ConcurrentMapCacheManager(ContributionSvgServiceImpl.SVG_CACHE));
+
+        ContributionSvg first = service.render("octo<cat>");
+        String svg = new String(first.svg(), StandardCharsets.UTF_8);
+        assertTrue(svg.startsWith("<svg"));
+        assertTrue(svg.contains("@octo&lt;cat&gt;"));
+        // 每天一个格子，另有 5 个图例格子
+        assertEquals(366 + 5, svg.split("<rect ", -1).length - 1);
+        assertTrue(svg.contains("2024年1月3日: 3 次贡献"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertArrayEquals(first.svg(), in.readAllBytes());
+        }
+        assertTrue(first.gzip().length < first.svg().length / 4);
+
+        // 数据实例未变化时直接返回缓存
+        assertSame(first, service.render("octo<cat>"));
+
+        // 刷新后的数据会重新渲染并得到新的 ETag
+        when(githubService.getContributionsData("octo<cat>", null, null)).thenReturn(year(LocalDate.of(2024, 1, 3), 4));
+        assertNotEquals(first.etag(), service.render("octo<cat>").etag());
+    }
+
+    private static List<ContributionData> year(LocalDate start, int count) {
+        List<ContributionData> days = new ArrayList<>();
+        for (int i = 0; i < 366; i++) {
+            days.add(ContributionData.builder()
+                    .date(start.plusDays(i).toString())
+                    .count(i % 7 == 0 ? count : 0)
+                    .level(i % 5)
+                    .build());
+        }
+        return days;
+    }
+}
@@ -0,0 +1,205 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.sun.net.httpserver.HttpServer;
+import com.xingmiao.blog.app.config.ImageProxyProperties;
+import com.xingmiao.blog.app.storage.LocalFileStorage;
+import com.xingmiao.blog.app.storage.StorageProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 使用本地 HttpServer 模拟源站
+ */
+class ImageProxyServiceImplTest {
+
+    private static final byte[] PNG = pngBytes(2048);
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger imageHits = new AtomicInteger();
+    private ImageProxyProperties properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/image.png", exchange -> {
+            imageHits.incrementAndGet();
+            sleep(200);
+            exchange.getResponseHeaders().add("Content-Type", "image/png");
+            exchange.sendResponseHeaders(200, PNG.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(PNG);
+            }
+        });
+        server.createContext("/redirect", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/image.png");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        server.createContext("/huge", exchange -> {
+            // 不声明长度，只能在读取过程中截断
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(PNG);
+                for (int i = 0; i < 64; i++) {
+                    out.write(new byte[1024]);
+                }
+            } catch (IOException ignored) {
+                // 客户端提前断开
+            }
+        });
+        server.createContext("/page.html", exchange -> {
+            byte[] body = "<html></html>".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(Arrays.copyOf(PNG, 16));
+                out.flush();
+                sleep(5000);
+            } catch (IOException ignored) {
+                // 客户端超时断开
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        properties = new ImageProxyProperties();
+        properties.setCachePath(tempDir.resolve("cache").toString());
+        properties.setAllowPrivateHosts(true);
+        properties.setMaxBytes(DataSize.ofKilobytes(32));
+        properties.setReadTimeout(Duration.ofSeconds(1));
+        properties.setSigningKey("test-key");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private ImageProxyServiceImpl newService() {
+        LocalFileStorage storage = new LocalFileStorage(tempDir.resolve("uploads").toString(), tempDir.resolve("tmp").toString(), new StorageProperties());
+        return new ImageProxyServiceImpl(properties, storage);
+    }
+
+    @Test
+    void cachesImageOnDisk() throws Exception {
+        ImageProxyServiceImpl service = newService();
+
+        Path first = service.fetch(baseUrl + "/image.png");
+        Path second = service.fetch(baseUrl + "/image.png");
+
+        assertEquals(first, second);
+        assertTrue(first.getFileName().toString().endsWith(".png"));
+        assertArrayEquals(PNG, Files.readAllBytes(first));
+        assertEquals(1, imageHits.get());
+    }
+
+    @Test
+    void collapsesConcurrentFetches() throws Exception {
+        ImageProxyServiceImpl service = newService();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Path>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(() -> service.fetch(baseUrl + "/image.png"));
+            }
+            for (Future<Path> future : pool.invokeAll(tasks)) {
+                assertArrayEquals(PNG, Files.readAllBytes(future.get()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, imageHits.get());
+    }
+
+    @Test
+    void followsRedirects() throws Exception {
+        Path file = newService().fetch(baseUrl + "/redirect");
+        assertArrayEquals(PNG, Files.readAllBytes(file));
+    }
+
+    @Test
+    void rejectsOversizedBody() {
+        IOException e = assertThrows(IOException.class, () -> newService().fetch(baseUrl + "/huge"));
+        assertTrue(e.getMessage().contains("大小"));
+    }
+
+    @Test
+    void rejectsNonImageContent() {
+        assertThrows(IOException.class, () -> newService().fetch(baseUrl + "/page.html"));
+    }
+
+    @Test
+    void abortsSlowOrigin() {
+        long start = System.nanoTime();
+        assertThrows(IOException.class, () -> newService().fetch(baseUrl + "/slow"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 4000);
+    }
+
+    @Test
+    void rejectsPrivateHostsByDefault() {
+        properties.setAllowPrivateHosts(false);
+        assertThrows(IllegalArgumentException.class, () -> newService().fetch(baseUrl + "/image.png"));
+        assertEquals(0, imageHits.get());
+    }
+
+    @Test
+    void rewritesOnlyExternalImages() {
+        ImageProxyServiceImpl service = newService();
+        String content = "![a](https://example.com/a.png \"title\")\n![b](/uploads/2024/01/01/b.png)\n"
+                + "<img src=\"http://example.com/c.gif\" alt=\"c\">";
+
+        String rewritten = service.rewriteContent(content);
+
+        String proxied = service.proxyUrl("https://example.com/a.png");
+        assertTrue(rewritten.contains("![a](" + proxied + " \"title\")"));
+        assertTrue(rewritten.contains("![b](/uploads/2024/01/01/b.png)"));
+        assertTrue(rewritten.contains("<img src=\"" + service.proxyUrl("http://example.com/c.gif") + "\""));
+        assertTrue(service.verify("https://example.com/a.png", proxied.substring(proxied.indexOf("sig=") + 4)));
+        assertFalse(service.verify("https://example.com/other.png", proxied.substring(proxied.indexOf("sig=") + 4)));
+    }
+
+    private static byte[] pngBytes(int size) {
+        byte[] bytes = new byte[size];
+        byte[] magic = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+        System.arraycopy(magic, 0, bytes, 0, magic.length);
+        return bytes;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
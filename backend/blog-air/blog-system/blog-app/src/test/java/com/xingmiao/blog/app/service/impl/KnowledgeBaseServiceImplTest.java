@@ -0,0 +1,141 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.xingmiao.blog.app.ai.HashingEmbeddingModel;
+import com.xingmiao.blog.app.config.KnowledgeBaseProperties;
+import com.xingmiao.blog.app.event.PostChangedEvent;
+import com.xingmiao.blog.app.repository.PostRepository;
+import com.xingmiao.blog.common.domain.entity.Post;
+import com.xingmiao.blog.common.domain.enums.KnowledgeBaseStatus;
+import com.xingmiao.blog.common.domain.enums.PostStatus;
+import com.xingmiao.blog.common.domain.enums.Visibility;
+import com.xingmiao.blog.common.dto.KnowledgeSearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 使用本地哈希向量与内存中的文章验证索引构建、增量更新与持久化
+ */
+class KnowledgeBaseServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Map<Long, Post> posts = new ConcurrentHashMap<>();
+    private PostRepository postRepository;
+    private KnowledgeBaseProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        when(postRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(posts.get(inv.<Long>getArgument(0))));
+        when(postRepository.findIdsByStatusAndVisibilityAndDeletedAtIsNull(PostStatus.PUBLISHED, Visibility.PUBLIC))
+                .thenAnswer(inv -> posts.keySet().stream().sorted().toList());
+        properties = new KnowledgeBaseProperties();
+        properties.setIndexPath(tempDir.resolve("kb").toString());
+        properties.setMinScore(0.05f);
+
+        put(1L, "Redis 缓存穿透", "缓存穿透是指查询不存在的数据，请求每次都落到数据库。可以缓存空值或使用布隆过滤器拦截。");
+        put(2L, "Java 虚拟线程", "Java 21 的虚拟线程让阻塞式代码也能支撑大量并发连接，适合 IO 密集的服务。");
+        put(3L, "前端路由懒加载", "React 路由配合动态 import 按需加载页面组件，减小首屏脚本体积。");
+    }
+
+    @Test
+    void searchReturnsMostRelevantPost() {
+        KnowledgeBaseServiceImpl service = started();
+
+        List<KnowledgeSearchHit> hits = service.search("怎么避免缓存穿透打到数据库？", 3);
+
+        assertFalse(hits.isEmpty());
+        assertEquals(1L, hits.get(0).getPostId());
+        assertEquals("Redis 缓存穿透", hits.get(0).getTitle());
+        assertEquals(3, service.status().getPosts());
+        service.shutdown();
+    }
+
+    @Test
+    void postChangesUpdateIndex() {
+        KnowledgeBaseServiceImpl service = started();
+
+        // 改为草稿后不再被检索到
+        posts.get(2L).setStatus(PostStatus.DRAFT);
+        service.onPostChanged(new PostChangedEvent(2L));
+        await(() -> service.status().getPosts() == 2);
+        assertTrue(service.search("虚拟线程 并发", 3).stream().noneMatch(hit -> hit.getPostId() == 2L));
+
+        // 新发布的文章可以检索到
+        put(4L, "Kafka 消息积压", "消费者处理变慢会导致消息积压，可以扩容分区并增加消费者实例。");
+        service.onPostChanged(new PostChangedEvent(4L));
+        await(() -> service.status().getPosts() == 3);
+        assertEquals(4L, service.search("Kafka 消息积压怎么处理", 1).get(0).getPostId());
+        service.shutdown();
+    }
+
+    @Test
+    void indexIsPersistedAndReloaded() throws Exception {
+        KnowledgeBaseServiceImpl first = started();
+        int chunks = first.status().getChunks();
+        first.shutdown();
+        assertTrue(Files.exists(tempDir.resolve("kb").resolve("index.bin")));
+
+        // 重启后直接加载，不再读取文章
+        posts.clear();
+        KnowledgeBaseServiceImpl second = started();
+        assertEquals(chunks, second.status().getChunks());
+        assertEquals(1L, second.search("布隆过滤器", 1).get(0).getPostId());
+        second.shutdown();
+
+        // 向量模型变化后重新构建
+        properties.getEmbedding().setDimensions(128);
+        KnowledgeBaseServiceImpl third = started();
+        assertEquals(0, third.status().getChunks());
+        third.shutdown();
+    }
+
+    private KnowledgeBaseServiceImpl started() {
+        KnowledgeBaseServiceImpl service = new KnowledgeBaseServiceImpl(postRepository,
+                new HashingEmbeddingModel(properties.getEmbedding().getDimensions()), properties);
+        service.start();
+        await(() -> service.status().getStatus() == KnowledgeBaseStatus.ACTIVE && !service.status().isRebuilding());
+        return service;
+    }
+
+    private void put(Long id, String title, String content) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle(title);
+        post.setSlug("post-" + id);
+        post.setContent(content);
+        post.setStatus(PostStatus.PUBLISHED);
+        post.setVisibility(Visibility.PUBLIC);
+        posts.put(id, post);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("等待索引更新超时");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+}
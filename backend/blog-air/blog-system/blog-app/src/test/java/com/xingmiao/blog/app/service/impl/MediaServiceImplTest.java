@@ -0,0 +1,211 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.xingmiao.blog.app.repository.MediaRepository;
+import com.xingmiao.blog.app.repository.PostRepository;
+import com.xingmiao.blog.app.storage.LocalFileStorage;
+import com.xingmiao.blog.app.storage.StorageProperties;
+import com.xingmiao.blog.app.util.ImageInspector;
+import com.xingmiao.blog.common.domain.entity.Media;
+import com.xingmiao.blog.common.domain.entity.Post;
+import com.xingmiao.blog.common.domain.enums.ContentType;
+import com.xingmiao.blog.common.domain.enums.PostStatus;
+import com.xingmiao.blog.common.domain.enums.Visibility;
+import com.xingmiao.blog.common.dto.MediaDto;
+import com.xingmiao.blog.common.dto.MediaImportResult;
+import com.xingmiao.blog.common.dto.MediaLibraryPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 在 H2（MySQL 兼容模式）上验证媒体登记、游标分页与历史文件导入
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:media;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "upload.path=" + MediaServiceImplTest.UPLOAD_PATH
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({MediaServiceImpl.class, LocalFileStorage.class, StorageProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MediaServiceImplTest {
+
+    static final String UPLOAD_PATH = "target/media-test-uploads";
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 0};
+
+    @Autowired
+    private MediaServiceImpl service;
+    @Autowired
+    private MediaRepository mediaRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Path root = Paths.get(System.getProperty("user.dir"), UPLOAD_PATH);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        postRepository.deleteAll();
+        mediaRepository.deleteAll();
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    @Test
+    void concurrentRecordReusesExistingRowWithoutPoisoningCallerTransaction() throws Exception {
+        // 另一事务已插入同一 key 但尚未提交：本次查询看不到，插入时等待对方提交后触发唯一键冲突
+        CountDownLatch inserted = new CountDownLatch(1);
+        CompletableFuture<Media> other = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            Media media = mediaRepository.saveAndFlush(media("2025/01/01/a.png", "a.png", "image/png", 0));
+            inserted.countDown();
+            sleep(300);
+            return media;
+        }));
+        assertTrue(inserted.await(5, TimeUnit.SECONDS));
+
+        MediaDto recorded = transactionTemplate.execute(status -> {
+            mediaRepository.save(media("2025/01/01/b.png", "b.png", "image/png", 0));
+            return service.record("2025/01/01/a.png", "a.png", "image/png", info());
+        });
+
+        assertEquals(other.get(5, TimeUnit.SECONDS).getId(), recorded.getId());
+        assertEquals("/uploads/2025/01/01/a.png", recorded.getUrl());
+        assertTrue(mediaRepository.findByStorageKey("2025/01/01/b.png").isPresent(), "调用方事务正常提交");
+        assertEquals(2, mediaRepository.count());
+    }
+
+    @Test
+    void pagesByCursorWithFilters() {
+        Media first = mediaRepository.save(media("2025/01/01/cover.png", "Cover.png", "image/png", 1));
+        Media second = mediaRepository.save(media("2025/01/02/photo.jpg", "photo.jpg", "image/jpeg", 0));
+        Media third = mediaRepository.save(media("2025/01/03/diagram.png", "diagram.png", "image/png", 0));
+        Media fourth = mediaRepository.save(media("2025/01/04/banner.webp", "banner.webp", "image/webp", 2));
+        Media fifth = mediaRepository.save(media("2025/01/05/cover-2.png", "cover-2.png", "image/png", 0));
+
+        MediaLibraryPage page1 = service.list(null, 2, null, null, false);
+        assertEquals(List.of(fifth.getId(), fourth.getId()), ids(page1));
+        assertTrue(page1.isHasMore());
+        assertEquals(fourth.getId(), page1.getNextCursor());
+
+        MediaLibraryPage page2 = service.list(page1.getNextCursor(), 2, null, null, false);
+        assertEquals(List.of(third.getId(), second.getId()), ids(page2));
+        assertTrue(page2.isHasMore());
+
+        MediaLibraryPage page3 = service.list(page2.getNextCursor(), 2, null, null, false);
+        assertEquals(List.of(first.getId()), ids(page3));
+        assertFalse(page3.isHasMore());
+        assertNull(page3.getNextCursor());
+
+        assertEquals(List.of(fifth.getId(), third.getId(), first.getId()),
+                ids(service.list(null, 10, null, " image/png ", false)));
+        assertEquals(List.of(fifth.getId(), first.getId()), ids(service.list(null, 10, "COVER", null, false)));
+        assertEquals(List.of(second.getId()), ids(service.list(null, 10, "2025/01/02", null, false)));
+        assertEquals(List.of(fifth.getId(), third.getId()), ids(service.list(null, 10, null, "image/png", true)));
+        assertEquals(List.of(third.getId()), ids(service.list(fifth.getId(), 1, null, "image/png", true)));
+    }
+
+    @Test
+    void importExistingRegistersFilesAndRebuildsReferenceCounts() throws IOException {
+        write("2025/01/02/a.png", PNG);
+        write("2025/01/03/b.png", PNG);
+        write("2025/01/03/broken.png", new byte[]{1, 2, 3});
+        write("notes.txt", new byte[]{1});
+        mediaRepository.save(media("2025/01/03/b.png", "b.png", "image/png", 7));
+        mediaRepository.save(media("2025/01/04/gone.png", "gone.png", "image/png", 3));
+
+        post("first", "/uploads/2025/01/03/b.png", "![a](/uploads/2025/01/02/a.png) ![again](/uploads/2025/01/02/a.png)", null);
+        post("trashed", null, "![a](/uploads/2025/01/02/a.png)", LocalDateTime.now());
+        post("external", null, "![x](https://example.com/x.png)", null);
+
+        MediaImportResult result = service.importExisting();
+
+        assertEquals(4, result.getScanned());
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getSkipped());
+        assertEquals(1, result.getFailed());
+
+        Map<String, Media> byKey = mediaRepository.findAll().stream()
+                .collect(Collectors.toMap(Media::getStorageKey, Function.identity()));
+        Media imported = byKey.get("2025/01/02/a.png");
+        assertEquals("a.png", imported.getOriginalName());
+        assertEquals("image/png", imported.getMimeType());
+        assertEquals(LocalDateTime.of(2025, 1, 2, 0, 0), imported.getCreatedAt());
+        // 每篇文章（含回收站）计一次
+        assertEquals(2, imported.getReferenceCount());
+        assertEquals(1, byKey.get("2025/01/03/b.png").getReferenceCount());
+        assertEquals(0, byKey.get("2025/01/04/gone.png").getReferenceCount());
+        assertFalse(byKey.containsKey("2025/01/03/broken.png"));
+    }
+
+    private void write(String key, byte[] content) throws IOException {
+        Path path = root.resolve(key);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content);
+    }
+
+    private void post(String slug, String cover, String content, LocalDateTime deletedAt) {
+        postRepository.save(Post.builder()
+                .title(slug)
+                .slug(slug)
+                .content(content)
+                .coverImageUrl(cover)
+                .contentType(ContentType.MARKDOWN)
+                .status(PostStatus.PUBLISHED)
+                .visibility(Visibility.PUBLIC)
+                .deletedAt(deletedAt)
+                .build());
+    }
+
+    private static Media media(String key, String name, String mimeType, int references) {
+        return Media.builder()
+                .storageKey(key)
+                .originalName(name)
+                .contentHash("hash-" + name)
+                .size(10L)
+                .mimeType(mimeType)
+                .referenceCount(references)
+                .build();
+    }
+
+    private static ImageInspector.Result info() {
+        return new ImageInspector.Result("hash", 10, "image/png", 1, 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Long> ids(MediaLibraryPage page) {
+        return page.getItems().stream().map(MediaDto::getId).toList();
+    }
+}
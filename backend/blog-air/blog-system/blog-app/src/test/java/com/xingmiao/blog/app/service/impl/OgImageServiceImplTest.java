@@ -0,0 +1,119 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.xingmiao.blog.app.controller.OgImageController;
+import com.xingmiao.blog.app.service.CategoryService;
+import com.xingmiao.blog.app.service.PostService;
+import com.xingmiao.blog.common.dto.PostDto;
+import com.xingmiao.blog.common.dto.TagDto;
+import com.xingmiao.blog.common.exception.ServiceBusyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OgImageServiceImplTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private OgImageServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new OgImageServiceImpl(mock(CategoryService.class));
+        ReflectionTestUtils.setField(service, "cachePath", tempDir.toString());
+        ReflectionTestUtils.setField(service, "siteName", "星喵博客");
+        ReflectionTestUtils.setField(service, "siteUrl", "https://blog.example.com/");
+        ReflectionTestUtils.setField(service, "fontPath", "");
+        ReflectionTestUtils.setField(service, "maxConcurrentRenders", 2);
+        ReflectionTestUtils.setField(service, "renderWait", Duration.ofMillis(100));
+        service.init();
+    }
+
+    @Test
+    void versionChangesWithTitleAndEdits() {
+        PostDto post = post("分片上传与断点续传", "摘要");
+        String version = service.versionOf(post);
+
+        assertEquals(version, service.versionOf(post("分片上传与断点续传", "摘要")));
+        assertNotEquals(version, service.versionOf(post("分片上传与断点续传（修订）", "摘要")));
+        // 修改摘要等内容会刷新 updatedAt
+        PostDto edited = post("分片上传与断点续传", "新的摘要");
+        edited.setUpdatedAt(UPDATED_AT.plusMinutes(5));
+        assertNotEquals(version, service.versionOf(edited));
+    }
+
+    @Test
+    void servesCachedCardWithoutRendering() throws Exception {
+        PostDto post = post("Rendering Open Graph cards once per version", "摘要");
+
+        Path card = service.getCard(post);
+        BufferedImage image = ImageIO.read(card.toFile());
+        assertEquals(1200, image.getWidth());
+        assertEquals(630, image.getHeight());
+
+        // 改写缓存文件后再次请求仍原样返回，说明没有重新渲染
+        Files.write(card, new byte[]{1, 2, 3});
+        assertEquals(card, service.getCard(post));
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(card));
+
+        // 新版本渲染后删除旧版本
+        post.setTitle("Rendering Open Graph cards once per version (updated)");
+        Path updated = service.getCard(post);
+        assertNotEquals(card, updated);
+        assertFalse(Files.exists(card));
+    }
+
+    @Test
+    void returns503WhenRenderSlotsAreSaturated() throws Exception {
+        Semaphore permits = (Semaphore) ReflectionTestUtils.getField(service, "renderPermits");
+        permits.acquire(2);
+        PostDto post = post("繁忙时的分享卡片", "摘要");
+
+        long start = System.nanoTime();
+        ServiceBusyException error = assertThrows(ServiceBusyException.class, () -> service.getCard(post));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 100, "等满 render-wait 才放弃");
+        assertEquals(1, error.getRetryAfterSeconds());
+
+        PostService postService = mock(PostService.class);
+        when(postService.getBySlug("busy")).thenReturn(Optional.of(post));
+        ResponseEntity<?> response = new OgImageController(postService, service)
+                .postCard("busy", new ServletWebRequest(new MockHttpServletRequest("GET", "/api/og/posts/busy.png")));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        permits.release(2);
+        assertTrue(Files.exists(service.getCard(post)));
+    }
+
+    private static PostDto post(String title, String excerpt) {
+        return PostDto.builder()
+                .id(42L)
+                .title(title)
+                .excerpt(excerpt)
+                .tags(List.of(TagDto.builder().name("Java").build()))
+                .updatedAt(UPDATED_AT)
+                .build();
+    }
+}
@@ -0,0 +1,150 @@
+package com.xingmiao.blog.app.service.impl;
+
+import com.xingmiao.blog.app.repository.BatchJobRepository;
+import com.xingmiao.blog.app.repository.CategoryRepository;
+import com.xingmiao.blog.app.repository.PostRepository;
+import com.xingmiao.blog.app.repository.TagRepository;
+import com.xingmiao.blog.app.service.MediaService;
+import com.xingmiao.blog.common.domain.entity.Category;
+import com.xingmiao.blog.common.domain.entity.Post;
+import com.xingmiao.blog.common.domain.entity.Tag;
+import com.xingmiao.blog.common.domain.enums.BatchJobStatus;
+import com.xingmiao.blog.common.domain.enums.ContentType;
+import com.xingmiao.blog.common.domain.enums.PostStatus;
+import com.xingmiao.blog.common.domain.enums.Visibility;
+import com.xingmiao.blog.common.dto.BatchJobDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 在 H2（MySQL 兼容模式）上验证回收站的集合式恢复与分块删除
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:trash;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TrashServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TrashServiceImplTest {
+
+    @Autowired
+    private TrashServiceImpl service;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private BatchJobRepository batchJobRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockBean
+    private MediaService mediaService;
+
+    private Category backend;
+    private Tag java;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM post_tags");
+        postRepository.deleteAll();
+        tagRepository.deleteAll();
+        categoryRepository.deleteAll();
+        batchJobRepository.deleteAll();
+        backend = categoryRepository.save(Category.builder().name("后端").slug("backend").build());
+        java = tagRepository.save(Tag.builder().name("Java").slug("java").build());
+    }
+
+    @Test
+    void batchRestoreChecksCategoriesBeforeUpdating() {
+        Post trashed = post("trashed", true, "![a](/uploads/a.png)");
+        Post live = post("live", false, null);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            jdbcTemplate.update("UPDATE posts SET category_id = 999999 WHERE id = ?", trashed.getId());
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> service.batchRestore(List.of(trashed.getId(), live.getId())));
+        assertTrue(error.getMessage().contains("trashed"));
+        assertNotNull(postRepository.findById(trashed.getId()).orElseThrow().getDeletedAt());
+
+        jdbcTemplate.update("UPDATE posts SET category_id = ? WHERE id = ?", backend.getId(), trashed.getId());
+        service.batchRestore(List.of(trashed.getId(), live.getId()));
+        assertNull(postRepository.findById(trashed.getId()).orElseThrow().getDeletedAt());
+    }
+
+    @Test
+    void batchHardDeleteRemovesJoinRowsAndReleasesImagesPerPost() {
+        Post first = post("first", true, "![a](/uploads/a.png)");
+        Post second = post("second", true, "![a](/uploads/a.png) ![b](/uploads/b.png)");
+        Post live = post("live", false, "![a](/uploads/a.png)");
+
+        service.batchHardDelete(List.of(first.getId(), second.getId(), live.getId()));
+
+        assertEquals(List.of(live.getId()), postRepository.findAll().stream().map(Post::getId).toList());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM post_tags", Integer.class));
+        verify(mediaService).releaseReferences(List.<Collection<String>>of(
+                Set.of("/uploads/a.png"), Set.of("/uploads/a.png", "/uploads/b.png")));
+    }
+
+    @Test
+    void asyncHardDeleteReportsProgress() throws Exception {
+        Post first = post("first", true, null);
+        Post second = post("second", true, null);
+        Post live = post("live", false, null);
+
+        BatchJobDto started = service.startBatchHardDelete(List.of(second.getId(), live.getId(), first.getId()));
+        assertEquals(TrashServiceImpl.PURGE_JOB_TYPE, started.getType());
+
+        BatchJobDto job = started;
+        for (int i = 0; i < 100 && job.getStatus() == BatchJobStatus.RUNNING; i++) {
+            Thread.sleep(50);
+            job = service.getJob(started.getId()).orElseThrow();
+        }
+        assertEquals(BatchJobStatus.COMPLETED, job.getStatus());
+        assertEquals(3, job.getProcessed());
+        assertEquals(2, job.getSucceeded());
+        assertEquals(1, job.getFailed());
+        assertEquals(List.of(live.getId()), postRepository.findAll().stream().map(Post::getId).toList());
+    }
+
+    private Post post(String slug, boolean trashed, String content) {
+        return postRepository.save(Post.builder()
+                .title(slug)
+                .slug(slug)
+                .content(content == null ? "正文" : content)
+                .contentType(ContentType.MARKDOWN)
+                .status(PostStatus.PUBLISHED)
+                .visibility(Visibility.PUBLIC)
+                .category(backend)
+                .tags(new LinkedHashSet<>(Set.of(java)))
+                .deletedAt(trashed ? LocalDateTime.now() : null)
+                .build());
+    }
+}
@@ -0,0 +1,77 @@
+package com.xingmiao.blog.app.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalFileStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void mapsKeysToDefaultUploadsPath() {
+        LocalFileStorage storage = storage(null);
+
+        assertEquals("/uploads/2025/01/a.png", storage.publicUrl("2025/01/a.png"));
+        assertEquals("/uploads/2025/01/a.png", storage.publicUrl("/2025/01/a.png"));
+        assertEquals("2025/01/a.png", storage.keyOf("/uploads/2025/01/a.png?w=100#top"));
+        assertEquals("2025/01/a.png", storage.keyOf("(\"/uploads/2025/01/a.png\")"));
+        assertEquals("2025/01/a.png", storage.keyOf("https://blog.example.com/uploads/2025/01/a.png"));
+        assertNull(storage.keyOf("https://other.example.com/images/a.png"));
+        assertNull(storage.keyOf("/static/a.png"));
+        assertNull(storage.keyOf(" "));
+    }
+
+    @Test
+    void mapsKeysToCdnBaseUrl() {
+        LocalFileStorage storage = storage("https://cdn.example.com/uploads//");
+
+        assertEquals("https://cdn.example.com/uploads/2025/01/a.png", storage.publicUrl("2025/01/a.png"));
+        assertEquals("2025/01/a.png", storage.keyOf("https://cdn.example.com/uploads/2025/01/a.png?v=2"));
+        // 切换到 CDN 之前写入文章的本地地址仍能识别
+        assertEquals("2025/01/a.png", storage.keyOf("/uploads/2025/01/a.png"));
+        assertNull(storage.keyOf("https://cdn.example.com/other/a.png"));
+    }
+
+    @Test
+    void rejectsParentSegments() {
+        LocalFileStorage storage = storage(null);
+
+        assertNull(storage.keyOf("/uploads/../application.yml"));
+        assertNull(storage.keyOf("/uploads/2025/./a.png"));
+        assertNull(storage.keyOf("https://cdn.example.com/uploads/a/../../b.png"));
+        assertThrows(IllegalArgumentException.class, () -> storage.publicUrl("../a.png"));
+        assertThrows(IllegalArgumentException.class, () -> storage.exists("a/../../b.png"));
+        assertThrows(IllegalArgumentException.class,
+                () -> storage.store("..\\b.png", new ByteArrayInputStream(new byte[1]), 1, "image/png"));
+    }
+
+    @Test
+    void storesAndListsFiles() throws Exception {
+        LocalFileStorage storage = storage(null);
+        storage.store("2025/01/a.png", new ByteArrayInputStream(new byte[]{1, 2}), 2, "image/png");
+        Path source = Files.write(tempDir.resolve("b.part"), new byte[]{3});
+        storage.store("2025/02/b.png", source, "image/png");
+
+        assertFalse(Files.exists(source));
+        try (var keys = storage.listKeys()) {
+            assertEquals(Set.of("2025/01/a.png", "2025/02/b.png"), keys.collect(Collectors.toSet()));
+        }
+        assertTrue(storage.delete("2025/01/a.png"));
+        assertFalse(storage.exists("2025/01/a.png"));
+    }
+
+    private LocalFileStorage storage(String publicBaseUrl) {
+        StorageProperties properties = new StorageProperties();
+        properties.setPublicBaseUrl(publicBaseUrl);
+        return new LocalFileStorage(tempDir.resolve("uploads").toString(), tempDir.resolve("tmp").toString(), properties);
+    }
+}
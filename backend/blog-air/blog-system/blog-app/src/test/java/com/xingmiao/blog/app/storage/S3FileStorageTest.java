@@ -0,0 +1,349 @@
+package com.xingmiao.blog.app.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 使用本地 HttpServer 模拟 MinIO（path-style 的 S3 协议子集）
+ */
+class S3FileStorageTest {
+
+    private static final String BUCKET = "blog";
+
+    @TempDir
+    Path tempDir;
+
+    private FakeS3 s3;
+    private S3FileStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3 = new FakeS3();
+        StorageProperties properties = new StorageProperties();
+        StorageProperties.S3 config = properties.getS3();
+        config.setEndpoint("http://127.0.0.1:" + s3.port());
+        config.setBucket(BUCKET);
+        config.setAccessKey("minio");
+        config.setSecretKey("minio123");
+        config.setMultipartThreshold(DataSize.ofBytes(16));
+        config.setPartSize(DataSize.ofBytes(10));
+        storage = new S3FileStorage(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.close();
+        s3.stop();
+    }
+
+    @Test
+    void usesSinglePutUpToThresholdAndMultipartAbove() throws Exception {
+        byte[] small = bytes(16);
+        storage.store("a/small.png", new ByteArrayInputStream(small), small.length, "image/png");
+        assertEquals(1, s3.puts.get());
+        assertEquals(0, s3.createdUploads.get());
+
+        byte[] large = bytes(25);
+        storage.store("a/large.png", new ByteArrayInputStream(large), large.length, "image/png");
+        Path file = Files.write(tempDir.resolve("large.part"), large);
+        storage.store("a/from-file.png", file, "image/png");
+
+        assertEquals(1, s3.puts.get());
+        assertEquals(2, s3.createdUploads.get());
+        assertEquals(6, s3.uploadedParts.get(), "25 字节按 10 字节分为 3 段");
+        assertArrayEquals(small, s3.objects.get("uploads/a/small.png"));
+        assertArrayEquals(large, s3.objects.get("uploads/a/large.png"));
+        assertArrayEquals(large, s3.objects.get("uploads/a/from-file.png"));
+        assertFalse(Files.exists(file), "上传完成后删除源文件");
+        try (InputStream in = storage.open("a/large.png")) {
+            assertArrayEquals(large, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void abortsMultipartUploadWhenPartFails() {
+        s3.failPart = 2;
+        byte[] large = bytes(25);
+
+        assertThrows(IOException.class,
+                () -> storage.store("a/large.png", new ByteArrayInputStream(large), large.length, "image/png"));
+        assertEquals(1, s3.abortedUploads.get());
+        assertTrue(s3.uploads.isEmpty());
+        assertFalse(s3.objects.containsKey("uploads/a/large.png"));
+
+        // 流提前结束同样放弃上传
+        assertThrows(IOException.class,
+                () -> storage.store("a/short.png", new ByteArrayInputStream(bytes(12)), large.length, "image/png"));
+        assertEquals(2, s3.abortedUploads.get());
+    }
+
+    @Test
+    void writesChunkedUploadPartsOutOfOrder() throws Exception {
+        byte[] data = bytes(25);
+        String uploadId = storage.createMultipart("a/chunked.png", "image/png", data.length);
+        String third = storage.uploadPart("a/chunked.png", uploadId, 3, 20, new ByteArrayInputStream(data, 20, 5), 5);
+        String first = storage.uploadPart("a/chunked.png", uploadId, 1, 0, new ByteArrayInputStream(data, 0, 10), 10);
+        String second = storage.uploadPart("a/chunked.png", uploadId, 2, 10, new ByteArrayInputStream(data, 10, 10), 10);
+        storage.completeMultipart("a/chunked.png", uploadId, List.of(first, second, third));
+
+        assertArrayEquals(data, s3.objects.get("uploads/a/chunked.png"));
+        assertEquals(5L * 1024 * 1024, storage.minPartSize());
+
+        String aborted = storage.createMultipart("a/aborted.png", "image/png", 10);
+        storage.uploadPart("a/aborted.png", aborted, 1, 0, new ByteArrayInputStream(data, 0, 10), 10);
+        storage.abortMultipart("a/aborted.png", aborted);
+        assertTrue(s3.uploads.isEmpty());
+        assertFalse(s3.objects.containsKey("uploads/a/aborted.png"));
+        // 分段不完整时不发起请求
+        assertThrows(IOException.class, () -> storage.uploadPart("a/short.png", "missing", 1, 0,
+                new ByteArrayInputStream(data, 0, 4), 10));
+        assertEquals(4, s3.uploadedParts.get());
+    }
+
+    @Test
+    void listsKeysUnderPrefixOnly() throws Exception {
+        s3.objects.put("uploads/2025/01/a.png", bytes(1));
+        s3.objects.put("uploads/2025/02/b.png", bytes(1));
+        s3.objects.put("uploads/2025/", new byte[0]);
+        s3.objects.put("backups/db.sql", bytes(1));
+
+        try (var keys = storage.listKeys()) {
+            assertEquals(Set.of("2025/01/a.png", "2025/02/b.png"), keys.collect(Collectors.toSet()));
+        }
+        assertTrue(storage.exists("2025/01/a.png"));
+        assertTrue(storage.delete("2025/01/a.png"));
+        assertFalse(storage.exists("2025/01/a.png"));
+        assertFalse(storage.delete("2025/01/a.png"));
+    }
+
+    @Test
+    void rejectsParentSegmentsInKeys() {
+        assertThrows(IllegalArgumentException.class,
+                () -> storage.store("../secret.png", new ByteArrayInputStream(bytes(4)), 4, "image/png"));
+        assertThrows(IllegalArgumentException.class, () -> storage.exists("a/../../b.png"));
+        assertEquals(0, s3.puts.get());
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+
+    /**
+     * 只实现存储驱动用到的接口：对象读写删、ListObjectsV2 与分段上传
+     */
+    private static final class FakeS3 {
+
+        private final HttpServer server;
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final Map<String, TreeMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        private final AtomicInteger puts = new AtomicInteger();
+        private final AtomicInteger createdUploads = new AtomicInteger();
+        private final AtomicInteger uploadedParts = new AtomicInteger();
+        private final AtomicInteger abortedUploads = new AtomicInteger();
+        private volatile int failPart = -1;
+
+        private FakeS3() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", exchange -> {
+                try {
+                    handle(exchange);
+                } finally {
+                    exchange.close();
+                }
+            });
+            server.start();
+        }
+
+        private int port() {
+            return server.getAddress().getPort();
+        }
+
+        private void stop() {
+            server.stop(0);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), StandardCharsets.UTF_8);
+            String key = path.substring(("/" + BUCKET).length()).replaceFirst("^/", "");
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            if (method.equals("GET") && key.isEmpty()) {
+                String prefix = query.getOrDefault("prefix", "");
+                StringBuilder xml = new StringBuilder("<ListBucketResult><Name>" + BUCKET + "</Name><Prefix>")
+                        .append(prefix).append("</Prefix><IsTruncated>false</IsTruncated>");
+                new TreeMap<>(objects).forEach((k, v) -> {
+                    if (k.startsWith(prefix)) {
+                        xml.append("<Contents><Key>").append(k).append("</Key><Size>").append(v.length)
+                                .append("</Size></Contents>");
+                    }
+                });
+                sendXml(exchange, 200, xml.append("</ListBucketResult>").toString());
+            } else if (method.equals("POST") && query.containsKey("uploads")) {
+                String uploadId = UUID.randomUUID().toString();
+                uploads.put(uploadId, new TreeMap<>());
+                createdUploads.incrementAndGet();
+                sendXml(exchange, 200, "<InitiateMultipartUploadResult><Bucket>" + BUCKET + "</Bucket><Key>" + key
+                        + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+            } else if (method.equals("PUT") && query.containsKey("uploadId")) {
+                int partNumber = Integer.parseInt(query.get("partNumber"));
+                byte[] body = body(exchange);
+                if (partNumber == failPart) {
+                    sendXml(exchange, 400, "<Error><Code>InvalidPart</Code><Message>injected</Message></Error>");
+                    return;
+                }
+                uploads.get(query.get("uploadId")).put(partNumber, body);
+                uploadedParts.incrementAndGet();
+                sendEmpty(exchange, 200, md5(body));
+            } else if (method.equals("POST") && query.containsKey("uploadId")) {
+                body(exchange);
+                ByteArrayOutputStream joined = new ByteArrayOutputStream();
+                for (byte[] part : uploads.remove(query.get("uploadId")).values()) {
+                    joined.write(part);
+                }
+                objects.put(key, joined.toByteArray());
+                sendXml(exchange, 200, "<CompleteMultipartUploadResult><Bucket>" + BUCKET + "</Bucket><Key>" + key
+                        + "</Key><ETag>\"multipart-1\"</ETag></CompleteMultipartUploadResult>");
+            } else if (method.equals("DELETE") && query.containsKey("uploadId")) {
+                uploads.remove(query.get("uploadId"));
+                abortedUploads.incrementAndGet();
+                sendEmpty(exchange, 204, null);
+            } else if (method.equals("PUT")) {
+                byte[] body = body(exchange);
+                objects.put(key, body);
+                puts.incrementAndGet();
+                sendEmpty(exchange, 200, md5(body));
+            } else if (method.equals("HEAD") || method.equals("GET")) {
+                byte[] object = objects.get(key);
+                if (object == null) {
+                    if (method.equals("HEAD")) {
+                        sendEmpty(exchange, 404, null);
+                    } else {
+                        sendXml(exchange, 404, "<Error><Code>NoSuchKey</Code><Message>missing</Message></Error>");
+                    }
+                    return;
+                }
+                exchange.getResponseHeaders().add("ETag", "\"" + md5(object) + "\"");
+                if (method.equals("HEAD")) {
+                    exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.length));
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, object.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(object);
+                    }
+                }
+            } else if (method.equals("DELETE")) {
+                objects.remove(key);
+                sendEmpty(exchange, 204, null);
+            } else {
+                sendXml(exchange, 405, "<Error><Code>MethodNotAllowed</Code><Message>" + method + "</Message></Error>");
+            }
+        }
+
+        /**
+         * 明文 HTTP 下 SDK 以 aws-chunked 编码逐块签名上传，需要先解出原始数据
+         */
+        private static byte[] body(HttpExchange exchange) throws IOException {
+            byte[] raw = exchange.getRequestBody().readAllBytes();
+            String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+            if (sha == null || !sha.startsWith("STREAMING")) {
+                return raw;
+            }
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            int pos = 0;
+            while (pos < raw.length) {
+                int lineEnd = indexOfCrlf(raw, pos);
+                String header = new String(raw, pos, lineEnd - pos, StandardCharsets.US_ASCII);
+                int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+                if (size == 0) {
+                    break;
+                }
+                decoded.write(raw, lineEnd + 2, size);
+                pos = lineEnd + 2 + size + 2;
+            }
+            return decoded.toByteArray();
+        }
+
+        private static int indexOfCrlf(byte[] data, int from) {
+            for (int i = from; i < data.length - 1; i++) {
+                if (data[i] == '\r' && data[i + 1] == '\n') {
+                    return i;
+                }
+            }
+            return data.length;
+        }
+
+        private static Map<String, String> query(String rawQuery) {
+            Map<String, String> params = new HashMap<>();
+            if (rawQuery == null) {
+                return params;
+            }
+            for (String pair : rawQuery.split("&")) {
+                List<String> parts = Arrays.asList(pair.split("=", 2));
+                params.put(URLDecoder.decode(parts.get(0), StandardCharsets.UTF_8),
+                        parts.size() > 1 ? URLDecoder.decode(parts.get(1), StandardCharsets.UTF_8) : "");
+            }
+            return params;
+        }
+
+        private static void sendXml(HttpExchange exchange, int status, String xml) throws IOException {
+            byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/xml");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+
+        private static void sendEmpty(HttpExchange exchange, int status, String eTag) throws IOException {
+            if (eTag != null) {
+                exchange.getResponseHeaders().add("ETag", "\"" + eTag + "\"");
+            }
+            exchange.sendResponseHeaders(status, -1);
+        }
+
+        private static String md5(byte[] data) {
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.xingmiao.blog.app.util;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatWebServerFactoryCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 在内嵌 Tomcat 上按 application.yml 的 forward-headers-strategy=native 验证转发头的采信规则
+ */
+class ClientIpTest {
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private WebServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void usesRightMostUntrustedHopFromTrustedProxy() throws Exception {
+        // 本机（127.0.0.1）在默认可信代理范围内，相当于 nginx
+        start(null);
+
+        assertEquals("203.0.113.7", get("1.2.3.4, 203.0.113.7"));
+        // 右侧的内网地址是可信代理，继续向左取
+        assertEquals("203.0.113.7", get("1.2.3.4, 203.0.113.7, 10.0.0.2"));
+        assertEquals("127.0.0.1", get(null));
+    }
+
+    @Test
+    void ignoresForwardedHeadersFromUntrustedPeer() throws Exception {
+        // 对端不是可信代理：直连应用的请求自带的转发头一律忽略
+        start("10\\.9\\.9\\.9");
+
+        assertEquals("127.0.0.1", get("203.0.113.7"));
+    }
+
+    private void start(String internalProxies) {
+        ServerProperties properties = new ServerProperties();
+        properties.setForwardHeadersStrategy(ServerProperties.ForwardHeadersStrategy.NATIVE);
+        if (internalProxies != null) {
+            properties.getTomcat().getRemoteip().setInternalProxies(internalProxies);
+        }
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        new TomcatWebServerFactoryCustomizer(new MockEnvironment(), properties).customize(factory);
+        server = factory.getWebServer(context -> context.addServlet("ip", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.getWriter().write(ClientIp.of(request));
+            }
+        }).addMapping("/ip"));
+        server.start();
+    }
+
+    private String get(String forwardedFor) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/ip"));
+        if (forwardedFor != null) {
+            request.header("X-Forwarded-For", forwardedFor);
+        }
+        // 伪造的 X-Real-IP 不起作用
+        request.header("X-Real-IP", "198.51.100.9");
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+}
@@ -0,0 +1,91 @@
+package com.xingmiao.blog.common.domain.entity;
+
+import com.xingmiao.blog.common.domain.enums.BatchJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 后台批处理任务及其检查点，服务重启后从 cursor 之后继续
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "batch_jobs",
+       indexes = {
+               @Index(name = "idx_batch_jobs_type_status", columnList = "type,status")
+       })
+public class BatchJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    /**
+     * 任务类型，如 auto-tag
+     */
+    @Column(name = "type", nullable = false, length = 50)
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private BatchJobStatus status;
+
+    /**
+     * 检查点：已处理完的最大记录 ID
+     */
+    @Column(name = "cursor_id", nullable = false)
+    private Long cursorId;
+
+    @Column(name = "processed", nullable = false)
+    private Integer processed;
+
+    @Column(name = "succeeded", nullable = false)
+    private Integer succeeded;
+
+    @Column(name = "failed", nullable = false)
+    private Integer failed;
+
+    @Column(name = "message", length = 500)
+    private String message;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        if (startedAt == null) {
+            startedAt = now;
+        }
+        updatedAt = now;
+        if (cursorId == null) {
+            cursorId = 0L;
+        }
+        if (processed == null) {
+            processed = 0;
+        }
+        if (succeeded == null) {
+            succeeded = 0;
+        }
+        if (failed == null) {
+            failed = 0;
+        }
+    }
+
+    @PreUpdate
+    void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -2,6 +2,10 @@ package com.xingmiao.blog.common.domain.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 
@@ -19,6 +23,8 @@ import java.time.LocalDateTime;
        uniqueConstraints = {
                @UniqueConstraint(name = "uk_categories_slug", columnNames = {"slug"})
        })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
+@NaturalIdCache(region = "category-slug")
 public class Category {
 
     @Id
@@ -29,6 +35,7 @@ public class Category {
     @Column(name = "name", nullable = false, length = 100)
     private String name;
 
+    @NaturalId(mutable = true)
     @Column(name = "slug", nullable = false, length = 100)
     private String slug;
 
@@ -1,6 +1,7 @@
 package com.xingmiao.blog.common.domain.entity;
 
 import com.xingmiao.blog.common.domain.enums.LikeTargetType;
+import com.xingmiao.blog.common.domain.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -24,7 +25,7 @@ import java.time.LocalDateTime;
 public class Like {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -0,0 +1,78 @@
+package com.xingmiao.blog.common.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 媒体库记录：每个上传文件一条，列表查询不再需要遍历上传目录
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "media",
+       indexes = {
+               @Index(name = "idx_media_content_hash", columnList = "content_hash"),
+               @Index(name = "idx_media_mime_type", columnList = "mime_type,id"),
+               @Index(name = "idx_media_reference_count", columnList = "reference_count,id")
+       },
+       uniqueConstraints = {
+               @UniqueConstraint(name = "uk_media_storage_key", columnNames = {"storage_key"})
+       })
+public class Media {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    /**
+     * 存储 key，如 2024/01/01/xxx.png
+     */
+    @Column(name = "storage_key", nullable = false, length = 255)
+    private String storageKey;
+
+    @Column(name = "original_name", length = 255)
+    private String originalName;
+
+    /**
+     * 文件内容的 SHA-256（十六进制）
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    @Column(name = "mime_type", length = 50)
+    private String mimeType;
+
+    /**
+     * 引用该文件的文章数（封面与正文图片）
+     */
+    @Column(name = "reference_count", nullable = false)
+    private Integer referenceCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (referenceCount == null) {
+            referenceCount = 0;
+        }
+    }
+}
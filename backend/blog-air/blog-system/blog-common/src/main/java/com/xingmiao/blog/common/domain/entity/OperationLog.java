@@ -1,6 +1,7 @@
 package com.xingmiao.blog.common.domain.entity;
 
 import com.xingmiao.blog.common.domain.enums.OperationStatus;
+import com.xingmiao.blog.common.domain.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -22,7 +23,7 @@ import java.time.LocalDateTime;
 public class OperationLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     @Column(name = "id", nullable = false)
     private Long id;
 
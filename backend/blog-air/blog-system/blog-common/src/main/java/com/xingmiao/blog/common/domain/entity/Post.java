@@ -3,8 +3,11 @@ package com.xingmiao.blog.common.domain.entity;
 import com.xingmiao.blog.common.domain.enums.ContentType;
 import com.xingmiao.blog.common.domain.enums.PostStatus;
 import com.xingmiao.blog.common.domain.enums.Visibility;
+import com.xingmiao.blog.common.domain.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.LinkedHashSet;
@@ -33,7 +36,7 @@ import java.util.Set;
 public class Post {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -100,6 +103,7 @@ public class Post {
     private LocalDateTime updatedAt;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "post-tags")
     @JoinTable(
             name = "post_tags",
             joinColumns = @JoinColumn(name = "post_id"),
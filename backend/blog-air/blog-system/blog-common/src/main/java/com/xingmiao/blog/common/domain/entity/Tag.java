@@ -2,6 +2,10 @@ package com.xingmiao.blog.common.domain.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 
@@ -19,6 +23,8 @@ import java.time.LocalDateTime;
                @UniqueConstraint(name = "uk_tags_name", columnNames = {"name"}),
                @UniqueConstraint(name = "uk_tags_slug", columnNames = {"slug"})
        })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tag")
+@NaturalIdCache(region = "tag-slug")
 public class Tag {
 
     @Id
@@ -29,6 +35,7 @@ public class Tag {
     @Column(name = "name", nullable = false, length = 50)
     private String name;
 
+    @NaturalId(mutable = true)
     @Column(name = "slug", nullable = false, length = 50)
     private String slug;
 
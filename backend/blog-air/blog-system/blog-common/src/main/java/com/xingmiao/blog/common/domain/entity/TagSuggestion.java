@@ -0,0 +1,78 @@
+package com.xingmiao.blog.common.domain.entity;
+
+import com.xingmiao.blog.common.domain.enums.SuggestionStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 自动打标签生成的建议：每篇文章一条，审核后批量应用
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "tag_suggestions",
+       indexes = {
+               @Index(name = "idx_tag_suggestions_status", columnList = "status,id")
+       },
+       uniqueConstraints = {
+               @UniqueConstraint(name = "uk_tag_suggestions_post_id", columnNames = {"post_id"})
+       })
+public class TagSuggestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    /**
+     * 建议的标签，均来自现有标签
+     */
+    @Builder.Default
+    @ElementCollection
+    @CollectionTable(name = "tag_suggestion_tags", joinColumns = @JoinColumn(name = "suggestion_id"))
+    @Column(name = "tag_id", nullable = false)
+    private Set<Long> tagIds = new LinkedHashSet<>();
+
+    /**
+     * 建议的分类，来自现有分类，可为空
+     */
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private SuggestionStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        updatedAt = now;
+        if (status == null) {
+            status = SuggestionStatus.PENDING;
+        }
+    }
+
+    @PreUpdate
+    void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,97 @@
+package com.xingmiao.blog.common.domain.entity;
+
+import com.xingmiao.blog.common.domain.enums.UploadSessionStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 分片上传会话：分片写入存储的分段上传，会话与已接收分片记录在数据库中，任意实例都能继续上传
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "upload_sessions",
+       indexes = {
+               @Index(name = "idx_upload_sessions_fingerprint", columnList = "fingerprint"),
+               @Index(name = "idx_upload_sessions_last_active", columnList = "last_active_at")
+       })
+public class UploadSession {
+
+    @Id
+    @Column(name = "id", length = 32, nullable = false)
+    private String id;
+
+    /**
+     * 客户端生成的文件指纹，用于断线后续传
+     */
+    @Column(name = "fingerprint")
+    private String fingerprint;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "content_type", length = 100, nullable = false)
+    private String contentType;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    @Column(name = "chunk_size", nullable = false)
+    private Integer chunkSize;
+
+    @Column(name = "total_chunks", nullable = false)
+    private Integer totalChunks;
+
+    /**
+     * 合并后的文件 key
+     */
+    @Column(name = "storage_key", nullable = false)
+    private String storageKey;
+
+    /**
+     * 存储侧的分段上传标识
+     */
+    @Column(name = "storage_upload_id", length = 1024, nullable = false)
+    private String storageUploadId;
+
+    /**
+     * 已接收的分片：分片序号（从 0 开始）-> 存储返回的分段标识
+     */
+    @Builder.Default
+    @ElementCollection
+    @CollectionTable(name = "upload_session_parts", joinColumns = @JoinColumn(name = "session_id"))
+    @MapKeyColumn(name = "chunk_index")
+    @Column(name = "part_tag", nullable = false)
+    private Map<Integer, String> parts = new TreeMap<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private UploadSessionStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_active_at", nullable = false)
+    private LocalDateTime lastActiveAt;
+
+    @PrePersist
+    void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        if (lastActiveAt == null) {
+            lastActiveAt = now;
+        }
+        if (status == null) {
+            status = UploadSessionStatus.OPEN;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.xingmiao.blog.common.domain.enums;
+
+public enum BatchJobStatus {
+    RUNNING,    // 执行中（服务重启后从检查点继续）
+    STOPPED,    // 已手动停止
+    COMPLETED,  // 已完成
+    FAILED      // 异常终止
+}
@@ -0,0 +1,7 @@
+package com.xingmiao.blog.common.domain.enums;
+
+public enum SuggestionStatus {
+    PENDING,    // 待审核
+    APPLIED,    // 已应用到文章
+    REJECTED    // 已驳回
+}
@@ -0,0 +1,6 @@
+package com.xingmiao.blog.common.domain.enums;
+
+public enum UploadSessionStatus {
+    OPEN,       // 接收分片中
+    COMPLETING  // 合并中，不再接收分片
+}
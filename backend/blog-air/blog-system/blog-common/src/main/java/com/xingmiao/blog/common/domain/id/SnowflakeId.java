@@ -0,0 +1,20 @@
+package com.xingmiao.blog.common.domain.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 主键由应用在持久化时生成（{@link Snowflake}），不依赖数据库自增，插入可批量执行。
+ *
+ * <p>沿用原有的 AUTO_INCREMENT 列即可：新 ID 远大于已有的自增 ID，不会冲突，按 ID 排序仍与创建顺序一致。
+ * 多实例部署时每个实例需配置不同的 {@code blog.id.node-id}（Hibernate 配置项，0-31）。</p>
+ */
+@IdGeneratorType(SnowflakeIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+}
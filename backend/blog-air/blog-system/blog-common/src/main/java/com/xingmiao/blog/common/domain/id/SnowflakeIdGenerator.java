@@ -0,0 +1,46 @@
+package com.xingmiao.blog.common.domain.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link SnowflakeId} 的 Hibernate 主键生成器，同一节点号的所有实体共用一个 {@link Snowflake}
+ */
+public class SnowflakeIdGenerator implements BeforeExecutionGenerator {
+
+    /**
+     * 节点号配置项，经 {@code spring.jpa.properties.blog.id.node-id} 传入
+     */
+    public static final String NODE_ID_SETTING = "blog.id.node-id";
+
+    private static final Map<Integer, Snowflake> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Snowflake snowflake;
+
+    public SnowflakeIdGenerator(SnowflakeId config, Member member, CustomIdGeneratorCreationContext context) {
+        Object nodeId = context.getServiceRegistry().getService(ConfigurationService.class)
+                .getSettings().get(NODE_ID_SETTING);
+        int node = nodeId == null ? 0 : Integer.parseInt(nodeId.toString().trim());
+        this.snowflake = INSTANCES.computeIfAbsent(node, Snowflake::new);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return snowflake.nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,30 @@
+package com.xingmiao.blog.common.dto;
+
+import com.xingmiao.blog.common.domain.enums.BatchJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 批处理任务进度
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchJobDto {
+    private Long id;
+    private String type;
+    private BatchJobStatus status;
+    private Long cursorId;
+    private int processed;
+    private int succeeded;
+    private int failed;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,75 @@
+package com.xingmiao.blog.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 单个缓存的容量策略与命中统计（自启动以来累计）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDto {
+
+    private String name;
+
+    /**
+     * 当前条目数（近似值）
+     */
+    private long size;
+
+    /**
+     * 容量上限：按条目数或估算字节数
+     */
+    private Long maximum;
+
+    /**
+     * 是否按估算字节数限制容量
+     */
+    private boolean weighted;
+
+    /**
+     * 当前估算字节数，仅按字节数限制时有值
+     */
+    private Long weightedSize;
+
+    private Long expireAfterWriteSeconds;
+
+    private Long expireAfterAccessSeconds;
+
+    private Long refreshAfterWriteSeconds;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private double hitRate;
+
+    private long evictionCount;
+
+    private long loadFailureCount;
+
+    /**
+     * 是否为两级缓存（本地 + Redis）
+     */
+    private boolean twoLevel;
+
+    /**
+     * Redis 出错，暂时只使用本地缓存
+     */
+    private boolean degraded;
+
+    private long remoteHitCount;
+
+    private long remoteMissCount;
+
+    private long remoteErrorCount;
+
+    /**
+     * 未命中时等待同 key 的其他请求加载、未重复查询的次数
+     */
+    private long coalescedLoadCount;
+}
@@ -0,0 +1,37 @@
+package com.xingmiao.blog.common.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "分片上传初始化请求")
+public class ChunkedUploadInitRequest {
+
+    @NotBlank(message = "文件名不能为空")
+    @Size(max = 255, message = "文件名长度不能超过255个字符")
+    @Schema(description = "原始文件名", example = "cover.png", required = true)
+    private String fileName;
+
+    @NotNull(message = "文件大小不能为空")
+    @Positive(message = "文件大小必须大于0")
+    @Schema(description = "文件总大小（字节）", example = "10485760", required = true)
+    private Long size;
+
+    @NotBlank(message = "文件类型不能为空")
+    @Schema(description = "文件 MIME 类型", example = "image/png", required = true)
+    private String contentType;
+
+    @Size(max = 200, message = "文件指纹长度不能超过200个字符")
+    @Schema(description = "客户端文件指纹（如 名称-大小-修改时间），相同指纹的未完成上传会被续传", example = "cover.png-10485760-1700000000000")
+    private String fingerprint;
+}
@@ -0,0 +1,26 @@
+package com.xingmiao.blog.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkedUploadStatus {
+    private String uploadId;
+    private String fileName;
+    private Long size;
+    private Integer chunkSize;
+    private Integer totalChunks;
+    private Integer receivedChunks;
+    /**
+     * 尚未收到的分片序号，客户端断线后据此续传
+     */
+    private List<Integer> missingChunks;
+    private Boolean completed;
+}
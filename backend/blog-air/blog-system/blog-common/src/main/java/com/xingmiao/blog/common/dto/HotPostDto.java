@@ -0,0 +1,47 @@
+package com.xingmiao.blog.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 当前窗口内的热点文章
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotPostDto {
+
+    private String slug;
+
+    /**
+     * 窗口内的估计访问次数
+     */
+    private long requests;
+
+    /**
+     * 估计值可能偏高的上限
+     */
+    private long error;
+
+    /**
+     * 响应是否已固定在热点缓存中
+     */
+    private boolean pinned;
+
+    /**
+     * 固定的响应字节数
+     */
+    private Long pinnedBytes;
+
+    private Instant pinnedAt;
+
+    /**
+     * 固定以来直接由热点缓存返回的次数
+     */
+    private long pinnedHits;
+}
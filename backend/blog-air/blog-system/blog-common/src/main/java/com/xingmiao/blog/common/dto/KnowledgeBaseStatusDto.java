@@ -0,0 +1,40 @@
+package com.xingmiao.blog.common.dto;
+
+import com.xingmiao.blog.common.domain.enums.KnowledgeBaseStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 知识库状态
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KnowledgeBaseStatusDto {
+
+    /**
+     * ACTIVE：索引可用；INACTIVE：未启用或尚未构建完成
+     */
+    private KnowledgeBaseStatus status;
+
+    /**
+     * 是否正在全量重建
+     */
+    private boolean rebuilding;
+
+    private int posts;
+
+    private int chunks;
+
+    /**
+     * 向量模型标识（模型或维度变化时自动重建索引）
+     */
+    private String embeddingModel;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,32 @@
+package com.xingmiao.blog.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 知识库检索命中的文章片段
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KnowledgeSearchHit {
+
+    private Long postId;
+
+    private String title;
+
+    private String slug;
+
+    /**
+     * 片段原文
+     */
+    private String text;
+
+    /**
+     * 余弦相似度，越大越相关
+     */
+    private float score;
+}
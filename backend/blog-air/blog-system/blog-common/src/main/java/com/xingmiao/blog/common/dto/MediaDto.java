@@ -0,0 +1,26 @@
+package com.xingmiao.blog.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaDto {
+    private Long id;
+    private String url;
+    private String storageKey;
+    private String originalName;
+    private String contentHash;
+    private Long size;
+    private Integer width;
+    private Integer height;
+    private String mimeType;
+    private Integer referenceCount;
+    private LocalDateTime createdAt;
+}
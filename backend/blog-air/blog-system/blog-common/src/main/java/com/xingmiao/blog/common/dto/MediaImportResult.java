@@ -0,0 +1,21 @@
+package com.xingmiao.blog.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 已有上传文件导入媒体库的结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaImportResult {
+    private int scanned;
+    private int imported;
+    private int skipped;
+    private int failed;
+    private long durationMs;
+}
@@ -0,0 +1,24 @@
+package com.xingmiao.blog.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 媒体库分页结果（游标分页）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaLibraryPage {
+    private List<MediaDto> items;
+    /**
+     * 下一页游标，传给下一次请求的 cursor 参数；没有更多数据时为 null
+     */
+    private Long nextCursor;
+    private boolean hasMore;
+}
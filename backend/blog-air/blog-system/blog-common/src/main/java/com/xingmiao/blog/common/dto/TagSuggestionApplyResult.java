@@ -0,0 +1,28 @@
+package com.xingmiao.blog.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量应用建议的结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagSuggestionApplyResult {
+    /**
+     * 标记为已应用的建议数
+     */
+    private int applied;
+    /**
+     * 新增的文章-标签关联数
+     */
+    private int tagLinks;
+    /**
+     * 设置了分类的文章数（只补全没有分类的文章）
+     */
+    private int categoriesSet;
+}
@@ -0,0 +1,28 @@
+package com.xingmiao.blog.common.dto;
+
+import com.xingmiao.blog.common.domain.enums.SuggestionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 待审核的标签与分类建议
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagSuggestionDto {
+    private Long id;
+    private Long postId;
+    private String postTitle;
+    private List<TagDto> tags;
+    private Long categoryId;
+    private String categoryName;
+    private SuggestionStatus status;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.xingmiao.blog.common.exception;
+
+/**
+ * 服务繁忙（并发或队列已满），调用方应稍后重试
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
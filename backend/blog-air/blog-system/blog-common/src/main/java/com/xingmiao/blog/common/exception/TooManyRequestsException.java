@@ -0,0 +1,18 @@
+package com.xingmiao.blog.common.exception;
+
+/**
+ * 单个调用方的并发请求数超过限制，调用方应等待已有请求结束后重试
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
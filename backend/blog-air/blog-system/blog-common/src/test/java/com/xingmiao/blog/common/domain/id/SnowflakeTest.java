@@ -0,0 +1,43 @@
+package com.xingmiao.blog.common.domain.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeTest {
+
+    @Test
+    void idsIncreaseAcrossSequenceOverflowAndClockRollback() {
+        AtomicLong now = new AtomicLong(Instant.parse("2030-01-01T00:00:00Z").toEpochMilli());
+        Snowflake snowflake = new Snowflake(3, now::get);
+
+        long previous = snowflake.nextId();
+        for (int i = 0; i < 300; i++) {
+            long id = snowflake.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        now.addAndGet(-1000);
+        long afterRollback = snowflake.nextId();
+        assertTrue(afterRollback > previous);
+        assertEquals(3, (afterRollback >> 7) & Snowflake.MAX_NODE_ID);
+    }
+
+    @Test
+    void fitsInJavaScriptSafeIntegerUntil2090() {
+        long last = Instant.parse("2090-12-31T23:59:59Z").toEpochMilli();
+        Snowflake snowflake = new Snowflake(Snowflake.MAX_NODE_ID, () -> last);
+
+        long id = snowflake.nextId();
+        assertTrue(id <= (1L << 53) - 1);
+        assertEquals(Instant.ofEpochMilli(last), Snowflake.timestampOf(id));
+    }
+
+    @Test
+    void rejectsNodeOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new Snowflake(Snowflake.MAX_NODE_ID + 1));
+    }
+}
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import {
   Modal,
   Form,
@@ -21,7 +21,7 @@ import {
   BulbOutlined,
   EditOutlined
 } from '@ant-design/icons';
-import AIService, { AISummaryRequest, AIPolishRequest } from '@/services/ai';
+import AIService, { AISummaryRequest, AIPolishRequest, AIStreamProgress } from '@/services/ai';
 
 const { TextArea } = Input;
 const { Option } = Select;
@@ -47,6 +47,15 @@ const AIDialog: React.FC<AIDialogProps> = ({
   const [inputText, setInputText] = useState('');
   const [result, setResult] = useState('');
   const [loading, setLoading] = useState(false);
+  // 长文分段总结进度
+  const [progress, setProgress] = useState<AIStreamProgress | null>(null);
+  // 当前流式请求，关闭对话框时取消
+  const abortRef = useRef<AbortController | null>(null);
+
+  const cancelStream = () => {
+    abortRef.current?.abort();
+    abortRef.current = null;
+  };
 
   // 处理模式切换
   const handleModeChange = (newMode: 'summary' | 'polish') => {
@@ -57,46 +66,56 @@ const AIDialog: React.FC<AIDialogProps> = ({
   };
 
   // 处理AI请求（改为SSE流式）
-  const handleAIRequest = async () => {
+  const handleAIRequest = async (regenerate = false) => {
     if (!inputText.trim()) {
       message.warning('请输入要处理的内容');
       return;
     }
 
+    cancelStream();
+    const controller = new AbortController();
+    abortRef.current = controller;
     setLoading(true);
     setResult('');
+    setProgress(null);
 
     try {
       if (mode === 'summary') {
         // 总结模式
         const request: AISummaryRequest = {
           content: inputText,
-          lengthHint: form.getFieldValue('maxLength') || 200
+          lengthHint: form.getFieldValue('maxLength') || 200,
+          regenerate
         };
 
         // 使用SSE流式响应
         await aiService.streamAIResponse('/summarize/stream', request, (chunk) => {
           setResult(prev => prev + chunk);
-        });
+        }, controller.signal, setProgress);
         message.success('AI处理完成');
       } else {
         // 润色模式
         const request: AIPolishRequest = {
           content: inputText,
           tone: form.getFieldValue('tone') || 'neutral',
+          regenerate
         };
 
         // 使用SSE流式响应
         await aiService.streamAIResponse('/polish/stream', request, (chunk) => {
           setResult(prev => prev + chunk);
-        });
+        }, controller.signal);
         message.success('AI处理完成');
       }
     } catch (error) {
+      if (controller.signal.aborted) return;
       console.error('AI请求失败:', error);
       message.error('AI服务暂时不可用，请稍后重试');
     } finally {
-      setLoading(false);
+      if (abortRef.current === controller) {
+        abortRef.current = null;
+        setLoading(false);
+      }
     }
   };
 
@@ -129,10 +148,18 @@ const AIDialog: React.FC<AIDialogProps> = ({
 
   // 模态框关闭时重置状态
   const handleModalClose = () => {
+    cancelStream();
+    setLoading(false);
     handleReset();
     onClose();
   };
 
+  // 对话框隐藏或卸载时取消未完成的流式请求
+  useEffect(() => {
+    if (!visible) cancelStream();
+  }, [visible]);
+  useEffect(() => cancelStream, []);
+
   // 使用传入的content作为初始值
   useEffect(() => {
     if (initialContent && visible) {
@@ -252,7 +279,7 @@ const AIDialog: React.FC<AIDialogProps> = ({
                   <Button
                     type="primary"
                     icon={<SendOutlined />}
-                    onClick={handleAIRequest}
+                    onClick={() => handleAIRequest()}
                     loading={loading}
                     disabled={!inputText.trim()}
                   >
@@ -282,6 +309,13 @@ const AIDialog: React.FC<AIDialogProps> = ({
                   >
                     复制
                   </Button>
+                  <Button
+                    size="small"
+                    disabled={loading}
+                    onClick={() => handleAIRequest(true)}
+                  >
+                    重新生成
+                  </Button>
                   <Button
                     size="small"
                     type="primary"
@@ -306,7 +340,11 @@ const AIDialog: React.FC<AIDialogProps> = ({
                 <Spin size="large" />
                 <div style={{ marginTop: '16px' }}>
                   <Text type="secondary">
-                    AI正在处理中，请稍候...
+                    {progress?.phase === 'map'
+                      ? `文章较长，正在分段提炼要点 ${progress.done}/${progress.total}...`
+                      : progress?.phase === 'reduce'
+                        ? '正在汇总全文摘要...'
+                        : 'AI正在处理中，请稍候...'}
                   </Text>
                 </div>
               </div>
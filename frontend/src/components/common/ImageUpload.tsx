@@ -1,8 +1,10 @@
 import React, { useState } from 'react';
-import { Upload, Image, App } from 'antd';
-import { PlusOutlined, LoadingOutlined, DeleteOutlined } from '@ant-design/icons';
+import { Upload, Image, App, Button } from 'antd';
+import { PlusOutlined, LoadingOutlined, DeleteOutlined, PictureOutlined } from '@ant-design/icons';
 import type { UploadChangeParam } from 'antd/es/upload';
-import type { RcFile, UploadFile } from 'antd/es/upload/interface';
+import type { RcFile, UploadFile, UploadProps } from 'antd/es/upload/interface';
+import { MAX_CHUNKED_UPLOAD_SIZE_MB, MediaItem, uploadImageInChunks } from '@/services/upload';
+import MediaLibraryModal from './MediaLibraryModal';
 import './ImageUpload.css';
 
 interface ImageUploadProps {
@@ -14,6 +16,7 @@ const ImageUpload: React.FC<ImageUploadProps> = ({ value, onChange }) => {
   const { message } = App.useApp();
   const [loading, setLoading] = useState(false);
   const [imageUrl, setImageUrl] = useState<string>(value || '');
+  const [libraryOpen, setLibraryOpen] = useState(false);
 
   // 图片上传前验证
   const beforeUpload = (file: RcFile) => {
@@ -33,15 +36,23 @@ const ImageUpload: React.FC<ImageUploadProps> = ({ value, onChange }) => {
       return false;
     }
 
-    const isLt5M = file.size / 1024 / 1024 < 5;
-    if (!isLt5M) {
-      message.error('图片大小不能超过 5MB！');
+    if (file.size / 1024 / 1024 >= MAX_CHUNKED_UPLOAD_SIZE_MB) {
+      message.error(`图片大小不能超过 ${MAX_CHUNKED_UPLOAD_SIZE_MB}MB！`);
       return false;
     }
 
     return true;
   };
 
+  // 使用分片上传替代默认的 multipart 上传
+  const customRequest: UploadProps['customRequest'] = ({ file, onProgress, onSuccess, onError }) => {
+    uploadImageInChunks(file as File, {
+      onProgress: (percent) => onProgress?.({ percent }),
+    })
+      .then((result) => onSuccess?.(result))
+      .catch((error) => onError?.(error));
+  };
+
   // 处理上传变化
   const handleChange = (info: UploadChangeParam<UploadFile>) => {
     if (info.file.status === 'uploading') {
@@ -72,6 +83,13 @@ const ImageUpload: React.FC<ImageUploadProps> = ({ value, onChange }) => {
     message.success('已移除封面图片');
   };
 
+  // 从媒体库选择已上传的图片
+  const handleSelectFromLibrary = (item: MediaItem) => {
+    setImageUrl(item.url);
+    onChange?.(item.url);
+    setLibraryOpen(false);
+  };
+
   const uploadButton = (
     <div className="upload-button-content">
       {loading ? <LoadingOutlined /> : <PlusOutlined />}
@@ -88,7 +106,7 @@ const ImageUpload: React.FC<ImageUploadProps> = ({ value, onChange }) => {
         listType="picture-card"
         className="cover-image-uploader"
         showUploadList={false}
-        action="/api/upload/image"
+        customRequest={customRequest}
         beforeUpload={beforeUpload}
         onChange={handleChange}
       >
@@ -111,9 +129,17 @@ const ImageUpload: React.FC<ImageUploadProps> = ({ value, onChange }) => {
           uploadButton
         )}
       </Upload>
+      <Button icon={<PictureOutlined />} onClick={() => setLibraryOpen(true)} style={{ marginTop: 12 }}>
+        从媒体库选择
+      </Button>
+      <MediaLibraryModal
+        open={libraryOpen}
+        onCancel={() => setLibraryOpen(false)}
+        onSelect={handleSelectFromLibrary}
+      />
       <div className="upload-hint">
         <p>支持格式：JPG、PNG、WEBP、GIF</p>
-        <p>文件大小：最大 5MB</p>
+        <p>文件大小：最大 {MAX_CHUNKED_UPLOAD_SIZE_MB}MB</p>
         <p>建议尺寸：1200x630 像素（适合社交媒体分享）</p>
       </div>
     </div>
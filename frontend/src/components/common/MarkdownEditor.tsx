@@ -10,6 +10,7 @@ import { createLowlight, common } from 'lowlight';
 import { App } from 'antd';
 import ResizableImageNodeView from '@/components/common/ResizableImageNodeView';
 import { DEFAULT_IMAGE_SIZE, encodeImageAlt } from '@/utils/imageSize';
+import { MAX_CHUNKED_UPLOAD_SIZE_MB, uploadImageInChunks } from '@/services/upload';
 import './MarkdownEditor.css';
 
 // Markdown 编辑器组件的属性类型定义
@@ -136,29 +137,16 @@ const MarkdownEditor: React.FC<MarkdownEditorProps> = ({
       return;
     }
 
-    // 验证文件大小（5MB）
-    const isLt5M = file.size / 1024 / 1024 < 5;
-    if (!isLt5M) {
-      message.error('图片大小不能超过 5MB！');
+    // 验证文件大小（分片上传，最大 50MB）
+    if (file.size / 1024 / 1024 >= MAX_CHUNKED_UPLOAD_SIZE_MB) {
+      message.error(`图片大小不能超过 ${MAX_CHUNKED_UPLOAD_SIZE_MB}MB！`);
       return;
     }
 
     setUploading(true);
 
     try {
-      const formData = new FormData();
-      formData.append('file', file);
-
-      const response = await fetch('/api/upload/image', {
-        method: 'POST',
-        body: formData,
-      });
-
-      if (!response.ok) {
-        throw new Error('上传失败');
-      }
-
-      const data = await response.json();
+      const data = await uploadImageInChunks(file);
       if (data && data.url) {
         const fullUrl = data.url;
         
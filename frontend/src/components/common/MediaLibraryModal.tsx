@@ -0,0 +1,103 @@
+import React, { useCallback, useEffect, useState } from 'react';
+import { Modal, Input, Button, Empty, Spin, Checkbox, App } from 'antd';
+import { fetchMediaLibrary, MediaItem } from '@/services/upload';
+import './MediaLibraryModal.css';
+
+interface MediaLibraryModalProps {
+  open: boolean;
+  onCancel: () => void;
+  onSelect: (item: MediaItem) => void;
+}
+
+const PAGE_SIZE = 40;
+
+const formatSize = (size: number) =>
+  size >= 1024 * 1024 ? `${(size / 1024 / 1024).toFixed(1)}MB` : `${Math.max(1, Math.round(size / 1024))}KB`;
+
+const MediaLibraryModal: React.FC<MediaLibraryModalProps> = ({ open, onCancel, onSelect }) => {
+  const { message } = App.useApp();
+  const [items, setItems] = useState<MediaItem[]>([]);
+  const [cursor, setCursor] = useState<number | null>(null);
+  const [hasMore, setHasMore] = useState(false);
+  const [loading, setLoading] = useState(false);
+  const [keyword, setKeyword] = useState('');
+  const [unused, setUnused] = useState(false);
+
+  // reset 为 true 时从第一页重新加载，否则按游标追加下一页
+  const load = useCallback(
+    async (reset: boolean) => {
+      setLoading(true);
+      try {
+        const page = await fetchMediaLibrary({
+          cursor: reset ? null : cursor,
+          size: PAGE_SIZE,
+          keyword: keyword.trim() || undefined,
+          unused,
+        });
+        setItems((prev) => (reset ? page.items : [...prev, ...page.items]));
+        setCursor(page.nextCursor ?? null);
+        setHasMore(page.hasMore);
+      } catch (error) {
+        message.error(error instanceof Error ? error.message : '加载媒体库失败');
+      } finally {
+        setLoading(false);
+      }
+    },
+    [cursor, keyword, unused, message]
+  );
+
+  useEffect(() => {
+    if (open) {
+      load(true);
+    }
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [open, unused]);
+
+  return (
+    <Modal title="从媒体库选择" open={open} onCancel={onCancel} footer={null} width={880} destroyOnClose>
+      <div className="media-library-toolbar">
+        <Input.Search
+          placeholder="按文件名、路径或哈希搜索"
+          allowClear
+          value={keyword}
+          onChange={(e) => setKeyword(e.target.value)}
+          onSearch={() => load(true)}
+        />
+        <Checkbox checked={unused} onChange={(e) => setUnused(e.target.checked)}>
+          只看未引用
+        </Checkbox>
+      </div>
+      <Spin spinning={loading && items.length === 0}>
+        {items.length === 0 && !loading ? (
+          <Empty description="暂无图片" />
+        ) : (
+          <div className="media-library-grid">
+            {items.map((item) => (
+              <div
+                key={item.id}
+                className="media-library-item"
+                title={item.originalName || item.storageKey}
+                onClick={() => onSelect(item)}
+              >
+                <img src={item.url} alt={item.originalName || ''} loading="lazy" />
+                <div className="media-library-meta">
+                  {item.width && item.height ? `${item.width}×${item.height} · ` : ''}
+                  {formatSize(item.size)}
+                </div>
+              </div>
+            ))}
+          </div>
+        )}
+      </Spin>
+      {hasMore && (
+        <div className="media-library-more">
+          <Button loading={loading} onClick={() => load(false)}>
+            加载更多
+          </Button>
+        </div>
+      )}
+    </Modal>
+  );
+};
+
+export default MediaLibraryModal;
@@ -225,6 +225,29 @@ const PostDetail: React.FC = () => {
     };
   }, []);
 
+  // 分享预览图：优先使用封面，否则使用服务端生成的分享卡片
+  useEffect(() => {
+    if (!currentPost?.slug) {
+      return;
+    }
+    const image = currentPost.coverImageUrl
+      || `/api/og/posts/${encodeURIComponent(currentPost.slug)}.png`;
+    const absolute = new URL(image, window.location.origin).toString();
+    let meta = document.querySelector<HTMLMetaElement>('meta[property="og:image"]');
+    const created = !meta;
+    if (!meta) {
+      meta = document.createElement('meta');
+      meta.setAttribute('property', 'og:image');
+      document.head.appendChild(meta);
+    }
+    meta.setAttribute('content', absolute);
+    return () => {
+      if (created) {
+        meta?.remove();
+      }
+    };
+  }, [currentPost?.slug, currentPost?.coverImageUrl]);
+
   useEffect(() => {
     if (!contentRef.current || currentPost?.contentType !== 'HTML') {
       return;
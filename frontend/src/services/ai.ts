@@ -4,12 +4,22 @@ import axios, { AxiosInstance } from 'axios';
 export interface AISummaryRequest {
   content: string;
   lengthHint?: number;
+  // 忽略服务端缓存的结果，重新生成
+  regenerate?: boolean;
+}
+
+// 长文分段总结的进度：map 为分段提炼，reduce 为汇总输出
+export interface AIStreamProgress {
+  phase: 'map' | 'reduce';
+  done: number;
+  total: number;
 }
 
 export interface AIPolishRequest {
   content: string;
   tone?: string;
   style?: string;
+  regenerate?: boolean;
 }
 
 export interface AIResponse {
@@ -82,7 +92,14 @@ class AIService {
   }
 
   // 流式响应处理 - 使用Server-Sent Events
-  async streamAIResponse(endpoint: string, request: any, onChunk: (chunk: string) => void): Promise<void> {
+  // 传入 signal 后可中途取消：连接断开后服务端会同时中止上游生成
+  async streamAIResponse(
+    endpoint: string,
+    request: any,
+    onChunk: (chunk: string) => void,
+    signal?: AbortSignal,
+    onProgress?: (progress: AIStreamProgress) => void
+  ): Promise<void> {
     try {
       const path = (() => {
         if (endpoint.startsWith('http')) return endpoint;
@@ -97,11 +114,20 @@ class AIService {
           'Content-Type': 'application/json; charset=utf-8',
           'Accept': 'text/event-stream'
         },
-        body: JSON.stringify(request)
+        body: JSON.stringify(request),
+        signal
       });
 
       if (!response.ok) {
-        throw new Error(`HTTP error! status: ${response.status}`);
+        // 429：当前已有生成在进行；503：服务繁忙排队已满
+        let message = `HTTP error! status: ${response.status}`;
+        try {
+          const data = await response.json();
+          if (data?.error) message = data.error;
+        } catch {
+          // 非 JSON 响应体
+        }
+        throw new Error(message);
       }
 
       const reader = response.body?.getReader();
@@ -136,6 +162,14 @@ class AIService {
             console.error('SSE错误事件:', data);
             throw new Error(data);
           }
+          if (eventType === 'progress') {
+            try {
+              onProgress?.(JSON.parse(data));
+            } catch {
+              // 忽略无法解析的进度
+            }
+            return;
+          }
           onChunk(data);
         };
 
@@ -0,0 +1,143 @@
+// 分片上传：init -> 并行 PUT 分片 -> complete，支持断线续传
+
+export interface UploadResult {
+  url: string;
+  fileName: string;
+  originalName: string;
+  size: number;
+}
+
+interface ChunkedUploadStatus {
+  uploadId: string;
+  chunkSize: number;
+  totalChunks: number;
+  receivedChunks: number;
+  missingChunks: number[];
+  completed: boolean;
+}
+
+export interface ChunkedUploadOptions {
+  // 并行上传的分片数
+  concurrency?: number;
+  // 单个分片失败后的重试次数
+  retries?: number;
+  onProgress?: (percent: number) => void;
+}
+
+export const MAX_CHUNKED_UPLOAD_SIZE_MB = 50;
+
+const readError = async (response: Response, fallback: string) => {
+  try {
+    const data = await response.json();
+    return data?.error || fallback;
+  } catch {
+    return fallback;
+  }
+};
+
+const putChunk = async (uploadId: string, file: File, index: number, chunkSize: number, retries: number) => {
+  const offset = index * chunkSize;
+  const blob = file.slice(offset, Math.min(offset + chunkSize, file.size));
+  let lastError: unknown;
+  for (let attempt = 0; attempt <= retries; attempt++) {
+    try {
+      const response = await fetch(`/api/upload/chunked/${uploadId}?offset=${offset}`, {
+        method: 'PUT',
+        headers: { 'Content-Type': 'application/octet-stream' },
+        body: blob,
+      });
+      if (response.ok) return;
+      // 4xx 为校验失败，重试无意义
+      if (response.status >= 400 && response.status < 500) {
+        throw new Error(await readError(response, '分片上传失败'));
+      }
+      lastError = new Error(await readError(response, '分片上传失败'));
+    } catch (error) {
+      lastError = error;
+    }
+  }
+  throw lastError instanceof Error ? lastError : new Error('分片上传失败');
+};
+
+export const uploadImageInChunks = async (file: File, options: ChunkedUploadOptions = {}): Promise<UploadResult> => {
+  const { concurrency = 3, retries = 2, onProgress } = options;
+
+  const initResponse = await fetch('/api/upload/chunked/init', {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({
+      fileName: file.name,
+      size: file.size,
+      contentType: file.type,
+      // 同一文件再次上传时服务端会返回已有会话，只补传缺失分片
+      fingerprint: `${file.name}-${file.size}-${file.lastModified}`,
+    }),
+  });
+  if (!initResponse.ok) {
+    throw new Error(await readError(initResponse, '上传初始化失败'));
+  }
+  const status: ChunkedUploadStatus = await initResponse.json();
+
+  const pending = [...status.missingChunks];
+  let done = status.totalChunks - pending.length;
+  onProgress?.(Math.round((done / status.totalChunks) * 100));
+
+  const worker = async () => {
+    while (pending.length > 0) {
+      const index = pending.shift()!;
+      await putChunk(status.uploadId, file, index, status.chunkSize, retries);
+      done += 1;
+      onProgress?.(Math.round((done / status.totalChunks) * 100));
+    }
+  };
+  await Promise.all(Array.from({ length: Math.min(concurrency, pending.length) }, worker));
+
+  const completeResponse = await fetch(`/api/upload/chunked/${status.uploadId}/complete`, { method: 'POST' });
+  if (!completeResponse.ok) {
+    throw new Error(await readError(completeResponse, '上传失败'));
+  }
+  return completeResponse.json();
+};
+
+export interface MediaItem {
+  id: number;
+  url: string;
+  storageKey: string;
+  originalName?: string;
+  contentHash?: string;
+  size: number;
+  width?: number;
+  height?: number;
+  mimeType?: string;
+  referenceCount: number;
+  createdAt: string;
+}
+
+export interface MediaLibraryPage {
+  items: MediaItem[];
+  nextCursor?: number | null;
+  hasMore: boolean;
+}
+
+export interface MediaLibraryQuery {
+  cursor?: number | null;
+  size?: number;
+  keyword?: string;
+  mimeType?: string;
+  unused?: boolean;
+}
+
+// 媒体库游标分页：下一页传入上一页返回的 nextCursor
+export const fetchMediaLibrary = async (query: MediaLibraryQuery = {}): Promise<MediaLibraryPage> => {
+  const params = new URLSearchParams();
+  if (query.cursor != null) params.set('cursor', String(query.cursor));
+  if (query.size) params.set('size', String(query.size));
+  if (query.keyword) params.set('keyword', query.keyword);
+  if (query.mimeType) params.set('mimeType', query.mimeType);
+  if (query.unused) params.set('unused', 'true');
+  const response = await fetch(`/api/upload/library?${params.toString()}`);
+  if (!response.ok) {
+    throw new Error(await readError(response, '加载媒体库失败'));
+  }
+  return response.json();
+};
@@ -96,6 +96,30 @@ insert  into `likes`(`id`,`target_type`,`target_id`,`ip_address`,`user_agent`,`c
 (2,'POST',2,'0:0:0:0:0:0:0:1','Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/140.0.0.0 Safari/537.36 Edg/140.0.0.0','2025-09-15 16:08:41'),
 (4,'POST',10,'0:0:0:0:0:0:0:1','Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/140.0.0.0 Safari/537.36 Edg/140.0.0.0','2025-09-24 15:44:36');
 
+/*Table structure for table `media` */
+
+DROP TABLE IF EXISTS `media`;
+
+CREATE TABLE `media` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `storage_key` varchar(255) NOT NULL,
+  `original_name` varchar(255) DEFAULT NULL,
+  `content_hash` varchar(64) DEFAULT NULL,
+  `size` bigint NOT NULL,
+  `width` int DEFAULT NULL,
+  `height` int DEFAULT NULL,
+  `mime_type` varchar(50) DEFAULT NULL,
+  `reference_count` int NOT NULL DEFAULT '0',
+  `created_at` datetime NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_media_storage_key` (`storage_key`),
+  KEY `idx_media_content_hash` (`content_hash`),
+  KEY `idx_media_mime_type` (`mime_type`,`id`),
+  KEY `idx_media_reference_count` (`reference_count`,`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+/*Data for the table `media` */
+
 /*Table structure for table `operation_logs` */
 
 DROP TABLE IF EXISTS `operation_logs`;